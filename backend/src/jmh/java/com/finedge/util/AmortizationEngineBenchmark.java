@@ -0,0 +1,80 @@
+package com.finedge.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AmortizationEngine throughput: a single EMI quote as a loan application makes it, and schedule generation
+ * for a book of 100,000 loans with mixed principals, rates and tenures. The loan book is generated from a fixed
+ * seed, so runs are comparable; annuity factors are cached by the first warmup iteration.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AmortizationEngineBenchmark {
+    
+    private static final int LOANS = 100_000;
+    
+    @State(Scope.Benchmark)
+    public static class Quote {
+        BigDecimal principal = new BigDecimal("250000.00");
+        BigDecimal annualRatePercent = new BigDecimal("8.75");
+        int tenureMonths = 240;
+    }
+    
+    @State(Scope.Benchmark)
+    public static class LoanBook {
+        long[] principals = new long[LOANS];
+        int[] ratesBps = new int[LOANS];
+        int[] tenures = new int[LOANS];
+        
+        @Setup(Level.Trial)
+        public void generate() {
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < LOANS; i++) {
+                principals[i] = random.nextLong(1_000_00L, 500_000_00L);
+                // 5.00% to 24.00% in quarter points, 6 months to 30 years
+                ratesBps[i] = 500 + 25 * random.nextInt(77);
+                tenures[i] = random.nextInt(6, 361);
+            }
+        }
+    }
+    
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public BigDecimal singleQuote(Quote quote) {
+        return AmortizationEngine.calculateEMI(quote.principal, quote.annualRatePercent, quote.tenureMonths);
+    }
+    
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public AmortizationEngine.Schedule singleSchedule(Quote quote) {
+        return AmortizationEngine.schedule(quote.principal, quote.annualRatePercent, quote.tenureMonths);
+    }
+    
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long bulkSchedules100k(LoanBook book) {
+        long totalPayable = 0;
+        for (int i = 0; i < LOANS; i++) {
+            totalPayable += AmortizationEngine.schedule(book.principals[i], book.ratesBps[i], book.tenures[i]).totalPayable();
+        }
+        return totalPayable;
+    }
+}
@@ -0,0 +1,50 @@
+package com.finedge.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates indexes that cannot be expressed with JPA @Index annotations
+ * (partial and expression indexes). Runs once the schema has been updated.
+ */
+@Component
+public class DatabaseIndexInitializer {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        // Only unbalanced rows are indexed, so the validation check stays proportional to the number of bad entries
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_journal_entries_unbalanced " +
+            "ON journal_entries (id) WHERE is_balanced = false");
+        
+        // Unpaid installments not yet charged a late fee, scanned in id order by the overdue processor
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_emi_schedules_penalty_pending " +
+            "ON emi_schedules (id) WHERE is_paid = false AND penalty_assessed_at IS NULL");
+        
+        // Unpaid installments by due date, claimed by the EMI auto-debit run
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_emi_schedules_unpaid_due " +
+            "ON emi_schedules (due_date) WHERE is_paid = false");
+        
+        // Approved applications waiting for the disbursement pipeline, claimed oldest first
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_loan_applications_disbursement_pending " +
+            "ON loan_applications (disbursement_requested_at) WHERE disbursement_status = 'PENDING'");
+        
+        // Bill payments waiting for settlement, claimed by payment date
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_bill_payments_pending " +
+            "ON bill_payments (payment_date) WHERE status = 'PENDING'");
+        
+        // Applications awaiting review in banker work queue order
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_loan_applications_review_queue " +
+            "ON loan_applications (credit_assessment_score DESC NULLS LAST, submitted_at) " +
+            "WHERE status IN ('SUBMITTED', 'UNDER_REVIEW')");
+        
+        // Unsent bill reminders, loaded into the reminder timing wheel by fire time
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_bill_reminders_pending " +
+            "ON bill_reminders (remind_at) WHERE enabled = true AND reminded_at IS NULL");
+    }
+}
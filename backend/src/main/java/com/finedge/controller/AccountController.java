@@ -3,14 +3,19 @@ package com.finedge.controller;
 import com.finedge.dto.AccountRequest;
 import com.finedge.model.Account;
 import com.finedge.service.AccountService;
+import com.finedge.service.BalanceSnapshotService;
+import com.finedge.service.EndOfDayCloseService;
+import com.finedge.service.InterestAccrualService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -21,6 +26,15 @@ public class AccountController {
     @Autowired
     private AccountService accountService;
     
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+    
+    @Autowired
+    private EndOfDayCloseService endOfDayCloseService;
+    
+    @Autowired
+    private InterestAccrualService interestAccrualService;
+    
     @GetMapping
     public ResponseEntity<Map<String, List<Account>>> getMyAccounts() {
         List<Account> accounts = accountService.getMyAccounts();
@@ -34,12 +48,40 @@ public class AccountController {
         return ResponseEntity.ok(Map.of("accounts", accounts));
     }
     
+    @PostMapping("/interest/accrue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> accrueInterest(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(interestAccrualService.runAccrual(date != null ? date : LocalDate.now().minusDays(1)));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Map<String, Account>> getAccount(@PathVariable String id) {
         Account account = accountService.getAccount(id);
         return ResponseEntity.ok(Map.of("account", account));
     }
     
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<Map<String, Object>> getAccountBalance(@PathVariable String id,
+                                                                 @RequestParam(required = false) String asOf) {
+        // Ownership check
+        accountService.getAccount(id);
+        return ResponseEntity.ok(balanceSnapshotService.getAccountBalanceAsOf(id, BalanceSnapshotService.parseAsOf(asOf)));
+    }
+    
+    @GetMapping("/{id}/statement")
+    public ResponseEntity<Map<String, Object>> getAccountStatement(
+            @PathVariable String id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        // Ownership check
+        accountService.getAccount(id);
+        return ResponseEntity.ok(Map.of(
+            "accountId", id,
+            "days", endOfDayCloseService.getAccountDailyActivity(id, from, to)
+        ));
+    }
+    
     @PostMapping
     public ResponseEntity<Map<String, Account>> createAccount(@Valid @RequestBody AccountRequest request,
                                                          HttpServletRequest httpRequest) {
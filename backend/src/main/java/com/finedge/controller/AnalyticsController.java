@@ -2,12 +2,15 @@ package com.finedge.controller;
 
 import com.finedge.service.AnalyticsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.Map;
 
 @RestController
@@ -23,6 +26,31 @@ public class AnalyticsController {
         return ResponseEntity.ok(analyticsService.getCustomerAnalytics());
     }
     
+    @GetMapping("/customer/timeseries")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> getCustomerTimeSeries(
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(analyticsService.getCustomerTimeSeries(granularity, from, to));
+    }
+    
+    @GetMapping("/customer/spending")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> getCustomerSpending(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        return ResponseEntity.ok(analyticsService.getCustomerSpending(from, to));
+    }
+    
+    @GetMapping("/customer/forecast")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> getCustomerForecast(
+            @RequestParam(required = false) Integer days,
+            @RequestParam(required = false) String accountId) {
+        return ResponseEntity.ok(analyticsService.getCustomerForecast(days, accountId));
+    }
+    
     @GetMapping("/banker")
     @PreAuthorize("hasAnyRole('BANKER', 'ADMIN')")
     public ResponseEntity<Map<String, Object>> getBankerAnalytics() {
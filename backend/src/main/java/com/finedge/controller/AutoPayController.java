@@ -2,11 +2,13 @@ package com.finedge.controller;
 
 import com.finedge.dto.AutoPayRequest;
 import com.finedge.model.AutoPay;
+import com.finedge.service.AutoPayExecutionService;
 import com.finedge.service.AutoPayService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -19,6 +21,9 @@ public class AutoPayController {
     @Autowired
     private AutoPayService autoPayService;
     
+    @Autowired
+    private AutoPayExecutionService autoPayExecutionService;
+    
     @GetMapping
     public ResponseEntity<Map<String, List<AutoPay>>> getMyAutoPays() {
         List<AutoPay> autoPays = autoPayService.getMyAutoPays();
@@ -50,5 +55,10 @@ public class AutoPayController {
         autoPayService.deleteAutoPay(id);
         return ResponseEntity.ok(Map.of("message", "Auto-pay deleted successfully"));
     }
+    
+    @PostMapping("/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> runAutoPays() {
+        return ResponseEntity.ok(autoPayExecutionService.runExecution());
+    }
 }
-
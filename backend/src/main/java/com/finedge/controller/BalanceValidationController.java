@@ -1,11 +1,20 @@
 package com.finedge.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finedge.service.BalanceSnapshotService;
 import com.finedge.service.BalanceValidationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 @RestController
@@ -15,13 +24,50 @@ public class BalanceValidationController {
     @Autowired
     private BalanceValidationService balanceValidationService;
     
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @GetMapping("/journal-entries")
     @PreAuthorize("hasRole('ADMIN') or hasRole('BANKER')")
-    public ResponseEntity<Map<String, Object>> validateJournalEntries() {
-        Map<String, Object> result = balanceValidationService.validateJournalEntries();
+    public ResponseEntity<Map<String, Object>> validateJournalEntries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "100") Integer limit) {
+        Map<String, Object> result = balanceValidationService.validateJournalEntries(cursor, limit);
         return ResponseEntity.ok(result);
     }
     
+    @GetMapping("/journal-entries/count")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('BANKER')")
+    public ResponseEntity<Map<String, Object>> countUnbalancedJournalEntries() {
+        return ResponseEntity.ok(balanceValidationService.countUnbalancedJournalEntries());
+    }
+    
+    /**
+     * Streams all unbalanced journal entries as newline-delimited JSON
+     */
+    @GetMapping(value = "/journal-entries/stream", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('BANKER')")
+    public ResponseEntity<StreamingResponseBody> streamUnbalancedJournalEntries() {
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            balanceValidationService.streamUnbalancedJournalEntries(entry -> {
+                try {
+                    writer.write(objectMapper.writeValueAsString(entry));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+    
     @GetMapping("/journal-entries/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('BANKER')")
     public ResponseEntity<Map<String, Object>> validateJournalEntry(@PathVariable String id) {
@@ -49,5 +95,11 @@ public class BalanceValidationController {
         balanceValidationService.reconcileAccountBalance(accountId);
         return ResponseEntity.ok(Map.of("message", "Account balance reconciled successfully", "accountId", accountId));
     }
+    
+    @PostMapping("/snapshots/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildAccountSnapshots() {
+        return ResponseEntity.ok(Map.of("updated", balanceSnapshotService.rebuildAccountSnapshots()));
+    }
 }
 
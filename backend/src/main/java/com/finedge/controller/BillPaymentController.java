@@ -3,10 +3,12 @@ package com.finedge.controller;
 import com.finedge.dto.BillPaymentRequest;
 import com.finedge.model.BillPayment;
 import com.finedge.service.BillPaymentService;
+import com.finedge.service.BillSettlementService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -19,6 +21,9 @@ public class BillPaymentController {
     @Autowired
     private BillPaymentService paymentService;
     
+    @Autowired
+    private BillSettlementService billSettlementService;
+    
     @GetMapping
     public ResponseEntity<Map<String, List<BillPayment>>> getMyPayments() {
         List<BillPayment> payments = paymentService.getMyPayments();
@@ -30,5 +35,10 @@ public class BillPaymentController {
         BillPayment payment = paymentService.createPayment(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("payment", payment));
     }
+    
+    @PostMapping("/settle")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> settlePayments() {
+        return ResponseEntity.ok(billSettlementService.runSettlement());
+    }
 }
-
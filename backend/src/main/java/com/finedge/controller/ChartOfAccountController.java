@@ -0,0 +1,36 @@
+package com.finedge.controller;
+
+import com.finedge.model.ChartOfAccount;
+import com.finedge.service.BalanceSnapshotService;
+import com.finedge.service.ChartOfAccountService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/chart-of-accounts")
+public class ChartOfAccountController {
+    
+    @Autowired
+    private ChartOfAccountService chartOfAccountService;
+    
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+    
+    @GetMapping
+    @PreAuthorize("hasAnyRole('BANKER', 'ADMIN')")
+    public ResponseEntity<Map<String, List<ChartOfAccount>>> getChartOfAccounts() {
+        return ResponseEntity.ok(Map.of("accounts", chartOfAccountService.getAllActiveAccounts()));
+    }
+    
+    @GetMapping("/{code}/balance")
+    @PreAuthorize("hasAnyRole('BANKER', 'ADMIN')")
+    public ResponseEntity<Map<String, Object>> getChartAccountBalance(@PathVariable String code,
+                                                                      @RequestParam(required = false) String asOf) {
+        return ResponseEntity.ok(balanceSnapshotService.getChartAccountBalanceAsOf(code, BalanceSnapshotService.parseAsOf(asOf)));
+    }
+}
@@ -0,0 +1,40 @@
+package com.finedge.controller;
+
+import com.finedge.model.BusinessDayClose;
+import com.finedge.service.EndOfDayCloseService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/eod-close")
+public class EndOfDayCloseController {
+    
+    @Autowired
+    private EndOfDayCloseService endOfDayCloseService;
+    
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getCloses(
+            @RequestParam(required = false, defaultValue = "30") Integer limit) {
+        List<BusinessDayClose> closes = endOfDayCloseService.getRecentCloses(limit);
+        LocalDate closedThrough = endOfDayCloseService.getClosedThrough();
+        return ResponseEntity.ok(Map.of(
+            "closedThrough", closedThrough != null ? closedThrough.toString() : "none",
+            "closes", closes
+        ));
+    }
+    
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, List<BusinessDayClose>>> closeBusinessDay(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(Map.of("closes", endOfDayCloseService.closeBusinessDay(date)));
+    }
+}
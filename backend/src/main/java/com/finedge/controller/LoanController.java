@@ -1,22 +1,36 @@
 package com.finedge.controller;
 
 import com.finedge.dto.LoanApplicationRequest;
+import com.finedge.dto.LoanPrepaymentRequest;
 import com.finedge.dto.LoanReviewRequest;
 import com.finedge.model.EMISchedule;
 import com.finedge.model.Loan;
 import com.finedge.model.LoanApplication;
 import com.finedge.model.LoanApproval;
+import com.finedge.model.enums.LoanType;
 import com.finedge.repository.EMIScheduleRepository;
 import com.finedge.repository.LoanApprovalRepository;
+import com.finedge.service.CollectionsCalendarService;
+import com.finedge.service.CreditRescoringService;
+import com.finedge.service.EMIAutoDebitService;
+import com.finedge.service.LoanAgingService;
+import com.finedge.service.LoanDisbursementService;
+import com.finedge.service.LoanPrepaymentService;
+import com.finedge.service.LoanQuoteService;
+import com.finedge.service.LoanReviewQueueService;
 import com.finedge.service.LoanService;
+import com.finedge.service.OverdueEMIService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -33,12 +47,99 @@ public class LoanController {
     @Autowired
     private EMIScheduleRepository emiScheduleRepository;
     
+    @Autowired
+    private LoanAgingService loanAgingService;
+    
+    @Autowired
+    private CollectionsCalendarService collectionsCalendarService;
+    
+    @Autowired
+    private OverdueEMIService overdueEMIService;
+    
+    @Autowired
+    private EMIAutoDebitService emiAutoDebitService;
+    
+    @Autowired
+    private LoanPrepaymentService loanPrepaymentService;
+    
+    @Autowired
+    private LoanDisbursementService loanDisbursementService;
+    
+    @Autowired
+    private CreditRescoringService creditRescoringService;
+    
+    @Autowired
+    private LoanReviewQueueService loanReviewQueueService;
+    
+    @Autowired
+    private LoanQuoteService loanQuoteService;
+    
     @GetMapping("/loans")
     public ResponseEntity<Map<String, List<Loan>>> getMyLoans() {
         List<Loan> loans = loanService.getMyLoans();
         return ResponseEntity.ok(Map.of("loans", loans));
     }
     
+    @GetMapping("/loans/aging")
+    @PreAuthorize("hasAnyRole('BANKER', 'ADMIN')")
+    public ResponseEntity<Map<String, Object>> getLoanAging(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(loanAgingService.getReport(date));
+    }
+    
+    @PostMapping("/loans/aging")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> recomputeLoanAging(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate asOfDate = date != null ? date : LocalDate.now();
+        loanAgingService.computeSnapshot(asOfDate);
+        return ResponseEntity.ok(loanAgingService.getReport(asOfDate));
+    }
+    
+    @GetMapping("/loans/collections-calendar")
+    @PreAuthorize("hasAnyRole('BANKER', 'ADMIN')")
+    public ResponseEntity<Map<String, Object>> getCollectionsCalendar(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) LoanType loanType,
+            @RequestParam(defaultValue = "day") String granularity) {
+        return ResponseEntity.ok(collectionsCalendarService.getCalendar(from, to, loanType, granularity));
+    }
+    
+    @PostMapping("/loans/overdue/process")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> processOverdueEMIs(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(overdueEMIService.processOverdue(date != null ? date : LocalDate.now()));
+    }
+    
+    @PostMapping("/loans/emi/auto-debit")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> runEMIAutoDebit() {
+        return ResponseEntity.ok(emiAutoDebitService.runCollection());
+    }
+    
+    @GetMapping("/loans/quote")
+    public ResponseEntity<Map<String, Object>> getLoanQuote(
+            @RequestParam BigDecimal amount,
+            @RequestParam BigDecimal interestRate,
+            @RequestParam int tenureMonths,
+            @RequestParam(defaultValue = "false") boolean schedule) {
+        return ResponseEntity.ok(loanQuoteService.quote(amount, interestRate, tenureMonths, schedule));
+    }
+    
+    @GetMapping("/loans/pre-approved-offer")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> getPreApprovedOffer() {
+        return ResponseEntity.ok(loanService.getMyPreApprovedOffer());
+    }
+    
+    @PostMapping("/loans/credit/rescore")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> runCreditRescoring() {
+        return ResponseEntity.ok(creditRescoringService.runRescoring());
+    }
+    
     @GetMapping("/loans/{id}")
     public ResponseEntity<Map<String, Object>> getLoan(@PathVariable String id) {
         Loan loan = loanService.getLoan(id);
@@ -59,6 +160,19 @@ public class LoanController {
         return ResponseEntity.ok(Map.of("applications", applications));
     }
     
+    @PostMapping("/loan-applications/queue/claim")
+    @PreAuthorize("hasAnyRole('BANKER', 'ADMIN')")
+    public ResponseEntity<Map<String, Object>> claimLoanApplications(@RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(loanReviewQueueService.claimNext(limit));
+    }
+    
+    @PostMapping("/loan-applications/{id}/lease/release")
+    @PreAuthorize("hasAnyRole('BANKER', 'ADMIN')")
+    public ResponseEntity<Map<String, String>> releaseLoanApplicationLease(@PathVariable String id) {
+        loanReviewQueueService.releaseLease(id);
+        return ResponseEntity.ok(Map.of("message", "Lease released"));
+    }
+    
     @GetMapping("/loan-applications/{id}")
     public ResponseEntity<Map<String, Object>> getLoanApplication(@PathVariable String id) {
         LoanApplication application = loanService.getLoanApplication(id);
@@ -84,6 +198,12 @@ public class LoanController {
         return ResponseEntity.ok(Map.of("application", application));
     }
     
+    @PostMapping("/loan-applications/{id}/disbursement/retry")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, LoanApplication>> retryDisbursement(@PathVariable String id) {
+        return ResponseEntity.ok(Map.of("application", loanDisbursementService.retryDisbursement(id)));
+    }
+    
     @PostMapping("/loans/{loanId}/emi/{emiId}/pay")
     public ResponseEntity<Map<String, String>> payEMI(@PathVariable String loanId,
                                                       @PathVariable String emiId,
@@ -92,5 +212,12 @@ public class LoanController {
         return ResponseEntity.ok(Map.of("message", "EMI paid successfully"));
     }
     
+    @PostMapping("/loans/{loanId}/prepay")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public ResponseEntity<Map<String, Object>> prepayLoan(@PathVariable String loanId,
+                                                          @Valid @RequestBody LoanPrepaymentRequest request) {
+        return ResponseEntity.ok(loanPrepaymentService.prepay(loanId, request));
+    }
+    
 }
 
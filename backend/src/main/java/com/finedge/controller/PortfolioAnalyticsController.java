@@ -0,0 +1,52 @@
+package com.finedge.controller;
+
+import com.finedge.service.PortfolioAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics/admin/portfolio")
+public class PortfolioAnalyticsController {
+    
+    @Autowired
+    private PortfolioAnalyticsService portfolioAnalyticsService;
+    
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(portfolioAnalyticsService.getStatus());
+    }
+    
+    @GetMapping("/deposits-by-account-type")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getDepositsByAccountType(
+            @RequestParam(required = false) String status) {
+        return ResponseEntity.ok(portfolioAnalyticsService.getDepositsByAccountType(status));
+    }
+    
+    @GetMapping("/loan-book")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getLoanBook(
+            @RequestParam(required = false) String loanType,
+            @RequestParam(required = false) String status) {
+        return ResponseEntity.ok(portfolioAnalyticsService.getLoanBook(loanType, status));
+    }
+    
+    @GetMapping("/balance-by-credit-band")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getBalanceByCreditBand(
+            @RequestParam(required = false) String status) {
+        return ResponseEntity.ok(portfolioAnalyticsService.getBalanceByCreditBand(status));
+    }
+    
+    @PostMapping("/refresh")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> refresh() {
+        portfolioAnalyticsService.refresh();
+        return ResponseEntity.ok(portfolioAnalyticsService.getStatus());
+    }
+}
@@ -0,0 +1,26 @@
+package com.finedge.dto;
+
+import com.finedge.model.enums.PrepaymentMode;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanPrepaymentRequest {
+    @NotBlank(message = "Account ID is required")
+    private String accountId;
+    
+    @NotNull(message = "Amount is required")
+    @Positive(message = "Amount must be positive")
+    private BigDecimal amount;
+    
+    @NotNull(message = "Mode is required (REDUCE_EMI or REDUCE_TENURE)")
+    private PrepaymentMode mode;
+}
@@ -10,11 +10,15 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "accounts")
+@Table(name = "accounts", indexes = {
+    @Index(name = "idx_accounts_customer", columnList = "customer_id"),
+    @Index(name = "idx_accounts_updated", columnList = "updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -50,6 +54,13 @@ public class Account {
     @Column(name = "interest_rate", precision = 5, scale = 2)
     private BigDecimal interestRate = BigDecimal.ZERO;
     
+    // Interest accrued daily but not yet capitalized or collected; kept beyond the cent so daily amounts do not round away
+    @Column(name = "accrued_interest", precision = 19, scale = 6)
+    private BigDecimal accruedInterest = BigDecimal.ZERO;
+    
+    @Column(name = "last_interest_accrual_date")
+    private LocalDate lastInterestAccrualDate;
+    
     @Column(name = "opened_at", nullable = false)
     private LocalDateTime openedAt = LocalDateTime.now();
     
@@ -0,0 +1,53 @@
+package com.finedge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Per-account daily inflow/outflow totals, incremented at posting time and kept for the
+ * full account history. Coarser time-series buckets are merged from these rows on read.
+ */
+@Entity
+@Table(name = "account_daily_activity",
+    uniqueConstraints = @UniqueConstraint(name = "uk_account_daily_activity", columnNames = {"account_id", "activity_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountDailyActivity {
+    @Id
+    @Column(name = "id")
+    private String id = UUID.randomUUID().toString();
+    
+    @ManyToOne
+    @JoinColumn(name = "account_id", nullable = false)
+    private Account account;
+    
+    @Column(name = "activity_date", nullable = false)
+    private LocalDate activityDate;
+    
+    @Column(name = "income", nullable = false, precision = 15, scale = 2)
+    private BigDecimal income = BigDecimal.ZERO;
+    
+    @Column(name = "expenses", nullable = false, precision = 15, scale = 2)
+    private BigDecimal expenses = BigDecimal.ZERO;
+    
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount = 0L;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
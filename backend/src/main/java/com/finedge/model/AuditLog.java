@@ -14,7 +14,9 @@ import java.util.Map;
 import java.util.UUID;
 
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs", indexes = {
+    @Index(name = "idx_audit_logs_created", columnList = "created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
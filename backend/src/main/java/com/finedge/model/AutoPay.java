@@ -14,7 +14,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "auto_pays")
+@Table(name = "auto_pays", indexes = {
+    @Index(name = "idx_auto_pays_enabled_next_payment", columnList = "enabled, next_payment_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -51,6 +53,19 @@ public class AutoPay {
     @Column(name = "next_payment_date", nullable = false)
     private LocalDate nextPaymentDate;
     
+    // Execution state kept by AutoPayExecutionService; a failed payment is retried until the attempt limit
+    @Column(name = "failed_attempts")
+    private Integer failedAttempts = 0;
+    
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(name = "last_failure_reason")
+    private String lastFailureReason;
+    
+    @Column(name = "last_paid_at")
+    private LocalDateTime lastPaidAt;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,48 @@
+package com.finedge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Stored ledger balance of a customer account or chart account at a point in time.
+ * The balance includes every ledger entry created strictly before snapshotAt.
+ */
+@Entity
+@Table(name = "balance_snapshots",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_balance_snapshots_account", columnNames = {"account_id", "snapshot_at"}),
+        @UniqueConstraint(name = "uk_balance_snapshots_chart_account", columnNames = {"chart_of_account_id", "snapshot_at"})
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSnapshot {
+    @Id
+    @Column(name = "id")
+    private String id = UUID.randomUUID().toString();
+    
+    @ManyToOne
+    @JoinColumn(name = "account_id")
+    private Account account; // Customer account if applicable
+    
+    @ManyToOne
+    @JoinColumn(name = "chart_of_account_id")
+    private ChartOfAccount chartOfAccount; // Chart account if applicable
+    
+    @Column(name = "snapshot_at", nullable = false)
+    private LocalDateTime snapshotAt;
+    
+    @Column(name = "balance", nullable = false, precision = 15, scale = 2)
+    private BigDecimal balance = BigDecimal.ZERO;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -52,6 +52,17 @@ public class BillPayment {
     @Column(name = "description")
     private String description;
     
+    // Set by the settlement pipeline: the posted PAYMENT transaction, or why the payment failed
+    @ManyToOne
+    @JoinColumn(name = "transaction_id")
+    private Transaction transaction;
+    
+    @Column(name = "settled_at")
+    private LocalDateTime settledAt;
+    
+    @Column(name = "failure_reason")
+    private String failureReason;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
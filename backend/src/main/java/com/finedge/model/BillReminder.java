@@ -42,6 +42,13 @@ public class BillReminder {
     @Column(name = "enabled", nullable = false)
     private Boolean enabled = true;
     
+    // When the reminder fires: dueDate - daysBefore at the configured send hour
+    @Column(name = "remind_at")
+    private LocalDateTime remindAt;
+    
+    @Column(name = "reminded_at")
+    private LocalDateTime remindedAt;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,48 @@
+package com.finedge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Marks a business date as closed. Postings dated on or before the latest closed date are rejected.
+ */
+@Entity
+@Table(name = "business_day_closes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusinessDayClose {
+    @Id
+    @Column(name = "id")
+    private String id = UUID.randomUUID().toString();
+    
+    @Column(name = "business_date", nullable = false, unique = true)
+    private LocalDate businessDate;
+    
+    @Column(name = "total_debit", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalDebit = BigDecimal.ZERO;
+    
+    @Column(name = "total_credit", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalCredit = BigDecimal.ZERO;
+    
+    @Column(name = "entry_count", nullable = false)
+    private Long entryCount = 0L;
+    
+    @Column(name = "is_balanced", nullable = false)
+    private Boolean isBalanced = true;
+    
+    @Column(name = "closed_at", nullable = false)
+    private LocalDateTime closedAt;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
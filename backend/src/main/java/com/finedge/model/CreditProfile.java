@@ -0,0 +1,66 @@
+package com.finedge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Scoring features and pre-approved offer for one customer, refreshed by the batch re-scoring job.
+ * The score excludes the debt-to-income factor, which depends on the amount requested.
+ */
+@Entity
+@Table(name = "credit_profiles")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditProfile {
+    @Id
+    @Column(name = "id")
+    private String id = UUID.randomUUID().toString();
+    
+    @OneToOne
+    @JoinColumn(name = "customer_id", nullable = false, unique = true)
+    private Customer customer;
+    
+    @Column(name = "credit_score")
+    private Integer creditScore;
+    
+    @Column(name = "annual_income", precision = 15, scale = 2)
+    private BigDecimal annualIncome;
+    
+    @Column(name = "employment_status")
+    private String employmentStatus;
+    
+    @Column(name = "account_count", nullable = false)
+    private Long accountCount = 0L;
+    
+    @Column(name = "first_account_opened_at")
+    private LocalDateTime firstAccountOpenedAt;
+    
+    @Column(name = "score", nullable = false)
+    private Integer score;
+    
+    @Column(name = "pre_approved_amount", precision = 15, scale = 2)
+    private BigDecimal preApprovedAmount;
+    
+    @Column(name = "pre_approved_interest_rate", precision = 5, scale = 2)
+    private BigDecimal preApprovedInterestRate;
+    
+    @Column(name = "scored_at", nullable = false)
+    private LocalDateTime scoredAt;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
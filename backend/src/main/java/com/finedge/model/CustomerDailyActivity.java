@@ -0,0 +1,53 @@
+package com.finedge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Per-customer daily transaction bucket for the dashboard's rolling 30-day window.
+ * Incremented at posting time; buckets older than the window are pruned nightly.
+ */
+@Entity
+@Table(name = "customer_daily_activity",
+    uniqueConstraints = @UniqueConstraint(name = "uk_customer_daily_activity", columnNames = {"customer_id", "activity_date"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerDailyActivity {
+    @Id
+    @Column(name = "id")
+    private String id = UUID.randomUUID().toString();
+    
+    @ManyToOne
+    @JoinColumn(name = "customer_id", nullable = false)
+    private Customer customer;
+    
+    @Column(name = "activity_date", nullable = false)
+    private LocalDate activityDate;
+    
+    @Column(name = "income", nullable = false, precision = 15, scale = 2)
+    private BigDecimal income = BigDecimal.ZERO;
+    
+    @Column(name = "expenses", nullable = false, precision = 15, scale = 2)
+    private BigDecimal expenses = BigDecimal.ZERO;
+    
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount = 0L;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,51 @@
+package com.finedge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Per-customer loan aggregates for the customer dashboard. Built from source tables on the
+ * first dashboard read and kept current by LoanService as loans are disbursed and repaid.
+ */
+@Entity
+@Table(name = "customer_dashboard_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerDashboardSummary {
+    @Id
+    @Column(name = "id")
+    private String id = UUID.randomUUID().toString();
+    
+    @OneToOne
+    @JoinColumn(name = "customer_id", nullable = false, unique = true)
+    private Customer customer;
+    
+    @Column(name = "loan_count", nullable = false)
+    private Long loanCount = 0L;
+    
+    @Column(name = "active_loan_count", nullable = false)
+    private Long activeLoanCount = 0L;
+    
+    @Column(name = "total_loan_amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalLoanAmount = BigDecimal.ZERO;
+    
+    @Column(name = "total_loan_paid", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalLoanPaid = BigDecimal.ZERO;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
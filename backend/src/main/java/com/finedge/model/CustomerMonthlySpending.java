@@ -0,0 +1,55 @@
+package com.finedge.model;
+
+import com.finedge.model.enums.SpendingCategory;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Per-customer spending total for one category in one calendar month (month = first day of the month).
+ * Incremented when a categorized transaction or bill payment is posted.
+ */
+@Entity
+@Table(name = "customer_monthly_spending",
+    uniqueConstraints = @UniqueConstraint(name = "uk_customer_monthly_spending", columnNames = {"customer_id", "month", "category"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerMonthlySpending {
+    @Id
+    @Column(name = "id")
+    private String id = UUID.randomUUID().toString();
+    
+    @ManyToOne
+    @JoinColumn(name = "customer_id", nullable = false)
+    private Customer customer;
+    
+    @Column(name = "month", nullable = false)
+    private LocalDate month;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "category", nullable = false)
+    private SpendingCategory category;
+    
+    @Column(name = "amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal amount = BigDecimal.ZERO;
+    
+    @Column(name = "transaction_count", nullable = false)
+    private Long transactionCount = 0L;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
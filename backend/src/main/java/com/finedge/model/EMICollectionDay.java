@@ -0,0 +1,57 @@
+package com.finedge.model;
+
+import com.finedge.model.enums.LoanType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Scheduled and collected EMI amounts per due date and loan type, adjusted as schedules are
+ * generated and installments are paid. Outstanding expected inflow for a day is scheduled minus collected.
+ */
+@Entity
+@Table(name = "emi_collection_calendar",
+    uniqueConstraints = @UniqueConstraint(name = "uk_emi_collection_calendar", columnNames = {"due_date", "loan_type"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EMICollectionDay {
+    @Id
+    @Column(name = "id")
+    private String id = UUID.randomUUID().toString();
+    
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "loan_type", nullable = false)
+    private LoanType loanType;
+    
+    @Column(name = "scheduled_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal scheduledAmount = BigDecimal.ZERO;
+    
+    @Column(name = "collected_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal collectedAmount = BigDecimal.ZERO;
+    
+    @Column(name = "installment_count", nullable = false)
+    private Long installmentCount = 0L;
+    
+    @Column(name = "paid_count", nullable = false)
+    private Long paidCount = 0L;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
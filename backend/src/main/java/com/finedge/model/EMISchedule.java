@@ -12,7 +12,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "emi_schedules")
+@Table(name = "emi_schedules", indexes = {
+    @Index(name = "idx_emi_schedules_loan_unpaid_due", columnList = "loan_id, is_paid, due_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -56,6 +58,21 @@ public class EMISchedule {
     @Column(name = "overdue_days")
     private Integer overdueDays = 0;
     
+    @Column(name = "penalty_amount", precision = 15, scale = 2)
+    private BigDecimal penaltyAmount;
+    
+    @Column(name = "penalty_assessed_at")
+    private LocalDateTime penaltyAssessedAt;
+    
+    @Column(name = "auto_debit_attempts")
+    private Integer autoDebitAttempts = 0;
+    
+    @Column(name = "next_auto_debit_at")
+    private LocalDateTime nextAutoDebitAt;
+    
+    @Column(name = "auto_debit_failure")
+    private String autoDebitFailure;
+    
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,55 @@
+package com.finedge.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Debits and credits of one chart account or one customer account for a closed business date.
+ * Written by the end-of-day close; never updated afterwards.
+ */
+@Entity
+@Table(name = "ledger_daily_summaries", indexes = {
+    @Index(name = "idx_ledger_daily_summaries_chart_account", columnList = "chart_of_account_id, business_date"),
+    @Index(name = "idx_ledger_daily_summaries_account", columnList = "account_id, business_date"),
+    @Index(name = "idx_ledger_daily_summaries_date", columnList = "business_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerDailySummary {
+    @Id
+    @Column(name = "id")
+    private String id = UUID.randomUUID().toString();
+    
+    @Column(name = "business_date", nullable = false)
+    private LocalDate businessDate;
+    
+    @ManyToOne
+    @JoinColumn(name = "chart_of_account_id")
+    private ChartOfAccount chartOfAccount; // Set for chart account rollups
+    
+    @ManyToOne
+    @JoinColumn(name = "account_id")
+    private Account account; // Set for customer account rollups
+    
+    @Column(name = "total_debit", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalDebit = BigDecimal.ZERO;
+    
+    @Column(name = "total_credit", nullable = false, precision = 15, scale = 2)
+    private BigDecimal totalCredit = BigDecimal.ZERO;
+    
+    @Column(name = "entry_count", nullable = false)
+    private Long entryCount = 0L;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -11,7 +11,10 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "ledger_entries")
+@Table(name = "ledger_entries", indexes = {
+    @Index(name = "idx_ledger_entries_account_created", columnList = "account_id, created_at"),
+    @Index(name = "idx_ledger_entries_chart_account_created", columnList = "chart_of_account_id, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -10,11 +10,15 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "loans")
+@Table(name = "loans", indexes = {
+    @Index(name = "idx_loans_updated", columnList = "updated_at"),
+    @Index(name = "idx_loans_status_id", columnList = "status, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -56,6 +60,13 @@ public class Loan {
     @Column(name = "amount_remaining", nullable = false, precision = 15, scale = 2)
     private BigDecimal amountRemaining;
     
+    // Interest accrued daily but not yet capitalized or collected; kept beyond the cent so daily amounts do not round away
+    @Column(name = "accrued_interest", precision = 19, scale = 6)
+    private BigDecimal accruedInterest = BigDecimal.ZERO;
+    
+    @Column(name = "last_interest_accrual_date")
+    private LocalDate lastInterestAccrualDate;
+    
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
     private LoanStatus status = LoanStatus.DRAFT;
@@ -0,0 +1,54 @@
+package com.finedge.model;
+
+import com.finedge.model.enums.DelinquencyBand;
+import com.finedge.model.enums.LoanType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One cell of the daily loan aging report: active loans of a type whose days past due fall in a band.
+ * Outstanding is the loans' remaining amount; overdue is the unpaid part of installments already due.
+ */
+@Entity
+@Table(name = "loan_aging_snapshots",
+    uniqueConstraints = @UniqueConstraint(name = "uk_loan_aging_snapshots", columnNames = {"as_of_date", "loan_type", "band"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanAgingSnapshot {
+    @Id
+    @Column(name = "id")
+    private String id = UUID.randomUUID().toString();
+    
+    @Column(name = "as_of_date", nullable = false)
+    private LocalDate asOfDate;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "loan_type", nullable = false)
+    private LoanType loanType;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "band", nullable = false)
+    private DelinquencyBand band;
+    
+    @Column(name = "loan_count", nullable = false)
+    private Long loanCount = 0L;
+    
+    @Column(name = "outstanding_amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal outstandingAmount = BigDecimal.ZERO;
+    
+    @Column(name = "overdue_amount", nullable = false, precision = 15, scale = 2)
+    private BigDecimal overdueAmount = BigDecimal.ZERO;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
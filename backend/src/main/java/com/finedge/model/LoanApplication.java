@@ -1,5 +1,6 @@
 package com.finedge.model;
 
+import com.finedge.model.enums.DisbursementStatus;
 import com.finedge.model.enums.LoanStatus;
 import com.finedge.model.enums.LoanType;
 import com.vladmihalcea.hibernate.type.json.JsonType;
@@ -17,7 +18,10 @@ import java.util.Map;
 import java.util.UUID;
 
 @Entity
-@Table(name = "loan_applications")
+@Table(name = "loan_applications", indexes = {
+    @Index(name = "idx_loan_applications_created", columnList = "created_at"),
+    @Index(name = "idx_loan_applications_status_created", columnList = "status, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -77,6 +81,34 @@ public class LoanApplication {
     @JoinColumn(name = "loan_id")
     private Loan loan;
     
+    // Set on final approval; the disbursement pipeline creates the loan and moves it to DISBURSED
+    @Enumerated(EnumType.STRING)
+    @Column(name = "disbursement_status")
+    private DisbursementStatus disbursementStatus;
+    
+    @Column(name = "disbursement_requested_at")
+    private LocalDateTime disbursementRequestedAt;
+    
+    @Column(name = "disbursement_attempts")
+    private Integer disbursementAttempts = 0;
+    
+    @Column(name = "next_disbursement_attempt_at")
+    private LocalDateTime nextDisbursementAttemptAt;
+    
+    @Column(name = "disbursement_error")
+    private String disbursementError;
+    
+    @Column(name = "disbursed_at")
+    private LocalDateTime disbursedAt;
+    
+    // Review lease taken from the banker work queue; other reviewers skip the application until it expires
+    @ManyToOne
+    @JoinColumn(name = "review_leased_by")
+    private User reviewLeasedBy;
+    
+    @Column(name = "review_lease_expires_at")
+    private LocalDateTime reviewLeaseExpiresAt;
+    
     @Column(name = "submitted_at")
     private LocalDateTime submittedAt;
     
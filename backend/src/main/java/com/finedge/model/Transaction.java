@@ -1,5 +1,6 @@
 package com.finedge.model;
 
+import com.finedge.model.enums.SpendingCategory;
 import com.finedge.model.enums.TransactionStatus;
 import com.finedge.model.enums.TransactionType;
 import com.vladmihalcea.hibernate.type.json.JsonType;
@@ -17,7 +18,10 @@ import java.util.Map;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+    @Index(name = "idx_transactions_account_created", columnList = "account_id, created_at"),
+    @Index(name = "idx_transactions_to_account_created", columnList = "to_account_id, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -42,6 +46,11 @@ public class Transaction {
     @Column(name = "transaction_type", nullable = false)
     private TransactionType transactionType;
     
+    // Set at posting time for outgoing money; null for deposits and own-account transfers
+    @Enumerated(EnumType.STRING)
+    @Column(name = "spending_category")
+    private SpendingCategory spendingCategory;
+    
     @Column(name = "amount", nullable = false, precision = 15, scale = 2)
     private BigDecimal amount;
     
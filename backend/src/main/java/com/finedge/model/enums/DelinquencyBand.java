@@ -0,0 +1,9 @@
+package com.finedge.model.enums;
+
+public enum DelinquencyBand {
+    CURRENT,
+    DPD_1_30,
+    DPD_31_60,
+    DPD_61_90,
+    DPD_90_PLUS
+}
@@ -0,0 +1,7 @@
+package com.finedge.model.enums;
+
+public enum DisbursementStatus {
+    PENDING,
+    DISBURSED,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package com.finedge.model.enums;
+
+public enum PrepaymentMode {
+    REDUCE_EMI,
+    REDUCE_TENURE
+}
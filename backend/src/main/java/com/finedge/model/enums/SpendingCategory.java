@@ -0,0 +1,16 @@
+package com.finedge.model.enums;
+
+public enum SpendingCategory {
+    UTILITIES,
+    TELECOMMUNICATIONS,
+    FINANCIAL,
+    INSURANCE,
+    HEALTHCARE,
+    EDUCATION,
+    GOVERNMENT,
+    LOAN_REPAYMENT,
+    CASH,
+    TRANSFERS,
+    FEES,
+    OTHER
+}
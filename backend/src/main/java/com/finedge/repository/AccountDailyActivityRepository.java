@@ -0,0 +1,50 @@
+package com.finedge.repository;
+
+import com.finedge.model.AccountDailyActivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AccountDailyActivityRepository extends JpaRepository<AccountDailyActivity, String> {
+    
+    // Atomic increment so concurrent postings to the same account and day do not lose updates
+    @Modifying
+    @Query(value = "INSERT INTO account_daily_activity (id, account_id, activity_date, income, expenses, transaction_count, created_at, updated_at) " +
+        "VALUES (:id, :accountId, :activityDate, :income, :expenses, 1, now(), now()) " +
+        "ON CONFLICT (account_id, activity_date) DO UPDATE SET " +
+        "income = account_daily_activity.income + EXCLUDED.income, " +
+        "expenses = account_daily_activity.expenses + EXCLUDED.expenses, " +
+        "transaction_count = account_daily_activity.transaction_count + 1, " +
+        "updated_at = now()", nativeQuery = true)
+    int addActivity(@Param("id") String id, @Param("accountId") String accountId, @Param("activityDate") LocalDate activityDate,
+                    @Param("income") BigDecimal income, @Param("expenses") BigDecimal expenses);
+    
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM account_daily_activity)", nativeQuery = true)
+    boolean hasAnyActivity();
+    
+    // One-off backfill from transaction history; days already present are left alone
+    @Modifying
+    @Query(value = "INSERT INTO account_daily_activity (id, account_id, activity_date, income, expenses, transaction_count, created_at, updated_at) " +
+        "SELECT gen_random_uuid()::text, t.account_id, CAST(t.created_at AS date), " +
+        "SUM(CASE WHEN t.transaction_type IN ('DEPOSIT', 'INTEREST') THEN t.amount ELSE 0 END), " +
+        "SUM(CASE WHEN t.transaction_type IN ('WITHDRAWAL', 'PAYMENT', 'TRANSFER', 'FEE') THEN t.amount ELSE 0 END), " +
+        "COUNT(*), now(), now() " +
+        "FROM transactions t WHERE t.status = 'COMPLETED' " +
+        "GROUP BY t.account_id, CAST(t.created_at AS date) " +
+        "ON CONFLICT (account_id, activity_date) DO NOTHING", nativeQuery = true)
+    int backfillFromTransactions();
+    
+    // Rows: [activityDate, income, expenses, transactionCount] summed over the customer's accounts
+    @Query("SELECT a.activityDate, SUM(a.income), SUM(a.expenses), SUM(a.transactionCount) FROM AccountDailyActivity a " +
+        "WHERE a.account.customer.id = :customerId AND a.activityDate BETWEEN :from AND :to " +
+        "GROUP BY a.activityDate ORDER BY a.activityDate")
+    List<Object[]> sumDailyByCustomer(@Param("customerId") String customerId,
+                                      @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -2,20 +2,34 @@ package com.finedge.repository;
 
 import com.finedge.model.Account;
 import com.finedge.model.Customer;
+import com.finedge.model.enums.AccountType;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, String> {
     List<Account> findByCustomer(Customer customer);
     List<Account> findByCustomerId(String customerId);
+    List<Account> findByCustomerIdInAndAccountType(Collection<String> customerIds, AccountType accountType);
+    long countByCustomerId(String customerId);
+    
+    // Rows: [customerId, account count, earliest openedAt] for credit scoring
+    @Query("SELECT a.customer.id, COUNT(a), MIN(a.openedAt) FROM Account a WHERE a.customer.id IN :customerIds GROUP BY a.customer.id")
+    List<Object[]> summarizeByCustomerIds(@Param("customerIds") Collection<String> customerIds);
     Optional<Account> findByAccountNumber(String accountNumber);
     
     @Lock(LockModeType.PESSIMISTIC_WRITE)
@@ -25,5 +39,17 @@ public interface AccountRepository extends JpaRepository<Account, String> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT a FROM Account a WHERE a.accountNumber = :accountNumber")
     Optional<Account> findByAccountNumberWithLock(@Param("accountNumber") String accountNumber);
+    
+    // Capitalization candidates within one id range, locked in id order like transfers
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id >= :fromId AND a.id < :toId AND a.id > :afterId " +
+           "AND a.accruedInterest >= :minimum ORDER BY a.id")
+    List<Account> findInterestToCapitalize(@Param("fromId") String fromId, @Param("toId") String toId,
+                                           @Param("afterId") String afterId, @Param("minimum") BigDecimal minimum,
+                                           Pageable pageable);
+    
+    // Rows: [id, customerId, accountType, status, balance, updatedAt] for the portfolio analytics snapshot
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT a.id, a.customer.id, a.accountType, a.status, a.balance, a.updatedAt FROM Account a WHERE a.updatedAt > :since")
+    Stream<Object[]> streamPortfolioRowsUpdatedSince(@Param("since") LocalDateTime since);
 }
-
@@ -8,9 +8,13 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, String> {
     @Query("SELECT a FROM AuditLog a WHERE (:entityType IS NULL OR a.entityType = :entityType) AND (:entityId IS NULL OR a.entityId = :entityId) ORDER BY a.createdAt DESC")
     Page<AuditLog> findByEntityTypeAndEntityId(@Param("entityType") String entityType, @Param("entityId") String entityId, Pageable pageable);
+    
+    List<AuditLog> findTop20ByOrderByCreatedAtDesc();
 }
 
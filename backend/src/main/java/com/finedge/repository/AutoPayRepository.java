@@ -2,15 +2,35 @@ package com.finedge.repository;
 
 import com.finedge.model.AutoPay;
 import com.finedge.model.Customer;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AutoPayRepository extends JpaRepository<AutoPay, String> {
     List<AutoPay> findByCustomer(Customer customer);
     List<AutoPay> findByCustomerId(String customerId);
     List<AutoPay> findByCustomerIdAndEnabledTrue(String customerId);
+    
+    // Claims due AutoPays in one id range with attempts left; rows held by another worker or node are skipped
+    @Query(value = "SELECT id FROM auto_pays WHERE enabled = true AND next_payment_date <= :today " +
+        "AND id >= :fromId AND id < :toId AND (next_attempt_at IS NULL OR next_attempt_at <= :now) " +
+        "AND COALESCE(failed_attempts, 0) < :maxAttempts " +
+        "ORDER BY next_payment_date, id LIMIT :batchSize FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<String> claimDue(@Param("fromId") String fromId, @Param("toId") String toId, @Param("today") LocalDate today,
+                          @Param("now") LocalDateTime now, @Param("maxAttempts") int maxAttempts,
+                          @Param("batchSize") int batchSize);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM AutoPay a WHERE a.id = :id")
+    Optional<AutoPay> findByIdWithLock(@Param("id") String id);
 }
 
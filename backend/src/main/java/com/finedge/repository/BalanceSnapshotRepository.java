@@ -0,0 +1,30 @@
+package com.finedge.repository;
+
+import com.finedge.model.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, String> {
+    Optional<BalanceSnapshot> findFirstByAccountIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(
+        String accountId, LocalDateTime asOf);
+    
+    Optional<BalanceSnapshot> findFirstByChartOfAccountIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(
+        String chartOfAccountId, LocalDateTime asOf);
+    
+    boolean existsByAccountIdAndSnapshotAt(String accountId, LocalDateTime snapshotAt);
+    
+    boolean existsByChartOfAccountIdAndSnapshotAt(String chartOfAccountId, LocalDateTime snapshotAt);
+    
+    // Recomputes every customer account snapshot from the ledger with the credit-minus-debit rule
+    @Modifying
+    @Query(value = "UPDATE balance_snapshots s SET balance = COALESCE((SELECT SUM(l.credit_amount - l.debit_amount) " +
+        "FROM ledger_entries l WHERE l.account_id = s.account_id AND l.created_at < s.snapshot_at), 0) " +
+        "WHERE s.account_id IS NOT NULL", nativeQuery = true)
+    int recomputeAccountSnapshots();
+}
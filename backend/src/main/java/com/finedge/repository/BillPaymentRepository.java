@@ -2,15 +2,30 @@ package com.finedge.repository;
 
 import com.finedge.model.BillPayment;
 import com.finedge.model.Customer;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BillPaymentRepository extends JpaRepository<BillPayment, String> {
     List<BillPayment> findByCustomer(Customer customer);
     List<BillPayment> findByCustomerIdOrderByPaymentDateDesc(String customerId);
     List<BillPayment> findByBillerId(String billerId);
+    
+    // Claims pending payments whose payment date has arrived; rows held by another settler are skipped
+    @Query(value = "SELECT id FROM bill_payments WHERE status = 'PENDING' AND payment_date <= :now " +
+        "ORDER BY payment_date LIMIT :batchSize FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<String> claimDueForSettlement(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM BillPayment p WHERE p.id = :id")
+    Optional<BillPayment> findByIdWithLock(@Param("id") String id);
 }
 
@@ -3,8 +3,14 @@ package com.finedge.repository;
 import com.finedge.model.BillReminder;
 import com.finedge.model.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,5 +18,30 @@ public interface BillReminderRepository extends JpaRepository<BillReminder, Stri
     List<BillReminder> findByCustomer(Customer customer);
     List<BillReminder> findByCustomerId(String customerId);
     List<BillReminder> findByCustomerIdAndEnabledTrue(String customerId);
+    
+    /**
+     * [id, remindAt] of unsent reminders firing up to the given time, including any missed while no node was up
+     */
+    @Query("SELECT r.id, r.remindAt FROM BillReminder r WHERE r.enabled = true AND r.remindedAt IS NULL " +
+        "AND r.remindAt <= :to AND r.dueDate >= :today")
+    List<Object[]> findPendingUpTo(@Param("to") LocalDateTime to, @Param("today") LocalDate today);
+    
+    /**
+     * Claims the given reminders that are still due to be sent, skipping rows another node is sending
+     */
+    @Query(value = "SELECT id FROM bill_reminders WHERE id IN (:ids) AND enabled = true AND reminded_at IS NULL " +
+        "AND remind_at <= :now AND due_date >= CAST(:now AS date) FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<String> claimDue(@Param("ids") Collection<String> ids, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE BillReminder r SET r.remindedAt = :remindedAt WHERE r.id IN :ids")
+    int markReminded(@Param("ids") Collection<String> ids, @Param("remindedAt") LocalDateTime remindedAt);
+    
+    /**
+     * Fills in the fire time of reminders created before it was stored
+     */
+    @Modifying
+    @Query(value = "UPDATE bill_reminders SET remind_at = (due_date - days_before) + make_time(:sendHour, 0, 0) " +
+        "WHERE remind_at IS NULL", nativeQuery = true)
+    int backfillRemindAt(@Param("sendHour") int sendHour);
 }
-
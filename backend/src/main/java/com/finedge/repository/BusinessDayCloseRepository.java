@@ -0,0 +1,17 @@
+package com.finedge.repository;
+
+import com.finedge.model.BusinessDayClose;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface BusinessDayCloseRepository extends JpaRepository<BusinessDayClose, String> {
+    Optional<BusinessDayClose> findByBusinessDate(LocalDate businessDate);
+    Optional<BusinessDayClose> findTopByOrderByBusinessDateDesc();
+    Page<BusinessDayClose> findAllByOrderByBusinessDateDesc(Pageable pageable);
+}
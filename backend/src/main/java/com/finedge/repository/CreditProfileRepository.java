@@ -0,0 +1,12 @@
+package com.finedge.repository;
+
+import com.finedge.model.CreditProfile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CreditProfileRepository extends JpaRepository<CreditProfile, String> {
+    Optional<CreditProfile> findByCustomerId(String customerId);
+}
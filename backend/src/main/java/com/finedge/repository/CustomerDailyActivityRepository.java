@@ -0,0 +1,41 @@
+package com.finedge.repository;
+
+import com.finedge.model.CustomerDailyActivity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CustomerDailyActivityRepository extends JpaRepository<CustomerDailyActivity, String> {
+    
+    // Atomic increment so concurrent postings for the same customer and day do not lose updates
+    @Modifying
+    @Query(value = "INSERT INTO customer_daily_activity (id, customer_id, activity_date, income, expenses, transaction_count, created_at, updated_at) " +
+        "VALUES (:id, :customerId, :activityDate, :income, :expenses, 1, now(), now()) " +
+        "ON CONFLICT (customer_id, activity_date) DO UPDATE SET " +
+        "income = customer_daily_activity.income + EXCLUDED.income, " +
+        "expenses = customer_daily_activity.expenses + EXCLUDED.expenses, " +
+        "transaction_count = customer_daily_activity.transaction_count + 1, " +
+        "updated_at = now()", nativeQuery = true)
+    int addActivity(@Param("id") String id, @Param("customerId") String customerId, @Param("activityDate") LocalDate activityDate,
+                    @Param("income") BigDecimal income, @Param("expenses") BigDecimal expenses);
+    
+    // Single row: [income, expenses, transactionCount]
+    @Query("SELECT COALESCE(SUM(a.income), 0), COALESCE(SUM(a.expenses), 0), COALESCE(SUM(a.transactionCount), 0) " +
+        "FROM CustomerDailyActivity a WHERE a.customer.id = :customerId AND a.activityDate >= :from")
+    List<Object[]> sumActivitySince(@Param("customerId") String customerId, @Param("from") LocalDate from);
+    
+    @Modifying
+    @Query("DELETE FROM CustomerDailyActivity a WHERE a.customer.id = :customerId AND a.activityDate >= :from")
+    int deleteByCustomerIdSince(@Param("customerId") String customerId, @Param("from") LocalDate from);
+    
+    @Modifying
+    @Query("DELETE FROM CustomerDailyActivity a WHERE a.activityDate < :before")
+    int deleteOlderThan(@Param("before") LocalDate before);
+}
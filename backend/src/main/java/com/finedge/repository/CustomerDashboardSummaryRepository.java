@@ -0,0 +1,28 @@
+package com.finedge.repository;
+
+import com.finedge.model.CustomerDashboardSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+@Repository
+public interface CustomerDashboardSummaryRepository extends JpaRepository<CustomerDashboardSummary, String> {
+    Optional<CustomerDashboardSummary> findByCustomerId(String customerId);
+    
+    // Update-only: a missing row is built from source tables on the next dashboard read
+    @Modifying
+    @Query("UPDATE CustomerDashboardSummary s SET s.loanCount = s.loanCount + :loanDelta, " +
+        "s.activeLoanCount = s.activeLoanCount + :activeLoanDelta, " +
+        "s.totalLoanAmount = s.totalLoanAmount + :amountDelta, " +
+        "s.totalLoanPaid = s.totalLoanPaid + :paidDelta, " +
+        "s.updatedAt = CURRENT_TIMESTAMP " +
+        "WHERE s.customer.id = :customerId")
+    int applyLoanDelta(@Param("customerId") String customerId, @Param("loanDelta") long loanDelta,
+                       @Param("activeLoanDelta") long activeLoanDelta, @Param("amountDelta") BigDecimal amountDelta,
+                       @Param("paidDelta") BigDecimal paidDelta);
+}
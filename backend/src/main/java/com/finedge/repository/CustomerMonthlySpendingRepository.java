@@ -0,0 +1,34 @@
+package com.finedge.repository;
+
+import com.finedge.model.CustomerMonthlySpending;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CustomerMonthlySpendingRepository extends JpaRepository<CustomerMonthlySpending, String> {
+    
+    // Atomic increment so concurrent postings for the same customer, month and category do not lose updates
+    @Modifying
+    @Query(value = "INSERT INTO customer_monthly_spending (id, customer_id, month, category, amount, transaction_count, created_at, updated_at) " +
+        "VALUES (:id, :customerId, :month, :category, :amount, 1, now(), now()) " +
+        "ON CONFLICT (customer_id, month, category) DO UPDATE SET " +
+        "amount = customer_monthly_spending.amount + EXCLUDED.amount, " +
+        "transaction_count = customer_monthly_spending.transaction_count + 1, " +
+        "updated_at = now()", nativeQuery = true)
+    int addSpending(@Param("id") String id, @Param("customerId") String customerId, @Param("month") LocalDate month,
+                    @Param("category") String category, @Param("amount") BigDecimal amount);
+    
+    // Rows: [category, amount, transactionCount], largest first
+    @Query("SELECT s.category, SUM(s.amount), SUM(s.transactionCount) FROM CustomerMonthlySpending s " +
+        "WHERE s.customer.id = :customerId AND s.month BETWEEN :from AND :to " +
+        "GROUP BY s.category ORDER BY SUM(s.amount) DESC")
+    List<Object[]> sumByCategory(@Param("customerId") String customerId,
+                                 @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -2,14 +2,32 @@ package com.finedge.repository;
 
 import com.finedge.model.Customer;
 import com.finedge.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, String> {
     Optional<Customer> findByUser(User user);
     Optional<Customer> findByUserId(String userId);
+    
+    // Rows: [id, creditScore, annualIncome, employmentStatus] for credit re-scoring, one id range page at a time
+    @Query("SELECT c.id, c.creditScore, c.annualIncome, c.employmentStatus FROM Customer c " +
+           "WHERE c.id >= :fromId AND c.id < :toId AND c.id > :afterId ORDER BY c.id")
+    List<Object[]> findScoringRows(@Param("fromId") String fromId, @Param("toId") String toId,
+                                   @Param("afterId") String afterId, Pageable pageable);
+    
+    // Rows: [id, creditScore, updatedAt] for the portfolio analytics snapshot
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT c.id, c.creditScore, c.updatedAt FROM Customer c WHERE c.updatedAt > :since")
+    Stream<Object[]> streamPortfolioRowsUpdatedSince(@Param("since") LocalDateTime since);
 }
-
@@ -0,0 +1,48 @@
+package com.finedge.repository;
+
+import com.finedge.model.EMICollectionDay;
+import com.finedge.model.enums.LoanType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface EMICollectionDayRepository extends JpaRepository<EMICollectionDay, String> {
+    
+    // Signed deltas applied atomically, so concurrent schedule changes and payments on the same day do not lose updates
+    @Modifying
+    @Query(value = "INSERT INTO emi_collection_calendar (id, due_date, loan_type, scheduled_amount, collected_amount, installment_count, paid_count, created_at, updated_at) " +
+        "VALUES (:id, :dueDate, :loanType, :scheduled, :collected, :installments, :paid, now(), now()) " +
+        "ON CONFLICT (due_date, loan_type) DO UPDATE SET " +
+        "scheduled_amount = emi_collection_calendar.scheduled_amount + EXCLUDED.scheduled_amount, " +
+        "collected_amount = emi_collection_calendar.collected_amount + EXCLUDED.collected_amount, " +
+        "installment_count = emi_collection_calendar.installment_count + EXCLUDED.installment_count, " +
+        "paid_count = emi_collection_calendar.paid_count + EXCLUDED.paid_count, " +
+        "updated_at = now()", nativeQuery = true)
+    int adjust(@Param("id") String id, @Param("dueDate") LocalDate dueDate, @Param("loanType") String loanType,
+               @Param("scheduled") BigDecimal scheduled, @Param("collected") BigDecimal collected,
+               @Param("installments") long installments, @Param("paid") long paid);
+    
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM emi_collection_calendar)", nativeQuery = true)
+    boolean hasAnyDays();
+    
+    // One-off backfill from the existing schedules of active and closed loans
+    @Modifying
+    @Query(value = "INSERT INTO emi_collection_calendar (id, due_date, loan_type, scheduled_amount, collected_amount, installment_count, paid_count, created_at, updated_at) " +
+        "SELECT gen_random_uuid()::text, CAST(e.due_date AS date), l.loan_type, SUM(e.total_amount), SUM(e.paid_amount), " +
+        "COUNT(*), SUM(CASE WHEN e.is_paid THEN 1 ELSE 0 END), now(), now() " +
+        "FROM emi_schedules e JOIN loans l ON l.id = e.loan_id WHERE l.status IN ('ACTIVE', 'CLOSED') " +
+        "GROUP BY CAST(e.due_date AS date), l.loan_type " +
+        "ON CONFLICT (due_date, loan_type) DO NOTHING", nativeQuery = true)
+    int backfillFromSchedules();
+    
+    List<EMICollectionDay> findByDueDateBetweenOrderByDueDate(LocalDate from, LocalDate to);
+    
+    List<EMICollectionDay> findByLoanTypeAndDueDateBetweenOrderByDueDate(LoanType loanType, LocalDate from, LocalDate to);
+}
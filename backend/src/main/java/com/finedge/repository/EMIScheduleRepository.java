@@ -2,13 +2,18 @@ package com.finedge.repository;
 
 import com.finedge.model.EMISchedule;
 import com.finedge.model.Loan;
+import com.finedge.model.enums.LoanStatus;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -22,12 +27,73 @@ public interface EMIScheduleRepository extends JpaRepository<EMISchedule, String
     @Query("SELECT e FROM EMISchedule e WHERE e.loan.id = :loanId AND e.isPaid = false AND e.dueDate >= :now ORDER BY e.dueDate")
     List<EMISchedule> findUpcomingEMIs(@Param("loanId") String loanId, @Param("now") LocalDateTime now);
     
+    @Query("SELECT e FROM EMISchedule e WHERE e.loan.customer.id = :customerId AND e.loan.status = :loanStatus AND e.isPaid = false AND e.dueDate >= :now ORDER BY e.dueDate")
+    List<EMISchedule> findUpcomingEMIsByCustomerId(@Param("customerId") String customerId, @Param("loanStatus") LoanStatus loanStatus,
+                                                  @Param("now") LocalDateTime now, Pageable pageable);
+    
+    @Query("SELECT e FROM EMISchedule e WHERE e.loan.customer.id = :customerId AND e.loan.status = :loanStatus AND e.isPaid = false AND e.dueDate < :before ORDER BY e.dueDate")
+    List<EMISchedule> findUnpaidEMIsByCustomerIdDueBefore(@Param("customerId") String customerId, @Param("loanStatus") LoanStatus loanStatus,
+                                                         @Param("before") LocalDateTime before);
+    
     @Query("SELECT e FROM EMISchedule e WHERE e.isPaid = false AND e.dueDate < :now")
     List<EMISchedule> findOverdueEMIs(@Param("now") LocalDateTime now);
     
+    // Rows: [loanId, earliest overdue due date, unpaid overdue amount] for loans in the chunk with overdue installments
+    @Query("SELECT e.loan.id, MIN(e.dueDate), SUM(e.totalAmount - COALESCE(e.paidAmount, 0)) FROM EMISchedule e " +
+        "WHERE e.loan.id IN :loanIds AND e.isPaid = false AND e.dueDate < :asOf GROUP BY e.loan.id")
+    List<Object[]> summarizeOverdueByLoan(@Param("loanIds") List<String> loanIds, @Param("asOf") LocalDateTime asOf);
+    
+    // Keyset chunk of unpaid installments past the grace cutoff that have not been charged a late fee yet
+    @Query("SELECT e FROM EMISchedule e JOIN FETCH e.loan l JOIN FETCH l.customer c JOIN FETCH c.user " +
+        "WHERE e.isPaid = false AND e.penaltyAssessedAt IS NULL AND e.dueDate < :cutoff AND l.status = :loanStatus " +
+        "AND e.id > :afterId ORDER BY e.id")
+    List<EMISchedule> findPenaltyCandidatesAfter(@Param("cutoff") LocalDateTime cutoff, @Param("loanStatus") LoanStatus loanStatus,
+                                                 @Param("afterId") String afterId, Pageable pageable);
+    
+    // Claims the installment for a late fee; 0 if it was paid or charged since it was read
+    @Modifying
+    @Query("UPDATE EMISchedule e SET e.penaltyAmount = :fee, e.penaltyAssessedAt = :assessedAt, e.version = e.version + 1 " +
+        "WHERE e.id = :id AND e.isPaid = false AND e.penaltyAssessedAt IS NULL")
+    int markPenaltyAssessed(@Param("id") String id, @Param("fee") BigDecimal fee, @Param("assessedAt") LocalDateTime assessedAt);
+    
+    // Gives back late-fee claims that were not charged, so the next run considers them again
+    @Modifying
+    @Query("UPDATE EMISchedule e SET e.penaltyAmount = NULL, e.penaltyAssessedAt = NULL, e.version = e.version + 1 " +
+        "WHERE e.id IN :ids")
+    int releasePenaltyClaims(@Param("ids") List<String> ids);
+    
+    // Claims a batch of due installments for auto-debit; rows locked by another worker or a manual payment are skipped.
+    // Ordered by account so each batch groups installments debited from the same account.
+    @Query(value = "SELECT e.id FROM emi_schedules e JOIN loans l ON l.id = e.loan_id " +
+        "WHERE e.is_paid = false AND e.due_date < :dueBefore AND l.status = 'ACTIVE' AND l.account_id IS NOT NULL " +
+        "AND COALESCE(e.auto_debit_attempts, 0) < :maxAttempts " +
+        "AND (e.next_auto_debit_at IS NULL OR e.next_auto_debit_at <= :now) " +
+        "ORDER BY l.account_id, e.due_date LIMIT :batchSize " +
+        "FOR UPDATE OF e SKIP LOCKED", nativeQuery = true)
+    List<String> claimDueForAutoDebit(@Param("dueBefore") LocalDateTime dueBefore, @Param("now") LocalDateTime now,
+                                      @Param("maxAttempts") int maxAttempts, @Param("batchSize") int batchSize);
+    
+    // Puts installments back on the auto-debit retry queue after a failed attempt
+    @Modifying
+    @Query("UPDATE EMISchedule e SET e.autoDebitAttempts = COALESCE(e.autoDebitAttempts, 0) + 1, " +
+        "e.nextAutoDebitAt = :retryAt, e.autoDebitFailure = :reason, e.version = e.version + 1 " +
+        "WHERE e.id IN :ids AND e.isPaid = false")
+    int scheduleAutoDebitRetry(@Param("ids") List<String> ids, @Param("retryAt") LocalDateTime retryAt,
+                               @Param("reason") String reason);
+    
+    @Modifying
+    @Query(value = "UPDATE emi_schedules SET overdue_days = CAST(:today AS date) - CAST(due_date AS date) " +
+        "WHERE is_paid = false AND due_date < CAST(:today AS date) " +
+        "AND overdue_days IS DISTINCT FROM CAST(:today AS date) - CAST(due_date AS date)", nativeQuery = true)
+    int refreshOverdueDays(@Param("today") LocalDate today);
+    
     @Query("SELECT e FROM EMISchedule e WHERE e.loan.id = :loanId AND e.isPaid = false AND e.dueDate < :now")
     List<EMISchedule> findOverdueEMIsByLoanId(@Param("loanId") String loanId, @Param("now") LocalDateTime now);
     
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM EMISchedule e WHERE e.loan.id = :loanId AND e.isPaid = false ORDER BY e.installmentNumber")
+    List<EMISchedule> findUnpaidByLoanIdWithLock(@Param("loanId") String loanId);
+    
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT e FROM EMISchedule e WHERE e.id = :id")
     Optional<EMISchedule> findByIdWithLock(@Param("id") String id);
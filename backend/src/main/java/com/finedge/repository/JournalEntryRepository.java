@@ -1,13 +1,18 @@
 package com.finedge.repository;
 
 import com.finedge.model.JournalEntry;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface JournalEntryRepository extends JpaRepository<JournalEntry, String> {
@@ -15,7 +20,13 @@ public interface JournalEntryRepository extends JpaRepository<JournalEntry, Stri
     List<JournalEntry> findByEntryDateBetween(LocalDateTime startDate, LocalDateTime endDate);
     List<JournalEntry> findByTransactionId(String transactionId);
     
-    @Query("SELECT j FROM JournalEntry j WHERE j.isBalanced = false")
-    List<JournalEntry> findUnbalancedEntries();
+    // Served by the partial index idx_journal_entries_unbalanced (see DatabaseIndexInitializer)
+    long countByIsBalancedFalse();
+    
+    @Query("SELECT j FROM JournalEntry j WHERE j.isBalanced = false AND j.id > :afterId ORDER BY j.id")
+    List<JournalEntry> findUnbalancedEntriesAfter(@Param("afterId") String afterId, Pageable pageable);
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("SELECT j FROM JournalEntry j WHERE j.isBalanced = false ORDER BY j.id")
+    Stream<JournalEntry> streamUnbalancedEntries();
 }
-
@@ -0,0 +1,19 @@
+package com.finedge.repository;
+
+import com.finedge.model.LedgerDailySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface LedgerDailySummaryRepository extends JpaRepository<LedgerDailySummary, String> {
+    List<LedgerDailySummary> findByAccountIdAndBusinessDateBetweenOrderByBusinessDate(String accountId, LocalDate from, LocalDate to);
+    
+    // [chartOfAccountId, SUM(debit - credit)] over closed days up to and including the given date
+    @Query("SELECT d.chartOfAccount.id, SUM(d.totalDebit - d.totalCredit) FROM LedgerDailySummary d WHERE d.chartOfAccount IS NOT NULL AND d.businessDate <= :closedThrough GROUP BY d.chartOfAccount.id")
+    List<Object[]> sumChartAccountBalancesThrough(@Param("closedThrough") LocalDate closedThrough);
+}
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -20,7 +21,45 @@ public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, String
     @Query("SELECT COALESCE(SUM(l.debitAmount - l.creditAmount), 0) FROM LedgerEntry l WHERE l.chartOfAccount = :chartOfAccount")
     BigDecimal getAccountBalance(@Param("chartOfAccount") ChartOfAccount chartOfAccount);
     
-    @Query("SELECT COALESCE(SUM(l.debitAmount - l.creditAmount), 0) FROM LedgerEntry l WHERE l.account = :account")
+    // Customer legs are deposit liability (2000) legs, so a customer balance is credits minus debits
+    @Query("SELECT COALESCE(SUM(l.creditAmount - l.debitAmount), 0) FROM LedgerEntry l WHERE l.account = :account")
     BigDecimal getCustomerAccountBalance(@Param("account") Account account);
+    
+    // Point-in-time range sums, served by the (account_id, created_at) and (chart_of_account_id, created_at) indexes.
+    // Customer account movement uses the same credit-minus-debit rule as getCustomerAccountBalance.
+    @Query("SELECT COALESCE(SUM(l.creditAmount - l.debitAmount), 0) FROM LedgerEntry l WHERE l.account.id = :accountId AND l.createdAt >= :from AND l.createdAt <= :to")
+    BigDecimal sumCustomerAccountMovement(@Param("accountId") String accountId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT COALESCE(SUM(l.creditAmount - l.debitAmount), 0) FROM LedgerEntry l WHERE l.account.id = :accountId AND l.createdAt <= :to")
+    BigDecimal sumCustomerAccountMovementUpTo(@Param("accountId") String accountId, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT COALESCE(SUM(l.debitAmount - l.creditAmount), 0) FROM LedgerEntry l WHERE l.chartOfAccount.id = :chartOfAccountId AND l.createdAt >= :from AND l.createdAt <= :to")
+    BigDecimal sumChartAccountMovement(@Param("chartOfAccountId") String chartOfAccountId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT COALESCE(SUM(l.debitAmount - l.creditAmount), 0) FROM LedgerEntry l WHERE l.chartOfAccount.id = :chartOfAccountId AND l.createdAt <= :to")
+    BigDecimal sumChartAccountMovementUpTo(@Param("chartOfAccountId") String chartOfAccountId, @Param("to") LocalDateTime to);
+    
+    // Rollup rows: [id, SUM(debit), SUM(credit), COUNT]
+    @Query("SELECT l.chartOfAccount.id, SUM(l.debitAmount), SUM(l.creditAmount), COUNT(l) FROM LedgerEntry l WHERE l.createdAt >= :from AND l.createdAt < :to GROUP BY l.chartOfAccount.id")
+    List<Object[]> summarizeByChartAccount(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT l.account.id, SUM(l.debitAmount), SUM(l.creditAmount), COUNT(l) FROM LedgerEntry l WHERE l.account IS NOT NULL AND l.createdAt >= :from AND l.createdAt < :to GROUP BY l.account.id")
+    List<Object[]> summarizeByAccount(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // [chartOfAccountId, SUM(debit - credit)] for the open (not yet closed) tail of the ledger
+    @Query("SELECT l.chartOfAccount.id, SUM(l.debitAmount - l.creditAmount) FROM LedgerEntry l WHERE l.createdAt >= :from GROUP BY l.chartOfAccount.id")
+    List<Object[]> sumChartAccountMovementSince(@Param("from") LocalDateTime from);
+    
+    @Query("SELECT l FROM LedgerEntry l WHERE l.account.id = :accountId AND l.createdAt >= :from AND l.createdAt < :to")
+    List<LedgerEntry> findByAccountIdAndCreatedAtRange(@Param("accountId") String accountId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT MIN(l.createdAt) FROM LedgerEntry l")
+    LocalDateTime findEarliestEntryDate();
+    
+    @Query("SELECT DISTINCT l.account.id FROM LedgerEntry l WHERE l.account IS NOT NULL AND l.createdAt >= :from AND l.createdAt < :to")
+    List<String> findActiveAccountIds(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    @Query("SELECT DISTINCT l.chartOfAccount.id FROM LedgerEntry l WHERE l.createdAt >= :from AND l.createdAt < :to")
+    List<String> findActiveChartAccountIds(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
 
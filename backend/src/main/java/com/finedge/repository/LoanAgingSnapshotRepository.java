@@ -0,0 +1,22 @@
+package com.finedge.repository;
+
+import com.finedge.model.LoanAgingSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LoanAgingSnapshotRepository extends JpaRepository<LoanAgingSnapshot, String> {
+    List<LoanAgingSnapshot> findByAsOfDate(LocalDate asOfDate);
+    Optional<LoanAgingSnapshot> findTopByOrderByAsOfDateDesc();
+    
+    @Modifying
+    @Query("DELETE FROM LoanAgingSnapshot s WHERE s.asOfDate = :asOfDate")
+    int deleteByAsOfDate(@Param("asOfDate") LocalDate asOfDate);
+}
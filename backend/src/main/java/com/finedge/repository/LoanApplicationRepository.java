@@ -2,13 +2,22 @@ package com.finedge.repository;
 
 import com.finedge.model.Customer;
 import com.finedge.model.LoanApplication;
+import com.finedge.model.User;
 import com.finedge.model.enums.LoanStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface LoanApplicationRepository extends JpaRepository<LoanApplication, String> {
@@ -16,5 +25,35 @@ public interface LoanApplicationRepository extends JpaRepository<LoanApplication
     List<LoanApplication> findByCustomerId(String customerId);
     List<LoanApplication> findByStatus(LoanStatus status);
     Page<LoanApplication> findByStatusOrderByCreatedAtDesc(LoanStatus status, Pageable pageable);
+    List<LoanApplication> findTop10ByOrderByCreatedAtDesc();
+    long countByStatus(LoanStatus status);
+    
+    // Claims approved applications waiting for disbursement; rows held by another poller are skipped
+    @Query(value = "SELECT id FROM loan_applications WHERE disbursement_status = 'PENDING' " +
+        "AND (next_disbursement_attempt_at IS NULL OR next_disbursement_attempt_at <= :now) " +
+        "ORDER BY disbursement_requested_at LIMIT :batchSize FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<String> claimPendingDisbursements(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+    
+    // Next applications awaiting review, strongest credit assessment and oldest first. Applications under
+    // another reviewer's live lease, or row-locked by a concurrent claim or review, are skipped
+    @Query(value = "SELECT id FROM loan_applications WHERE status IN ('SUBMITTED', 'UNDER_REVIEW') " +
+        "AND (review_lease_expires_at IS NULL OR review_lease_expires_at <= :now OR review_leased_by = :userId) " +
+        "ORDER BY credit_assessment_score DESC NULLS LAST, submitted_at " +
+        "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<String> claimReviewQueue(@Param("userId") String userId, @Param("now") LocalDateTime now, @Param("limit") int limit);
+    
+    @Modifying
+    @Query("UPDATE LoanApplication a SET a.reviewLeasedBy = :reviewer, a.reviewLeaseExpiresAt = :expiresAt WHERE a.id IN :ids")
+    int leaseForReview(@Param("ids") Collection<String> ids, @Param("reviewer") User reviewer,
+                       @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Modifying
+    @Query("UPDATE LoanApplication a SET a.reviewLeasedBy = NULL, a.reviewLeaseExpiresAt = NULL " +
+        "WHERE a.id = :id AND a.reviewLeasedBy = :reviewer")
+    int releaseReviewLease(@Param("id") String id, @Param("reviewer") User reviewer);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM LoanApplication a WHERE a.id = :id")
+    Optional<LoanApplication> findByIdWithLock(@Param("id") String id);
 }
 
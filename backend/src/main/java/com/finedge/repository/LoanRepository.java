@@ -4,14 +4,19 @@ import com.finedge.model.Customer;
 import com.finedge.model.Loan;
 import com.finedge.model.enums.LoanStatus;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface LoanRepository extends JpaRepository<Loan, String> {
@@ -23,5 +28,13 @@ public interface LoanRepository extends JpaRepository<Loan, String> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT l FROM Loan l WHERE l.id = :id")
     Optional<Loan> findByIdWithLock(@Param("id") String id);
+    
+    // Rows: [id, customerId, loanType, status, principalAmount, amountRemaining, updatedAt] for the portfolio analytics snapshot
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT l.id, l.customer.id, l.loanType, l.status, l.principalAmount, l.amountRemaining, l.updatedAt FROM Loan l WHERE l.updatedAt > :since")
+    Stream<Object[]> streamPortfolioRowsUpdatedSince(@Param("since") LocalDateTime since);
+    
+    // Rows: [id, loanType, amountRemaining], keyset-paged by id
+    @Query("SELECT l.id, l.loanType, l.amountRemaining FROM Loan l WHERE l.status = :status AND l.id > :afterId ORDER BY l.id")
+    List<Object[]> findLoanChunkAfter(@Param("status") LoanStatus status, @Param("afterId") String afterId, Pageable pageable);
 }
-
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -19,6 +20,9 @@ public interface TransactionRepository extends JpaRepository<Transaction, String
     @Query("SELECT t FROM Transaction t WHERE t.account.customer.id = :customerId OR (t.toAccount IS NOT NULL AND t.toAccount.customer.id = :customerId)")
     List<Transaction> findByCustomerId(@Param("customerId") String customerId);
     
+    @Query("SELECT t FROM Transaction t LEFT JOIN t.toAccount ta WHERE (t.account.customer.id = :customerId OR ta.customer.id = :customerId) AND t.createdAt >= :since")
+    List<Transaction> findByCustomerIdSince(@Param("customerId") String customerId, @Param("since") LocalDateTime since);
+    
     Page<Transaction> findByAccountIdOrderByCreatedAtDesc(String accountId, Pageable pageable);
 }
 
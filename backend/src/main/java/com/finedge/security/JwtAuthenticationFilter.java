@@ -49,6 +49,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
+    /**
+     * Public quotes never need the caller's identity, so skip the user lookup a token would trigger
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return "/api/loans/quote".equals(request.getRequestURI());
+    }
+    
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
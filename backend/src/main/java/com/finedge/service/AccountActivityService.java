@@ -0,0 +1,150 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.model.Transaction;
+import com.finedge.model.enums.TransactionType;
+import com.finedge.repository.AccountDailyActivityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-account daily income/expense rollups maintained at posting time, and the customer
+ * time series built from them. Weekly and monthly buckets are merged from the daily rows on read,
+ * so a query touches at most one row per account per day in the range.
+ */
+@Service
+public class AccountActivityService {
+    
+    // Longest range served per granularity, which bounds the number of daily rows read
+    private static final long MAX_DAILY_RANGE_DAYS = 366;
+    private static final long MAX_RANGE_YEARS = 10;
+    
+    @Autowired
+    private AccountDailyActivityRepository accountDailyActivityRepository;
+    
+    /**
+     * Adds a saved transaction to its account's daily rollup
+     */
+    @Transactional
+    public void recordTransaction(Transaction transaction) {
+        BigDecimal income = isInflow(transaction.getTransactionType()) ? transaction.getAmount() : BigDecimal.ZERO;
+        BigDecimal expenses = isOutflow(transaction.getTransactionType()) ? transaction.getAmount() : BigDecimal.ZERO;
+        LocalDate activityDate = transaction.getCreatedAt() != null
+            ? transaction.getCreatedAt().toLocalDate() : LocalDate.now();
+        accountDailyActivityRepository.addActivity(UUID.randomUUID().toString(), transaction.getAccount().getId(),
+            activityDate, income, expenses);
+    }
+    
+    /**
+     * Builds the rollups from transaction history the first time the application starts with an empty table
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (!accountDailyActivityRepository.hasAnyActivity()) {
+            accountDailyActivityRepository.backfillFromTransactions();
+        }
+    }
+    
+    /**
+     * Income and expenses across all of the customer's accounts, bucketed by day, week (ISO, Monday start) or month.
+     * Every bucket in the range is returned, including empty ones.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getCustomerTimeSeries(String customerId, String granularity, LocalDate from, LocalDate to) {
+        String unit = granularity == null ? "day" : granularity.toLowerCase(Locale.ROOT);
+        if (!unit.equals("day") && !unit.equals("week") && !unit.equals("month")) {
+            throw new CustomException("granularity must be one of day, week, month", 400);
+        }
+        
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : defaultStart(unit, end);
+        if (start.isAfter(end)) {
+            throw new CustomException("from must not be after to", 400);
+        }
+        if (unit.equals("day") ? ChronoUnit.DAYS.between(start, end) >= MAX_DAILY_RANGE_DAYS
+                : start.isBefore(end.minusYears(MAX_RANGE_YEARS))) {
+            throw new CustomException("Range too long for granularity " + unit, 400);
+        }
+        
+        Map<LocalDate, BigDecimal[]> buckets = new LinkedHashMap<>();
+        for (LocalDate bucket = bucketStart(unit, start); !bucket.isAfter(end); bucket = nextBucket(unit, bucket)) {
+            buckets.put(bucket, new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO });
+        }
+        
+        for (Object[] row : accountDailyActivityRepository.sumDailyByCustomer(customerId, start, end)) {
+            BigDecimal[] totals = buckets.get(bucketStart(unit, (LocalDate) row[0]));
+            totals[0] = totals[0].add((BigDecimal) row[1]);
+            totals[1] = totals[1].add((BigDecimal) row[2]);
+            totals[2] = totals[2].add(BigDecimal.valueOf(((Number) row[3]).longValue()));
+        }
+        
+        List<Map<String, Object>> series = new ArrayList<>();
+        for (Map.Entry<LocalDate, BigDecimal[]> bucket : buckets.entrySet()) {
+            BigDecimal[] totals = bucket.getValue();
+            series.add(Map.of(
+                "periodStart", bucket.getKey(),
+                "income", totals[0],
+                "expenses", totals[1],
+                "net", totals[0].subtract(totals[1]),
+                "transactionCount", totals[2].longValue()
+            ));
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("granularity", unit);
+        result.put("from", start);
+        result.put("to", end);
+        result.put("series", series);
+        return result;
+    }
+    
+    private static LocalDate defaultStart(String unit, LocalDate end) {
+        return switch (unit) {
+            case "week" -> end.minusWeeks(11);
+            case "month" -> end.minusMonths(11);
+            default -> end.minusDays(29);
+        };
+    }
+    
+    private static LocalDate bucketStart(String unit, LocalDate date) {
+        return switch (unit) {
+            case "week" -> date.with(DayOfWeek.MONDAY);
+            case "month" -> date.withDayOfMonth(1);
+            default -> date;
+        };
+    }
+    
+    private static LocalDate nextBucket(String unit, LocalDate bucket) {
+        return switch (unit) {
+            case "week" -> bucket.plusWeeks(1);
+            case "month" -> bucket.plusMonths(1);
+            default -> bucket.plusDays(1);
+        };
+    }
+    
+    // Direction is relative to the transaction's own account: a transfer row is the sender's side,
+    // the recipient gets its own DEPOSIT row
+    private static boolean isInflow(TransactionType type) {
+        return type == TransactionType.DEPOSIT || type == TransactionType.INTEREST;
+    }
+    
+    private static boolean isOutflow(TransactionType type) {
+        return type == TransactionType.WITHDRAWAL || type == TransactionType.PAYMENT
+            || type == TransactionType.TRANSFER || type == TransactionType.FEE;
+    }
+}
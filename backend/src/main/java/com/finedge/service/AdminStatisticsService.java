@@ -0,0 +1,80 @@
+package com.finedge.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Row counts for the admin dashboard.
+ * Large tables are counted from the planner's estimate in pg_class (kept current by autovacuum/analyze)
+ * instead of a full COUNT(*); small or never-analyzed tables are counted exactly.
+ */
+@Service
+public class AdminStatisticsService {
+    
+    private static final long COUNTS_TTL_MILLIS = 300_000;
+    
+    // Below this estimate an exact COUNT(*) is cheap and preferred
+    private static final long EXACT_COUNT_THRESHOLD = 100_000;
+    
+    private static final Map<String, String> COUNTED_TABLES = Map.of(
+        "totalCustomers", "customers",
+        "totalAccounts", "accounts",
+        "totalLoans", "loans",
+        "totalTransactions", "transactions"
+    );
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private volatile Map<String, Object> tableCounts;
+    private volatile long tableCountsLoadedAt;
+    
+    /**
+     * Counts keyed by dashboard field, plus "approximateCounts" when any of them is an estimate
+     */
+    public Map<String, Object> getTableCounts() {
+        if (tableCounts == null || System.currentTimeMillis() - tableCountsLoadedAt > COUNTS_TTL_MILLIS) {
+            synchronized (this) {
+                if (tableCounts == null || System.currentTimeMillis() - tableCountsLoadedAt > COUNTS_TTL_MILLIS) {
+                    tableCounts = loadTableCounts();
+                    tableCountsLoadedAt = System.currentTimeMillis();
+                }
+            }
+        }
+        return tableCounts;
+    }
+    
+    private Map<String, Object> loadTableCounts() {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        boolean approximate = false;
+        for (Map.Entry<String, String> table : COUNTED_TABLES.entrySet()) {
+            long estimate = estimateRowCount(table.getValue());
+            if (estimate < EXACT_COUNT_THRESHOLD) {
+                counts.put(table.getKey(), exactRowCount(table.getValue()));
+            } else {
+                counts.put(table.getKey(), estimate);
+                approximate = true;
+            }
+        }
+        counts.put("approximateCounts", approximate);
+        return Collections.unmodifiableMap(counts);
+    }
+    
+    // reltuples is -1 (PostgreSQL 14+) or 0 for tables that have never been analyzed
+    private long estimateRowCount(String table) {
+        List<Long> rows = jdbcTemplate.queryForList(
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)", Long.class, table);
+        return rows.isEmpty() || rows.get(0) == null ? -1 : rows.get(0);
+    }
+    
+    private long exactRowCount(String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,233 @@
+package com.finedge.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of analytics responses, keyed by view, role and subject (the customer id for
+ * customer views, "*" for role-wide views). Entries are weighed by the number of values in the
+ * response and evicted oldest first once the total weight exceeds the budget. Concurrent misses
+ * for the same key share one computation. Postings and loan events invalidate the affected keys
+ * once their transaction commits; the TTL bounds staleness for everything else.
+ */
+@Component
+public class AnalyticsResponseCache {
+    
+    public static final String ROLE_CUSTOMER = "CUSTOMER";
+    public static final String ROLE_BANKER = "BANKER";
+    public static final String ROLE_ADMIN = "ADMIN";
+    public static final String ALL_SUBJECTS = "*";
+    
+    @Value("${analytics.cache.max-weight:200000}")
+    private long maxWeight;
+    
+    @Value("${analytics.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+    
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    // One node per cached entry, oldest first; guarded by itself and never held while touching entries
+    private final LinkedHashMap<Key, Entry> insertionOrder = new LinkedHashMap<>();
+    private final AtomicLong totalWeight = new AtomicLong();
+    private final Map<String, List<Runnable>> roleInvalidationListeners = new ConcurrentHashMap<>();
+    
+    record Key(String view, String role, String subject) {
+    }
+    
+    private static final class Entry {
+        final CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+        final long createdAt = System.currentTimeMillis();
+        final AtomicBoolean counted = new AtomicBoolean();
+        volatile long weight;
+    }
+    
+    /**
+     * Cached response for the key, computing it with the loader on a miss.
+     * Only one caller computes a missing key; the others wait for its result.
+     */
+    public Map<String, Object> get(String view, String role, String subject, Supplier<Map<String, Object>> loader) {
+        Key key = new Key(view, role, subject);
+        Entry cached = entries.get(key);
+        if (cached != null && !isExpired(cached)) {
+            return await(cached);
+        }
+        
+        Entry mine = new Entry();
+        Entry current = entries.compute(key, (k, existing) -> {
+            if (existing != null && !isExpired(existing)) {
+                return existing;
+            }
+            if (existing != null) {
+                discard(k, existing);
+            }
+            return mine;
+        });
+        if (current != mine) {
+            return await(current);
+        }
+        
+        try {
+            Map<String, Object> value = loader.get();
+            mine.weight = weigh(value);
+            mine.future.complete(value);
+            mine.counted.set(true);
+            totalWeight.addAndGet(mine.weight);
+            track(key, mine);
+            // An invalidation may have removed the entry while it was computing
+            if (entries.get(key) == mine) {
+                evictOverBudget();
+            } else {
+                discard(key, mine);
+            }
+            return value;
+        } catch (RuntimeException e) {
+            entries.remove(key, mine);
+            mine.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Drops every view cached for the customer once the current transaction commits
+     */
+    public void invalidateCustomer(String customerId) {
+        afterCommit(() -> removeIf(key -> ROLE_CUSTOMER.equals(key.role()) && customerId.equals(key.subject())));
+    }
+    
+    public void invalidateCustomers(Collection<String> customerIds) {
+        afterCommit(() -> removeIf(key -> ROLE_CUSTOMER.equals(key.role()) && customerIds.contains(key.subject())));
+    }
+    
+    /**
+     * Drops every view cached for the role once the current transaction commits
+     */
+    public void invalidateRole(String role) {
+        afterCommit(() -> {
+            removeIf(key -> role.equals(key.role()));
+            roleInvalidationListeners.getOrDefault(role, List.of()).forEach(Runnable::run);
+        });
+    }
+    
+    /**
+     * Registers a callback for role-wide invalidations, for views that keep their own snapshot
+     */
+    public void onRoleInvalidated(String role, Runnable listener) {
+        roleInvalidationListeners.computeIfAbsent(role, r -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+    
+    public long getTotalWeight() {
+        return totalWeight.get();
+    }
+    
+    private void removeIf(Predicate<Key> predicate) {
+        entries.forEach((key, entry) -> {
+            if (predicate.test(key) && entries.remove(key, entry)) {
+                discard(key, entry);
+            }
+        });
+    }
+    
+    private void evictOverBudget() {
+        while (totalWeight.get() > maxWeight) {
+            Key key;
+            Entry oldest;
+            synchronized (insertionOrder) {
+                Iterator<Map.Entry<Key, Entry>> it = insertionOrder.entrySet().iterator();
+                if (!it.hasNext()) {
+                    return;
+                }
+                Map.Entry<Key, Entry> node = it.next();
+                key = node.getKey();
+                oldest = node.getValue();
+                it.remove();
+            }
+            // Only the entry that was queued goes, never a newer one cached under the same key since
+            if (entries.remove(key, oldest)) {
+                release(oldest);
+            }
+        }
+    }
+    
+    // A recomputed key moves to the back of the eviction order
+    private void track(Key key, Entry entry) {
+        synchronized (insertionOrder) {
+            insertionOrder.remove(key);
+            insertionOrder.put(key, entry);
+        }
+    }
+    
+    private void discard(Key key, Entry entry) {
+        synchronized (insertionOrder) {
+            insertionOrder.remove(key, entry);
+        }
+        release(entry);
+    }
+    
+    private void release(Entry entry) {
+        if (entry.counted.compareAndSet(true, false)) {
+            totalWeight.addAndGet(-entry.weight);
+        }
+    }
+    
+    private boolean isExpired(Entry entry) {
+        return System.currentTimeMillis() - entry.createdAt > ttlSeconds * 1000;
+    }
+    
+    private static Map<String, Object> await(Entry entry) {
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    // Number of leaf values in the response; a cheap proxy for its serialized size
+    private static long weigh(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            long weight = 1;
+            for (Object nested : map.values()) {
+                weight += weigh(nested);
+            }
+            return weight;
+        }
+        if (value instanceof Collection<?> collection) {
+            long weight = 1;
+            for (Object nested : collection) {
+                weight += weigh(nested);
+            }
+            return weight;
+        }
+        return value == null ? 0 : 1;
+    }
+}
@@ -1,17 +1,23 @@
 package com.finedge.service;
 
 import com.finedge.model.Customer;
+import com.finedge.model.CustomerDashboardSummary;
 import com.finedge.model.User;
 import com.finedge.model.enums.LoanStatus;
-import com.finedge.model.enums.TransactionType;
 import com.finedge.repository.*;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,12 +31,6 @@ public class AnalyticsService {
     @Autowired
     private AccountRepository accountRepository;
     
-    @Autowired
-    private LoanRepository loanRepository;
-    
-    @Autowired
-    private TransactionRepository transactionRepository;
-    
     @Autowired
     private EMIScheduleRepository emiScheduleRepository;
     
@@ -43,54 +43,59 @@ public class AnalyticsService {
     @Autowired
     private AuditLogRepository auditLogRepository;
     
+    @Autowired
+    private CustomerDashboardService customerDashboardService;
+    
+    @Autowired
+    private AdminStatisticsService adminStatisticsService;
+    
+    @Autowired
+    private AccountActivityService accountActivityService;
+    
+    @Autowired
+    private SpendingCategoryService spendingCategoryService;
+    
+    @Autowired
+    private AnalyticsResponseCache analyticsResponseCache;
+    
+    @Autowired
+    private CashFlowForecastService cashFlowForecastService;
+    
+    // Upper bound on banker dashboard staleness if the background refresh stops running
+    private static final long BANKER_ANALYTICS_TTL_MILLIS = 60_000;
+    
+    private volatile Map<String, Object> bankerAnalytics;
+    private volatile long bankerAnalyticsLoadedAt;
+    
+    @PostConstruct
+    void registerInvalidationListeners() {
+        // Loan application events make the banker snapshot stale; the next read rebuilds it
+        analyticsResponseCache.onRoleInvalidated(AnalyticsResponseCache.ROLE_BANKER, () -> bankerAnalyticsLoadedAt = 0);
+    }
+    
+    @Transactional
     public Map<String, Object> getCustomerAnalytics() {
         User currentUser = getCurrentUser();
         Customer customer = customerRepository.findByUser(currentUser)
             .orElseThrow(() -> new RuntimeException("Customer profile not found"));
-        
+        return analyticsResponseCache.get("customer-dashboard", AnalyticsResponseCache.ROLE_CUSTOMER, customer.getId(),
+            () -> buildCustomerAnalytics(customer));
+    }
+    
+    private Map<String, Object> buildCustomerAnalytics(Customer customer) {
         // Get accounts summary
         List<com.finedge.model.Account> accounts = accountRepository.findByCustomer(customer);
         BigDecimal totalBalance = accounts.stream()
             .map(com.finedge.model.Account::getBalance)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
         
-        // Get loans summary
-        List<com.finedge.model.Loan> loans = loanRepository.findByCustomer(customer);
-        List<com.finedge.model.Loan> activeLoans = loans.stream()
-            .filter(l -> l.getStatus() == LoanStatus.ACTIVE)
-            .toList();
-        BigDecimal totalLoanAmount = loans.stream()
-            .map(com.finedge.model.Loan::getPrincipalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal totalPaid = loans.stream()
-            .map(com.finedge.model.Loan::getAmountPaid)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        // Get transactions summary (last 30 days)
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-        List<com.finedge.model.Transaction> transactions = transactionRepository.findByCustomerId(customer.getId());
-        List<com.finedge.model.Transaction> recentTransactions = transactions.stream()
-            .filter(t -> t.getCreatedAt().isAfter(thirtyDaysAgo))
-            .toList();
-        
-        BigDecimal totalIncome = recentTransactions.stream()
-            .filter(t -> t.getTransactionType() == TransactionType.DEPOSIT || 
-                        t.getTransactionType() == TransactionType.TRANSFER)
-            .map(com.finedge.model.Transaction::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        BigDecimal totalExpenses = recentTransactions.stream()
-            .filter(t -> t.getTransactionType() == TransactionType.WITHDRAWAL || 
-                        t.getTransactionType() == TransactionType.PAYMENT)
-            .map(com.finedge.model.Transaction::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Loan totals and last-30-day activity are maintained at posting time
+        CustomerDashboardSummary summary = customerDashboardService.getSummary(customer);
+        Map<String, Object> recentActivity = customerDashboardService.getRecentActivity(customer.getId());
         
-        // Get upcoming EMIs
-        List<com.finedge.model.EMISchedule> upcomingEMIs = new java.util.ArrayList<>();
-        for (com.finedge.model.Loan loan : activeLoans) {
-            upcomingEMIs.addAll(emiScheduleRepository.findUpcomingEMIs(loan.getId(), LocalDateTime.now()));
-        }
-        upcomingEMIs.sort((a, b) -> a.getDueDate().compareTo(b.getDueDate()));
+        // Get upcoming EMIs across all active loans in one query
+        List<com.finedge.model.EMISchedule> upcomingEMIs = emiScheduleRepository.findUpcomingEMIsByCustomerId(
+            customer.getId(), LoanStatus.ACTIVE, LocalDateTime.now(), PageRequest.of(0, 5));
         
         Map<String, Object> result = new HashMap<>();
         result.put("accounts", Map.of(
@@ -98,69 +103,101 @@ public class AnalyticsService {
             "totalBalance", totalBalance
         ));
         result.put("loans", Map.of(
-            "total", loans.size(),
-            "active", activeLoans.size(),
-            "totalAmount", totalLoanAmount,
-            "totalPaid", totalPaid,
-            "remaining", totalLoanAmount.subtract(totalPaid)
-        ));
-        result.put("transactions", Map.of(
-            "total", recentTransactions.size(),
-            "income", totalIncome,
-            "expenses", totalExpenses,
-            "net", totalIncome.subtract(totalExpenses)
+            "total", summary.getLoanCount(),
+            "active", summary.getActiveLoanCount(),
+            "totalAmount", summary.getTotalLoanAmount(),
+            "totalPaid", summary.getTotalLoanPaid(),
+            "remaining", summary.getTotalLoanAmount().subtract(summary.getTotalLoanPaid())
         ));
-        result.put("upcomingEMIs", upcomingEMIs.stream().limit(5).toList());
+        result.put("transactions", recentActivity);
+        result.put("upcomingEMIs", upcomingEMIs);
         
         return result;
     }
     
+    /**
+     * Income/expense time series for the current customer, read from the per-account daily rollups
+     */
+    public Map<String, Object> getCustomerTimeSeries(String granularity, LocalDate from, LocalDate to) {
+        User currentUser = getCurrentUser();
+        Customer customer = customerRepository.findByUser(currentUser)
+            .orElseThrow(() -> new RuntimeException("Customer profile not found"));
+        return analyticsResponseCache.get("customer-timeseries:" + granularity + ":" + from + ":" + to,
+            AnalyticsResponseCache.ROLE_CUSTOMER, customer.getId(),
+            () -> accountActivityService.getCustomerTimeSeries(customer.getId(), granularity, from, to));
+    }
+    
+    /**
+     * Spending by category for the current customer, read from the monthly category totals
+     */
+    public Map<String, Object> getCustomerSpending(String from, String to) {
+        User currentUser = getCurrentUser();
+        Customer customer = customerRepository.findByUser(currentUser)
+            .orElseThrow(() -> new RuntimeException("Customer profile not found"));
+        return analyticsResponseCache.get("customer-spending:" + from + ":" + to,
+            AnalyticsResponseCache.ROLE_CUSTOMER, customer.getId(),
+            () -> spendingCategoryService.getBreakdown(customer.getId(), from, to));
+    }
+    
+    /**
+     * Projected daily balance for the current customer from scheduled AutoPays, EMIs and bill reminders.
+     * Not cached, since schedule edits do not go through the posting invalidation path.
+     */
+    public Map<String, Object> getCustomerForecast(Integer days, String accountId) {
+        User currentUser = getCurrentUser();
+        Customer customer = customerRepository.findByUser(currentUser)
+            .orElseThrow(() -> new RuntimeException("Customer profile not found"));
+        return cashFlowForecastService.getForecast(customer.getId(), days, accountId);
+    }
+    
+    /**
+     * Banker dashboard, served from the shared snapshot kept warm by refreshBankerAnalytics
+     */
     public Map<String, Object> getBankerAnalytics() {
-        // Get pending loan applications
-        List<com.finedge.model.LoanApplication> pendingApplications = 
-            loanApplicationRepository.findByStatus(com.finedge.model.enums.LoanStatus.SUBMITTED);
-        
-        // Get total customers
+        Map<String, Object> snapshot = bankerAnalytics;
+        if (snapshot == null || System.currentTimeMillis() - bankerAnalyticsLoadedAt > BANKER_ANALYTICS_TTL_MILLIS) {
+            synchronized (this) {
+                // Only the first caller rebuilds a missing or stale snapshot; the rest reuse it
+                if (bankerAnalytics == null || System.currentTimeMillis() - bankerAnalyticsLoadedAt > BANKER_ANALYTICS_TTL_MILLIS) {
+                    refreshBankerAnalytics();
+                }
+                snapshot = bankerAnalytics;
+            }
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Rebuilds the banker dashboard snapshot in the background
+     */
+    @Scheduled(fixedDelayString = "${analytics.banker.refresh-ms:15000}")
+    public synchronized void refreshBankerAnalytics() {
+        long pendingApplications = loanApplicationRepository.countByStatus(LoanStatus.SUBMITTED);
         long totalCustomers = customerRepository.count();
-        
-        // Get recent loan applications (last 10)
-        List<com.finedge.model.LoanApplication> recentApplications = 
-            loanApplicationRepository.findAll().stream()
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                .limit(10)
-                .toList();
+        List<com.finedge.model.LoanApplication> recentApplications =
+            loanApplicationRepository.findTop10ByOrderByCreatedAtDesc();
         
         Map<String, Object> result = new HashMap<>();
-        result.put("pendingApplications", pendingApplications.size());
+        result.put("pendingApplications", pendingApplications);
         result.put("totalCustomers", totalCustomers);
         result.put("recentActivity", Map.of(
             "recentApplications", recentApplications
         ));
         
-        return result;
+        bankerAnalytics = Collections.unmodifiableMap(result);
+        bankerAnalyticsLoadedAt = System.currentTimeMillis();
     }
     
     public Map<String, Object> getAdminAnalytics() {
-        // Get total customers
-        long totalCustomers = customerRepository.count();
-        
-        // Get recent audit logs (last 20)
-        List<com.finedge.model.AuditLog> recentAuditLogs = 
-            auditLogRepository.findAll().stream()
-                .sorted((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()))
-                .limit(20)
-                .toList();
-        
-        // Get system statistics
-        long totalAccounts = accountRepository.count();
-        long totalLoans = loanRepository.count();
-        long totalTransactions = transactionRepository.count();
+        return analyticsResponseCache.get("admin-dashboard", AnalyticsResponseCache.ROLE_ADMIN,
+            AnalyticsResponseCache.ALL_SUBJECTS, this::buildAdminAnalytics);
+    }
+    
+    private Map<String, Object> buildAdminAnalytics() {
+        // Get recent audit logs (last 20) from the created_at index
+        List<com.finedge.model.AuditLog> recentAuditLogs = auditLogRepository.findTop20ByOrderByCreatedAtDesc();
         
-        Map<String, Object> result = new HashMap<>();
-        result.put("totalCustomers", totalCustomers);
-        result.put("totalAccounts", totalAccounts);
-        result.put("totalLoans", totalLoans);
-        result.put("totalTransactions", totalTransactions);
+        Map<String, Object> result = new HashMap<>(adminStatisticsService.getTableCounts());
         result.put("recentAuditLogs", recentAuditLogs);
         result.put("systemHealth", Map.of(
             "status", "operational",
@@ -0,0 +1,401 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.model.Account;
+import com.finedge.model.AutoPay;
+import com.finedge.model.BillPayment;
+import com.finedge.model.JournalEntry;
+import com.finedge.model.Notification;
+import com.finedge.model.Transaction;
+import com.finedge.model.User;
+import com.finedge.model.enums.AccountStatus;
+import com.finedge.model.enums.NotificationType;
+import com.finedge.model.enums.PaymentStatus;
+import com.finedge.model.enums.PaymentType;
+import com.finedge.model.enums.TransactionStatus;
+import com.finedge.model.enums.TransactionType;
+import com.finedge.repository.AccountRepository;
+import com.finedge.repository.AutoPayRepository;
+import com.finedge.repository.BillPaymentRepository;
+import com.finedge.repository.JournalEntryRepository;
+import com.finedge.repository.TransactionRepository;
+import com.finedge.util.ClaimedBatches;
+import com.finedge.util.IdRanges;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Executes due AutoPays. Workers take id-range partitions and claim due rows in batches with
+ * FOR UPDATE SKIP LOCKED (over the enabled/next_payment_date index), so several nodes can run at once
+ * without paying anything twice. Each batch locks its accounts in id order, checks the balance under the
+ * lock, posts the payment through the ledger and advances next_payment_date by the AutoPay's frequency.
+ * A failed batch is isolated as described in ClaimedBatches.
+ * Payments the account cannot cover, or that fail on their own, are retried after the delay; once the attempt
+ * limit is reached the cycle is skipped and the customer is told of funding failures. Missed cycles are never
+ * paid in bulk: a payment advances the schedule past today.
+ */
+@Service
+public class AutoPayExecutionService {
+    
+    private static final String INSUFFICIENT_FUNDS = "Insufficient funds";
+    private static final String ACCOUNT_NOT_ACTIVE = "Account not active";
+    
+    @Autowired
+    private AutoPayRepository autoPayRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+    
+    @Autowired
+    private BillPaymentRepository billPaymentRepository;
+    
+    @Autowired
+    private DoubleEntryService doubleEntryService;
+    
+    @Autowired
+    private CustomerDashboardService customerDashboardService;
+    
+    @Autowired
+    private AccountActivityService accountActivityService;
+    
+    @Autowired
+    private SpendingCategoryService spendingCategoryService;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${autopay-execution.workers:4}")
+    private int workerCount;
+    
+    @Value("${autopay-execution.partitions:16}")
+    private int partitionCount;
+    
+    @Value("${autopay-execution.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${autopay-execution.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Value("${autopay-execution.retry-delay-hours:24}")
+    private long retryDelayHours;
+    
+    private ExecutorService workers;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    @PostConstruct
+    void startWorkers() {
+        workers = Executors.newFixedThreadPool(workerCount);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+    
+    @Scheduled(cron = "${autopay-execution.cron:0 0 6 * * *}")
+    public void executeDue() {
+        if (!running.get()) {
+            runExecution();
+        }
+    }
+    
+    /**
+     * Pays every enabled AutoPay due today or earlier that is not waiting for a retry
+     */
+    public Map<String, Object> runExecution() {
+        if (!running.compareAndSet(false, true)) {
+            throw new CustomException("AutoPay run already in progress", 409);
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            RunTotals totals = new RunTotals();
+            List<CompletableFuture<Void>> runs = new ArrayList<>();
+            for (String[] range : IdRanges.split(partitionCount)) {
+                runs.add(CompletableFuture.runAsync(() -> drain(range, now, totals), workers));
+            }
+            CompletableFuture.allOf(runs.toArray(CompletableFuture<?>[]::new)).join();
+            return totals.toMap(now);
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    private void drain(String[] range, LocalDateTime now, RunTotals totals) {
+        LocalDate today = now.toLocalDate();
+        LocalDateTime retryAt = now.plusHours(retryDelayHours);
+        ClaimedBatches.drain(new TransactionTemplate(transactionManager), new ClaimedBatches.Batch<BatchResult>() {
+            @Override
+            public List<String> claim() {
+                return autoPayRepository.claimDue(range[0], range[1], today, now, maxAttempts, batchSize);
+            }
+            
+            @Override
+            public BatchResult process(List<String> claimed) {
+                return execute(autoPayRepository.findAllById(claimed), now, retryAt);
+            }
+            
+            @Override
+            public BatchResult retry(String id) {
+                return execute(autoPayRepository.findByIdWithLock(id)
+                    .filter(autoPay -> isDue(autoPay, now))
+                    .map(List::of)
+                    .orElse(List.of()), now, retryAt);
+            }
+            
+            @Override
+            public void recordFailure(String id, RuntimeException e) {
+                autoPayRepository.findByIdWithLock(id).ifPresent(autoPay -> {
+                    AutoPayExecutionService.this.recordFailure(autoPay, failureReason(e), today, retryAt);
+                    autoPayRepository.save(autoPay);
+                });
+            }
+        }, totals);
+    }
+    
+    private boolean isDue(AutoPay autoPay, LocalDateTime now) {
+        return Boolean.TRUE.equals(autoPay.getEnabled())
+            && !autoPay.getNextPaymentDate().isAfter(now.toLocalDate())
+            && (autoPay.getNextAttemptAt() == null || !autoPay.getNextAttemptAt().isAfter(now))
+            && (autoPay.getFailedAttempts() == null || autoPay.getFailedAttempts() < maxAttempts);
+    }
+    
+    /**
+     * Pays the given AutoPays, which the caller has already locked, grouped by account
+     */
+    private BatchResult execute(List<AutoPay> autoPays, LocalDateTime now, LocalDateTime retryAt) {
+        BatchResult result = new BatchResult();
+        if (autoPays.isEmpty()) {
+            return result;
+        }
+        LocalDate today = now.toLocalDate();
+        
+        Map<String, List<AutoPay>> byAccount = new TreeMap<>();
+        for (AutoPay autoPay : autoPays) {
+            byAccount.computeIfAbsent(autoPay.getAccount().getId(), id -> new ArrayList<>()).add(autoPay);
+        }
+        
+        Map<String, User> users = new LinkedHashMap<>();
+        Map<String, List<AutoPay>> paidByUser = new LinkedHashMap<>();
+        Map<String, List<AutoPay>> failedByUser = new LinkedHashMap<>();
+        for (Map.Entry<String, List<AutoPay>> entry : byAccount.entrySet()) {
+            Account account = accountRepository.findByIdWithLock(entry.getKey())
+                .orElseThrow(() -> new CustomException("Account not found", 404));
+            List<AutoPay> due = entry.getValue();
+            due.sort(Comparator.comparing(AutoPay::getNextPaymentDate).thenComparing(AutoPay::getId));
+            for (AutoPay autoPay : due) {
+                User user = autoPay.getCustomer().getUser();
+                users.putIfAbsent(user.getId(), user);
+                String failure = account.getStatus() != AccountStatus.ACTIVE ? ACCOUNT_NOT_ACTIVE
+                    : account.getBalance().compareTo(autoPay.getAmount()) < 0 ? INSUFFICIENT_FUNDS : null;
+                if (failure != null) {
+                    if (recordFailure(autoPay, failure, today, retryAt)) {
+                        result.skipped++;
+                    } else {
+                        result.queuedForRetry++;
+                    }
+                    failedByUser.computeIfAbsent(user.getId(), id -> new ArrayList<>()).add(autoPay);
+                    continue;
+                }
+                pay(autoPay, account, now);
+                autoPay.setNextPaymentDate(nextPaymentDateAfter(autoPay, today));
+                paidByUser.computeIfAbsent(user.getId(), id -> new ArrayList<>()).add(autoPay);
+                result.paid++;
+                result.amount = result.amount.add(autoPay.getAmount());
+            }
+        }
+        autoPayRepository.saveAll(autoPays);
+        
+        List<Notification> notifications = new ArrayList<>();
+        paidByUser.forEach((userId, paid) -> notifications.add(notification(users.get(userId),
+            NotificationType.TRANSACTION, "AutoPay Payment Sent",
+            paid.size() == 1
+                ? "Your AutoPay of $" + paid.get(0).getAmount() + " to " + paid.get(0).getBiller().getName() + " was paid"
+                : paid.size() + " AutoPay payments totalling $" + sum(paid) + " were paid",
+            paid)));
+        failedByUser.forEach((userId, failed) -> notifications.add(notification(users.get(userId),
+            NotificationType.PAYMENT_DUE, "AutoPay Payment Failed",
+            "We could not pay $" + sum(failed) + " for " + failed.size() + " AutoPay payment(s). "
+                + "Please fund your account; payments are retried on " + retryAt.toLocalDate()
+                + ", up to " + maxAttempts + " attempts per cycle",
+            failed)));
+        notificationService.createNotifications(notifications);
+        return result;
+    }
+    
+    /**
+     * Counts a failed attempt: the AutoPay is retried after the delay, or once the attempt limit is reached its
+     * cycle is skipped. Returns true if the cycle was skipped.
+     */
+    private boolean recordFailure(AutoPay autoPay, String reason, LocalDate today, LocalDateTime retryAt) {
+        int attempts = (autoPay.getFailedAttempts() != null ? autoPay.getFailedAttempts() : 0) + 1;
+        autoPay.setLastFailureReason(reason);
+        if (attempts >= maxAttempts) {
+            autoPay.setNextPaymentDate(nextPaymentDateAfter(autoPay, today));
+            autoPay.setFailedAttempts(0);
+            autoPay.setNextAttemptAt(null);
+            return true;
+        }
+        autoPay.setFailedAttempts(attempts);
+        autoPay.setNextAttemptAt(retryAt);
+        return false;
+    }
+    
+    private void pay(AutoPay autoPay, Account account, LocalDateTime now) {
+        // One payment per AutoPay and cycle; the unique transaction reference rejects a second one
+        String reference = "AUTOPAY-" + autoPay.getId() + "-" + autoPay.getNextPaymentDate();
+        String description = "AutoPay - " + autoPay.getBiller().getName();
+        JournalEntry journalEntry = doubleEntryService.createTransactionEntry(TransactionType.PAYMENT,
+            autoPay.getAmount(), account, null, description, reference, null);
+        
+        Transaction transaction = new Transaction();
+        transaction.setAccount(account);
+        transaction.setJournalEntry(journalEntry);
+        transaction.setTransactionType(TransactionType.PAYMENT);
+        transaction.setAmount(autoPay.getAmount());
+        transaction.setBalanceAfter(account.getBalance());
+        transaction.setDescription(description);
+        transaction.setReference(reference);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setProcessedAt(now);
+        // Counted once, under the biller's category, through the transaction
+        transaction.setSpendingCategory(spendingCategoryService.categorize(autoPay.getBiller()));
+        transaction = transactionRepository.save(transaction);
+        customerDashboardService.recordTransaction(transaction);
+        accountActivityService.recordTransaction(transaction);
+        spendingCategoryService.recordTransaction(transaction);
+        
+        journalEntry.setTransactionId(transaction.getId());
+        journalEntryRepository.save(journalEntry);
+        
+        BillPayment payment = new BillPayment();
+        payment.setCustomer(autoPay.getCustomer());
+        payment.setBiller(autoPay.getBiller());
+        payment.setAccount(account);
+        payment.setAmount(autoPay.getAmount());
+        payment.setPaymentDate(now);
+        payment.setType(PaymentType.RECURRING);
+        payment.setStatus(PaymentStatus.COMPLETED);
+        payment.setDescription(description);
+        billPaymentRepository.save(payment);
+        
+        autoPay.setLastPaidAt(now);
+        autoPay.setFailedAttempts(0);
+        autoPay.setNextAttemptAt(null);
+        autoPay.setLastFailureReason(null);
+    }
+    
+    private static LocalDate nextPaymentDateAfter(AutoPay autoPay, LocalDate today) {
+        LocalDate next = autoPay.getNextPaymentDate();
+        do {
+            next = AutoPayService.nextOccurrence(next, autoPay.getFrequency(), autoPay.getDayOfMonth());
+        } while (!next.isAfter(today));
+        return next;
+    }
+    
+    private static Notification notification(User user, NotificationType type, String title, String message,
+                                             List<AutoPay> autoPays) {
+        List<String> autoPayIds = new ArrayList<>();
+        for (AutoPay autoPay : autoPays) {
+            autoPayIds.add(autoPay.getId());
+        }
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setType(type);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setMetadata(Map.of("autoPayIds", autoPayIds));
+        notification.setRelatedEntityType("auto_pay");
+        notification.setRelatedEntityId(autoPays.get(0).getId());
+        return notification;
+    }
+    
+    private static BigDecimal sum(List<AutoPay> autoPays) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (AutoPay autoPay : autoPays) {
+            total = total.add(autoPay.getAmount());
+        }
+        return total;
+    }
+    
+    private static String failureReason(RuntimeException e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return message.length() > 255 ? message.substring(0, 255) : message;
+    }
+    
+    private static final class BatchResult {
+        long paid;
+        long queuedForRetry;
+        long skipped;
+        BigDecimal amount = BigDecimal.ZERO;
+    }
+    
+    private static final class RunTotals implements ClaimedBatches.Results<BatchResult> {
+        private long paid;
+        private long queuedForRetry;
+        private long skipped;
+        private long failed;
+        private BigDecimal amount = BigDecimal.ZERO;
+        private final List<String> errors = new ArrayList<>();
+        
+        @Override
+        public synchronized void add(BatchResult batch) {
+            paid += batch.paid;
+            queuedForRetry += batch.queuedForRetry;
+            skipped += batch.skipped;
+            amount = amount.add(batch.amount);
+        }
+        
+        @Override
+        public synchronized void addFailure(String error) {
+            failed++;
+            errors.add(error);
+        }
+        
+        @Override
+        public synchronized void addError(String error) {
+            errors.add(error);
+        }
+        
+        synchronized Map<String, Object> toMap(LocalDateTime startedAt) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("startedAt", startedAt.toString());
+            result.put("paid", paid);
+            result.put("amountPaid", amount);
+            result.put("queuedForRetry", queuedForRetry);
+            result.put("skipped", skipped);
+            result.put("failed", failed);
+            result.put("errors", errors);
+            return result;
+        }
+    }
+}
@@ -100,6 +100,7 @@ public class AutoPayService {
         autoPay.setFrequency(request.getFrequency());
         autoPay.setDayOfMonth(request.getDayOfMonth());
         autoPay.setNextPaymentDate(calculateNextPaymentDate(request.getFrequency(), request.getDayOfMonth()));
+        resetExecutionState(autoPay);
         
         return autoPayRepository.save(autoPay);
     }
@@ -117,6 +118,12 @@ public class AutoPayService {
             throw new CustomException("Unauthorized access", 403);
         }
         
+        // Re-enabling does not pay the cycles missed while disabled
+        if (Boolean.TRUE.equals(enabled) && !Boolean.TRUE.equals(autoPay.getEnabled())
+                && autoPay.getNextPaymentDate().isBefore(LocalDate.now())) {
+            autoPay.setNextPaymentDate(calculateNextPaymentDate(autoPay.getFrequency(), autoPay.getDayOfMonth()));
+            resetExecutionState(autoPay);
+        }
         autoPay.setEnabled(enabled);
         return autoPayRepository.save(autoPay);
     }
@@ -137,6 +144,12 @@ public class AutoPayService {
         autoPayRepository.delete(autoPay);
     }
     
+    private static void resetExecutionState(AutoPay autoPay) {
+        autoPay.setFailedAttempts(0);
+        autoPay.setNextAttemptAt(null);
+        autoPay.setLastFailureReason(null);
+    }
+    
     private LocalDate calculateNextPaymentDate(PaymentFrequency frequency, Integer dayOfMonth) {
         LocalDate today = LocalDate.now();
         
@@ -158,5 +171,19 @@ public class AutoPayService {
                 return today.plusMonths(1);
         }
     }
+    
+    /**
+     * Next payment date after the given one; monthly dates use the configured day, capped at the 28th
+     */
+    public static LocalDate nextOccurrence(LocalDate date, PaymentFrequency frequency, Integer dayOfMonth) {
+        switch (frequency) {
+            case WEEKLY:
+                return date.plusWeeks(1);
+            case BI_WEEKLY:
+                return date.plusWeeks(2);
+            default:
+                LocalDate next = date.plusMonths(1);
+                return dayOfMonth != null ? next.withDayOfMonth(Math.min(dayOfMonth, 28)) : next;
+        }
+    }
 }
-
@@ -0,0 +1,158 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.model.Account;
+import com.finedge.model.BalanceSnapshot;
+import com.finedge.model.ChartOfAccount;
+import com.finedge.repository.AccountRepository;
+import com.finedge.repository.BalanceSnapshotRepository;
+import com.finedge.repository.ChartOfAccountRepository;
+import com.finedge.repository.LedgerEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Point-in-time ("as of") ledger balances for customer accounts and chart accounts.
+ * A balance is the nearest stored snapshot at or before the requested time plus the
+ * ledger movement between the snapshot and that time, so the range scan is bounded
+ * by the snapshot interval rather than by the age of the account. Customer account
+ * movement is credits minus debits of the account's deposit liability legs, the same
+ * rule that moves Account.balance when a posting is made.
+ */
+@Service
+public class BalanceSnapshotService {
+    
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+    
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private ChartOfAccountRepository chartOfAccountRepository;
+    
+    /**
+     * Ledger balance of a customer account including all entries created at or before asOf
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getAccountBalanceAsOf(String accountId, LocalDateTime asOf) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("accountId", accountId);
+        result.put("asOf", asOf);
+        result.put("balance", accountBalanceAsOf(accountId, asOf));
+        return result;
+    }
+    
+    /**
+     * Ledger balance of a chart account including all entries created at or before asOf
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getChartAccountBalanceAsOf(String accountCode, LocalDateTime asOf) {
+        ChartOfAccount chartOfAccount = chartOfAccountRepository.findByAccountCode(accountCode)
+            .orElseThrow(() -> new CustomException("Chart of account not found: " + accountCode, 404));
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("accountCode", accountCode);
+        result.put("accountName", chartOfAccount.getAccountName());
+        result.put("asOf", asOf);
+        result.put("balance", chartAccountBalanceAsOf(chartOfAccount.getId(), asOf));
+        return result;
+    }
+    
+    BigDecimal accountBalanceAsOf(String accountId, LocalDateTime asOf) {
+        return balanceSnapshotRepository
+            .findFirstByAccountIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(accountId, asOf)
+            .map(s -> s.getBalance().add(
+                ledgerEntryRepository.sumCustomerAccountMovement(accountId, s.getSnapshotAt(), asOf)))
+            .orElseGet(() -> ledgerEntryRepository.sumCustomerAccountMovementUpTo(accountId, asOf));
+    }
+    
+    BigDecimal chartAccountBalanceAsOf(String chartOfAccountId, LocalDateTime asOf) {
+        return balanceSnapshotRepository
+            .findFirstByChartOfAccountIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(chartOfAccountId, asOf)
+            .map(s -> s.getBalance().add(
+                ledgerEntryRepository.sumChartAccountMovement(chartOfAccountId, s.getSnapshotAt(), asOf)))
+            .orElseGet(() -> ledgerEntryRepository.sumChartAccountMovementUpTo(chartOfAccountId, asOf));
+    }
+    
+    /**
+     * Stores snapshots at the start of the given date for accounts with ledger activity
+     * during the preceding day. Accounts without activity keep their older snapshot,
+     * which is still exact because the range scan after it is empty. Safe to re-run.
+     * Called by the end-of-day close for each closed business date.
+     */
+    @Transactional
+    public int takeSnapshots(LocalDate date) {
+        LocalDateTime snapshotAt = date.atStartOfDay();
+        LocalDateTime activityFrom = snapshotAt.minusDays(1);
+        // Balances include entries strictly before snapshotAt (timestamps are stored with microsecond precision)
+        LocalDateTime upTo = snapshotAt.minusNanos(1000);
+        int created = 0;
+        
+        for (String accountId : ledgerEntryRepository.findActiveAccountIds(activityFrom, snapshotAt)) {
+            if (balanceSnapshotRepository.existsByAccountIdAndSnapshotAt(accountId, snapshotAt)) {
+                continue;
+            }
+            Account account = accountRepository.getReferenceById(accountId);
+            BalanceSnapshot snapshot = new BalanceSnapshot();
+            snapshot.setAccount(account);
+            snapshot.setSnapshotAt(snapshotAt);
+            snapshot.setBalance(accountBalanceAsOf(accountId, upTo));
+            balanceSnapshotRepository.save(snapshot);
+            created++;
+        }
+        
+        for (String chartOfAccountId : ledgerEntryRepository.findActiveChartAccountIds(activityFrom, snapshotAt)) {
+            if (balanceSnapshotRepository.existsByChartOfAccountIdAndSnapshotAt(chartOfAccountId, snapshotAt)) {
+                continue;
+            }
+            ChartOfAccount chartOfAccount = chartOfAccountRepository.getReferenceById(chartOfAccountId);
+            BalanceSnapshot snapshot = new BalanceSnapshot();
+            snapshot.setChartOfAccount(chartOfAccount);
+            snapshot.setSnapshotAt(snapshotAt);
+            snapshot.setBalance(chartAccountBalanceAsOf(chartOfAccountId, upTo));
+            balanceSnapshotRepository.save(snapshot);
+            created++;
+        }
+        
+        return created;
+    }
+    
+    /**
+     * Recomputes the stored customer account snapshots from the ledger. Snapshots taken before
+     * account balances were derived from deposit liability legs (credits minus debits) hold
+     * the wrong sign; run once after upgrading.
+     */
+    @Transactional
+    public int rebuildAccountSnapshots() {
+        return balanceSnapshotRepository.recomputeAccountSnapshots();
+    }
+    
+    /**
+     * Parses an asOf request parameter. A plain date (yyyy-MM-dd) means the end of that day.
+     */
+    public static LocalDateTime parseAsOf(String asOf) {
+        if (asOf == null || asOf.isBlank()) {
+            return LocalDateTime.now();
+        }
+        try {
+            if (asOf.length() <= 10) {
+                return LocalDate.parse(asOf).plusDays(1).atStartOfDay().minusNanos(1000);
+            }
+            return LocalDateTime.parse(asOf);
+        } catch (DateTimeParseException e) {
+            throw new CustomException("Invalid asOf value, expected yyyy-MM-dd or yyyy-MM-ddTHH:mm:ss", 400);
+        }
+    }
+}
@@ -7,19 +7,30 @@ import com.finedge.model.LedgerEntry;
 import com.finedge.repository.AccountRepository;
 import com.finedge.repository.ChartOfAccountRepository;
 import com.finedge.repository.JournalEntryRepository;
+import com.finedge.repository.LedgerDailySummaryRepository;
 import com.finedge.repository.LedgerEntryRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class BalanceValidationService {
     
+    public static final int MAX_PAGE_SIZE = 500;
+    
     @Autowired
     private JournalEntryRepository journalEntryRepository;
     
@@ -32,21 +43,69 @@ public class BalanceValidationService {
     @Autowired
     private ChartOfAccountRepository chartOfAccountRepository;
     
+    @Autowired
+    private LedgerDailySummaryRepository ledgerDailySummaryRepository;
+    
+    @Autowired
+    private EndOfDayCloseService endOfDayCloseService;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     /**
-     * Validates that all journal entries are balanced (debits = credits)
+     * Validates that all journal entries are balanced (debits = credits).
+     * Returns one page of unbalanced entries ordered by id; pass the returned
+     * nextCursor back as cursor to fetch the following page.
      */
     @Transactional(readOnly = true)
-    public Map<String, Object> validateJournalEntries() {
-        Map<String, Object> result = new HashMap<>();
-        List<JournalEntry> unbalancedEntries = journalEntryRepository.findUnbalancedEntries();
+    public Map<String, Object> validateJournalEntries(String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long totalUnbalanced = journalEntryRepository.countByIsBalancedFalse();
+        List<JournalEntry> unbalancedEntries = journalEntryRepository.findUnbalancedEntriesAfter(
+            cursor != null ? cursor : "", PageRequest.of(0, pageSize));
         
-        result.put("totalUnbalanced", unbalancedEntries.size());
+        Map<String, Object> result = new HashMap<>();
+        result.put("totalUnbalanced", totalUnbalanced);
         result.put("unbalancedEntries", unbalancedEntries);
-        result.put("isValid", unbalancedEntries.isEmpty());
+        result.put("nextCursor", unbalancedEntries.size() == pageSize
+            ? unbalancedEntries.get(unbalancedEntries.size() - 1).getId() : null);
+        result.put("isValid", totalUnbalanced == 0);
         
         return result;
     }
     
+    /**
+     * Count-only journal entry validation; does not load any entries
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> countUnbalancedJournalEntries() {
+        long totalUnbalanced = journalEntryRepository.countByIsBalancedFalse();
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("totalUnbalanced", totalUnbalanced);
+        result.put("isValid", totalUnbalanced == 0);
+        return result;
+    }
+    
+    /**
+     * Streams every unbalanced journal entry to the consumer. Entries are detached
+     * after being handed over so the persistence context does not grow with the result.
+     */
+    @Transactional(readOnly = true)
+    public long streamUnbalancedJournalEntries(Consumer<JournalEntry> consumer) {
+        long count = 0;
+        try (Stream<JournalEntry> entries = journalEntryRepository.streamUnbalancedEntries()) {
+            Iterator<JournalEntry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                JournalEntry entry = iterator.next();
+                consumer.accept(entry);
+                entityManager.detach(entry);
+                count++;
+            }
+        }
+        return count;
+    }
+    
     /**
      * Validates a specific journal entry
      */
@@ -111,7 +170,8 @@ public class BalanceValidationService {
     }
     
     /**
-     * Validates chart of account balances (trial balance)
+     * Validates chart of account balances (trial balance).
+     * Closed days come from the daily rollups; only the open tail is summed from ledger entries.
      */
     @Transactional(readOnly = true)
     public Map<String, Object> validateTrialBalance() {
@@ -119,11 +179,24 @@ public class BalanceValidationService {
         List<ChartOfAccount> accounts = chartOfAccountRepository.findByIsActiveTrue();
         List<Map<String, Object>> balances = new java.util.ArrayList<>();
         
+        // Rollups and the tail are split at one watermark read in this transaction, not the cached one
+        Map<String, BigDecimal> ledgerBalances = new HashMap<>();
+        LocalDate closedThrough = endOfDayCloseService.readClosedThrough();
+        if (closedThrough != null) {
+            for (Object[] row : ledgerDailySummaryRepository.sumChartAccountBalancesThrough(closedThrough)) {
+                ledgerBalances.merge((String) row[0], (BigDecimal) row[1], BigDecimal::add);
+            }
+        }
+        LocalDateTime tailFrom = EndOfDayCloseService.openPeriodStart(closedThrough);
+        for (Object[] row : ledgerEntryRepository.sumChartAccountMovementSince(tailFrom)) {
+            ledgerBalances.merge((String) row[0], (BigDecimal) row[1], BigDecimal::add);
+        }
+        
         BigDecimal totalDebits = BigDecimal.ZERO;
         BigDecimal totalCredits = BigDecimal.ZERO;
         
         for (ChartOfAccount coa : accounts) {
-            BigDecimal balance = ledgerEntryRepository.getAccountBalance(coa);
+            BigDecimal balance = ledgerBalances.getOrDefault(coa.getId(), BigDecimal.ZERO);
             
             Map<String, Object> accountBalance = new HashMap<>();
             accountBalance.put("accountCode", coa.getAccountCode());
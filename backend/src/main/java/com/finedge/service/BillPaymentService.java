@@ -11,6 +11,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
@@ -44,7 +45,7 @@ public class BillPaymentService {
         return billPaymentRepository.findByCustomerIdOrderByPaymentDateDesc(customer.getId());
     }
     
-    @Transactional(isolation = org.springframework.transaction.annotation.Isolation.REPEATABLE_READ)
+    @Transactional
     public BillPayment createPayment(BillPaymentRequest request) {
         User currentUser = getCurrentUser();
         Customer customer = customerRepository.findByUser(currentUser)
@@ -57,16 +58,16 @@ public class BillPaymentService {
             throw new CustomException("Unauthorized access", 403);
         }
         
-        // Use pessimistic locking to prevent race conditions when processing payment
-        Account account = accountRepository.findByIdWithLock(request.getAccountId())
+        // No lock here: BillSettlementService debits the account under its lock when the payment date arrives
+        Account account = accountRepository.findById(request.getAccountId())
             .orElseThrow(() -> new CustomException("Account not found", 404));
         
         if (!account.getCustomer().getId().equals(customer.getId())) {
             throw new CustomException("Unauthorized access", 403);
         }
         
-        // Check balance if payment needs to be processed immediately
-        if (account.getBalance().compareTo(request.getAmount()) < 0) {
+        // Early feedback for payments due now; settlement checks the balance again
+        if (!request.getPaymentDate().isAfter(LocalDateTime.now()) && account.getBalance().compareTo(request.getAmount()) < 0) {
             throw new CustomException("Insufficient funds", 400);
         }
         
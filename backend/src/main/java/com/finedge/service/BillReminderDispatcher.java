@@ -0,0 +1,222 @@
+package com.finedge.service;
+
+import com.finedge.model.BillReminder;
+import com.finedge.model.Notification;
+import com.finedge.model.User;
+import com.finedge.model.enums.NotificationType;
+import com.finedge.repository.BillReminderRepository;
+import com.finedge.util.TimingWheel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends bill reminders at their fire time (due date minus daysBefore, at the send hour). Upcoming fire times
+ * are held in an in-memory hierarchical timing wheel (minutes, hours, days) loaded at startup and reloaded daily
+ * for the whole lookahead window; creating, toggling and deleting reminders update the wheel after commit. Only
+ * the node that served the change sees it right away, so the daily reload is what gets it onto every other node.
+ * The minute tick only advances the wheel, so the database is read only when reminders come due. Due reminders
+ * are claimed with FOR UPDATE SKIP LOCKED and marked sent, so each is sent once even with several nodes.
+ */
+@Service
+public class BillReminderDispatcher {
+    
+    private static final long TICK_MILLIS = 60_000L;
+    
+    @Autowired
+    private BillReminderRepository reminderRepository;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${bill-reminders.send-hour:9}")
+    private int sendHour;
+    
+    @Value("${bill-reminders.lookahead-days:7}")
+    private int lookaheadDays;
+    
+    @Value("${bill-reminders.batch-size:200}")
+    private int batchSize;
+    
+    private final ZoneId zone = ZoneId.systemDefault();
+    
+    private TimingWheel<String> wheel;
+    
+    // Fire times up to here are in the wheel; later ones are loaded by the daily refresh
+    private LocalDateTime loadedUntil;
+    
+    public LocalDateTime fireTime(LocalDate dueDate, int daysBefore) {
+        return dueDate.minusDays(daysBefore).atTime(sendHour, 0);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadWheel() {
+        LocalDateTime now = LocalDateTime.now();
+        // The top level spans the lookahead window plus a day of slack between refreshes
+        wheel = new TimingWheel<>(TICK_MILLIS, toMillis(now), 60, 24, lookaheadDays + 2);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            reminderRepository.backfillRemindAt(sendHour));
+        LocalDateTime to = now.plusDays(lookaheadDays);
+        schedule(reminderRepository.findPendingUpTo(to, now.toLocalDate()));
+        loadedUntil = to;
+    }
+    
+    /**
+     * Reloads every pending reminder up to the end of the lookahead window, including ones created or re-enabled
+     * on another node and ones whose fire time has passed unsent; add() replaces what the wheel already holds
+     */
+    @Scheduled(cron = "${bill-reminders.refresh-cron:0 5 0 * * *}")
+    public synchronized void refreshWheel() {
+        if (wheel == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime to = now.plusDays(lookaheadDays);
+        schedule(reminderRepository.findPendingUpTo(to, now.toLocalDate()));
+        loadedUntil = to;
+    }
+    
+    /**
+     * Puts the reminder on the wheel, or takes it off if it is disabled, once the current transaction commits
+     */
+    public void reminderChanged(BillReminder reminder) {
+        String id = reminder.getId();
+        boolean pending = Boolean.TRUE.equals(reminder.getEnabled()) && reminder.getRemindedAt() == null
+            && reminder.getRemindAt() != null;
+        LocalDateTime remindAt = reminder.getRemindAt();
+        afterCommit(() -> {
+            if (pending) {
+                schedule(id, remindAt);
+            } else {
+                cancel(id);
+            }
+        });
+    }
+    
+    public void reminderDeleted(String id) {
+        afterCommit(() -> cancel(id));
+    }
+    
+    @Scheduled(fixedDelayString = "${bill-reminders.tick-ms:60000}")
+    public void tick() {
+        List<String> due;
+        synchronized (this) {
+            if (wheel == null) {
+                return;
+            }
+            due = wheel.advance(System.currentTimeMillis());
+        }
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<String> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                dispatch(batch);
+            } catch (RuntimeException e) {
+                // Send the rest one by one and put the failures back on the wheel for the next tick
+                for (String id : batch) {
+                    try {
+                        dispatch(List.of(id));
+                    } catch (RuntimeException retry) {
+                        schedule(id, LocalDateTime.now());
+                    }
+                }
+            }
+        }
+    }
+    
+    private void dispatch(List<String> ids) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<String> claimed = reminderRepository.claimDue(ids, now);
+            if (claimed.isEmpty()) {
+                return;
+            }
+            reminderRepository.markReminded(claimed, now);
+            
+            Map<String, User> users = new LinkedHashMap<>();
+            Map<String, List<BillReminder>> byUser = new LinkedHashMap<>();
+            for (BillReminder reminder : reminderRepository.findAllById(claimed)) {
+                User user = reminder.getCustomer().getUser();
+                users.putIfAbsent(user.getId(), user);
+                byUser.computeIfAbsent(user.getId(), id -> new ArrayList<>()).add(reminder);
+            }
+            List<Notification> notifications = new ArrayList<>();
+            byUser.forEach((userId, reminders) -> notifications.add(notification(users.get(userId), reminders)));
+            notificationService.createNotifications(notifications);
+        });
+    }
+    
+    private synchronized void schedule(String id, LocalDateTime remindAt) {
+        if (wheel != null && !remindAt.isAfter(loadedUntil)) {
+            wheel.add(id, toMillis(remindAt), id);
+        }
+    }
+    
+    private void schedule(List<Object[]> pending) {
+        for (Object[] row : pending) {
+            wheel.add((String) row[0], toMillis((LocalDateTime) row[1]), (String) row[0]);
+        }
+    }
+    
+    private synchronized void cancel(String id) {
+        if (wheel != null) {
+            wheel.cancel(id);
+        }
+    }
+    
+    private long toMillis(LocalDateTime time) {
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+    
+    private static Notification notification(User user, List<BillReminder> reminders) {
+        List<String> reminderIds = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (BillReminder reminder : reminders) {
+            reminderIds.add(reminder.getId());
+            total = total.add(reminder.getExpectedAmount());
+        }
+        BillReminder first = reminders.get(0);
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setType(NotificationType.PAYMENT_DUE);
+        notification.setTitle("Bill Due Soon");
+        notification.setMessage(reminders.size() == 1
+            ? "Your " + first.getBiller().getName() + " bill of $" + first.getExpectedAmount() + " is due on " + first.getDueDate()
+            : reminders.size() + " bills totalling $" + total + " are due soon");
+        notification.setMetadata(Map.of("billReminderIds", reminderIds));
+        notification.setRelatedEntityType("bill_reminder");
+        notification.setRelatedEntityId(first.getId());
+        return notification;
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
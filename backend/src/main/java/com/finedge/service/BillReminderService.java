@@ -32,6 +32,9 @@ public class BillReminderService {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private BillReminderDispatcher reminderDispatcher;
+    
     private User getCurrentUser() {
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
         return userRepository.findByUsername(username)
@@ -65,8 +68,11 @@ public class BillReminderService {
         reminder.setExpectedAmount(request.getExpectedAmount());
         reminder.setDaysBefore(request.getDaysBefore());
         reminder.setEnabled(true);
+        reminder.setRemindAt(reminderDispatcher.fireTime(request.getDueDate(), request.getDaysBefore()));
         
-        return reminderRepository.save(reminder);
+        reminder = reminderRepository.save(reminder);
+        reminderDispatcher.reminderChanged(reminder);
+        return reminder;
     }
     
     @Transactional
@@ -83,7 +89,9 @@ public class BillReminderService {
         }
         
         reminder.setEnabled(enabled);
-        return reminderRepository.save(reminder);
+        reminder = reminderRepository.save(reminder);
+        reminderDispatcher.reminderChanged(reminder);
+        return reminder;
     }
     
     @Transactional
@@ -100,6 +108,7 @@ public class BillReminderService {
         }
         
         reminderRepository.delete(reminder);
+        reminderDispatcher.reminderDeleted(id);
     }
 }
 
@@ -0,0 +1,284 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.model.Account;
+import com.finedge.model.BillPayment;
+import com.finedge.model.JournalEntry;
+import com.finedge.model.Notification;
+import com.finedge.model.Transaction;
+import com.finedge.model.User;
+import com.finedge.model.enums.AccountStatus;
+import com.finedge.model.enums.NotificationType;
+import com.finedge.model.enums.PaymentStatus;
+import com.finedge.model.enums.TransactionStatus;
+import com.finedge.model.enums.TransactionType;
+import com.finedge.repository.AccountRepository;
+import com.finedge.repository.BillPaymentRepository;
+import com.finedge.repository.JournalEntryRepository;
+import com.finedge.repository.TransactionRepository;
+import com.finedge.util.ClaimedBatches;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Settles PENDING bill payments once their payment date arrives. Each poll claims a batch with
+ * FOR UPDATE SKIP LOCKED, so several nodes can settle side by side, then locks the batch's accounts in id
+ * order and debits each payment through the ledger as a PAYMENT transaction in one database transaction.
+ * Payments the account cannot cover are marked FAILED, as is a payment that still fails once its batch has
+ * been isolated (see ClaimedBatches). Customers get one notification per batch.
+ */
+@Service
+public class BillSettlementService {
+    
+    private static final String INSUFFICIENT_FUNDS = "Insufficient funds";
+    private static final String ACCOUNT_NOT_ACTIVE = "Account not active";
+    
+    @Autowired
+    private BillPaymentRepository billPaymentRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+    
+    @Autowired
+    private DoubleEntryService doubleEntryService;
+    
+    @Autowired
+    private CustomerDashboardService customerDashboardService;
+    
+    @Autowired
+    private AccountActivityService accountActivityService;
+    
+    @Autowired
+    private SpendingCategoryService spendingCategoryService;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${bill-settlement.batch-size:200}")
+    private int batchSize;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    @Scheduled(fixedDelayString = "${bill-settlement.poll-ms:5000}")
+    public void settleDue() {
+        if (!running.get()) {
+            runSettlement();
+        }
+    }
+    
+    /**
+     * Settles every pending payment that is due, batch by batch, and returns what was done
+     */
+    public Map<String, Object> runSettlement() {
+        if (!running.compareAndSet(false, true)) {
+            throw new CustomException("Bill settlement run already in progress", 409);
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            RunTotals totals = new RunTotals();
+            ClaimedBatches.drain(new TransactionTemplate(transactionManager), new ClaimedBatches.Batch<BatchResult>() {
+                @Override
+                public List<String> claim() {
+                    return billPaymentRepository.claimDueForSettlement(now, batchSize);
+                }
+                
+                @Override
+                public BatchResult process(List<String> claimed) {
+                    return settle(billPaymentRepository.findAllById(claimed), now, null);
+                }
+                
+                @Override
+                public BatchResult retry(String id) {
+                    return settle(billPaymentRepository.findByIdWithLock(id).map(List::of).orElse(List.of()), now, null);
+                }
+                
+                @Override
+                public void recordFailure(String id, RuntimeException e) {
+                    settle(billPaymentRepository.findByIdWithLock(id).map(List::of).orElse(List.of()), now, failureReason(e));
+                }
+            }, totals);
+            
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("settled", totals.settled);
+            result.put("amountSettled", totals.amount);
+            result.put("failed", totals.failed);
+            result.put("errors", totals.errors);
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    /**
+     * Settles the claimed payments, or fails all of them with the given reason
+     */
+    private BatchResult settle(List<BillPayment> claimed, LocalDateTime now, String forcedFailure) {
+        BatchResult result = new BatchResult();
+        Map<String, List<BillPayment>> byAccount = new TreeMap<>();
+        for (BillPayment payment : claimed) {
+            if (payment.getStatus() == PaymentStatus.PENDING) {
+                byAccount.computeIfAbsent(payment.getAccount().getId(), id -> new ArrayList<>()).add(payment);
+            }
+        }
+        
+        Map<String, User> users = new LinkedHashMap<>();
+        Map<String, List<BillPayment>> paidByUser = new LinkedHashMap<>();
+        Map<String, List<BillPayment>> failedByUser = new LinkedHashMap<>();
+        for (Map.Entry<String, List<BillPayment>> entry : byAccount.entrySet()) {
+            Account account = forcedFailure != null ? null : accountRepository.findByIdWithLock(entry.getKey())
+                .orElseThrow(() -> new CustomException("Account not found", 404));
+            List<BillPayment> payments = entry.getValue();
+            payments.sort(Comparator.comparing(BillPayment::getPaymentDate).thenComparing(BillPayment::getId));
+            for (BillPayment payment : payments) {
+                User user = payment.getCustomer().getUser();
+                users.putIfAbsent(user.getId(), user);
+                String failure = forcedFailure != null ? forcedFailure
+                    : account.getStatus() != AccountStatus.ACTIVE ? ACCOUNT_NOT_ACTIVE
+                    : account.getBalance().compareTo(payment.getAmount()) < 0 ? INSUFFICIENT_FUNDS : null;
+                if (failure != null) {
+                    payment.setStatus(PaymentStatus.FAILED);
+                    payment.setFailureReason(failure);
+                    failedByUser.computeIfAbsent(user.getId(), id -> new ArrayList<>()).add(payment);
+                    result.failed++;
+                } else {
+                    payment.setTransaction(post(payment, account, now));
+                    payment.setStatus(PaymentStatus.COMPLETED);
+                    paidByUser.computeIfAbsent(user.getId(), id -> new ArrayList<>()).add(payment);
+                    result.settled++;
+                    result.amount = result.amount.add(payment.getAmount());
+                }
+                payment.setSettledAt(now);
+            }
+            billPaymentRepository.saveAll(payments);
+        }
+        
+        List<Notification> notifications = new ArrayList<>();
+        paidByUser.forEach((userId, paid) -> notifications.add(notification(users.get(userId),
+            NotificationType.TRANSACTION, "Bill Payment Completed",
+            paid.size() == 1
+                ? "Your payment of $" + paid.get(0).getAmount() + " to " + paid.get(0).getBiller().getName() + " was completed"
+                : paid.size() + " bill payments totalling $" + sum(paid) + " were completed",
+            paid)));
+        failedByUser.forEach((userId, failed) -> notifications.add(notification(users.get(userId),
+            NotificationType.PAYMENT_DUE, "Bill Payment Failed",
+            failed.size() == 1
+                ? "Your payment of $" + failed.get(0).getAmount() + " to " + failed.get(0).getBiller().getName()
+                    + " could not be completed: " + failed.get(0).getFailureReason()
+                : failed.size() + " bill payments totalling $" + sum(failed) + " could not be completed",
+            failed)));
+        notificationService.createNotifications(notifications);
+        return result;
+    }
+    
+    private Transaction post(BillPayment payment, Account account, LocalDateTime now) {
+        String reference = "BILL-PAY-" + payment.getId();
+        String description = payment.getDescription() != null ? payment.getDescription()
+            : "Bill payment - " + payment.getBiller().getName();
+        JournalEntry journalEntry = doubleEntryService.createTransactionEntry(TransactionType.PAYMENT,
+            payment.getAmount(), account, null, description, reference, null);
+        
+        Transaction transaction = new Transaction();
+        transaction.setAccount(account);
+        transaction.setJournalEntry(journalEntry);
+        transaction.setTransactionType(TransactionType.PAYMENT);
+        transaction.setAmount(payment.getAmount());
+        transaction.setBalanceAfter(account.getBalance());
+        transaction.setDescription(description);
+        transaction.setReference(reference);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setProcessedAt(now);
+        transaction.setSpendingCategory(spendingCategoryService.categorize(payment.getBiller()));
+        transaction = transactionRepository.save(transaction);
+        customerDashboardService.recordTransaction(transaction);
+        accountActivityService.recordTransaction(transaction);
+        spendingCategoryService.recordTransaction(transaction);
+        
+        journalEntry.setTransactionId(transaction.getId());
+        journalEntryRepository.save(journalEntry);
+        return transaction;
+    }
+    
+    private static Notification notification(User user, NotificationType type, String title, String message,
+                                             List<BillPayment> payments) {
+        List<String> paymentIds = new ArrayList<>();
+        for (BillPayment payment : payments) {
+            paymentIds.add(payment.getId());
+        }
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setType(type);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setMetadata(Map.of("billPaymentIds", paymentIds));
+        notification.setRelatedEntityType("bill_payment");
+        notification.setRelatedEntityId(payments.get(0).getId());
+        return notification;
+    }
+    
+    private static BigDecimal sum(List<BillPayment> payments) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BillPayment payment : payments) {
+            total = total.add(payment.getAmount());
+        }
+        return total;
+    }
+    
+    private static String failureReason(RuntimeException e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return message.length() > 255 ? message.substring(0, 255) : message;
+    }
+    
+    private static final class BatchResult {
+        long settled;
+        long failed;
+        BigDecimal amount = BigDecimal.ZERO;
+    }
+    
+    private static final class RunTotals implements ClaimedBatches.Results<BatchResult> {
+        long settled;
+        long failed;
+        BigDecimal amount = BigDecimal.ZERO;
+        final List<String> errors = new ArrayList<>();
+        
+        @Override
+        public void add(BatchResult batch) {
+            settled += batch.settled;
+            failed += batch.failed;
+            amount = amount.add(batch.amount);
+        }
+        
+        @Override
+        public void addFailure(String error) {
+            failed++;
+            errors.add(error);
+        }
+        
+        @Override
+        public void addError(String error) {
+            errors.add(error);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.model.Account;
+import com.finedge.model.AutoPay;
+import com.finedge.model.BillReminder;
+import com.finedge.model.EMISchedule;
+import com.finedge.model.enums.AccountStatus;
+import com.finedge.model.enums.AccountType;
+import com.finedge.model.enums.LoanStatus;
+import com.finedge.repository.AccountRepository;
+import com.finedge.repository.AutoPayRepository;
+import com.finedge.repository.BillReminderRepository;
+import com.finedge.repository.EMIScheduleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Projected daily balance for a customer over a horizon, from the scheduled outflows already on file:
+ * recurring AutoPays, unpaid EMI installments of active loans and enabled bill reminders.
+ * The schedules are loaded once, each source is expanded lazily into a date-ordered stream of
+ * items, and the streams are merged while walking the horizon one day at a time.
+ */
+@Service
+public class CashFlowForecastService {
+    
+    private static final int DEFAULT_HORIZON_DAYS = 30;
+    private static final int MAX_HORIZON_DAYS = 365;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private AutoPayRepository autoPayRepository;
+    
+    @Autowired
+    private BillReminderRepository billReminderRepository;
+    
+    @Autowired
+    private EMIScheduleRepository emiScheduleRepository;
+    
+    /**
+     * Forecast across the customer's active checking and savings accounts, or for one of them when accountId is given.
+     * Bill reminders carry no account, so they are only projected in the all-accounts view.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getForecast(String customerId, Integer days, String accountId) {
+        int horizon = days != null ? days : DEFAULT_HORIZON_DAYS;
+        if (horizon < 1 || horizon > MAX_HORIZON_DAYS) {
+            throw new CustomException("days must be between 1 and " + MAX_HORIZON_DAYS, 400);
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate end = today.plusDays(horizon - 1);
+        
+        List<Account> accounts = new ArrayList<>();
+        for (Account account : accountRepository.findByCustomerId(customerId)) {
+            if (accountId != null ? account.getId().equals(accountId) : isFundingAccount(account)) {
+                accounts.add(account);
+            }
+        }
+        if (accountId != null && accounts.isEmpty()) {
+            throw new CustomException("Account not found", 404);
+        }
+        Set<String> accountIds = new HashSet<>();
+        BigDecimal startingBalance = BigDecimal.ZERO;
+        for (Account account : accounts) {
+            accountIds.add(account.getId());
+            startingBalance = startingBalance.add(account.getBalance());
+        }
+        
+        PriorityQueue<PeekingIterator> sources = new PriorityQueue<>(Comparator.comparing(PeekingIterator::peekDate));
+        Set<String> autoPaidBillers = new HashSet<>();
+        for (AutoPay autoPay : autoPayRepository.findByCustomerIdAndEnabledTrue(customerId)) {
+            autoPaidBillers.add(autoPay.getBiller().getId());
+            if (accountIds.contains(autoPay.getAccount().getId())) {
+                addSource(sources, new AutoPayOccurrences(autoPay, today, end));
+            }
+        }
+        
+        List<ForecastItem> oneOff = new ArrayList<>();
+        for (EMISchedule emi : emiScheduleRepository.findUnpaidEMIsByCustomerIdDueBefore(customerId, LoanStatus.ACTIVE,
+                end.plusDays(1).atStartOfDay())) {
+            if (accountId != null && (emi.getLoan().getAccount() == null
+                    || !accountId.equals(emi.getLoan().getAccount().getId()))) {
+                continue;
+            }
+            // Overdue installments are still owed, so they land on the first day
+            LocalDate dueDate = emi.getDueDate().toLocalDate();
+            oneOff.add(new ForecastItem(dueDate.isBefore(today) ? today : dueDate, "EMI",
+                emi.getLoan().getLoanNumber() + " installment " + emi.getInstallmentNumber(),
+                emi.getTotalAmount().subtract(emi.getPaidAmount())));
+        }
+        if (accountId == null) {
+            for (BillReminder reminder : billReminderRepository.findByCustomerIdAndEnabledTrue(customerId)) {
+                // A biller with an AutoPay is already projected from the AutoPay schedule
+                if (autoPaidBillers.contains(reminder.getBiller().getId())
+                        || reminder.getDueDate().isBefore(today) || reminder.getDueDate().isAfter(end)) {
+                    continue;
+                }
+                oneOff.add(new ForecastItem(reminder.getDueDate(), "BILL", reminder.getBiller().getName(),
+                    reminder.getExpectedAmount()));
+            }
+        }
+        oneOff.sort(Comparator.comparing(ForecastItem::date));
+        addSource(sources, oneOff.iterator());
+        
+        List<Map<String, Object>> daily = new ArrayList<>(horizon);
+        List<String> shortfallDays = new ArrayList<>();
+        BigDecimal balance = startingBalance;
+        BigDecimal totalOutflows = BigDecimal.ZERO;
+        BigDecimal lowestBalance = startingBalance;
+        LocalDate lowestBalanceDate = today;
+        for (LocalDate date = today; !date.isAfter(end); date = date.plusDays(1)) {
+            BigDecimal outflows = BigDecimal.ZERO;
+            List<Map<String, Object>> items = new ArrayList<>();
+            while (!sources.isEmpty() && !sources.peek().peekDate().isAfter(date)) {
+                PeekingIterator source = sources.poll();
+                ForecastItem item = source.next();
+                outflows = outflows.add(item.amount());
+                items.add(item.toMap());
+                if (source.hasNext()) {
+                    sources.add(source);
+                }
+            }
+            balance = balance.subtract(outflows);
+            totalOutflows = totalOutflows.add(outflows);
+            if (balance.compareTo(lowestBalance) < 0) {
+                lowestBalance = balance;
+                lowestBalanceDate = date;
+            }
+            boolean shortfall = balance.signum() < 0;
+            if (shortfall) {
+                shortfallDays.add(date.toString());
+            }
+            
+            Map<String, Object> day = new LinkedHashMap<>();
+            day.put("date", date.toString());
+            day.put("outflows", outflows);
+            day.put("projectedBalance", balance);
+            day.put("shortfall", shortfall);
+            day.put("items", items);
+            daily.add(day);
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", today.toString());
+        result.put("to", end.toString());
+        if (accountId != null) {
+            result.put("accountId", accountId);
+        }
+        result.put("startingBalance", startingBalance);
+        result.put("totalOutflows", totalOutflows);
+        result.put("endingBalance", balance);
+        result.put("lowestBalance", lowestBalance);
+        result.put("lowestBalanceDate", lowestBalanceDate.toString());
+        result.put("firstShortfallDate", shortfallDays.isEmpty() ? null : shortfallDays.get(0));
+        result.put("shortfallDays", shortfallDays);
+        result.put("days", daily);
+        return result;
+    }
+    
+    private static boolean isFundingAccount(Account account) {
+        return account.getStatus() == AccountStatus.ACTIVE
+            && (account.getAccountType() == AccountType.CHECKING || account.getAccountType() == AccountType.SAVINGS);
+    }
+    
+    private static void addSource(PriorityQueue<PeekingIterator> sources, Iterator<ForecastItem> items) {
+        PeekingIterator source = new PeekingIterator(items);
+        if (source.hasNext()) {
+            sources.add(source);
+        }
+    }
+    
+    record ForecastItem(LocalDate date, String type, String description, BigDecimal amount) {
+        
+        Map<String, Object> toMap() {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("type", type);
+            item.put("description", description);
+            item.put("amount", amount);
+            return item;
+        }
+    }
+    
+    /**
+     * Occurrences of one AutoPay within [today, end], generated on demand.
+     * A payment date already in the past (not yet processed) is projected on the first day.
+     */
+    static final class AutoPayOccurrences implements Iterator<ForecastItem> {
+        private final AutoPay autoPay;
+        private final LocalDate today;
+        private final LocalDate end;
+        private LocalDate scheduled;
+        private boolean first = true;
+        
+        AutoPayOccurrences(AutoPay autoPay, LocalDate today, LocalDate end) {
+            this.autoPay = autoPay;
+            this.today = today;
+            this.end = end;
+            this.scheduled = autoPay.getNextPaymentDate();
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return !(first && scheduled.isBefore(today) ? today : scheduled).isAfter(end);
+        }
+        
+        @Override
+        public ForecastItem next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            LocalDate date = first && scheduled.isBefore(today) ? today : scheduled;
+            first = false;
+            do {
+                scheduled = AutoPayService.nextOccurrence(scheduled, autoPay.getFrequency(), autoPay.getDayOfMonth());
+            } while (!scheduled.isAfter(date));
+            return new ForecastItem(date, "AUTO_PAY", autoPay.getBiller().getName(), autoPay.getAmount());
+        }
+    }
+    
+    private static final class PeekingIterator {
+        private final Iterator<ForecastItem> delegate;
+        private ForecastItem head;
+        
+        PeekingIterator(Iterator<ForecastItem> delegate) {
+            this.delegate = delegate;
+            this.head = delegate.hasNext() ? delegate.next() : null;
+        }
+        
+        boolean hasNext() {
+            return head != null;
+        }
+        
+        LocalDate peekDate() {
+            return head.date();
+        }
+        
+        ForecastItem next() {
+            ForecastItem current = head;
+            head = delegate.hasNext() ? delegate.next() : null;
+            return current;
+        }
+    }
+}
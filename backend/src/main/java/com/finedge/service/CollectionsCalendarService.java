@@ -0,0 +1,169 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.model.EMICollectionDay;
+import com.finedge.model.EMISchedule;
+import com.finedge.model.Loan;
+import com.finedge.model.enums.LoanType;
+import com.finedge.repository.EMICollectionDayRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * EMI collections calendar for treasury: scheduled and collected installment amounts per due date
+ * and loan type, adjusted in the same transaction as schedule generation and EMI payments.
+ * Queries read at most one row per day and loan type in the range.
+ */
+@Service
+public class CollectionsCalendarService {
+    
+    private static final long MAX_RANGE_DAYS = 366;
+    
+    @Autowired
+    private EMICollectionDayRepository emiCollectionDayRepository;
+    
+    /**
+     * Adds newly generated installments to their due dates
+     */
+    @Transactional
+    public void recordScheduled(Loan loan, List<EMISchedule> schedules) {
+        Map<LocalDate, BigDecimal[]> byDay = new TreeMap<>();
+        for (EMISchedule schedule : schedules) {
+            BigDecimal[] day = byDay.computeIfAbsent(schedule.getDueDate().toLocalDate(),
+                d -> new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+            day[0] = day[0].add(schedule.getTotalAmount());
+            day[1] = day[1].add(BigDecimal.ONE);
+        }
+        for (Map.Entry<LocalDate, BigDecimal[]> day : byDay.entrySet()) {
+            emiCollectionDayRepository.adjust(UUID.randomUUID().toString(), day.getKey(), loan.getLoanType().name(),
+                day.getValue()[0], BigDecimal.ZERO, day.getValue()[1].longValue(), 0);
+        }
+    }
+    
+    /**
+     * Applies a re-amortization: installment i of the unpaid rows now totals newTotals[i], and rows past
+     * the end of newTotals were removed
+     */
+    @Transactional
+    public void recordRescheduled(Loan loan, List<EMISchedule> unpaid, List<BigDecimal> newTotals) {
+        Map<LocalDate, BigDecimal[]> byDay = new TreeMap<>();
+        for (int i = 0; i < unpaid.size(); i++) {
+            EMISchedule schedule = unpaid.get(i);
+            BigDecimal[] day = byDay.computeIfAbsent(schedule.getDueDate().toLocalDate(),
+                d -> new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+            if (i < newTotals.size()) {
+                day[0] = day[0].add(newTotals.get(i).subtract(schedule.getTotalAmount()));
+            } else {
+                day[0] = day[0].subtract(schedule.getTotalAmount());
+                day[1] = day[1].subtract(BigDecimal.ONE);
+            }
+        }
+        for (Map.Entry<LocalDate, BigDecimal[]> day : byDay.entrySet()) {
+            emiCollectionDayRepository.adjust(UUID.randomUUID().toString(), day.getKey(), loan.getLoanType().name(),
+                day.getValue()[0], BigDecimal.ZERO, day.getValue()[1].longValue(), 0);
+        }
+    }
+    
+    /**
+     * Records a payment against an installment, counting it as paid when this payment settles it
+     */
+    @Transactional
+    public void recordCollected(EMISchedule schedule, BigDecimal amount, boolean settled) {
+        emiCollectionDayRepository.adjust(UUID.randomUUID().toString(), schedule.getDueDate().toLocalDate(),
+            schedule.getLoan().getLoanType().name(), BigDecimal.ZERO, amount, 0, settled ? 1 : 0);
+    }
+    
+    /**
+     * Builds the calendar from existing schedules the first time the application starts with an empty table
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (!emiCollectionDayRepository.hasAnyDays()) {
+            emiCollectionDayRepository.backfillFromSchedules();
+        }
+    }
+    
+    /**
+     * Scheduled, collected and outstanding EMI amounts per day or ISO week (Monday start), optionally for one loan type.
+     * Defaults to the next 90 days; every bucket in the range is returned, including empty ones.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getCalendar(LocalDate from, LocalDate to, LoanType loanType, String granularity) {
+        String unit = granularity == null ? "day" : granularity.toLowerCase(Locale.ROOT);
+        if (!unit.equals("day") && !unit.equals("week")) {
+            throw new CustomException("granularity must be one of day, week", 400);
+        }
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusDays(89);
+        if (start.isAfter(end)) {
+            throw new CustomException("from must not be after to", 400);
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+            throw new CustomException("Range must not exceed " + MAX_RANGE_DAYS + " days", 400);
+        }
+        
+        Map<LocalDate, BigDecimal[]> buckets = new LinkedHashMap<>();
+        for (LocalDate bucket = bucketStart(unit, start); !bucket.isAfter(end);
+                bucket = unit.equals("week") ? bucket.plusWeeks(1) : bucket.plusDays(1)) {
+            buckets.put(bucket, new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO });
+        }
+        
+        List<EMICollectionDay> days = loanType != null
+            ? emiCollectionDayRepository.findByLoanTypeAndDueDateBetweenOrderByDueDate(loanType, start, end)
+            : emiCollectionDayRepository.findByDueDateBetweenOrderByDueDate(start, end);
+        BigDecimal[] overall = { BigDecimal.ZERO, BigDecimal.ZERO };
+        for (EMICollectionDay day : days) {
+            BigDecimal[] totals = buckets.get(bucketStart(unit, day.getDueDate()));
+            totals[0] = totals[0].add(day.getScheduledAmount());
+            totals[1] = totals[1].add(day.getCollectedAmount());
+            totals[2] = totals[2].add(BigDecimal.valueOf(day.getInstallmentCount()));
+            totals[3] = totals[3].add(BigDecimal.valueOf(day.getPaidCount()));
+            overall[0] = overall[0].add(day.getScheduledAmount());
+            overall[1] = overall[1].add(day.getCollectedAmount());
+        }
+        
+        List<Map<String, Object>> series = new ArrayList<>();
+        for (Map.Entry<LocalDate, BigDecimal[]> bucket : buckets.entrySet()) {
+            BigDecimal[] totals = bucket.getValue();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("periodStart", bucket.getKey().toString());
+            row.put("scheduled", totals[0]);
+            row.put("collected", totals[1]);
+            row.put("outstanding", totals[0].subtract(totals[1]));
+            row.put("installments", totals[2].longValue());
+            row.put("paidInstallments", totals[3].longValue());
+            series.add(row);
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("granularity", unit);
+        result.put("from", start.toString());
+        result.put("to", end.toString());
+        result.put("loanType", loanType != null ? loanType.name() : null);
+        result.put("totalScheduled", overall[0]);
+        result.put("totalCollected", overall[1]);
+        result.put("totalOutstanding", overall[0].subtract(overall[1]));
+        result.put("series", series);
+        return result;
+    }
+    
+    private static LocalDate bucketStart(String unit, LocalDate date) {
+        return unit.equals("week") ? date.with(DayOfWeek.MONDAY) : date;
+    }
+}
@@ -1,28 +1,98 @@
 package com.finedge.service;
 
-import com.finedge.model.Account;
+import com.finedge.model.CreditProfile;
 import com.finedge.model.Customer;
 import com.finedge.repository.AccountRepository;
+import com.finedge.repository.CreditProfileRepository;
+import com.finedge.util.AmortizationEngine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class CreditAssessmentService {
     
+    private static final BigDecimal LOW_DEBT_RATIO = new BigDecimal("0.3");
+    private static final BigDecimal MODERATE_DEBT_RATIO = new BigDecimal("0.4");
+    private static final BigDecimal HIGH_DEBT_RATIO = new BigDecimal("0.5");
+    private static final BigDecimal ONE_CENT = new BigDecimal("0.01");
+    
     @Autowired
     private AccountRepository accountRepository;
     
+    @Autowired
+    private CreditProfileRepository creditProfileRepository;
+    
+    /**
+     * Scoring inputs for one customer
+     */
+    public record Features(Integer creditScore, BigDecimal annualIncome, String employmentStatus, long accountCount) {
+    }
+    
     public CreditAssessmentResult assessCredit(Customer customer, BigDecimal requestedAmount) {
-        int score = 0;
+        return assess(featuresFor(customer), requestedAmount);
+    }
+    
+    /**
+     * Features for a live assessment. The account relationship is taken from the customer's credit profile
+     * once the re-scoring job has seen one (accounts are closed, never deleted), so the lookup is skipped.
+     */
+    Features featuresFor(Customer customer) {
+        long accountCount = creditProfileRepository.findByCustomerId(customer.getId())
+            .map(CreditProfile::getAccountCount)
+            .filter(count -> count > 0)
+            .orElseGet(() -> accountRepository.countByCustomerId(customer.getId()));
+        return new Features(customer.getCreditScore(), customer.getAnnualIncome(), customer.getEmploymentStatus(), accountCount);
+    }
+    
+    public CreditAssessmentResult assess(Features features, BigDecimal requestedAmount) {
         List<String> notes = new ArrayList<>();
+        int score = baseScore(features, notes);
+        
+        // Income factor (0-30 points), noted after the credit score factor
+        String incomeNote;
+        if (hasIncome(features)) {
+            BigDecimal debtToIncomeRatio = requestedAmount.divide(features.annualIncome(), 4, RoundingMode.HALF_UP);
+            
+            if (debtToIncomeRatio.compareTo(LOW_DEBT_RATIO) < 0) {
+                score += 30;
+                incomeNote = "Low debt-to-income ratio";
+            } else if (debtToIncomeRatio.compareTo(MODERATE_DEBT_RATIO) < 0) {
+                score += 20;
+                incomeNote = "Moderate debt-to-income ratio";
+            } else if (debtToIncomeRatio.compareTo(HIGH_DEBT_RATIO) < 0) {
+                score += 10;
+                incomeNote = "High debt-to-income ratio";
+            } else {
+                incomeNote = "Very high debt-to-income ratio - risky";
+            }
+        } else {
+            incomeNote = "No income information available";
+        }
+        notes.add(1, incomeNote);
+        
+        RiskTier tier = RiskTier.of(score);
+        BigDecimal approvedAmount = tier.approvedAmount(requestedAmount);
+        notes.add(tier.note);
+        
+        return new CreditAssessmentResult(score, String.join("; ", notes),
+            approvedAmount.compareTo(BigDecimal.ZERO) > 0 ? approvedAmount : null,
+            approvedAmount.compareTo(BigDecimal.ZERO) > 0 ? tier.interestRate : null);
+    }
+    
+    /**
+     * Score from everything but the debt-to-income factor (0-70 points); the credit score note always comes first
+     */
+    public int baseScore(Features features, List<String> notes) {
+        int score = 0;
         
         // Credit score factor (0-40 points)
-        if (customer.getCreditScore() != null) {
-            int creditScore = customer.getCreditScore();
+        if (features.creditScore() != null) {
+            int creditScore = features.creditScore();
             if (creditScore >= 750) {
                 score += 40;
                 notes.add("Excellent credit score");
@@ -40,30 +110,9 @@ public class CreditAssessmentService {
             notes.add("No credit score available");
         }
         
-        // Income factor (0-30 points)
-        if (customer.getAnnualIncome() != null && customer.getAnnualIncome().compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal income = customer.getAnnualIncome();
-            BigDecimal debtToIncomeRatio = requestedAmount.divide(income, 4, java.math.RoundingMode.HALF_UP);
-            
-            if (debtToIncomeRatio.compareTo(new BigDecimal("0.3")) < 0) {
-                score += 30;
-                notes.add("Low debt-to-income ratio");
-            } else if (debtToIncomeRatio.compareTo(new BigDecimal("0.4")) < 0) {
-                score += 20;
-                notes.add("Moderate debt-to-income ratio");
-            } else if (debtToIncomeRatio.compareTo(new BigDecimal("0.5")) < 0) {
-                score += 10;
-                notes.add("High debt-to-income ratio");
-            } else {
-                notes.add("Very high debt-to-income ratio - risky");
-            }
-        } else {
-            notes.add("No income information available");
-        }
-        
         // Employment status (0-20 points)
-        if (customer.getEmploymentStatus() != null) {
-            String employmentStatus = customer.getEmploymentStatus().toLowerCase();
+        if (features.employmentStatus() != null) {
+            String employmentStatus = features.employmentStatus().toLowerCase();
             if (employmentStatus.contains("employed")) {
                 score += 20;
                 notes.add("Employed");
@@ -77,36 +126,67 @@ public class CreditAssessmentService {
         }
         
         // Account history (0-10 points)
-        List<Account> accounts = accountRepository.findByCustomer(customer);
-        if (!accounts.isEmpty()) {
+        if (features.accountCount() > 0) {
             score += 10;
             notes.add("Existing account relationship");
         }
+        return score;
+    }
+    
+    /**
+     * Largest amount the customer would be approved for without further review: the most they can request
+     * while staying under the low debt-to-income band, at the terms of the tier that reaches. Null if none.
+     */
+    public CreditAssessmentResult preApprovedOffer(Features features) {
+        if (!hasIncome(features)) {
+            return null;
+        }
+        BigDecimal maxRequest = features.annualIncome().multiply(LOW_DEBT_RATIO).subtract(ONE_CENT).setScale(2, RoundingMode.DOWN);
+        if (maxRequest.signum() <= 0) {
+            return null;
+        }
+        CreditAssessmentResult result = assess(features, maxRequest);
+        if (result.getApprovedAmount() == null) {
+            return null;
+        }
+        return new CreditAssessmentResult(result.getScore(), result.getNotes(),
+            result.getApprovedAmount().setScale(2, RoundingMode.DOWN), result.getInterestRate());
+    }
+    
+    private static boolean hasIncome(Features features) {
+        return features.annualIncome() != null && features.annualIncome().compareTo(BigDecimal.ZERO) > 0;
+    }
+    
+    private enum RiskTier {
+        PREMIUM(80, null, "7.5", "Premium rate approved"),
+        STANDARD(60, "0.9", "9.5", "Standard rate approved"),
+        HIGHER_RISK(40, "0.7", "12.0", "Higher rate due to risk"),
+        REJECTED(0, "0", "12.0", "Application rejected - insufficient credit score");
         
-        // Calculate approved amount and interest rate
-        BigDecimal approvedAmount = requestedAmount;
-        BigDecimal interestRate = new BigDecimal("12.0");
+        private final int minScore;
+        private final BigDecimal amountFactor;
+        private final BigDecimal interestRate;
+        private final String note;
         
-        if (score >= 80) {
-            approvedAmount = requestedAmount;
-            interestRate = new BigDecimal("7.5");
-            notes.add("Premium rate approved");
-        } else if (score >= 60) {
-            approvedAmount = requestedAmount.multiply(new BigDecimal("0.9"));
-            interestRate = new BigDecimal("9.5");
-            notes.add("Standard rate approved");
-        } else if (score >= 40) {
-            approvedAmount = requestedAmount.multiply(new BigDecimal("0.7"));
-            interestRate = new BigDecimal("12.0");
-            notes.add("Higher rate due to risk");
-        } else {
-            approvedAmount = BigDecimal.ZERO;
-            notes.add("Application rejected - insufficient credit score");
+        RiskTier(int minScore, String amountFactor, String interestRate, String note) {
+            this.minScore = minScore;
+            this.amountFactor = amountFactor != null ? new BigDecimal(amountFactor) : null;
+            this.interestRate = new BigDecimal(interestRate);
+            this.note = note;
         }
         
-        return new CreditAssessmentResult(score, String.join("; ", notes), 
-            approvedAmount.compareTo(BigDecimal.ZERO) > 0 ? approvedAmount : null,
-            approvedAmount.compareTo(BigDecimal.ZERO) > 0 ? interestRate : null);
+        static RiskTier of(int score) {
+            for (RiskTier tier : values()) {
+                if (score >= tier.minScore) {
+                    return tier;
+                }
+            }
+            return REJECTED;
+        }
+        
+        BigDecimal approvedAmount(BigDecimal requestedAmount) {
+            return amountFactor != null ? requestedAmount.multiply(amountFactor) : requestedAmount;
+        }
     }
     
     public static class CreditAssessmentResult {
@@ -129,16 +209,6 @@ public class CreditAssessmentService {
     }
     
     public static BigDecimal calculateEMI(BigDecimal principal, BigDecimal annualRate, int tenureMonths) {
-        BigDecimal monthlyRate = annualRate.divide(new BigDecimal("12"), 6, java.math.RoundingMode.HALF_UP)
-            .divide(new BigDecimal("100"), 6, java.math.RoundingMode.HALF_UP);
-        
-        BigDecimal onePlusRate = BigDecimal.ONE.add(monthlyRate);
-        BigDecimal numerator = principal.multiply(monthlyRate).multiply(
-            onePlusRate.pow(tenureMonths)
-        );
-        BigDecimal denominator = onePlusRate.pow(tenureMonths).subtract(BigDecimal.ONE);
-        
-        return numerator.divide(denominator, 2, java.math.RoundingMode.HALF_UP);
+        return AmortizationEngine.calculateEMI(principal, annualRate, tenureMonths);
     }
 }
-
@@ -0,0 +1,186 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.repository.AccountRepository;
+import com.finedge.repository.CustomerRepository;
+import com.finedge.util.IdRanges;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Batch re-scoring of the whole customer base. Workers take id-range partitions of the customers table and
+ * page through them; each page reads only the scoring columns plus one grouped account query, scores the
+ * features in memory and upserts the credit profiles (features, base score, pre-approved offer) in one JDBC batch.
+ */
+@Service
+public class CreditRescoringService {
+    
+    private static final String UPSERT_PROFILE_SQL =
+        "INSERT INTO credit_profiles (id, customer_id, credit_score, annual_income, employment_status, account_count, " +
+        "first_account_opened_at, score, pre_approved_amount, pre_approved_interest_rate, scored_at, created_at, updated_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now(), now()) " +
+        "ON CONFLICT (customer_id) DO UPDATE SET credit_score = EXCLUDED.credit_score, " +
+        "annual_income = EXCLUDED.annual_income, employment_status = EXCLUDED.employment_status, " +
+        "account_count = EXCLUDED.account_count, first_account_opened_at = EXCLUDED.first_account_opened_at, " +
+        "score = EXCLUDED.score, pre_approved_amount = EXCLUDED.pre_approved_amount, " +
+        "pre_approved_interest_rate = EXCLUDED.pre_approved_interest_rate, scored_at = EXCLUDED.scored_at, updated_at = now()";
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private CreditAssessmentService creditAssessmentService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Value("${credit-rescoring.workers:4}")
+    private int workerCount;
+    
+    @Value("${credit-rescoring.partitions:16}")
+    private int partitionCount;
+    
+    @Value("${credit-rescoring.chunk-size:1000}")
+    private int pageSize;
+    
+    private ExecutorService workers;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    @PostConstruct
+    void startWorkers() {
+        workers = Executors.newFixedThreadPool(workerCount);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+    
+    @Scheduled(cron = "${credit-rescoring.cron:0 0 3 * * *}")
+    public void rescoreNightly() {
+        if (!running.get()) {
+            runRescoring();
+        }
+    }
+    
+    public Map<String, Object> runRescoring() {
+        if (!running.compareAndSet(false, true)) {
+            throw new CustomException("Credit re-scoring run already in progress", 409);
+        }
+        try {
+            LocalDateTime scoredAt = LocalDateTime.now();
+            RunTotals totals = new RunTotals();
+            List<CompletableFuture<Void>> runs = new ArrayList<>();
+            for (String[] range : IdRanges.split(partitionCount)) {
+                runs.add(CompletableFuture.runAsync(() -> rescoreRange(range, scoredAt, totals), workers));
+            }
+            CompletableFuture.allOf(runs.toArray(CompletableFuture<?>[]::new)).join();
+            return totals.toMap(scoredAt);
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    private void rescoreRange(String[] range, LocalDateTime scoredAt, RunTotals totals) {
+        String afterId = "";
+        while (true) {
+            try {
+                List<Object[]> customers = customerRepository.findScoringRows(range[0], range[1], afterId,
+                    PageRequest.of(0, pageSize));
+                if (customers.isEmpty()) {
+                    return;
+                }
+                afterId = rescorePage(customers, scoredAt, totals);
+            } catch (RuntimeException e) {
+                totals.addError("customers after " + afterId + " in [" + range[0] + ", " + range[1] + "): " + e.getMessage());
+                return;
+            }
+        }
+    }
+    
+    private String rescorePage(List<Object[]> customers, LocalDateTime scoredAt, RunTotals totals) {
+        List<String> customerIds = new ArrayList<>(customers.size());
+        for (Object[] row : customers) {
+            customerIds.add((String) row[0]);
+        }
+        Map<String, Object[]> accountStats = new HashMap<>();
+        for (Object[] row : accountRepository.summarizeByCustomerIds(customerIds)) {
+            accountStats.put((String) row[0], row);
+        }
+        
+        Timestamp scoredAtTimestamp = Timestamp.valueOf(scoredAt);
+        List<Object[]> upserts = new ArrayList<>(customers.size());
+        long offers = 0;
+        for (Object[] row : customers) {
+            String customerId = (String) row[0];
+            Object[] stats = accountStats.get(customerId);
+            long accountCount = stats != null ? (Long) stats[1] : 0L;
+            LocalDateTime firstOpenedAt = stats != null ? (LocalDateTime) stats[2] : null;
+            
+            CreditAssessmentService.Features features = new CreditAssessmentService.Features(
+                (Integer) row[1], (BigDecimal) row[2], (String) row[3], accountCount);
+            int score = creditAssessmentService.baseScore(features, new ArrayList<>());
+            CreditAssessmentService.CreditAssessmentResult offer = creditAssessmentService.preApprovedOffer(features);
+            if (offer != null) {
+                offers++;
+            }
+            upserts.add(new Object[] {
+                UUID.randomUUID().toString(), customerId, features.creditScore(), features.annualIncome(),
+                features.employmentStatus(), accountCount, firstOpenedAt != null ? Timestamp.valueOf(firstOpenedAt) : null,
+                score, offer != null ? offer.getApprovedAmount() : null, offer != null ? offer.getInterestRate() : null,
+                scoredAtTimestamp
+            });
+        }
+        jdbcTemplate.batchUpdate(UPSERT_PROFILE_SQL, upserts);
+        totals.add(customers.size(), offers);
+        return customerIds.get(customerIds.size() - 1);
+    }
+    
+    private static final class RunTotals {
+        private long scored;
+        private long offers;
+        private final List<String> errors = new ArrayList<>();
+        
+        synchronized void add(long customers, long preApproved) {
+            scored += customers;
+            offers += preApproved;
+        }
+        
+        synchronized void addError(String error) {
+            errors.add(error);
+        }
+        
+        synchronized Map<String, Object> toMap(LocalDateTime scoredAt) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("scoredAt", scoredAt.toString());
+            result.put("customersScored", scored);
+            result.put("preApprovedOffers", offers);
+            result.put("errors", errors);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.finedge.service;
+
+import com.finedge.model.Account;
+import com.finedge.model.Customer;
+import com.finedge.model.CustomerDailyActivity;
+import com.finedge.model.CustomerDashboardSummary;
+import com.finedge.model.Loan;
+import com.finedge.model.Transaction;
+import com.finedge.model.enums.LoanStatus;
+import com.finedge.model.enums.TransactionType;
+import com.finedge.repository.CustomerDailyActivityRepository;
+import com.finedge.repository.CustomerDashboardSummaryRepository;
+import com.finedge.repository.LoanRepository;
+import com.finedge.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Maintains the customer dashboard aggregates at posting time: daily income/expense buckets
+ * for the rolling window and per-customer loan totals. A customer's aggregates are built from
+ * the source tables once, on the first dashboard read after deployment.
+ */
+@Service
+public class CustomerDashboardService {
+    
+    public static final int WINDOW_DAYS = 30;
+    
+    @Autowired
+    private CustomerDailyActivityRepository customerDailyActivityRepository;
+    
+    @Autowired
+    private CustomerDashboardSummaryRepository customerDashboardSummaryRepository;
+    
+    @Autowired
+    private LoanRepository loanRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    /**
+     * Adds a saved transaction to the daily bucket of each customer it belongs to
+     * (source account owner and, for transfers, destination account owner)
+     */
+    @Transactional
+    public void recordTransaction(Transaction transaction) {
+        BigDecimal income = isIncome(transaction.getTransactionType()) ? transaction.getAmount() : BigDecimal.ZERO;
+        BigDecimal expenses = isExpense(transaction.getTransactionType()) ? transaction.getAmount() : BigDecimal.ZERO;
+        LocalDate activityDate = transaction.getCreatedAt() != null
+            ? transaction.getCreatedAt().toLocalDate() : LocalDate.now();
+        
+        for (String customerId : customerIdsOf(transaction)) {
+            customerDailyActivityRepository.addActivity(UUID.randomUUID().toString(), customerId,
+                activityDate, income, expenses);
+        }
+    }
+    
+    /**
+     * A loan was disbursed to the customer
+     */
+    @Transactional
+    public void recordLoanDisbursed(Loan loan) {
+        customerDashboardSummaryRepository.applyLoanDelta(loan.getCustomer().getId(), 1, 1,
+            loan.getPrincipalAmount(), BigDecimal.ZERO);
+    }
+    
+    /**
+     * An installment was repaid; closedLoan is true when the payment closed the loan
+     */
+    @Transactional
+    public void recordLoanRepayment(Loan loan, BigDecimal amountPaid, boolean closedLoan) {
+        customerDashboardSummaryRepository.applyLoanDelta(loan.getCustomer().getId(), 0, closedLoan ? -1 : 0,
+            BigDecimal.ZERO, amountPaid);
+    }
+    
+    /**
+     * Summary row for the customer, built from the source tables if it does not exist yet
+     */
+    @Transactional
+    public CustomerDashboardSummary getSummary(Customer customer) {
+        return customerDashboardSummaryRepository.findByCustomerId(customer.getId())
+            .orElseGet(() -> rebuild(customer));
+    }
+    
+    /**
+     * Income, expenses and transaction count over the rolling window, from the daily buckets
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getRecentActivity(String customerId) {
+        Object[] totals = customerDailyActivityRepository
+            .sumActivitySince(customerId, windowStart()).get(0);
+        BigDecimal income = (BigDecimal) totals[0];
+        BigDecimal expenses = (BigDecimal) totals[1];
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("total", ((Number) totals[2]).longValue());
+        result.put("income", income);
+        result.put("expenses", expenses);
+        result.put("net", income.subtract(expenses));
+        return result;
+    }
+    
+    /**
+     * Recomputes a customer's summary and in-window buckets from loans and transactions
+     */
+    @Transactional
+    public CustomerDashboardSummary rebuild(Customer customer) {
+        List<Loan> loans = loanRepository.findByCustomer(customer);
+        
+        CustomerDashboardSummary summary = customerDashboardSummaryRepository.findByCustomerId(customer.getId())
+            .orElseGet(CustomerDashboardSummary::new);
+        summary.setCustomer(customer);
+        summary.setLoanCount((long) loans.size());
+        summary.setActiveLoanCount(loans.stream().filter(l -> l.getStatus() == LoanStatus.ACTIVE).count());
+        summary.setTotalLoanAmount(loans.stream()
+            .map(Loan::getPrincipalAmount)
+            .reduce(BigDecimal.ZERO, BigDecimal::add));
+        summary.setTotalLoanPaid(loans.stream()
+            .map(Loan::getAmountPaid)
+            .reduce(BigDecimal.ZERO, BigDecimal::add));
+        
+        LocalDate from = windowStart();
+        customerDailyActivityRepository.deleteByCustomerIdSince(customer.getId(), from);
+        
+        Map<LocalDate, CustomerDailyActivity> buckets = new HashMap<>();
+        for (Transaction transaction : transactionRepository.findByCustomerIdSince(customer.getId(), from.atStartOfDay())) {
+            CustomerDailyActivity bucket = buckets.computeIfAbsent(transaction.getCreatedAt().toLocalDate(), date -> {
+                CustomerDailyActivity activity = new CustomerDailyActivity();
+                activity.setCustomer(customer);
+                activity.setActivityDate(date);
+                return activity;
+            });
+            if (isIncome(transaction.getTransactionType())) {
+                bucket.setIncome(bucket.getIncome().add(transaction.getAmount()));
+            } else if (isExpense(transaction.getTransactionType())) {
+                bucket.setExpenses(bucket.getExpenses().add(transaction.getAmount()));
+            }
+            bucket.setTransactionCount(bucket.getTransactionCount() + 1);
+        }
+        customerDailyActivityRepository.saveAll(buckets.values());
+        
+        return customerDashboardSummaryRepository.save(summary);
+    }
+    
+    /**
+     * Drops daily buckets that have left the rolling window
+     */
+    @Scheduled(cron = "${customer-dashboard.prune-cron:0 30 0 * * *}")
+    @Transactional
+    public void pruneExpiredActivity() {
+        customerDailyActivityRepository.deleteOlderThan(windowStart());
+    }
+    
+    private LocalDate windowStart() {
+        return LocalDate.now().minusDays(WINDOW_DAYS - 1);
+    }
+    
+    private Set<String> customerIdsOf(Transaction transaction) {
+        Set<String> customerIds = new LinkedHashSet<>();
+        customerIds.add(transaction.getAccount().getCustomer().getId());
+        Account toAccount = transaction.getToAccount();
+        if (toAccount != null) {
+            customerIds.add(toAccount.getCustomer().getId());
+        }
+        return customerIds;
+    }
+    
+    // Same classification the dashboard has always used
+    private static boolean isIncome(TransactionType type) {
+        return type == TransactionType.DEPOSIT || type == TransactionType.TRANSFER;
+    }
+    
+    private static boolean isExpense(TransactionType type) {
+        return type == TransactionType.WITHDRAWAL || type == TransactionType.PAYMENT;
+    }
+}
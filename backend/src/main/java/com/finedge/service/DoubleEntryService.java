@@ -11,8 +11,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Service for handling double-entry bookkeeping operations
@@ -32,6 +34,12 @@ public class DoubleEntryService {
     @Autowired
     private AccountRepository accountRepository;
     
+    @Autowired
+    private EndOfDayCloseService endOfDayCloseService;
+    
+    @Autowired
+    private AnalyticsResponseCache analyticsResponseCache;
+    
     /**
      * Creates a journal entry with ledger entries for a transaction
      */
@@ -45,6 +53,7 @@ public class DoubleEntryService {
         // Create journal entry
         JournalEntry journalEntry = new JournalEntry();
         journalEntry.setEntryDate(LocalDateTime.now());
+        endOfDayCloseService.assertPostingDateOpen(journalEntry.getEntryDate());
         journalEntry.setReference(reference != null ? reference : "JE-" + System.currentTimeMillis());
         journalEntry.setDescription(description);
         journalEntry.setTransactionId(transactionId);
@@ -91,30 +100,30 @@ public class DoubleEntryService {
         
         JournalEntry journalEntry = new JournalEntry();
         journalEntry.setEntryDate(LocalDateTime.now());
+        endOfDayCloseService.assertPostingDateOpen(journalEntry.getEntryDate());
         journalEntry.setReference("LOAN-DISB-" + loanNumber);
         journalEntry.setDescription("Loan disbursement - " + loanNumber);
         journalEntry.setTransactionId(transactionId);
         
         List<LedgerEntry> ledgerEntries = new ArrayList<>();
         
-        // Debit: Customer Account (Asset) - money goes to customer
+        // Debit: Loans Receivable (Asset) - bank's loan asset increases, bank-side only
         LedgerEntry debit = new LedgerEntry();
         debit.setJournalEntry(journalEntry);
-        debit.setAccount(account);
-        debit.setChartOfAccount(customerDepositsLiability);
+        debit.setChartOfAccount(loansReceivable);
         debit.setDebitAmount(amount);
         debit.setCreditAmount(BigDecimal.ZERO);
-        debit.setDescription("Loan disbursement to " + account.getAccountNumber());
+        debit.setDescription("Loan receivable - " + loanNumber);
         ledgerEntries.add(debit);
         
-        // Credit: Loans Receivable (Asset) - bank's loan asset increases
+        // Credit: Customer Deposits Liability - money goes to the customer, the balance goes up
         LedgerEntry credit = new LedgerEntry();
         credit.setJournalEntry(journalEntry);
         credit.setAccount(account);
-        credit.setChartOfAccount(loansReceivable);
+        credit.setChartOfAccount(customerDepositsLiability);
         credit.setDebitAmount(BigDecimal.ZERO);
         credit.setCreditAmount(amount);
-        credit.setDescription("Loan receivable - " + loanNumber);
+        credit.setDescription("Loan disbursement to " + account.getAccountNumber());
         ledgerEntries.add(credit);
         
         // Validate and save
@@ -144,6 +153,18 @@ public class DoubleEntryService {
     @Transactional
     public JournalEntry createEMIPaymentEntry(BigDecimal principalAmount, BigDecimal interestAmount,
                                               Account account, String loanNumber, String transactionId) {
+        return createEMIPaymentEntry(principalAmount, interestAmount, BigDecimal.ZERO, account, loanNumber, transactionId);
+    }
+    
+    /**
+     * Creates ledger entries for EMI payment where part of the interest was already recognised by the
+     * daily accrual: that part settles the accrued receivable (1200) instead of being booked as income again.
+     * The transaction id becomes the journal reference, so it must be unique per payment
+     */
+    @Transactional
+    public JournalEntry createEMIPaymentEntry(BigDecimal principalAmount, BigDecimal interestAmount,
+                                              BigDecimal accruedInterest, Account account, String loanNumber,
+                                              String transactionId) {
         chartOfAccountService.initializeDefaultAccounts();
         
         ChartOfAccount loansReceivable = chartOfAccountService.getAccountByCode("1200");
@@ -152,14 +173,15 @@ public class DoubleEntryService {
         
         JournalEntry journalEntry = new JournalEntry();
         journalEntry.setEntryDate(LocalDateTime.now());
-        journalEntry.setReference("EMI-PAY-" + loanNumber + "-" + System.currentTimeMillis());
+        endOfDayCloseService.assertPostingDateOpen(journalEntry.getEntryDate());
+        journalEntry.setReference(transactionId);
         journalEntry.setDescription("EMI payment for loan " + loanNumber);
         journalEntry.setTransactionId(transactionId);
         
         List<LedgerEntry> ledgerEntries = new ArrayList<>();
         BigDecimal totalAmount = principalAmount.add(interestAmount);
         
-        // Debit: Customer Deposits Liability (reducing customer's deposit liability)
+        // Debit: Customer Deposits Liability (reducing customer's deposit liability) - the balance goes down
         LedgerEntry debit1 = new LedgerEntry();
         debit1.setJournalEntry(journalEntry);
         debit1.setAccount(account);
@@ -169,23 +191,21 @@ public class DoubleEntryService {
         debit1.setDescription("EMI payment from " + account.getAccountNumber());
         ledgerEntries.add(debit1);
         
-        // Credit: Loans Receivable (reducing loan asset) - Principal portion
+        // Credit: Loans Receivable (reducing loan asset) - Principal portion and accrued interest, bank-side only
         LedgerEntry credit1 = new LedgerEntry();
         credit1.setJournalEntry(journalEntry);
-        credit1.setAccount(account);
         credit1.setChartOfAccount(loansReceivable);
         credit1.setDebitAmount(BigDecimal.ZERO);
-        credit1.setCreditAmount(principalAmount);
+        credit1.setCreditAmount(principalAmount.add(accruedInterest));
         credit1.setDescription("Principal payment - " + loanNumber);
         ledgerEntries.add(credit1);
         
-        // Credit: Interest Income (Revenue) - Interest portion
+        // Credit: Interest Income (Revenue) - Interest portion not yet accrued, bank-side only
         LedgerEntry credit2 = new LedgerEntry();
         credit2.setJournalEntry(journalEntry);
-        credit2.setAccount(account);
         credit2.setChartOfAccount(interestIncome);
         credit2.setDebitAmount(BigDecimal.ZERO);
-        credit2.setCreditAmount(interestAmount);
+        credit2.setCreditAmount(interestAmount.subtract(accruedInterest));
         credit2.setDescription("Interest income - " + loanNumber);
         ledgerEntries.add(credit2);
         
@@ -210,6 +230,83 @@ public class DoubleEntryService {
         return journalEntry;
     }
     
+    /**
+     * Creates one aggregate journal entry for a batch of interest accruals (no customer account lines),
+     * e.g. 5000 -> 2100 for deposit interest or 1200 -> 4000 for loan interest
+     */
+    @Transactional
+    public JournalEntry createAccrualEntry(String debitAccountCode, String creditAccountCode, BigDecimal amount,
+                                           String reference, String description) {
+        chartOfAccountService.initializeDefaultAccounts();
+        
+        JournalEntry journalEntry = new JournalEntry();
+        journalEntry.setEntryDate(LocalDateTime.now());
+        endOfDayCloseService.assertPostingDateOpen(journalEntry.getEntryDate());
+        journalEntry.setReference(reference);
+        journalEntry.setDescription(description);
+        
+        List<LedgerEntry> ledgerEntries = new ArrayList<>();
+        
+        LedgerEntry debit = new LedgerEntry();
+        debit.setJournalEntry(journalEntry);
+        debit.setChartOfAccount(chartOfAccountService.getAccountByCode(debitAccountCode));
+        debit.setDebitAmount(amount);
+        debit.setCreditAmount(BigDecimal.ZERO);
+        debit.setDescription(description);
+        ledgerEntries.add(debit);
+        
+        LedgerEntry credit = new LedgerEntry();
+        credit.setJournalEntry(journalEntry);
+        credit.setChartOfAccount(chartOfAccountService.getAccountByCode(creditAccountCode));
+        credit.setDebitAmount(BigDecimal.ZERO);
+        credit.setCreditAmount(amount);
+        credit.setDescription(description);
+        ledgerEntries.add(credit);
+        
+        validateDoubleEntry(ledgerEntries);
+        
+        journalEntry.setTotalDebit(amount);
+        journalEntry.setTotalCredit(amount);
+        journalEntry.setIsBalanced(true);
+        journalEntry = journalEntryRepository.save(journalEntry);
+        ledgerEntryRepository.saveAll(ledgerEntries);
+        
+        return journalEntry;
+    }
+    
+    /**
+     * Creates one journal entry crediting capitalized interest to a batch of customer accounts
+     */
+    @Transactional
+    public JournalEntry createInterestCapitalizationEntry(Map<Account, BigDecimal> amounts, String reference,
+                                                          String description) {
+        chartOfAccountService.initializeDefaultAccounts();
+        
+        JournalEntry journalEntry = new JournalEntry();
+        journalEntry.setEntryDate(LocalDateTime.now());
+        endOfDayCloseService.assertPostingDateOpen(journalEntry.getEntryDate());
+        journalEntry.setReference(reference);
+        journalEntry.setDescription(description);
+        
+        List<LedgerEntry> ledgerEntries = new ArrayList<>();
+        for (Map.Entry<Account, BigDecimal> entry : amounts.entrySet()) {
+            ledgerEntries.addAll(createLedgerEntriesForTransaction(journalEntry, TransactionType.INTEREST,
+                entry.getValue(), entry.getKey(), null, description));
+        }
+        
+        validateDoubleEntry(ledgerEntries);
+        
+        journalEntry.setTotalDebit(calculateTotalDebit(ledgerEntries));
+        journalEntry.setTotalCredit(calculateTotalCredit(ledgerEntries));
+        journalEntry.setIsBalanced(true);
+        journalEntry = journalEntryRepository.save(journalEntry);
+        ledgerEntryRepository.saveAll(ledgerEntries);
+        
+        updateAccountBalancesFromLedger(ledgerEntries);
+        
+        return journalEntry;
+    }
+    
     /**
      * Creates ledger entries for a transaction
      */
@@ -224,17 +321,16 @@ public class DoubleEntryService {
         
         switch (transactionType) {
             case DEPOSIT:
-                // Debit: Customer Account (Asset)
+                // Debit: Customer Account (Asset) - bank-side only
                 LedgerEntry debit1 = new LedgerEntry();
                 debit1.setJournalEntry(journalEntry);
-                debit1.setAccount(account);
                 debit1.setChartOfAccount(cashAsset);
                 debit1.setDebitAmount(amount);
                 debit1.setCreditAmount(BigDecimal.ZERO);
                 debit1.setDescription(description != null ? description : "Deposit to " + account.getAccountNumber());
                 ledgerEntries.add(debit1);
                 
-                // Credit: Customer Deposits Liability
+                // Credit: Customer Deposits Liability - the balance goes up
                 LedgerEntry credit1 = new LedgerEntry();
                 credit1.setJournalEntry(journalEntry);
                 credit1.setAccount(account);
@@ -247,7 +343,7 @@ public class DoubleEntryService {
                 
             case WITHDRAWAL:
             case PAYMENT:
-                // Debit: Customer Deposits Liability (reducing liability)
+                // Debit: Customer Deposits Liability (reducing liability) - the balance goes down
                 LedgerEntry debit2 = new LedgerEntry();
                 debit2.setJournalEntry(journalEntry);
                 debit2.setAccount(account);
@@ -257,10 +353,9 @@ public class DoubleEntryService {
                 debit2.setDescription(description != null ? description : "Withdrawal from " + account.getAccountNumber());
                 ledgerEntries.add(debit2);
                 
-                // Credit: Customer Account (Asset)
+                // Credit: Customer Account (Asset) - bank-side only
                 LedgerEntry credit2 = new LedgerEntry();
                 credit2.setJournalEntry(journalEntry);
-                credit2.setAccount(account);
                 credit2.setChartOfAccount(cashAsset);
                 credit2.setDebitAmount(BigDecimal.ZERO);
                 credit2.setCreditAmount(amount);
@@ -273,27 +368,73 @@ public class DoubleEntryService {
                     throw new RuntimeException("Destination account required for transfer");
                 }
                 
-                // Debit: Destination Account (Asset)
+                // Debit: Customer Deposits Liability - the source balance goes down
                 LedgerEntry debit3 = new LedgerEntry();
                 debit3.setJournalEntry(journalEntry);
-                debit3.setAccount(toAccount);
-                debit3.setChartOfAccount(cashAsset);
+                debit3.setAccount(account);
+                debit3.setChartOfAccount(customerDepositsLiability);
                 debit3.setDebitAmount(amount);
                 debit3.setCreditAmount(BigDecimal.ZERO);
                 debit3.setDescription(description != null ? description : "Transfer to " + toAccount.getAccountNumber());
                 ledgerEntries.add(debit3);
                 
-                // Credit: Source Account (Asset)
+                // Credit: Customer Deposits Liability - the destination balance goes up
                 LedgerEntry credit3 = new LedgerEntry();
                 credit3.setJournalEntry(journalEntry);
-                credit3.setAccount(account);
-                credit3.setChartOfAccount(cashAsset);
+                credit3.setAccount(toAccount);
+                credit3.setChartOfAccount(customerDepositsLiability);
                 credit3.setDebitAmount(BigDecimal.ZERO);
                 credit3.setCreditAmount(amount);
                 credit3.setDescription("Transfer from " + account.getAccountNumber());
                 ledgerEntries.add(credit3);
                 break;
                 
+            case FEE:
+                ChartOfAccount serviceFees = chartOfAccountService.getAccountByCode("4100");
+                
+                // Debit: Customer Deposits Liability (fee charged to the customer) - the balance goes down
+                LedgerEntry debit4 = new LedgerEntry();
+                debit4.setJournalEntry(journalEntry);
+                debit4.setAccount(account);
+                debit4.setChartOfAccount(customerDepositsLiability);
+                debit4.setDebitAmount(amount);
+                debit4.setCreditAmount(BigDecimal.ZERO);
+                debit4.setDescription(description != null ? description : "Fee charged to " + account.getAccountNumber());
+                ledgerEntries.add(debit4);
+                
+                // Credit: Service Fees (Revenue); bank-side only
+                LedgerEntry credit4 = new LedgerEntry();
+                credit4.setJournalEntry(journalEntry);
+                credit4.setChartOfAccount(serviceFees);
+                credit4.setDebitAmount(BigDecimal.ZERO);
+                credit4.setCreditAmount(amount);
+                credit4.setDescription("Fee income");
+                ledgerEntries.add(credit4);
+                break;
+                
+            case INTEREST:
+                ChartOfAccount interestPayable = chartOfAccountService.getAccountByCode("2100");
+                
+                // Debit: Interest Payable (accrued interest paid out); bank-side only
+                LedgerEntry debit5 = new LedgerEntry();
+                debit5.setJournalEntry(journalEntry);
+                debit5.setChartOfAccount(interestPayable);
+                debit5.setDebitAmount(amount);
+                debit5.setCreditAmount(BigDecimal.ZERO);
+                debit5.setDescription(description != null ? description : "Interest credited to " + account.getAccountNumber());
+                ledgerEntries.add(debit5);
+                
+                // Credit: Customer Deposits Liability - the customer's balance goes up
+                LedgerEntry credit5 = new LedgerEntry();
+                credit5.setJournalEntry(journalEntry);
+                credit5.setAccount(account);
+                credit5.setChartOfAccount(customerDepositsLiability);
+                credit5.setDebitAmount(BigDecimal.ZERO);
+                credit5.setCreditAmount(amount);
+                credit5.setDescription("Customer deposit liability");
+                ledgerEntries.add(credit5);
+                break;
+                
             default:
                 throw new RuntimeException("Unsupported transaction type: " + transactionType);
         }
@@ -329,14 +470,16 @@ public class DoubleEntryService {
     }
     
     /**
-     * Updates account balances based on ledger entries
+     * Updates account balances based on ledger entries. Only customer deposit liability (2000) legs carry
+     * an account: a credit raises its balance and a debit lowers it, the same rule the ledger balance
+     * queries in LedgerEntryRepository use
      */
     private void updateAccountBalancesFromLedger(List<LedgerEntry> ledgerEntries) {
         Map<Account, BigDecimal> balanceChanges = new HashMap<>();
         
         for (LedgerEntry entry : ledgerEntries) {
             if (entry.getAccount() != null) {
-                BigDecimal change = entry.getDebitAmount().subtract(entry.getCreditAmount());
+                BigDecimal change = entry.getCreditAmount().subtract(entry.getDebitAmount());
                 balanceChanges.merge(entry.getAccount(), change, BigDecimal::add);
                 
                 // Store balance after this entry
@@ -353,6 +496,13 @@ public class DoubleEntryService {
             account.setBalance(newBalance);
             accountRepository.save(account);
         }
+        
+        // Cached analytics of the affected customers are dropped once the posting commits
+        Set<String> customerIds = new HashSet<>();
+        for (Account account : balanceChanges.keySet()) {
+            customerIds.add(account.getCustomer().getId());
+        }
+        analyticsResponseCache.invalidateCustomers(customerIds);
     }
 }
 
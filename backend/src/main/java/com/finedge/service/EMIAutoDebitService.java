@@ -0,0 +1,298 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.model.Account;
+import com.finedge.model.EMISchedule;
+import com.finedge.model.Loan;
+import com.finedge.model.Notification;
+import com.finedge.model.User;
+import com.finedge.model.enums.AccountStatus;
+import com.finedge.model.enums.LoanStatus;
+import com.finedge.model.enums.NotificationType;
+import com.finedge.repository.AccountRepository;
+import com.finedge.repository.EMIScheduleRepository;
+import com.finedge.repository.LoanRepository;
+import com.finedge.util.ClaimedBatches;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Due-date EMI collection from each loan's linked account.
+ * Workers claim batches of due installments with FOR UPDATE SKIP LOCKED, so they never wait on each other
+ * or on a manual payment in progress. Each batch is grouped by account and settled in one transaction
+ * through the same path as a manual payment (see ClaimedBatches for how a failed batch is isolated).
+ * Installments the account cannot cover, or that fail on their own, are put on a retry queue
+ * (next_auto_debit_at) and tried again after the retry delay, up to the attempt limit.
+ */
+@Service
+public class EMIAutoDebitService {
+    
+    private static final String INSUFFICIENT_FUNDS = "Insufficient funds";
+    private static final String ACCOUNT_NOT_ACTIVE = "Account not active";
+    
+    @Autowired
+    private EMIScheduleRepository emiScheduleRepository;
+    
+    @Autowired
+    private LoanRepository loanRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private LoanService loanService;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${emi-autodebit.workers:4}")
+    private int workerCount;
+    
+    @Value("${emi-autodebit.batch-size:200}")
+    private int batchSize;
+    
+    @Value("${emi-autodebit.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Value("${emi-autodebit.retry-delay-hours:24}")
+    private long retryDelayHours;
+    
+    private ExecutorService workers;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    @PostConstruct
+    void startWorkers() {
+        workers = Executors.newFixedThreadPool(workerCount);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+    
+    @Scheduled(cron = "${emi-autodebit.cron:0 0 2 * * *}")
+    public void collectDue() {
+        if (!running.get()) {
+            runCollection();
+        }
+    }
+    
+    /**
+     * Collects every installment due by the end of today that is not waiting for a retry
+     */
+    public Map<String, Object> runCollection() {
+        if (!running.compareAndSet(false, true)) {
+            throw new CustomException("EMI auto-debit run already in progress", 409);
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime dueBefore = now.toLocalDate().plusDays(1).atStartOfDay();
+            RunTotals totals = new RunTotals();
+            List<CompletableFuture<Void>> runs = new ArrayList<>();
+            for (int i = 0; i < workerCount; i++) {
+                runs.add(CompletableFuture.runAsync(() -> drain(dueBefore, now, totals), workers));
+            }
+            CompletableFuture.allOf(runs.toArray(CompletableFuture<?>[]::new)).join();
+            return totals.toMap(now);
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    private void drain(LocalDateTime dueBefore, LocalDateTime now, RunTotals totals) {
+        LocalDateTime retryAt = now.plusHours(retryDelayHours);
+        ClaimedBatches.drain(new TransactionTemplate(transactionManager), new ClaimedBatches.Batch<BatchResult>() {
+            @Override
+            public List<String> claim() {
+                return emiScheduleRepository.claimDueForAutoDebit(dueBefore, now, maxAttempts, batchSize);
+            }
+            
+            @Override
+            public BatchResult process(List<String> claimed) {
+                return collect(emiScheduleRepository.findAllById(claimed), retryAt);
+            }
+            
+            @Override
+            public BatchResult retry(String id) {
+                return collect(emiScheduleRepository.findByIdWithLock(id)
+                    .filter(emi -> !Boolean.TRUE.equals(emi.getIsPaid()))
+                    .map(List::of)
+                    .orElse(List.of()), retryAt);
+            }
+            
+            @Override
+            public void recordFailure(String id, RuntimeException e) {
+                // Waits out the retry delay like an installment the account could not cover
+                emiScheduleRepository.scheduleAutoDebitRetry(List.of(id), retryAt, failureReason(e));
+            }
+        }, totals);
+    }
+    
+    /**
+     * Settles the given installments, which the caller has already locked, grouped by account
+     */
+    private BatchResult collect(List<EMISchedule> installments, LocalDateTime retryAt) {
+        BatchResult result = new BatchResult();
+        if (installments.isEmpty()) {
+            return result;
+        }
+        
+        // Same lock order as a manual payment: installments (locked by the caller), then loans, then accounts
+        Map<String, Loan> loans = new TreeMap<>();
+        for (EMISchedule emi : installments) {
+            loans.put(emi.getLoan().getId(), null);
+        }
+        for (String loanId : loans.keySet()) {
+            loans.put(loanId, loanRepository.findByIdWithLock(loanId)
+                .orElseThrow(() -> new CustomException("Loan not found", 404)));
+        }
+        Map<String, List<EMISchedule>> byAccount = new TreeMap<>();
+        for (EMISchedule emi : installments) {
+            byAccount.computeIfAbsent(loans.get(emi.getLoan().getId()).getAccount().getId(), id -> new ArrayList<>()).add(emi);
+        }
+        
+        Map<String, List<String>> retries = new LinkedHashMap<>();
+        Map<String, User> users = new LinkedHashMap<>();
+        Map<String, List<EMISchedule>> paidByUser = new LinkedHashMap<>();
+        Map<String, List<EMISchedule>> failedByUser = new LinkedHashMap<>();
+        for (Map.Entry<String, List<EMISchedule>> entry : byAccount.entrySet()) {
+            Account account = accountRepository.findByIdWithLock(entry.getKey())
+                .orElseThrow(() -> new CustomException("Account not found", 404));
+            List<EMISchedule> due = entry.getValue();
+            due.sort(Comparator.comparing(EMISchedule::getDueDate).thenComparing(EMISchedule::getInstallmentNumber));
+            for (EMISchedule emi : due) {
+                Loan loan = loans.get(emi.getLoan().getId());
+                if (loan.getStatus() != LoanStatus.ACTIVE) {
+                    continue;
+                }
+                User user = loan.getCustomer().getUser();
+                users.putIfAbsent(user.getId(), user);
+                String failure = account.getStatus() != AccountStatus.ACTIVE ? ACCOUNT_NOT_ACTIVE
+                    : account.getBalance().compareTo(emi.getTotalAmount()) < 0 ? INSUFFICIENT_FUNDS : null;
+                if (failure != null) {
+                    retries.computeIfAbsent(failure, f -> new ArrayList<>()).add(emi.getId());
+                    failedByUser.computeIfAbsent(user.getId(), id -> new ArrayList<>()).add(emi);
+                    continue;
+                }
+                loanService.settleEMI(emi, loan, account);
+                paidByUser.computeIfAbsent(user.getId(), id -> new ArrayList<>()).add(emi);
+                result.collected++;
+                result.amount = result.amount.add(emi.getTotalAmount());
+            }
+        }
+        
+        for (Map.Entry<String, List<String>> retry : retries.entrySet()) {
+            emiScheduleRepository.scheduleAutoDebitRetry(retry.getValue(), retryAt, retry.getKey());
+            result.queuedForRetry += retry.getValue().size();
+        }
+        
+        List<Notification> notifications = new ArrayList<>();
+        paidByUser.forEach((userId, paid) -> notifications.add(notification(users.get(userId), "EMI Auto-Debit Successful",
+            paid.size() == 1
+                ? "EMI installment #" + paid.get(0).getInstallmentNumber() + " of $" + paid.get(0).getTotalAmount()
+                    + " was debited from your account"
+                : paid.size() + " EMI installments totalling $" + sum(paid) + " were debited from your account",
+            paid)));
+        failedByUser.forEach((userId, failed) -> notifications.add(notification(users.get(userId), "EMI Auto-Debit Failed",
+            "We could not debit $" + sum(failed) + " for " + failed.size() + " EMI installment(s). "
+                + "Please fund your account; we will retry on " + retryAt.toLocalDate(),
+            failed)));
+        notificationService.createNotifications(notifications);
+        return result;
+    }
+    
+    private static Notification notification(User user, String title, String message, List<EMISchedule> installments) {
+        List<String> emiIds = new ArrayList<>();
+        for (EMISchedule emi : installments) {
+            emiIds.add(emi.getId());
+        }
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setType(NotificationType.PAYMENT_DUE);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setMetadata(Map.of("emiScheduleIds", emiIds));
+        notification.setRelatedEntityType("emi_schedule");
+        notification.setRelatedEntityId(installments.get(0).getId());
+        return notification;
+    }
+    
+    private static BigDecimal sum(List<EMISchedule> installments) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (EMISchedule emi : installments) {
+            total = total.add(emi.getTotalAmount());
+        }
+        return total;
+    }
+    
+    private static String failureReason(RuntimeException e) {
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        return message.length() > 255 ? message.substring(0, 255) : message;
+    }
+    
+    private static final class BatchResult {
+        long collected;
+        long queuedForRetry;
+        BigDecimal amount = BigDecimal.ZERO;
+    }
+    
+    private static final class RunTotals implements ClaimedBatches.Results<BatchResult> {
+        private long collected;
+        private long queuedForRetry;
+        private long failed;
+        private BigDecimal amount = BigDecimal.ZERO;
+        private final List<String> errors = new ArrayList<>();
+        
+        @Override
+        public synchronized void add(BatchResult batch) {
+            collected += batch.collected;
+            queuedForRetry += batch.queuedForRetry;
+            amount = amount.add(batch.amount);
+        }
+        
+        @Override
+        public synchronized void addFailure(String error) {
+            failed++;
+            errors.add(error);
+        }
+        
+        @Override
+        public synchronized void addError(String error) {
+            errors.add(error);
+        }
+        
+        synchronized Map<String, Object> toMap(LocalDateTime startedAt) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("startedAt", startedAt.toString());
+            result.put("collected", collected);
+            result.put("amountCollected", amount);
+            result.put("queuedForRetry", queuedForRetry);
+            result.put("failed", failed);
+            result.put("errors", errors);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.model.BusinessDayClose;
+import com.finedge.model.LedgerDailySummary;
+import com.finedge.model.LedgerEntry;
+import com.finedge.repository.AccountRepository;
+import com.finedge.repository.BusinessDayCloseRepository;
+import com.finedge.repository.ChartOfAccountRepository;
+import com.finedge.repository.LedgerDailySummaryRepository;
+import com.finedge.repository.LedgerEntryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * End-of-day close. Rolls each chart account's and customer account's ledger activity for a
+ * business date into ledger_daily_summaries, records the close, and from then on rejects
+ * postings dated on or before the closed date. Reports read the rollups for closed days
+ * plus the raw ledger entries of the open tail, split at a watermark read from the database
+ * in the same transaction.
+ */
+@Service
+public class EndOfDayCloseService {
+    
+    private static final long CLOSED_THROUGH_TTL_MILLIS = 60_000;
+    private static final LocalDateTime LEDGER_EPOCH = LocalDate.of(1970, 1, 1).atStartOfDay();
+    
+    @Autowired
+    private BusinessDayCloseRepository businessDayCloseRepository;
+    
+    @Autowired
+    private LedgerDailySummaryRepository ledgerDailySummaryRepository;
+    
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private ChartOfAccountRepository chartOfAccountRepository;
+    
+    @Autowired
+    private BalanceSnapshotService balanceSnapshotService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // Cached latest closed date so the posting guard does not query per journal entry.
+    // Reloaded after the TTL so closes run on other nodes are picked up; reports never use it.
+    private volatile LocalDate closedThrough;
+    private volatile long closedThroughLoadedAt;
+    
+    /**
+     * Nightly close of the previous business date. A self-call would bypass the @Transactional
+     * proxy, so the close runs in an explicit transaction: rollups, close rows and snapshots
+     * commit together or not at all.
+     */
+    @Scheduled(cron = "${eod-close.cron:0 15 0 * * *}")
+    public void closePreviousBusinessDay() {
+        new TransactionTemplate(transactionManager).execute(status -> closeBusinessDay(LocalDate.now().minusDays(1)));
+    }
+    
+    /**
+     * Closes every open business date up to and including the given date, oldest first.
+     * Closed dates are skipped, so the close is safe to re-run.
+     */
+    @Transactional
+    public List<BusinessDayClose> closeBusinessDay(LocalDate businessDate) {
+        if (!businessDate.isBefore(LocalDate.now())) {
+            throw new CustomException("Only past business dates can be closed", 400);
+        }
+        
+        LocalDate startDate = businessDayCloseRepository.findTopByOrderByBusinessDateDesc()
+            .map(close -> close.getBusinessDate().plusDays(1))
+            .orElseGet(() -> {
+                // First close: roll up the whole history so rollups plus tail cover every entry
+                LocalDateTime earliest = ledgerEntryRepository.findEarliestEntryDate();
+                return earliest != null && earliest.toLocalDate().isBefore(businessDate)
+                    ? earliest.toLocalDate() : businessDate;
+            });
+        
+        List<BusinessDayClose> closes = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(businessDate); date = date.plusDays(1)) {
+            closes.add(closeSingleDay(date));
+        }
+        
+        if (!closes.isEmpty()) {
+            // Published once the rollups are committed; a rolled-back close leaves the cache alone
+            afterCommit(() -> {
+                closedThrough = businessDate;
+                closedThroughLoadedAt = System.currentTimeMillis();
+            });
+        }
+        return closes;
+    }
+    
+    private BusinessDayClose closeSingleDay(LocalDate businessDate) {
+        LocalDateTime from = businessDate.atStartOfDay();
+        LocalDateTime to = from.plusDays(1);
+        
+        BigDecimal totalDebit = BigDecimal.ZERO;
+        BigDecimal totalCredit = BigDecimal.ZERO;
+        long entryCount = 0;
+        List<LedgerDailySummary> summaries = new ArrayList<>();
+        
+        for (Object[] row : ledgerEntryRepository.summarizeByChartAccount(from, to)) {
+            LedgerDailySummary summary = newSummary(businessDate, row);
+            summary.setChartOfAccount(chartOfAccountRepository.getReferenceById((String) row[0]));
+            summaries.add(summary);
+            totalDebit = totalDebit.add(summary.getTotalDebit());
+            totalCredit = totalCredit.add(summary.getTotalCredit());
+            entryCount += summary.getEntryCount();
+        }
+        
+        for (Object[] row : ledgerEntryRepository.summarizeByAccount(from, to)) {
+            LedgerDailySummary summary = newSummary(businessDate, row);
+            summary.setAccount(accountRepository.getReferenceById((String) row[0]));
+            summaries.add(summary);
+        }
+        
+        ledgerDailySummaryRepository.saveAll(summaries);
+        
+        BusinessDayClose close = new BusinessDayClose();
+        close.setBusinessDate(businessDate);
+        close.setTotalDebit(totalDebit);
+        close.setTotalCredit(totalCredit);
+        close.setEntryCount(entryCount);
+        close.setIsBalanced(totalDebit.compareTo(totalCredit) == 0);
+        close.setClosedAt(LocalDateTime.now());
+        close = businessDayCloseRepository.save(close);
+        
+        // Closing balances for point-in-time queries
+        balanceSnapshotService.takeSnapshots(businessDate.plusDays(1));
+        
+        return close;
+    }
+    
+    private LedgerDailySummary newSummary(LocalDate businessDate, Object[] row) {
+        LedgerDailySummary summary = new LedgerDailySummary();
+        summary.setBusinessDate(businessDate);
+        summary.setTotalDebit((BigDecimal) row[1]);
+        summary.setTotalCredit((BigDecimal) row[2]);
+        summary.setEntryCount((Long) row[3]);
+        return summary;
+    }
+    
+    /**
+     * Rejects postings dated on or before the latest closed business date
+     */
+    public void assertPostingDateOpen(LocalDateTime entryDate) {
+        LocalDate closed = getClosedThrough();
+        if (closed != null && !entryDate.toLocalDate().isAfter(closed)) {
+            throw new CustomException("Business date " + entryDate.toLocalDate() + " is closed", 409);
+        }
+    }
+    
+    /**
+     * Latest closed business date, or null if no day has been closed yet
+     */
+    public LocalDate getClosedThrough() {
+        if (System.currentTimeMillis() - closedThroughLoadedAt > CLOSED_THROUGH_TTL_MILLIS) {
+            closedThrough = businessDayCloseRepository.findTopByOrderByBusinessDateDesc()
+                .map(BusinessDayClose::getBusinessDate)
+                .orElse(null);
+            closedThroughLoadedAt = System.currentTimeMillis();
+        }
+        return closedThrough;
+    }
+    
+    /**
+     * Latest closed business date read from the database, or null if no day has been closed yet.
+     * Reports split rollups from the open tail at this date, bounding the rollups by it too, so a
+     * close committing or rolling back meanwhile can neither drop nor double count a day.
+     */
+    public LocalDate readClosedThrough() {
+        return businessDayCloseRepository.findTopByOrderByBusinessDateDesc()
+            .map(BusinessDayClose::getBusinessDate)
+            .orElse(null);
+    }
+    
+    /**
+     * Start of the open ledger tail after the given closed date: ledger entries at or after this
+     * instant are not rolled up
+     */
+    public static LocalDateTime openPeriodStart(LocalDate closedThrough) {
+        return closedThrough != null ? closedThrough.plusDays(1).atStartOfDay() : LEDGER_EPOCH;
+    }
+    
+    /**
+     * Daily debit/credit activity of a customer account: rollups for closed days,
+     * raw ledger entries for the open tail. Net is the change in balance (credits minus debits).
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAccountDailyActivity(String accountId, LocalDate from, LocalDate to) {
+        Map<LocalDate, BigDecimal[]> days = new TreeMap<>();
+        LocalDate closed = readClosedThrough();
+        
+        if (closed != null) {
+            LocalDate rollupTo = to.isAfter(closed) ? closed : to;
+            for (LedgerDailySummary summary : ledgerDailySummaryRepository
+                    .findByAccountIdAndBusinessDateBetweenOrderByBusinessDate(accountId, from, rollupTo)) {
+                days.put(summary.getBusinessDate(), new BigDecimal[] { summary.getTotalDebit(), summary.getTotalCredit() });
+            }
+        }
+        
+        LocalDateTime tailFrom = openPeriodStart(closed);
+        LocalDateTime rangeStart = from.atStartOfDay();
+        LocalDateTime rangeEnd = to.plusDays(1).atStartOfDay();
+        if (tailFrom.isAfter(rangeStart)) {
+            rangeStart = tailFrom;
+        }
+        if (rangeStart.isBefore(rangeEnd)) {
+            for (LedgerEntry entry : ledgerEntryRepository.findByAccountIdAndCreatedAtRange(accountId, rangeStart, rangeEnd)) {
+                BigDecimal[] totals = days.computeIfAbsent(entry.getCreatedAt().toLocalDate(),
+                    d -> new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+                totals[0] = totals[0].add(entry.getDebitAmount());
+                totals[1] = totals[1].add(entry.getCreditAmount());
+            }
+        }
+        
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map.Entry<LocalDate, BigDecimal[]> day : days.entrySet()) {
+            result.add(Map.of(
+                "date", day.getKey(),
+                "debits", day.getValue()[0],
+                "credits", day.getValue()[1],
+                "net", day.getValue()[1].subtract(day.getValue()[0])
+            ));
+        }
+        return result;
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    public List<BusinessDayClose> getRecentCloses(int limit) {
+        return businessDayCloseRepository.findAllByOrderByBusinessDateDesc(
+            PageRequest.of(0, Math.max(1, Math.min(limit, 366)))).getContent();
+    }
+}
@@ -0,0 +1,303 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.model.Account;
+import com.finedge.model.JournalEntry;
+import com.finedge.model.Transaction;
+import com.finedge.model.enums.TransactionStatus;
+import com.finedge.model.enums.TransactionType;
+import com.finedge.repository.AccountRepository;
+import com.finedge.repository.TransactionRepository;
+import com.finedge.util.IdRanges;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Nightly daily-interest accrual for interest-bearing deposit accounts and active loans.
+ * Rows are split into id-range partitions that workers process in parallel. Each chunk is accrued by one
+ * set-based UPDATE (actual/365, kept to six decimals in accrued_interest) and booked as one aggregate
+ * journal entry: 5000 -> 2100 for deposits, 1200 -> 4000 for loans. The entry carries the whole cents that
+ * the chunk's accrued balances gained, so the ledger always equals the truncated accrued amounts.
+ * last_interest_accrual_date makes a rerun for the same date a no-op and lets a missed night catch up.
+ * On the last day of a month the accrued deposit interest is capitalized to the customer accounts.
+ */
+@Service
+public class InterestAccrualService {
+    
+    private static final BigDecimal ONE_CENT = new BigDecimal("0.01");
+    
+    // [rows, whole cents gained, last id] for one chunk of deposit accounts
+    private static final String ACCRUE_ACCOUNTS_SQL =
+        "WITH batch AS (SELECT id, CASE WHEN status = 'ACTIVE' THEN GREATEST(balance, 0) ELSE 0 END * interest_rate " +
+        "    * (CAST(? AS date) - COALESCE(last_interest_accrual_date, CAST(? AS date) - 1)) / 36500 AS interest " +
+        "  FROM accounts WHERE id >= ? AND id < ? AND id > ? AND interest_rate > 0 AND status <> 'CLOSED' " +
+        "    AND (last_interest_accrual_date IS NULL OR last_interest_accrual_date < ?) " +
+        "  ORDER BY id LIMIT ? FOR UPDATE), " +
+        "accrued AS (UPDATE accounts a SET accrued_interest = COALESCE(a.accrued_interest, 0) + ROUND(b.interest, 6), " +
+        "    last_interest_accrual_date = ?, version = a.version + 1 FROM batch b WHERE a.id = b.id " +
+        "  RETURNING a.id, TRUNC(a.accrued_interest, 2) - TRUNC(a.accrued_interest - ROUND(b.interest, 6), 2) AS posted) " +
+        "SELECT COUNT(*), COALESCE(SUM(posted), 0), MAX(id) FROM accrued";
+    
+    // Same for active loans, on the principal of the unpaid installments
+    private static final String ACCRUE_LOANS_SQL =
+        "WITH batch AS (SELECT l.id, (SELECT COALESCE(SUM(e.principal_amount), 0) FROM emi_schedules e " +
+        "      WHERE e.loan_id = l.id AND e.is_paid = false) * l.interest_rate " +
+        "    * (CAST(? AS date) - COALESCE(l.last_interest_accrual_date, CAST(? AS date) - 1)) / 36500 AS interest " +
+        "  FROM loans l WHERE l.id >= ? AND l.id < ? AND l.id > ? AND l.status = 'ACTIVE' " +
+        "    AND (l.last_interest_accrual_date IS NULL OR l.last_interest_accrual_date < ?) " +
+        "  ORDER BY l.id LIMIT ? FOR UPDATE OF l), " +
+        "accrued AS (UPDATE loans l SET accrued_interest = COALESCE(l.accrued_interest, 0) + ROUND(b.interest, 6), " +
+        "    last_interest_accrual_date = ?, version = l.version + 1 FROM batch b WHERE l.id = b.id " +
+        "  RETURNING l.id, TRUNC(l.accrued_interest, 2) - TRUNC(l.accrued_interest - ROUND(b.interest, 6), 2) AS posted) " +
+        "SELECT COUNT(*), COALESCE(SUM(posted), 0), MAX(id) FROM accrued";
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private DoubleEntryService doubleEntryService;
+    
+    @Autowired
+    private CustomerDashboardService customerDashboardService;
+    
+    @Autowired
+    private AccountActivityService accountActivityService;
+    
+    @Autowired
+    private SpendingCategoryService spendingCategoryService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${interest-accrual.workers:4}")
+    private int workerCount;
+    
+    @Value("${interest-accrual.partitions:16}")
+    private int partitionCount;
+    
+    @Value("${interest-accrual.chunk-size:5000}")
+    private int chunkSize;
+    
+    @Value("${interest-accrual.capitalization-chunk-size:500}")
+    private int capitalizationChunkSize;
+    
+    private ExecutorService workers;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    @PostConstruct
+    void startWorkers() {
+        workers = Executors.newFixedThreadPool(workerCount);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+    
+    @Scheduled(cron = "${interest-accrual.cron:0 30 0 * * *}")
+    public void accrueYesterday() {
+        if (!running.get()) {
+            runAccrual(LocalDate.now().minusDays(1));
+        }
+    }
+    
+    /**
+     * Accrues interest up to and including the given date, capitalizing deposit interest if it is a month end
+     */
+    public Map<String, Object> runAccrual(LocalDate asOfDate) {
+        if (asOfDate.isAfter(LocalDate.now())) {
+            throw new CustomException("Interest cannot be accrued for a future date", 400);
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new CustomException("Interest accrual run already in progress", 409);
+        }
+        try {
+            boolean monthEnd = asOfDate.plusDays(1).getDayOfMonth() == 1;
+            RunTotals totals = new RunTotals();
+            List<CompletableFuture<Void>> runs = new ArrayList<>();
+            for (String[] range : IdRanges.split(partitionCount)) {
+                runs.add(CompletableFuture.runAsync(() -> {
+                    accrue(ACCRUE_ACCOUNTS_SQL, "5000", "2100", "deposit", range, asOfDate, totals.deposits, totals);
+                    accrue(ACCRUE_LOANS_SQL, "1200", "4000", "loan", range, asOfDate, totals.loans, totals);
+                    if (monthEnd) {
+                        capitalize(range, YearMonth.from(asOfDate), totals);
+                    }
+                }, workers));
+            }
+            CompletableFuture.allOf(runs.toArray(CompletableFuture<?>[]::new)).join();
+            return totals.toMap(asOfDate, monthEnd);
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    private void accrue(String sql, String debitCode, String creditCode, String kind, String[] range,
+                        LocalDate asOfDate, Accrued accrued, RunTotals totals) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        String afterId = "";
+        while (true) {
+            String chunkAfter = afterId;
+            Chunk chunk;
+            try {
+                chunk = tx.execute(status -> {
+                    Chunk result = jdbcTemplate.queryForObject(sql, (rs, rowNum) ->
+                            new Chunk(rs.getLong(1), rs.getBigDecimal(2), rs.getString(3)),
+                        asOfDate, asOfDate, range[0], range[1], chunkAfter, asOfDate, chunkSize, asOfDate);
+                    if (result.posted().signum() > 0) {
+                        doubleEntryService.createAccrualEntry(debitCode, creditCode, result.posted(),
+                            "INT-ACCR-" + asOfDate + "-" + result.lastId(),
+                            "Daily " + kind + " interest accrual for " + asOfDate + " (" + result.rows() + " " + kind + "s)");
+                        totals.addJournalEntry();
+                    }
+                    return result;
+                });
+            } catch (RuntimeException e) {
+                // Rolled back rows keep their accrual date, so the next run accrues them with the missed days
+                totals.addError(kind + " accrual after " + chunkAfter + " in [" + range[0] + ", " + range[1] + "): " + e.getMessage());
+                return;
+            }
+            if (chunk.rows() == 0) {
+                return;
+            }
+            accrued.add(chunk.rows(), chunk.posted());
+            afterId = chunk.lastId();
+        }
+    }
+    
+    private void capitalize(String[] range, YearMonth month, RunTotals totals) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        String afterId = "";
+        while (true) {
+            String chunkAfter = afterId;
+            String lastId;
+            try {
+                lastId = tx.execute(status -> capitalizeChunk(range, chunkAfter, month, totals));
+            } catch (RuntimeException e) {
+                totals.addError("capitalization after " + chunkAfter + " in [" + range[0] + ", " + range[1] + "): " + e.getMessage());
+                return;
+            }
+            if (lastId == null) {
+                return;
+            }
+            afterId = lastId;
+        }
+    }
+    
+    private String capitalizeChunk(String[] range, String afterId, YearMonth month, RunTotals totals) {
+        List<Account> accounts = accountRepository.findInterestToCapitalize(range[0], range[1], afterId, ONE_CENT,
+            PageRequest.of(0, capitalizationChunkSize));
+        if (accounts.isEmpty()) {
+            return null;
+        }
+        Map<Account, BigDecimal> amounts = new LinkedHashMap<>();
+        BigDecimal total = BigDecimal.ZERO;
+        for (Account account : accounts) {
+            BigDecimal amount = account.getAccruedInterest().setScale(2, RoundingMode.DOWN);
+            amounts.put(account, amount);
+            total = total.add(amount);
+        }
+        String lastId = accounts.get(accounts.size() - 1).getId();
+        String description = "Interest credited for " + month;
+        JournalEntry journalEntry = doubleEntryService.createInterestCapitalizationEntry(amounts,
+            "INT-CAP-" + month + "-" + lastId, description);
+        totals.addJournalEntry();
+        
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Account, BigDecimal> entry : amounts.entrySet()) {
+            Account account = entry.getKey();
+            account.setAccruedInterest(account.getAccruedInterest().subtract(entry.getValue()));
+            accountRepository.save(account);
+            
+            Transaction transaction = new Transaction();
+            transaction.setAccount(account);
+            transaction.setJournalEntry(journalEntry);
+            transaction.setTransactionType(TransactionType.INTEREST);
+            transaction.setAmount(entry.getValue());
+            transaction.setBalanceAfter(account.getBalance());
+            transaction.setDescription(description);
+            transaction.setReference(journalEntry.getReference());
+            transaction.setStatus(TransactionStatus.COMPLETED);
+            transaction.setProcessedAt(now);
+            transaction.setSpendingCategory(spendingCategoryService.categorize(transaction));
+            transaction = transactionRepository.save(transaction);
+            customerDashboardService.recordTransaction(transaction);
+            accountActivityService.recordTransaction(transaction);
+            spendingCategoryService.recordTransaction(transaction);
+        }
+        totals.capitalized.add(accounts.size(), total);
+        return lastId;
+    }
+    
+    private record Chunk(long rows, BigDecimal posted, String lastId) {
+    }
+    
+    private static final class Accrued {
+        private long rows;
+        private BigDecimal amount = BigDecimal.ZERO;
+        
+        synchronized void add(long count, BigDecimal posted) {
+            rows += count;
+            amount = amount.add(posted);
+        }
+    }
+    
+    private static final class RunTotals {
+        private final Accrued deposits = new Accrued();
+        private final Accrued loans = new Accrued();
+        private final Accrued capitalized = new Accrued();
+        private long journalEntries;
+        private final List<String> errors = new ArrayList<>();
+        
+        synchronized void addJournalEntry() {
+            journalEntries++;
+        }
+        
+        synchronized void addError(String error) {
+            errors.add(error);
+        }
+        
+        synchronized Map<String, Object> toMap(LocalDate asOfDate, boolean monthEnd) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("asOfDate", asOfDate.toString());
+            result.put("accountsAccrued", deposits.rows);
+            result.put("depositInterestAccrued", deposits.amount);
+            result.put("loansAccrued", loans.rows);
+            result.put("loanInterestAccrued", loans.amount);
+            result.put("capitalized", monthEnd);
+            result.put("accountsCapitalized", capitalized.rows);
+            result.put("interestCapitalized", capitalized.amount);
+            result.put("journalEntries", journalEntries);
+            result.put("errors", errors);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.finedge.service;
+
+import com.finedge.model.LoanAgingSnapshot;
+import com.finedge.model.enums.DelinquencyBand;
+import com.finedge.model.enums.LoanStatus;
+import com.finedge.model.enums.LoanType;
+import com.finedge.repository.EMIScheduleRepository;
+import com.finedge.repository.LoanAgingSnapshotRepository;
+import com.finedge.repository.LoanRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Daily loan aging (days-past-due) report.
+ * Active loans are read in keyset-paged chunks; each chunk's unpaid overdue installments are
+ * aggregated per loan in a separate read-only transaction on a small worker pool, and the
+ * per-chunk band totals are merged into one snapshot row per loan type and band.
+ */
+@Service
+public class LoanAgingService {
+    
+    private static final int CHUNK_SIZE = 1000;
+    
+    @Autowired
+    private LoanRepository loanRepository;
+    
+    @Autowired
+    private EMIScheduleRepository emiScheduleRepository;
+    
+    @Autowired
+    private LoanAgingSnapshotRepository loanAgingSnapshotRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${loan-aging.workers:4}")
+    private int workerCount;
+    
+    private ExecutorService workers;
+    
+    @PostConstruct
+    void startWorkers() {
+        workers = Executors.newFixedThreadPool(workerCount);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        workers.shutdown();
+    }
+    
+    /**
+     * Nightly snapshot, scheduled after the end-of-day close
+     */
+    @Scheduled(cron = "${loan-aging.cron:0 45 0 * * *}")
+    public void snapshotToday() {
+        computeSnapshot(LocalDate.now());
+    }
+    
+    /**
+     * Computes and stores the aging snapshot as of the start of the given date, replacing any earlier one for that date
+     */
+    public List<LoanAgingSnapshot> computeSnapshot(LocalDate asOfDate) {
+        LocalDateTime asOf = asOfDate.atStartOfDay();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        
+        List<CompletableFuture<AgingTotals>> chunks = new ArrayList<>();
+        String afterId = "";
+        while (true) {
+            List<Object[]> loans = loanRepository.findLoanChunkAfter(LoanStatus.ACTIVE, afterId,
+                PageRequest.of(0, CHUNK_SIZE));
+            if (loans.isEmpty()) {
+                break;
+            }
+            chunks.add(CompletableFuture.supplyAsync(
+                () -> readOnly.execute(status -> ageChunk(loans, asOf, asOfDate)), workers));
+            afterId = (String) loans.get(loans.size() - 1)[0];
+            if (loans.size() < CHUNK_SIZE) {
+                break;
+            }
+        }
+        
+        AgingTotals totals = new AgingTotals();
+        for (CompletableFuture<AgingTotals> chunk : chunks) {
+            totals.merge(chunk.join());
+        }
+        
+        TransactionTemplate write = new TransactionTemplate(transactionManager);
+        return write.execute(status -> {
+            loanAgingSnapshotRepository.deleteByAsOfDate(asOfDate);
+            return loanAgingSnapshotRepository.saveAll(totals.toSnapshots(asOfDate));
+        });
+    }
+    
+    /**
+     * Report for the given date, or the latest snapshot when no date is given.
+     * Computes today's snapshot if none has been stored yet.
+     */
+    public Map<String, Object> getReport(LocalDate asOfDate) {
+        LocalDate date = asOfDate != null ? asOfDate
+            : loanAgingSnapshotRepository.findTopByOrderByAsOfDateDesc()
+                .map(LoanAgingSnapshot::getAsOfDate)
+                .orElse(null);
+        List<LoanAgingSnapshot> rows = date != null ? loanAgingSnapshotRepository.findByAsOfDate(date) : List.of();
+        if (date == null) {
+            date = LocalDate.now();
+            rows = computeSnapshot(date);
+        }
+        
+        Map<DelinquencyBand, BigDecimal[]> overall = new LinkedHashMap<>();
+        for (DelinquencyBand band : DelinquencyBand.values()) {
+            overall.put(band, new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO });
+        }
+        List<Map<String, Object>> byLoanType = new ArrayList<>();
+        for (LoanAgingSnapshot row : rows) {
+            BigDecimal[] band = overall.get(row.getBand());
+            band[0] = band[0].add(BigDecimal.valueOf(row.getLoanCount()));
+            band[1] = band[1].add(row.getOutstandingAmount());
+            band[2] = band[2].add(row.getOverdueAmount());
+            byLoanType.add(bandRow(row.getLoanType().name(), row.getBand(), row.getLoanCount(),
+                row.getOutstandingAmount(), row.getOverdueAmount()));
+        }
+        
+        List<Map<String, Object>> overallRows = new ArrayList<>();
+        for (Map.Entry<DelinquencyBand, BigDecimal[]> band : overall.entrySet()) {
+            overallRows.add(bandRow(null, band.getKey(), band.getValue()[0].longValue(),
+                band.getValue()[1], band.getValue()[2]));
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("asOfDate", date.toString());
+        result.put("overall", overallRows);
+        result.put("byLoanType", byLoanType);
+        return result;
+    }
+    
+    private AgingTotals ageChunk(List<Object[]> loans, LocalDateTime asOf, LocalDate asOfDate) {
+        List<String> loanIds = new ArrayList<>(loans.size());
+        for (Object[] loan : loans) {
+            loanIds.add((String) loan[0]);
+        }
+        
+        Map<String, Object[]> overdueByLoan = new HashMap<>();
+        for (Object[] row : emiScheduleRepository.summarizeOverdueByLoan(loanIds, asOf)) {
+            overdueByLoan.put((String) row[0], row);
+        }
+        
+        AgingTotals totals = new AgingTotals();
+        for (Object[] loan : loans) {
+            Object[] overdue = overdueByLoan.get((String) loan[0]);
+            DelinquencyBand band = DelinquencyBand.CURRENT;
+            BigDecimal overdueAmount = BigDecimal.ZERO;
+            if (overdue != null) {
+                long daysPastDue = ChronoUnit.DAYS.between(((LocalDateTime) overdue[1]).toLocalDate(), asOfDate);
+                band = bandFor(daysPastDue);
+                overdueAmount = (BigDecimal) overdue[2];
+            }
+            BigDecimal outstanding = loan[2] != null ? (BigDecimal) loan[2] : BigDecimal.ZERO;
+            totals.add((LoanType) loan[1], band, outstanding, overdueAmount);
+        }
+        return totals;
+    }
+    
+    static DelinquencyBand bandFor(long daysPastDue) {
+        if (daysPastDue <= 0) {
+            return DelinquencyBand.CURRENT;
+        }
+        if (daysPastDue <= 30) {
+            return DelinquencyBand.DPD_1_30;
+        }
+        if (daysPastDue <= 60) {
+            return DelinquencyBand.DPD_31_60;
+        }
+        if (daysPastDue <= 90) {
+            return DelinquencyBand.DPD_61_90;
+        }
+        return DelinquencyBand.DPD_90_PLUS;
+    }
+    
+    private static Map<String, Object> bandRow(String loanType, DelinquencyBand band, long loanCount,
+                                               BigDecimal outstanding, BigDecimal overdue) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        if (loanType != null) {
+            row.put("loanType", loanType);
+        }
+        row.put("band", band.name());
+        row.put("loans", loanCount);
+        row.put("outstanding", outstanding);
+        row.put("overdue", overdue);
+        return row;
+    }
+    
+    /**
+     * Loan count, outstanding and overdue amount per loan type and band
+     */
+    private static final class AgingTotals {
+        private final long[][] counts = new long[LoanType.values().length][DelinquencyBand.values().length];
+        private final BigDecimal[][] outstanding = zeros();
+        private final BigDecimal[][] overdue = zeros();
+        
+        void add(LoanType type, DelinquencyBand band, BigDecimal outstandingAmount, BigDecimal overdueAmount) {
+            int t = type.ordinal();
+            int b = band.ordinal();
+            counts[t][b]++;
+            outstanding[t][b] = outstanding[t][b].add(outstandingAmount);
+            overdue[t][b] = overdue[t][b].add(overdueAmount);
+        }
+        
+        void merge(AgingTotals other) {
+            for (int t = 0; t < counts.length; t++) {
+                for (int b = 0; b < counts[t].length; b++) {
+                    counts[t][b] += other.counts[t][b];
+                    outstanding[t][b] = outstanding[t][b].add(other.outstanding[t][b]);
+                    overdue[t][b] = overdue[t][b].add(other.overdue[t][b]);
+                }
+            }
+        }
+        
+        List<LoanAgingSnapshot> toSnapshots(LocalDate asOfDate) {
+            List<LoanAgingSnapshot> snapshots = new ArrayList<>();
+            for (LoanType type : LoanType.values()) {
+                for (DelinquencyBand band : DelinquencyBand.values()) {
+                    if (counts[type.ordinal()][band.ordinal()] == 0) {
+                        continue;
+                    }
+                    LoanAgingSnapshot snapshot = new LoanAgingSnapshot();
+                    snapshot.setAsOfDate(asOfDate);
+                    snapshot.setLoanType(type);
+                    snapshot.setBand(band);
+                    snapshot.setLoanCount(counts[type.ordinal()][band.ordinal()]);
+                    snapshot.setOutstandingAmount(outstanding[type.ordinal()][band.ordinal()]);
+                    snapshot.setOverdueAmount(overdue[type.ordinal()][band.ordinal()]);
+                    snapshots.add(snapshot);
+                }
+            }
+            return snapshots;
+        }
+        
+        private static BigDecimal[][] zeros() {
+            BigDecimal[][] values = new BigDecimal[LoanType.values().length][DelinquencyBand.values().length];
+            for (BigDecimal[] row : values) {
+                Arrays.fill(row, BigDecimal.ZERO);
+            }
+            return values;
+        }
+    }
+}
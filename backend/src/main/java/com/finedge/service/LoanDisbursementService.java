@@ -0,0 +1,376 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.model.Account;
+import com.finedge.model.Customer;
+import com.finedge.model.EMISchedule;
+import com.finedge.model.JournalEntry;
+import com.finedge.model.Loan;
+import com.finedge.model.LoanApplication;
+import com.finedge.model.Notification;
+import com.finedge.model.Transaction;
+import com.finedge.model.enums.AccountStatus;
+import com.finedge.model.enums.AccountType;
+import com.finedge.model.enums.DisbursementStatus;
+import com.finedge.model.enums.LoanStatus;
+import com.finedge.model.enums.NotificationType;
+import com.finedge.model.enums.TransactionStatus;
+import com.finedge.model.enums.TransactionType;
+import com.finedge.repository.AccountRepository;
+import com.finedge.repository.EMIScheduleRepository;
+import com.finedge.repository.JournalEntryRepository;
+import com.finedge.repository.LoanApplicationRepository;
+import com.finedge.repository.LoanRepository;
+import com.finedge.repository.TransactionRepository;
+import com.finedge.util.AmortizationEngine;
+import com.finedge.util.ClaimedBatches;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Disburses finally approved loan applications outside the approval request.
+ * A poll claims a batch of pending applications with FOR UPDATE SKIP LOCKED and, in one transaction, opens
+ * missing checking accounts, creates the loans and EMI schedules and posts the disbursements. An application
+ * is marked DISBURSED in the transaction that creates its loan, so it can never be disbursed twice.
+ * A failed batch is isolated as described in ClaimedBatches; an application that fails on its own waits out
+ * the retry delay and is marked FAILED after the attempt limit.
+ */
+@Service
+public class LoanDisbursementService {
+    
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+    
+    @Autowired
+    private LoanRepository loanRepository;
+    
+    @Autowired
+    private EMIScheduleRepository emiScheduleRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+    
+    @Autowired
+    private DoubleEntryService doubleEntryService;
+    
+    @Autowired
+    private CustomerDashboardService customerDashboardService;
+    
+    @Autowired
+    private AccountActivityService accountActivityService;
+    
+    @Autowired
+    private CollectionsCalendarService collectionsCalendarService;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private AnalyticsResponseCache analyticsResponseCache;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${loan-disbursement.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${loan-disbursement.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${loan-disbursement.retry-delay-minutes:15}")
+    private long retryDelayMinutes;
+    
+    @Scheduled(fixedDelayString = "${loan-disbursement.poll-ms:2000}")
+    public void disbursePending() {
+        runPending();
+    }
+    
+    /**
+     * Disburses every application that is due, batch by batch, and returns what was done
+     */
+    public Map<String, Object> runPending() {
+        LocalDateTime now = LocalDateTime.now();
+        RunTotals totals = new RunTotals();
+        ClaimedBatches.drain(new TransactionTemplate(transactionManager), new ClaimedBatches.Batch<List<Loan>>() {
+            @Override
+            public List<String> claim() {
+                return loanApplicationRepository.claimPendingDisbursements(now, batchSize);
+            }
+            
+            @Override
+            public List<Loan> process(List<String> claimed) {
+                return disburse(loanApplicationRepository.findAllById(claimed));
+            }
+            
+            @Override
+            public List<Loan> retry(String id) {
+                return disburse(loanApplicationRepository.findByIdWithLock(id).map(List::of).orElse(List.of()));
+            }
+            
+            @Override
+            public void recordFailure(String id, RuntimeException e) {
+                LoanDisbursementService.this.recordFailure(id, e, now);
+            }
+        }, totals);
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("disbursed", totals.disbursed);
+        result.put("amountDisbursed", totals.amount);
+        result.put("failures", totals.failures);
+        return result;
+    }
+    
+    /**
+     * Puts a FAILED disbursement back on the queue with a fresh set of attempts
+     */
+    @Transactional
+    public LoanApplication retryDisbursement(String applicationId) {
+        LoanApplication application = loanApplicationRepository.findByIdWithLock(applicationId)
+            .orElseThrow(() -> new CustomException("Loan application not found", 404));
+        if (application.getDisbursementStatus() != DisbursementStatus.FAILED) {
+            throw new CustomException("Only failed disbursements can be retried", 400);
+        }
+        application.setDisbursementStatus(DisbursementStatus.PENDING);
+        application.setDisbursementAttempts(0);
+        application.setNextDisbursementAttemptAt(null);
+        application.setDisbursementError(null);
+        return loanApplicationRepository.save(application);
+    }
+    
+    private List<Loan> disburse(List<LoanApplication> claimed) {
+        List<LoanApplication> applications = new ArrayList<>();
+        for (LoanApplication application : claimed) {
+            if (application.getDisbursementStatus() != DisbursementStatus.PENDING) {
+                continue;
+            }
+            if (application.getLoan() != null) {
+                // Loan already exists; only the status was left behind
+                application.setDisbursementStatus(DisbursementStatus.DISBURSED);
+                loanApplicationRepository.save(application);
+                continue;
+            }
+            applications.add(application);
+        }
+        if (applications.isEmpty()) {
+            return List.of();
+        }
+        
+        // One lookup for the customers' checking accounts, then lock them in id order like transfers
+        Set<String> customerIds = new HashSet<>();
+        for (LoanApplication application : applications) {
+            customerIds.add(application.getCustomer().getId());
+        }
+        Map<String, String> accountIdByCustomer = new LinkedHashMap<>();
+        for (Account account : accountRepository.findByCustomerIdInAndAccountType(customerIds, AccountType.CHECKING)) {
+            accountIdByCustomer.putIfAbsent(account.getCustomer().getId(), account.getId());
+        }
+        for (LoanApplication application : applications) {
+            Customer customer = application.getCustomer();
+            if (!accountIdByCustomer.containsKey(customer.getId())) {
+                accountIdByCustomer.put(customer.getId(), openCheckingAccount(customer).getId());
+            }
+        }
+        Map<String, Account> lockedAccounts = new TreeMap<>();
+        for (String accountId : accountIdByCustomer.values()) {
+            lockedAccounts.put(accountId, null);
+        }
+        for (String accountId : lockedAccounts.keySet()) {
+            lockedAccounts.put(accountId, accountRepository.findByIdWithLock(accountId)
+                .orElseThrow(() -> new CustomException("Account not found", 404)));
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<Loan> loans = new ArrayList<>();
+        Map<String, List<EMISchedule>> installmentsByLoan = new LinkedHashMap<>();
+        List<Notification> notifications = new ArrayList<>();
+        for (LoanApplication application : applications) {
+            Account account = lockedAccounts.get(accountIdByCustomer.get(application.getCustomer().getId()));
+            AmortizationEngine.Schedule schedule = schedule(application.getApprovedAmount(),
+                application.getApprovedInterestRate(), application.getApprovedTenureMonths());
+            Loan loan = createLoan(application, account, schedule, now);
+            installmentsByLoan.put(loan.getId(), buildInstallments(loan, schedule, now));
+            
+            String transactionId = "LOAN-DISB-" + loan.getLoanNumber();
+            JournalEntry journalEntry = doubleEntryService.createLoanDisbursementEntry(
+                loan.getPrincipalAmount(), account, loan.getLoanNumber(), transactionId);
+            
+            Transaction transaction = new Transaction();
+            transaction.setAccount(account);
+            transaction.setJournalEntry(journalEntry);
+            transaction.setTransactionType(TransactionType.DEPOSIT);
+            transaction.setAmount(loan.getPrincipalAmount());
+            transaction.setBalanceAfter(account.getBalance());
+            transaction.setDescription("Loan disbursement - " + loan.getLoanNumber());
+            transaction.setStatus(TransactionStatus.COMPLETED);
+            transaction.setProcessedAt(now);
+            transaction = transactionRepository.save(transaction);
+            customerDashboardService.recordTransaction(transaction);
+            accountActivityService.recordTransaction(transaction);
+            customerDashboardService.recordLoanDisbursed(loan);
+            
+            journalEntry.setTransactionId(transaction.getId());
+            journalEntryRepository.save(journalEntry);
+            
+            application.setLoan(loan);
+            application.setDisbursementStatus(DisbursementStatus.DISBURSED);
+            application.setDisbursedAt(now);
+            application.setDisbursementError(null);
+            application.setNextDisbursementAttemptAt(null);
+            
+            Notification notification = new Notification();
+            notification.setUser(application.getCustomer().getUser());
+            notification.setType(NotificationType.LOAN_APPROVAL);
+            notification.setTitle("Loan Disbursed");
+            notification.setMessage("Your " + application.getLoanType() + " loan of $" + loan.getPrincipalAmount()
+                + " has been disbursed to account " + account.getAccountNumber());
+            notification.setRelatedEntityType("loan");
+            notification.setRelatedEntityId(loan.getId());
+            notifications.add(notification);
+            loans.add(loan);
+        }
+        
+        List<EMISchedule> installments = new ArrayList<>();
+        for (List<EMISchedule> schedule : installmentsByLoan.values()) {
+            installments.addAll(schedule);
+        }
+        emiScheduleRepository.saveAll(installments);
+        for (Loan loan : loans) {
+            collectionsCalendarService.recordScheduled(loan, installmentsByLoan.get(loan.getId()));
+        }
+        loanApplicationRepository.saveAll(applications);
+        notificationService.createNotifications(notifications);
+        
+        analyticsResponseCache.invalidateRole(AnalyticsResponseCache.ROLE_BANKER);
+        analyticsResponseCache.invalidateRole(AnalyticsResponseCache.ROLE_ADMIN);
+        analyticsResponseCache.invalidateCustomers(customerIds);
+        return loans;
+    }
+    
+    private Loan createLoan(LoanApplication application, Account account, AmortizationEngine.Schedule schedule,
+                            LocalDateTime now) {
+        Loan loan = new Loan();
+        loan.setCustomer(application.getCustomer());
+        loan.setAccount(account);
+        loan.setLoanNumber("LOAN" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8));
+        loan.setLoanType(application.getLoanType());
+        loan.setPrincipalAmount(application.getApprovedAmount());
+        loan.setInterestRate(application.getApprovedInterestRate());
+        loan.setTenureMonths(application.getApprovedTenureMonths());
+        loan.setMonthlyEMI(AmortizationEngine.fromMinorUnits(schedule.emi()));
+        loan.setAmountRemaining(AmortizationEngine.fromMinorUnits(schedule.totalPayable()));
+        loan.setStatus(LoanStatus.ACTIVE);
+        loan.setPurpose(application.getPurpose());
+        loan.setDisbursedAt(now);
+        return loanRepository.save(loan);
+    }
+    
+    private static List<EMISchedule> buildInstallments(Loan loan, AmortizationEngine.Schedule schedule, LocalDateTime now) {
+        List<EMISchedule> installments = new ArrayList<>(schedule.installments());
+        LocalDateTime firstDueDate = now.plusMonths(1);
+        for (int i = 0; i < schedule.installments(); i++) {
+            EMISchedule emi = new EMISchedule();
+            emi.setLoan(loan);
+            emi.setInstallmentNumber(i + 1);
+            emi.setDueDate(firstDueDate.plusMonths(i));
+            emi.setPrincipalAmount(AmortizationEngine.fromMinorUnits(schedule.principal()[i]));
+            emi.setInterestAmount(AmortizationEngine.fromMinorUnits(schedule.interest()[i]));
+            emi.setTotalAmount(AmortizationEngine.fromMinorUnits(schedule.total(i)));
+            emi.setPaidAmount(BigDecimal.ZERO);
+            emi.setIsPaid(false);
+            installments.add(emi);
+        }
+        return installments;
+    }
+    
+    private static AmortizationEngine.Schedule schedule(BigDecimal amount, BigDecimal rate, Integer tenureMonths) {
+        if (amount == null || rate == null || tenureMonths == null) {
+            throw new CustomException("Approved loan terms are incomplete", 400);
+        }
+        try {
+            return AmortizationEngine.schedule(amount, rate, tenureMonths);
+        } catch (IllegalArgumentException e) {
+            throw new CustomException(e.getMessage(), 400);
+        }
+    }
+    
+    private Account openCheckingAccount(Customer customer) {
+        Account account = new Account();
+        account.setCustomer(customer);
+        account.setAccountNumber("ACC" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8));
+        account.setAccountType(AccountType.CHECKING);
+        account.setAccountName("Primary Checking");
+        account.setCurrency("USD");
+        account.setBalance(BigDecimal.ZERO);
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setOpenedAt(LocalDateTime.now());
+        return accountRepository.save(account);
+    }
+    
+    private void recordFailure(String applicationId, RuntimeException e, LocalDateTime now) {
+        LoanApplication application = loanApplicationRepository.findByIdWithLock(applicationId).orElse(null);
+        if (application == null || application.getDisbursementStatus() != DisbursementStatus.PENDING) {
+            return;
+        }
+        int attempts = (application.getDisbursementAttempts() != null ? application.getDisbursementAttempts() : 0) + 1;
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        application.setDisbursementAttempts(attempts);
+        application.setDisbursementError(message.length() > 255 ? message.substring(0, 255) : message);
+        application.setNextDisbursementAttemptAt(now.plusMinutes(retryDelayMinutes));
+        if (attempts >= maxAttempts) {
+            application.setDisbursementStatus(DisbursementStatus.FAILED);
+        }
+        loanApplicationRepository.save(application);
+    }
+    
+    private static BigDecimal sum(List<Loan> loans) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Loan loan : loans) {
+            total = total.add(loan.getPrincipalAmount());
+        }
+        return total;
+    }
+    
+    private static final class RunTotals implements ClaimedBatches.Results<List<Loan>> {
+        long disbursed;
+        BigDecimal amount = BigDecimal.ZERO;
+        final List<String> failures = new ArrayList<>();
+        
+        @Override
+        public void add(List<Loan> loans) {
+            disbursed += loans.size();
+            amount = amount.add(sum(loans));
+        }
+        
+        @Override
+        public void addFailure(String error) {
+            failures.add(error);
+        }
+        
+        @Override
+        public void addError(String error) {
+            failures.add(error);
+        }
+    }
+}
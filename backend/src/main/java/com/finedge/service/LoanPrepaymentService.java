@@ -0,0 +1,248 @@
+package com.finedge.service;
+
+import com.finedge.dto.LoanPrepaymentRequest;
+import com.finedge.exception.CustomException;
+import com.finedge.model.Account;
+import com.finedge.model.Customer;
+import com.finedge.model.EMISchedule;
+import com.finedge.model.JournalEntry;
+import com.finedge.model.Loan;
+import com.finedge.model.Transaction;
+import com.finedge.model.User;
+import com.finedge.model.enums.AccountStatus;
+import com.finedge.model.enums.LoanStatus;
+import com.finedge.model.enums.NotificationType;
+import com.finedge.model.enums.PrepaymentMode;
+import com.finedge.model.enums.TransactionStatus;
+import com.finedge.model.enums.TransactionType;
+import com.finedge.repository.AccountRepository;
+import com.finedge.repository.CustomerRepository;
+import com.finedge.repository.EMIScheduleRepository;
+import com.finedge.repository.JournalEntryRepository;
+import com.finedge.repository.LoanRepository;
+import com.finedge.repository.TransactionRepository;
+import com.finedge.repository.UserRepository;
+import com.finedge.util.AmortizationEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partial loan prepayment. The amount is posted as a principal reduction and only the unpaid installments
+ * are re-amortized in place: with REDUCE_EMI they keep their due dates and get a lower level installment,
+ * with REDUCE_TENURE they keep the current installment and the rows no longer needed are deleted.
+ * Installment rows are rewritten with one JDBC batch and one delete rather than regenerating the schedule.
+ */
+@Service
+public class LoanPrepaymentService {
+    
+    @Autowired
+    private LoanRepository loanRepository;
+    
+    @Autowired
+    private EMIScheduleRepository emiScheduleRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+    
+    @Autowired
+    private DoubleEntryService doubleEntryService;
+    
+    @Autowired
+    private LoanService loanService;
+    
+    @Autowired
+    private CustomerDashboardService customerDashboardService;
+    
+    @Autowired
+    private AccountActivityService accountActivityService;
+    
+    @Autowired
+    private SpendingCategoryService spendingCategoryService;
+    
+    @Autowired
+    private CollectionsCalendarService collectionsCalendarService;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Transactional
+    public Map<String, Object> prepay(String loanId, LoanPrepaymentRequest request) {
+        User currentUser = getCurrentUser();
+        Customer customer = customerRepository.findByUser(currentUser)
+            .orElseThrow(() -> new CustomException("Customer profile not found", 404));
+        
+        // Same lock order as an EMI payment: installments, loan, account
+        List<EMISchedule> unpaid = emiScheduleRepository.findUnpaidByLoanIdWithLock(loanId);
+        Loan loan = loanRepository.findByIdWithLock(loanId)
+            .orElseThrow(() -> new CustomException("Loan not found", 404));
+        if (!loan.getCustomer().getId().equals(customer.getId())) {
+            throw new CustomException("Forbidden", 403);
+        }
+        if (loan.getStatus() != LoanStatus.ACTIVE || unpaid.isEmpty()) {
+            throw new CustomException("Only active loans can be prepaid", 400);
+        }
+        Account account = accountRepository.findByIdWithLock(request.getAccountId())
+            .orElseThrow(() -> new CustomException("Account not found", 404));
+        if (!account.getCustomer().getId().equals(customer.getId())) {
+            throw new CustomException("Forbidden", 403);
+        }
+        if (account.getStatus() != AccountStatus.ACTIVE) {
+            throw new CustomException("Account not active", 400);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        long outstandingPrincipal = 0;
+        for (EMISchedule emi : unpaid) {
+            if (emi.getDueDate().isBefore(now)) {
+                throw new CustomException("Pay overdue installments before prepaying", 400);
+            }
+            outstandingPrincipal += AmortizationEngine.toMinorUnits(emi.getPrincipalAmount());
+        }
+        long amount = AmortizationEngine.toMinorUnits(request.getAmount());
+        // @Positive lets through amounts that round to zero cents
+        if (amount <= 0) {
+            throw new CustomException("Amount must be at least 0.01", 400);
+        }
+        if (amount >= outstandingPrincipal) {
+            throw new CustomException("Prepayment must be less than the outstanding principal of "
+                + AmortizationEngine.fromMinorUnits(outstandingPrincipal), 400);
+        }
+        BigDecimal prepayment = AmortizationEngine.fromMinorUnits(amount);
+        if (account.getBalance().compareTo(prepayment) < 0) {
+            throw new CustomException("Insufficient funds", 400);
+        }
+        
+        int rateBps = AmortizationEngine.toBasisPoints(loan.getInterestRate());
+        long currentEmi = AmortizationEngine.toMinorUnits(loan.getMonthlyEMI());
+        AmortizationEngine.Schedule schedule;
+        try {
+            schedule = request.getMode() == PrepaymentMode.REDUCE_TENURE
+                ? AmortizationEngine.scheduleForPayment(outstandingPrincipal - amount, rateBps, currentEmi)
+                : AmortizationEngine.schedule(outstandingPrincipal - amount, rateBps, unpaid.size());
+        } catch (IllegalArgumentException e) {
+            throw new CustomException(e.getMessage(), 400);
+        }
+        // A shorter schedule never needs more rows than are left; guard against rounding at the margin
+        if (schedule.installments() > unpaid.size()) {
+            schedule = AmortizationEngine.schedule(outstandingPrincipal - amount, rateBps, unpaid.size());
+        }
+        
+        // Principal-only payment: the whole amount reduces loans receivable
+        String transactionId = "LOAN-PREPAY-" + loan.getLoanNumber() + "-" + System.currentTimeMillis();
+        JournalEntry journalEntry = doubleEntryService.createEMIPaymentEntry(prepayment, BigDecimal.ZERO, account,
+            loan.getLoanNumber(), transactionId);
+        
+        Transaction transaction = new Transaction();
+        transaction.setAccount(account);
+        transaction.setJournalEntry(journalEntry);
+        transaction.setTransactionType(TransactionType.PAYMENT);
+        transaction.setAmount(prepayment);
+        transaction.setBalanceAfter(account.getBalance());
+        transaction.setDescription("Loan prepayment - " + loan.getLoanNumber());
+        transaction.setReference(transactionId);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setProcessedAt(now);
+        transaction.setSpendingCategory(spendingCategoryService.categorize(transaction));
+        transaction = transactionRepository.save(transaction);
+        customerDashboardService.recordTransaction(transaction);
+        accountActivityService.recordTransaction(transaction);
+        spendingCategoryService.recordTransaction(transaction);
+        
+        journalEntry.setTransactionId(transaction.getId());
+        journalEntryRepository.save(journalEntry);
+        
+        // Interest accrued on the principal just repaid is never billed by the re-amortized schedule
+        loanService.reverseUnbilledAccruedInterest(loan, "ACCRUAL-REV-" + transactionId);
+        
+        List<Object[]> updates = new ArrayList<>(schedule.installments());
+        List<BigDecimal> newTotals = new ArrayList<>(schedule.installments());
+        for (int i = 0; i < schedule.installments(); i++) {
+            BigDecimal total = AmortizationEngine.fromMinorUnits(schedule.total(i));
+            newTotals.add(total);
+            updates.add(new Object[] {
+                AmortizationEngine.fromMinorUnits(schedule.principal()[i]),
+                AmortizationEngine.fromMinorUnits(schedule.interest()[i]),
+                total,
+                unpaid.get(i).getId()
+            });
+        }
+        jdbcTemplate.batchUpdate("UPDATE emi_schedules SET principal_amount = ?, interest_amount = ?, total_amount = ?, " +
+            "version = version + 1, updated_at = now() WHERE id = ?", updates);
+        List<String> removed = new ArrayList<>();
+        for (int i = schedule.installments(); i < unpaid.size(); i++) {
+            removed.add(unpaid.get(i).getId());
+        }
+        if (!removed.isEmpty()) {
+            emiScheduleRepository.deleteAllByIdInBatch(removed);
+        }
+        collectionsCalendarService.recordRescheduled(loan, unpaid, newTotals);
+        
+        BigDecimal amountRemaining = AmortizationEngine.fromMinorUnits(schedule.totalPayable());
+        loan.setAmountPaid(loan.getAmountPaid().add(prepayment));
+        loan.setAmountRemaining(amountRemaining);
+        loan.setMonthlyEMI(AmortizationEngine.fromMinorUnits(schedule.emi()));
+        loan.setTenureMonths(loan.getTenureMonths() - removed.size());
+        loanRepository.save(loan);
+        customerDashboardService.recordLoanRepayment(loan, prepayment, false);
+        
+        notificationService.createNotification(currentUser.getId(), NotificationType.ACCOUNT_UPDATE, "Loan Prepayment Received",
+            "Your prepayment of $" + prepayment + " on loan " + loan.getLoanNumber() + " has been applied. "
+                + (removed.isEmpty() ? "Your new EMI is $" + loan.getMonthlyEMI()
+                    : removed.size() + " installment(s) have been removed from your schedule"),
+            null, "loan", loan.getId());
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("loanId", loan.getId());
+        result.put("transactionId", transaction.getId());
+        result.put("mode", request.getMode().name());
+        result.put("prepaidAmount", prepayment);
+        result.put("outstandingPrincipal", AmortizationEngine.fromMinorUnits(outstandingPrincipal - amount));
+        result.put("monthlyEMI", loan.getMonthlyEMI());
+        result.put("remainingInstallments", schedule.installments());
+        result.put("installmentsRemoved", removed.size());
+        result.put("interestSaved", sumTotals(unpaid).subtract(amountRemaining).subtract(prepayment));
+        result.put("amountRemaining", amountRemaining);
+        return result;
+    }
+    
+    private static BigDecimal sumTotals(List<EMISchedule> installments) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (EMISchedule emi : installments) {
+            total = total.add(emi.getTotalAmount());
+        }
+        return total;
+    }
+    
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+        return userRepository.findByUsername(username)
+            .orElseThrow(() -> new CustomException("User not found", 404));
+    }
+}
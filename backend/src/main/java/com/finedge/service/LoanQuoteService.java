@@ -0,0 +1,72 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.util.AmortizationEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * EMI quotes for arbitrary terms, computed exactly as an approved loan would be. Pure computation on
+ * AmortizationEngine: the EMI for a known rate/tenure pair is one multiplication by the cached annuity factor
+ * and the schedule is long arithmetic. No repository or security context is touched.
+ */
+@Service
+public class LoanQuoteService {
+    
+    @Value("${loan-quote.max-amount:100000000}")
+    private BigDecimal maxAmount;
+    
+    @Value("${loan-quote.max-interest-rate:36}")
+    private BigDecimal maxInterestRate;
+    
+    public Map<String, Object> quote(BigDecimal amount, BigDecimal interestRate, int tenureMonths, boolean includeSchedule) {
+        if (amount.signum() <= 0 || amount.compareTo(maxAmount) > 0) {
+            throw new CustomException("Amount must be positive and at most " + maxAmount, 400);
+        }
+        if (interestRate.signum() < 0 || interestRate.compareTo(maxInterestRate) > 0) {
+            throw new CustomException("Interest rate must be between 0 and " + maxInterestRate, 400);
+        }
+        long principal = AmortizationEngine.toMinorUnits(amount);
+        int rateBps = AmortizationEngine.toBasisPoints(interestRate);
+        if (principal <= 0) {
+            throw new CustomException("Amount must be at least 0.01", 400);
+        }
+        if (tenureMonths < 1 || tenureMonths > AmortizationEngine.MAX_TENURE_MONTHS) {
+            throw new CustomException("Tenure must be between 1 and " + AmortizationEngine.MAX_TENURE_MONTHS + " months", 400);
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("amount", AmortizationEngine.fromMinorUnits(principal));
+        result.put("interestRate", BigDecimal.valueOf(rateBps, 2));
+        result.put("tenureMonths", tenureMonths);
+        // Totals come from the rounded schedule so they match what an approved loan would actually charge
+        AmortizationEngine.Schedule schedule = AmortizationEngine.schedule(principal, rateBps, tenureMonths);
+        result.put("monthlyEMI", AmortizationEngine.fromMinorUnits(schedule.emi()));
+        result.put("totalInterest", AmortizationEngine.fromMinorUnits(schedule.totalInterest()));
+        result.put("totalPayable", AmortizationEngine.fromMinorUnits(schedule.totalPayable()));
+        if (!includeSchedule) {
+            return result;
+        }
+        
+        List<Map<String, Object>> installments = new ArrayList<>(tenureMonths);
+        long balance = principal;
+        for (int i = 0; i < schedule.installments(); i++) {
+            balance -= schedule.principal()[i];
+            Map<String, Object> installment = new LinkedHashMap<>();
+            installment.put("installment", i + 1);
+            installment.put("principal", AmortizationEngine.fromMinorUnits(schedule.principal()[i]));
+            installment.put("interest", AmortizationEngine.fromMinorUnits(schedule.interest()[i]));
+            installment.put("total", AmortizationEngine.fromMinorUnits(schedule.total(i)));
+            installment.put("balance", AmortizationEngine.fromMinorUnits(balance));
+            installments.add(installment);
+        }
+        result.put("schedule", installments);
+        return result;
+    }
+}
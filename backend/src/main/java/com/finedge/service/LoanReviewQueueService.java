@@ -0,0 +1,91 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.model.LoanApplication;
+import com.finedge.model.User;
+import com.finedge.repository.LoanApplicationRepository;
+import com.finedge.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Banker work queue over applications awaiting review. A claim takes the next applications with
+ * FOR UPDATE SKIP LOCKED and leases them to the banker for a fixed time, so concurrent claims never hand out
+ * the same application; leases the banker already holds are renewed. Reviewing an application ends its lease.
+ */
+@Service
+public class LoanReviewQueueService {
+    
+    @Autowired
+    private LoanApplicationRepository loanApplicationRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Value("${loan-review-queue.lease-minutes:15}")
+    private long leaseMinutes;
+    
+    @Value("${loan-review-queue.max-claim:20}")
+    private int maxClaim;
+    
+    @Transactional
+    public Map<String, Object> claimNext(int limit) {
+        if (limit < 1 || limit > maxClaim) {
+            throw new CustomException("limit must be between 1 and " + maxClaim, 400);
+        }
+        User currentUser = getCurrentUser();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusMinutes(leaseMinutes);
+        
+        List<String> ids = loanApplicationRepository.claimReviewQueue(currentUser.getId(), now, limit);
+        List<LoanApplication> applications = List.of();
+        if (!ids.isEmpty()) {
+            loanApplicationRepository.leaseForReview(ids, currentUser, expiresAt);
+            applications = new ArrayList<>(loanApplicationRepository.findAllById(ids));
+            applications.sort(Comparator.comparingInt(application -> ids.indexOf(application.getId())));
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("applications", applications);
+        result.put("leaseExpiresAt", expiresAt);
+        return result;
+    }
+    
+    @Transactional
+    public void releaseLease(String id) {
+        User currentUser = getCurrentUser();
+        if (loanApplicationRepository.releaseReviewLease(id, currentUser) == 0) {
+            throw new CustomException("No review lease held on this application", 404);
+        }
+    }
+    
+    /**
+     * Rejects a review while another banker holds a live lease on the application
+     */
+    public static void checkLease(LoanApplication application, User reviewer, LocalDateTime now) {
+        User holder = application.getReviewLeasedBy();
+        if (holder != null && !holder.getId().equals(reviewer.getId())
+                && application.getReviewLeaseExpiresAt() != null && application.getReviewLeaseExpiresAt().isAfter(now)) {
+            throw new CustomException("Application is being reviewed by another banker until "
+                + application.getReviewLeaseExpiresAt(), 409);
+        }
+    }
+    
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+        return userRepository.findByUsername(username)
+            .orElseThrow(() -> new CustomException("User not found", 404));
+    }
+}
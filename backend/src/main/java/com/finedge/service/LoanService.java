@@ -6,6 +6,7 @@ import com.finedge.exception.CustomException;
 import com.finedge.model.*;
 import com.finedge.model.enums.*;
 import com.finedge.repository.*;
+import com.finedge.util.AmortizationEngine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -13,10 +14,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 
 @Service
 public class LoanService {
@@ -60,6 +62,24 @@ public class LoanService {
     @Autowired
     private JournalEntryRepository journalEntryRepository;
     
+    @Autowired
+    private CustomerDashboardService customerDashboardService;
+    
+    @Autowired
+    private AccountActivityService accountActivityService;
+    
+    @Autowired
+    private SpendingCategoryService spendingCategoryService;
+    
+    @Autowired
+    private AnalyticsResponseCache analyticsResponseCache;
+    
+    @Autowired
+    private CollectionsCalendarService collectionsCalendarService;
+    
+    @Autowired
+    private CreditProfileRepository creditProfileRepository;
+    
     
     public List<Loan> getMyLoans() {
         User currentUser = getCurrentUser();
@@ -107,6 +127,22 @@ public class LoanService {
         return loanApplicationRepository.findByCustomer(customer);
     }
     
+    /**
+     * Offer stored for the current customer by the last re-scoring run; offer fields are null when none qualifies
+     */
+    public Map<String, Object> getMyPreApprovedOffer() {
+        User currentUser = getCurrentUser();
+        Customer customer = customerRepository.findByUser(currentUser)
+            .orElseThrow(() -> new CustomException("Customer profile not found", 404));
+        CreditProfile profile = creditProfileRepository.findByCustomerId(customer.getId()).orElse(null);
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("preApprovedAmount", profile != null ? profile.getPreApprovedAmount() : null);
+        result.put("interestRate", profile != null ? profile.getPreApprovedInterestRate() : null);
+        result.put("scoredAt", profile != null ? profile.getScoredAt() : null);
+        return result;
+    }
+    
     public List<LoanApplication> getPendingLoanApplications() {
         return loanApplicationRepository.findByStatus(LoanStatus.SUBMITTED);
     }
@@ -147,6 +183,9 @@ public class LoanService {
         auditService.createAuditLog(currentUser.getId(), AuditAction.CREATE, "loan_application", 
             application.getId(), null, null, httpRequest);
         
+        analyticsResponseCache.invalidateRole(AnalyticsResponseCache.ROLE_BANKER);
+        analyticsResponseCache.invalidateCustomer(customer.getId());
+        
         return application;
     }
     
@@ -157,12 +196,22 @@ public class LoanService {
             throw new CustomException("Forbidden", 403);
         }
         
-        LoanApplication application = loanApplicationRepository.findById(id)
+        // Lock the application first so concurrent reviews of the same step are serialized before approvals are read
+        LoanApplication application = loanApplicationRepository.findByIdWithLock(id)
             .orElseThrow(() -> new CustomException("Loan application not found", 404));
         
         if (application.getStatus() != LoanStatus.SUBMITTED && application.getStatus() != LoanStatus.UNDER_REVIEW) {
             throw new CustomException("Application cannot be reviewed in current state", 400);
         }
+        LoanReviewQueueService.checkLease(application, currentUser, LocalDateTime.now());
+        // The reviewed step is done; the next step goes back to the work queue
+        application.setReviewLeasedBy(null);
+        application.setReviewLeaseExpiresAt(null);
+        
+        // Every review outcome changes the banker queue, the customer's view and, on approval, the loan book
+        analyticsResponseCache.invalidateRole(AnalyticsResponseCache.ROLE_BANKER);
+        analyticsResponseCache.invalidateRole(AnalyticsResponseCache.ROLE_ADMIN);
+        analyticsResponseCache.invalidateCustomer(application.getCustomer().getId());
         
         List<LoanApproval> approvals = loanApprovalRepository.findByLoanApplicationIdOrderByStep(id);
         final Integer currentStep = application.getCurrentStep();
@@ -192,7 +241,7 @@ public class LoanService {
                 nextApproval.setStatus(ApprovalStatus.PENDING);
                 loanApprovalRepository.save(nextApproval);
             } else {
-                // Final approval - create loan
+                // Final approval - queue the disbursement
                 BigDecimal finalAmount = request.getApprovedAmount() != null ? 
                     request.getApprovedAmount() : application.getApprovedAmount() != null ? 
                     application.getApprovedAmount() : application.getRequestedAmount();
@@ -203,90 +252,29 @@ public class LoanService {
                     request.getTenureMonths() : application.getApprovedTenureMonths() != null ? 
                     application.getApprovedTenureMonths() : 36;
                 
-                // Get or create account
-                List<Account> accounts = accountRepository.findByCustomer(application.getCustomer());
-                Account account = accounts.stream()
-                    .filter(a -> a.getAccountType() == AccountType.CHECKING)
-                    .findFirst()
-                    .orElse(null);
-                
-                if (account == null) {
-                    account = new Account();
-                    account.setCustomer(application.getCustomer());
-                    account.setAccountNumber("ACC" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8));
-                    account.setAccountType(AccountType.CHECKING);
-                    account.setAccountName("Primary Checking");
-                    account.setCurrency("USD");
-                    account.setBalance(BigDecimal.ZERO);
-                    account.setStatus(AccountStatus.ACTIVE);
-                    account.setOpenedAt(LocalDateTime.now());
-                    account = accountRepository.save(account);
+                // Reject terms the amortization cannot handle now rather than in the pipeline
+                try {
+                    AmortizationEngine.schedule(finalAmount, finalRate, finalTenure);
+                } catch (IllegalArgumentException e) {
+                    throw new CustomException(e.getMessage(), 400);
                 }
                 
-                // Create loan
-                BigDecimal emi = CreditAssessmentService.calculateEMI(finalAmount, finalRate, finalTenure);
-                Loan loan = new Loan();
-                loan.setCustomer(application.getCustomer());
-                loan.setAccount(account);
-                loan.setLoanNumber("LOAN" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8));
-                loan.setLoanType(application.getLoanType());
-                loan.setPrincipalAmount(finalAmount);
-                loan.setInterestRate(finalRate);
-                loan.setTenureMonths(finalTenure);
-                loan.setMonthlyEMI(emi);
-                BigDecimal rateMultiplier = finalRate.divide(new BigDecimal("100"), 4, java.math.RoundingMode.HALF_UP)
-                    .multiply(new BigDecimal(finalTenure).divide(new BigDecimal("12"), 4, java.math.RoundingMode.HALF_UP));
-                loan.setAmountRemaining(finalAmount.multiply(BigDecimal.ONE.add(rateMultiplier)));
-                loan.setStatus(LoanStatus.ACTIVE);
-                loan.setPurpose(application.getPurpose());
-                loan.setDisbursedAt(LocalDateTime.now());
-                loan = loanRepository.save(loan);
-                
-                // Generate EMI schedule
-                generateEMISchedule(loan, finalAmount, finalRate, finalTenure);
-                
-                // Disburse to account with pessimistic lock and double-entry bookkeeping
-                Account lockedAccount = accountRepository.findByIdWithLock(account.getId())
-                    .orElseThrow(() -> new CustomException("Account not found", 404));
-                
-                // Create journal entry for loan disbursement using double-entry
-                String transactionId = "LOAN-DISB-" + loan.getLoanNumber();
-                JournalEntry journalEntry = doubleEntryService.createLoanDisbursementEntry(
-                    finalAmount, lockedAccount, loan.getLoanNumber(), transactionId
-                );
-                
-                account = lockedAccount; // Update reference
-                
-                // Create transaction record
-                Transaction transaction = new Transaction();
-                transaction.setAccount(account);
-                transaction.setJournalEntry(journalEntry);
-                transaction.setTransactionType(TransactionType.DEPOSIT);
-                transaction.setAmount(finalAmount);
-                transaction.setBalanceAfter(account.getBalance());
-                transaction.setDescription("Loan disbursement - " + loan.getLoanNumber());
-                transaction.setStatus(TransactionStatus.COMPLETED);
-                transaction.setProcessedAt(LocalDateTime.now());
-                transaction = transactionRepository.save(transaction);
-                
-                // Update journal entry with transaction ID
-                journalEntry.setTransactionId(transaction.getId());
-                journalEntryRepository.save(journalEntry);
-                
-                // Update application
+                // Record the decision; LoanDisbursementService creates the loan and posts the disbursement
                 application.setStatus(LoanStatus.APPROVED);
                 application.setApprovedAmount(finalAmount);
                 application.setApprovedInterestRate(finalRate);
                 application.setApprovedTenureMonths(finalTenure);
-                application.setLoan(loan);
                 application.setReviewedAt(LocalDateTime.now());
                 application.setReviewedBy(currentUser);
+                application.setDisbursementStatus(DisbursementStatus.PENDING);
+                application.setDisbursementRequestedAt(LocalDateTime.now());
+                application.setDisbursementAttempts(0);
                 application = loanApplicationRepository.save(application);
                 
                 notificationService.createNotification(application.getCustomer().getUser().getId(), 
                     NotificationType.LOAN_APPROVAL, "Loan Approved",
-                    "Your " + application.getLoanType() + " loan of $" + finalAmount + " has been approved",
-                    null, "loan", loan.getId());
+                    "Your " + application.getLoanType() + " loan of $" + finalAmount + " has been approved and is being disbursed",
+                    null, "loan_application", id);
                 
                 auditService.createAuditLog(currentUser.getId(), AuditAction.APPROVE, "loan_application", 
                     id, null, null, httpRequest);
@@ -316,35 +304,6 @@ public class LoanService {
         return application;
     }
     
-    private void generateEMISchedule(Loan loan, BigDecimal principal, BigDecimal interestRate, int tenureMonths) {
-        BigDecimal monthlyRate = interestRate.divide(new BigDecimal("12"), 6, java.math.RoundingMode.HALF_UP)
-            .divide(new BigDecimal("100"), 6, java.math.RoundingMode.HALF_UP);
-        BigDecimal emi = CreditAssessmentService.calculateEMI(principal, interestRate, tenureMonths);
-        
-        BigDecimal remainingPrincipal = principal;
-        LocalDateTime startDate = LocalDateTime.now().plusMonths(1);
-        List<EMISchedule> schedules = new ArrayList<>();
-        
-        for (int i = 1; i <= tenureMonths; i++) {
-            BigDecimal interestAmount = remainingPrincipal.multiply(monthlyRate);
-            BigDecimal principalAmount = emi.subtract(interestAmount);
-            remainingPrincipal = remainingPrincipal.subtract(principalAmount);
-            
-            EMISchedule schedule = new EMISchedule();
-            schedule.setLoan(loan);
-            schedule.setInstallmentNumber(i);
-            schedule.setDueDate(startDate.plusMonths(i - 1));
-            schedule.setPrincipalAmount(principalAmount);
-            schedule.setInterestAmount(interestAmount);
-            schedule.setTotalAmount(emi);
-            schedule.setPaidAmount(BigDecimal.ZERO);
-            schedule.setIsPaid(false);
-            schedules.add(schedule);
-        }
-        
-        emiScheduleRepository.saveAll(schedules);
-    }
-    
     @Transactional(isolation = org.springframework.transaction.annotation.Isolation.REPEATABLE_READ)
     public void payEMI(String loanId, String emiId, String accountId) {
         User currentUser = getCurrentUser();
@@ -385,11 +344,31 @@ public class LoanService {
             throw new CustomException("Insufficient funds", 400);
         }
         
+        settleEMI(emi, loan, account);
+        
+        // Create notification
+        notificationService.createNotification(customer.getUser().getId(), 
+            NotificationType.PAYMENT_DUE, "EMI Paid",
+            "EMI installment #" + emi.getInstallmentNumber() + " of $" + emi.getTotalAmount() + " has been paid successfully",
+            null, "emi_schedule", emiId);
+    }
+    
+    /**
+     * Posts payment of an installment in full from the account and updates the loan.
+     * The caller holds locks on the installment, loan and account (in that order) and has checked funds.
+     */
+    public Transaction settleEMI(EMISchedule emi, Loan loan, Account account) {
         // Create journal entry for EMI payment using double-entry bookkeeping
-        String transactionId = "EMI-PAY-" + loan.getLoanNumber() + "-" + emi.getInstallmentNumber();
+        // Keyed by installment so several installments of one loan can settle in the same transaction
+        String transactionId = "EMI-PAY-" + emi.getId();
+        // Interest already recognised by the daily accrual settles the receivable rather than being booked twice
+        BigDecimal accrued = loan.getAccruedInterest() != null ? loan.getAccruedInterest() : BigDecimal.ZERO;
+        BigDecimal accruedSettled = accrued.setScale(2, RoundingMode.DOWN).min(emi.getInterestAmount()).max(BigDecimal.ZERO);
+        loan.setAccruedInterest(accrued.subtract(accruedSettled));
         JournalEntry journalEntry = doubleEntryService.createEMIPaymentEntry(
             emi.getPrincipalAmount(),
             emi.getInterestAmount(),
+            accruedSettled,
             account,
             loan.getLoanNumber(),
             transactionId
@@ -410,7 +389,11 @@ public class LoanService {
         transaction.setDescription("EMI Payment - Installment #" + emi.getInstallmentNumber() + " for Loan " + loan.getLoanNumber());
         transaction.setStatus(TransactionStatus.COMPLETED);
         transaction.setProcessedAt(LocalDateTime.now());
+        transaction.setSpendingCategory(spendingCategoryService.categorize(transaction));
         transaction = transactionRepository.save(transaction);
+        customerDashboardService.recordTransaction(transaction);
+        accountActivityService.recordTransaction(transaction);
+        spendingCategoryService.recordTransaction(transaction);
         
         // Update journal entry with transaction ID
         journalEntry.setTransactionId(transaction.getId());
@@ -418,6 +401,7 @@ public class LoanService {
         
         emi.setTransaction(transaction);
         emiScheduleRepository.save(emi);
+        collectionsCalendarService.recordCollected(emi, emi.getTotalAmount(), true);
         
         // Update loan amounts atomically
         BigDecimal newAmountPaid = loan.getAmountPaid().add(emi.getTotalAmount());
@@ -426,18 +410,35 @@ public class LoanService {
         loan.setAmountRemaining(newAmountRemaining);
         
         // Check if loan is fully paid
-        if (newAmountRemaining.compareTo(BigDecimal.ZERO) <= 0) {
+        boolean loanClosed = newAmountRemaining.compareTo(BigDecimal.ZERO) <= 0;
+        if (loanClosed) {
             loan.setStatus(LoanStatus.CLOSED);
             loan.setClosedAt(LocalDateTime.now());
+            // Nothing is billed after the last installment
+            reverseUnbilledAccruedInterest(loan, "ACCRUAL-REV-" + transactionId);
         }
         
         loanRepository.save(loan);
-        
-        // Create notification
-        notificationService.createNotification(customer.getUser().getId(), 
-            NotificationType.PAYMENT_DUE, "EMI Paid",
-            "EMI installment #" + emi.getInstallmentNumber() + " of $" + emi.getTotalAmount() + " has been paid successfully",
-            null, "emi_schedule", emiId);
+        customerDashboardService.recordLoanRepayment(loan, emi.getTotalAmount(), loanClosed);
+        analyticsResponseCache.invalidateCustomer(loan.getCustomer().getId());
+        return transaction;
+    }
+    
+    /**
+     * Reverses loan interest that was accrued but will not be billed (Dr 4000 / Cr 1200) and clears the
+     * loan's accrual. The daily accrual runs actual/365 on the outstanding principal while installments bill
+     * a fixed monthly interest, so whatever is left when the schedule ends or is re-amortized would keep
+     * the receivable and interest income overstated. Only whole cents of the accrual reach the ledger.
+     * The caller holds the loan lock.
+     */
+    public void reverseUnbilledAccruedInterest(Loan loan, String reference) {
+        BigDecimal accrued = loan.getAccruedInterest() != null ? loan.getAccruedInterest() : BigDecimal.ZERO;
+        BigDecimal posted = accrued.setScale(2, RoundingMode.DOWN);
+        if (posted.signum() > 0) {
+            doubleEntryService.createAccrualEntry("4000", "1200", posted, reference,
+                "Unbilled accrued interest reversed - " + loan.getLoanNumber());
+        }
+        loan.setAccruedInterest(BigDecimal.ZERO);
     }
     
     private User getCurrentUser() {
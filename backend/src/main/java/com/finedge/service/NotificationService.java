@@ -40,6 +40,16 @@ public class NotificationService {
         return notificationRepository.save(notification);
     }
     
+    /**
+     * Saves notifications for many users in one batch, without loading each user
+     */
+    public List<Notification> createNotifications(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            notification.setIsRead(false);
+        }
+        return notificationRepository.saveAll(notifications);
+    }
+    
     public List<Notification> getMyNotifications(String userId) {
         return notificationRepository.findByUserId(userId);
     }
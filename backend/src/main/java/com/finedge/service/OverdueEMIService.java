@@ -0,0 +1,263 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.model.Account;
+import com.finedge.model.EMISchedule;
+import com.finedge.model.JournalEntry;
+import com.finedge.model.Loan;
+import com.finedge.model.Notification;
+import com.finedge.model.Transaction;
+import com.finedge.model.User;
+import com.finedge.model.enums.AccountStatus;
+import com.finedge.model.enums.LoanStatus;
+import com.finedge.model.enums.NotificationType;
+import com.finedge.model.enums.TransactionStatus;
+import com.finedge.model.enums.TransactionType;
+import com.finedge.repository.AccountRepository;
+import com.finedge.repository.EMIScheduleRepository;
+import com.finedge.repository.JournalEntryRepository;
+import com.finedge.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Daily overdue-installment processing: refreshes overdue days, then charges a one-time late fee on each
+ * unpaid installment of an active loan once it is past the grace period. Candidates are read in id-ordered
+ * chunks; each chunk's fees, FEE postings and customer notifications commit in one transaction. An installment
+ * is claimed by stamping penalty_assessed_at in that transaction, so a run interrupted by a crash is resumed
+ * by the next run without charging anything twice. If a chunk fails, its installments are charged one per
+ * transaction instead. A fee is only taken when the balance covers it; otherwise, or when the account has been
+ * deactivated, the claim is released and the installment is considered again by the next run.
+ */
+@Service
+public class OverdueEMIService {
+    
+    @Autowired
+    private EMIScheduleRepository emiScheduleRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+    
+    @Autowired
+    private DoubleEntryService doubleEntryService;
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private CustomerDashboardService customerDashboardService;
+    
+    @Autowired
+    private AccountActivityService accountActivityService;
+    
+    @Autowired
+    private SpendingCategoryService spendingCategoryService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${emi-penalty.grace-days:5}")
+    private int graceDays;
+    
+    @Value("${emi-penalty.rate-percent:2.0}")
+    private BigDecimal ratePercent;
+    
+    @Value("${emi-penalty.min-fee:10.00}")
+    private BigDecimal minFee;
+    
+    @Value("${emi-penalty.chunk-size:500}")
+    private int chunkSize;
+    
+    @Scheduled(cron = "${emi-penalty.cron:0 0 1 * * *}")
+    public void processOverdueToday() {
+        processOverdue(LocalDate.now());
+    }
+    
+    /**
+     * Runs one pass as of the given date and returns what was charged
+     */
+    public Map<String, Object> processOverdue(LocalDate asOfDate) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Integer refreshed = tx.execute(status -> emiScheduleRepository.refreshOverdueDays(asOfDate));
+        
+        LocalDateTime cutoff = asOfDate.minusDays(graceDays).atStartOfDay();
+        ChunkResult total = new ChunkResult();
+        List<String> failures = new ArrayList<>();
+        String afterId = "";
+        while (true) {
+            List<EMISchedule> chunk = emiScheduleRepository.findPenaltyCandidatesAfter(cutoff, LoanStatus.ACTIVE, afterId,
+                PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+            try {
+                total.add(tx.execute(status -> chargeChunk(chunk)));
+            } catch (RuntimeException e) {
+                // The chunk rolled back as a whole; charge its installments one by one so only the bad one is left over
+                for (EMISchedule emi : chunk) {
+                    try {
+                        total.add(tx.execute(status -> chargeChunk(List.of(emi))));
+                    } catch (RuntimeException itemFailure) {
+                        failures.add("installment " + emi.getId() + ": " + itemFailure.getMessage());
+                    }
+                }
+            }
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("asOfDate", asOfDate.toString());
+        result.put("overdueDaysUpdated", refreshed);
+        result.put("feesCharged", total.charged);
+        result.put("totalFees", total.fees);
+        result.put("deferred", total.deferred);
+        result.put("failures", failures);
+        return result;
+    }
+    
+    private ChunkResult chargeChunk(List<EMISchedule> chunk) {
+        // Same lock order as a manual payment or auto-debit: installments first (claimed here in id order),
+        // then accounts in id order, so this batch cannot deadlock with them
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, List<EMISchedule>> claimedByAccount = new TreeMap<>();
+        for (EMISchedule emi : chunk) {
+            Account linked = emi.getLoan().getAccount();
+            if (linked == null || linked.getStatus() != AccountStatus.ACTIVE) {
+                continue;
+            }
+            BigDecimal fee = lateFee(emi.getTotalAmount().subtract(emi.getPaidAmount()));
+            if (emiScheduleRepository.markPenaltyAssessed(emi.getId(), fee, now) == 0) {
+                continue;
+            }
+            emi.setPenaltyAmount(fee);
+            claimedByAccount.computeIfAbsent(linked.getId(), id -> new ArrayList<>()).add(emi);
+        }
+        
+        ChunkResult result = new ChunkResult();
+        List<String> released = new ArrayList<>();
+        Map<String, List<EMISchedule>> chargedByUser = new LinkedHashMap<>();
+        Map<String, User> users = new LinkedHashMap<>();
+        for (Map.Entry<String, List<EMISchedule>> claimed : claimedByAccount.entrySet()) {
+            Account account = accountRepository.findByIdWithLock(claimed.getKey())
+                .orElseThrow(() -> new CustomException("Account not found", 404));
+            for (EMISchedule emi : claimed.getValue()) {
+                // Deactivated since the chunk was read, or the fee would overdraw the account: not charged this run
+                if (account.getStatus() != AccountStatus.ACTIVE || account.getBalance().compareTo(emi.getPenaltyAmount()) < 0) {
+                    released.add(emi.getId());
+                    result.deferred++;
+                    continue;
+                }
+                chargeFee(emi, account, now);
+                User user = emi.getLoan().getCustomer().getUser();
+                users.putIfAbsent(user.getId(), user);
+                chargedByUser.computeIfAbsent(user.getId(), id -> new ArrayList<>()).add(emi);
+                result.charged++;
+                result.fees = result.fees.add(emi.getPenaltyAmount());
+            }
+        }
+        
+        if (!released.isEmpty()) {
+            emiScheduleRepository.releasePenaltyClaims(released);
+        }
+        
+        // One notification per customer for everything charged in the chunk
+        List<Notification> notifications = new ArrayList<>();
+        for (Map.Entry<String, List<EMISchedule>> entry : chargedByUser.entrySet()) {
+            notifications.add(lateFeeNotification(users.get(entry.getKey()), entry.getValue()));
+        }
+        notificationService.createNotifications(notifications);
+        return result;
+    }
+    
+    private void chargeFee(EMISchedule emi, Account account, LocalDateTime now) {
+        Loan loan = emi.getLoan();
+        BigDecimal fee = emi.getPenaltyAmount();
+        String description = "Late fee - Installment #" + emi.getInstallmentNumber() + " for Loan " + loan.getLoanNumber();
+        String reference = "LATE-FEE-" + emi.getId();
+        JournalEntry journalEntry = doubleEntryService.createTransactionEntry(TransactionType.FEE, fee, account, null,
+            description, reference, reference);
+        
+        Transaction transaction = new Transaction();
+        transaction.setAccount(account);
+        transaction.setJournalEntry(journalEntry);
+        transaction.setTransactionType(TransactionType.FEE);
+        transaction.setAmount(fee);
+        transaction.setBalanceAfter(account.getBalance());
+        transaction.setDescription(description);
+        transaction.setReference(reference);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setProcessedAt(now);
+        transaction.setSpendingCategory(spendingCategoryService.categorize(transaction));
+        transaction = transactionRepository.save(transaction);
+        customerDashboardService.recordTransaction(transaction);
+        accountActivityService.recordTransaction(transaction);
+        spendingCategoryService.recordTransaction(transaction);
+        
+        journalEntry.setTransactionId(transaction.getId());
+        journalEntryRepository.save(journalEntry);
+    }
+    
+    BigDecimal lateFee(BigDecimal overdueAmount) {
+        BigDecimal fee = overdueAmount.multiply(ratePercent).divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
+        return fee.max(minFee);
+    }
+    
+    private static Notification lateFeeNotification(User user, List<EMISchedule> installments) {
+        BigDecimal total = BigDecimal.ZERO;
+        List<String> emiIds = new ArrayList<>();
+        for (EMISchedule emi : installments) {
+            total = total.add(emi.getPenaltyAmount());
+            emiIds.add(emi.getId());
+        }
+        EMISchedule first = installments.get(0);
+        
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setType(NotificationType.PAYMENT_DUE);
+        notification.setTitle("Late Fee Charged");
+        notification.setMessage(installments.size() == 1
+            ? "A late fee of $" + total + " was charged for overdue EMI installment #" + first.getInstallmentNumber()
+                + " of loan " + first.getLoan().getLoanNumber()
+            : "Late fees totalling $" + total + " were charged for " + installments.size() + " overdue EMI installments");
+        notification.setMetadata(Map.of("emiScheduleIds", emiIds, "totalFees", total));
+        notification.setRelatedEntityType("emi_schedule");
+        notification.setRelatedEntityId(first.getId());
+        return notification;
+    }
+    
+    private static final class ChunkResult {
+        long charged;
+        long deferred;
+        BigDecimal fees = BigDecimal.ZERO;
+        
+        void add(ChunkResult other) {
+            charged += other.charged;
+            deferred += other.deferred;
+            fees = fees.add(other.fees);
+        }
+    }
+}
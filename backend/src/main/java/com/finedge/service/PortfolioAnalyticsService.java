@@ -0,0 +1,378 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.model.enums.AccountStatus;
+import com.finedge.model.enums.AccountType;
+import com.finedge.model.enums.LoanStatus;
+import com.finedge.model.enums.LoanType;
+import com.finedge.repository.AccountRepository;
+import com.finedge.repository.CustomerRepository;
+import com.finedge.repository.LoanRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Bank-wide portfolio reporting over an in-memory columnar copy of accounts, loans and customers.
+ * Each attribute is a primitive array indexed by row: money as long cents, enums as ordinals,
+ * and the owning customer as a row index into the customer columns. The copy is refreshed
+ * incrementally from rows whose updated_at moved since the last refresh, and group-by queries
+ * scan the arrays in parallel chunks on the common fork-join pool.
+ */
+@Service
+public class PortfolioAnalyticsService {
+    
+    // Re-read rows updated slightly before the watermark, so rows committed late with an earlier
+    // updated_at are not missed; re-applying a row is idempotent
+    private static final long WATERMARK_OVERLAP_SECONDS = 60;
+    
+    private static final int MIN_CHUNK_ROWS = 16_384;
+    
+    private static final int NO_CUSTOMER = -1;
+    private static final int NO_CREDIT_SCORE = -1;
+    
+    // Upper bounds (exclusive) of the credit-score bands; anything at or above the last is EXCEPTIONAL
+    private static final int[] CREDIT_BAND_LIMITS = { 580, 670, 740, 800 };
+    private static final String[] CREDIT_BANDS = { "POOR", "FAIR", "GOOD", "VERY_GOOD", "EXCEPTIONAL", "UNKNOWN" };
+    
+    @Autowired
+    private CustomerRepository customerRepository;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private LoanRepository loanRepository;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    private final Map<String, Integer> customerRows = new HashMap<>();
+    private int customerCount;
+    private int[] customerCreditScore = new int[1024];
+    
+    private final Map<String, Integer> accountRows = new HashMap<>();
+    private int accountCount;
+    private int[] accountCustomer = new int[1024];
+    private int[] accountType = new int[1024];
+    private int[] accountStatus = new int[1024];
+    private long[] accountBalanceCents = new long[1024];
+    
+    private final Map<String, Integer> loanRows = new HashMap<>();
+    private int loanCount;
+    private int[] loanCustomer = new int[1024];
+    private int[] loanType = new int[1024];
+    private int[] loanStatus = new int[1024];
+    private long[] loanPrincipalCents = new long[1024];
+    private long[] loanOutstandingCents = new long[1024];
+    
+    private LocalDateTime watermark = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private LocalDateTime refreshedAt;
+    
+    /**
+     * Applies customers, accounts and loans changed since the last refresh.
+     * The first run loads everything.
+     */
+    @Scheduled(fixedDelayString = "${portfolio-analytics.refresh-ms:30000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        lock.writeLock().lock();
+        try {
+            LocalDateTime since = watermark.minusSeconds(WATERMARK_OVERLAP_SECONDS);
+            LocalDateTime newWatermark = watermark;
+            
+            // Customers first so new accounts and loans can resolve their owner's row
+            try (Stream<Object[]> rows = customerRepository.streamPortfolioRowsUpdatedSince(since)) {
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    applyCustomer(row);
+                    newWatermark = later(newWatermark, (LocalDateTime) row[2]);
+                }
+            }
+            try (Stream<Object[]> rows = accountRepository.streamPortfolioRowsUpdatedSince(since)) {
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    applyAccount(row);
+                    newWatermark = later(newWatermark, (LocalDateTime) row[5]);
+                }
+            }
+            try (Stream<Object[]> rows = loanRepository.streamPortfolioRowsUpdatedSince(since)) {
+                for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+                    applyLoan(row);
+                    newWatermark = later(newWatermark, (LocalDateTime) row[6]);
+                }
+            }
+            
+            watermark = newWatermark;
+            refreshedAt = LocalDateTime.now();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Account count, total and average balance per account type
+     */
+    public Map<String, Object> getDepositsByAccountType(String status) {
+        int statusFilter = parseOrdinal(AccountStatus.class, status);
+        
+        lock.readLock().lock();
+        try {
+            int[] types = accountType;
+            int[] statuses = accountStatus;
+            long[][] totals = groupScan(accountCount, AccountType.values().length,
+                i -> statusFilter < 0 || statuses[i] == statusFilter ? types[i] : -1,
+                balanceColumn());
+            
+            List<Map<String, Object>> groups = new ArrayList<>();
+            for (AccountType type : AccountType.values()) {
+                groups.add(balanceGroup("accountType", type.name(), totals, type.ordinal()));
+            }
+            return result(groups);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Loan count, principal and outstanding amount per loan type and status
+     */
+    public Map<String, Object> getLoanBook(String type, String status) {
+        int typeFilter = parseOrdinal(LoanType.class, type);
+        int statusFilter = parseOrdinal(LoanStatus.class, status);
+        int statusCount = LoanStatus.values().length;
+        
+        lock.readLock().lock();
+        try {
+            int[] types = loanType;
+            int[] statuses = loanStatus;
+            long[] principal = loanPrincipalCents;
+            long[] outstanding = loanOutstandingCents;
+            long[][] totals = groupScan(loanCount, LoanType.values().length * statusCount,
+                i -> (typeFilter < 0 || types[i] == typeFilter) && (statusFilter < 0 || statuses[i] == statusFilter)
+                    ? types[i] * statusCount + statuses[i] : -1,
+                i -> principal[i], i -> outstanding[i]);
+            
+            List<Map<String, Object>> groups = new ArrayList<>();
+            for (LoanType loanTypeValue : LoanType.values()) {
+                for (LoanStatus loanStatusValue : LoanStatus.values()) {
+                    int group = loanTypeValue.ordinal() * statusCount + loanStatusValue.ordinal();
+                    if (totals[0][group] == 0) {
+                        continue;
+                    }
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("loanType", loanTypeValue.name());
+                    row.put("status", loanStatusValue.name());
+                    row.put("loans", totals[0][group]);
+                    row.put("principal", fromCents(totals[1][group]));
+                    row.put("outstanding", fromCents(totals[2][group]));
+                    groups.add(row);
+                }
+            }
+            return result(groups);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Account count, total and average balance per owner credit-score band
+     */
+    public Map<String, Object> getBalanceByCreditBand(String status) {
+        int statusFilter = parseOrdinal(AccountStatus.class, status);
+        
+        lock.readLock().lock();
+        try {
+            int[] owners = accountCustomer;
+            int[] statuses = accountStatus;
+            int[] scores = customerCreditScore;
+            long[][] totals = groupScan(accountCount, CREDIT_BANDS.length,
+                i -> statusFilter < 0 || statuses[i] == statusFilter
+                    ? creditBand(owners[i] == NO_CUSTOMER ? NO_CREDIT_SCORE : scores[owners[i]]) : -1,
+                balanceColumn());
+            
+            List<Map<String, Object>> groups = new ArrayList<>();
+            for (int band = 0; band < CREDIT_BANDS.length; band++) {
+                groups.add(balanceGroup("creditBand", CREDIT_BANDS[band], totals, band));
+            }
+            return result(groups);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Row counts and freshness of the in-memory copy
+     */
+    public Map<String, Object> getStatus() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("customers", customerCount);
+            status.put("accounts", accountCount);
+            status.put("loans", loanCount);
+            status.put("refreshedAt", refreshedAt != null ? refreshedAt.toString() : "never");
+            return status;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void applyCustomer(Object[] row) {
+        int index = rowFor(customerRows, (String) row[0], customerCount);
+        if (index == customerCount) {
+            customerCreditScore = grow(customerCreditScore, ++customerCount);
+        }
+        customerCreditScore[index] = row[1] != null ? (Integer) row[1] : NO_CREDIT_SCORE;
+    }
+    
+    private void applyAccount(Object[] row) {
+        int index = rowFor(accountRows, (String) row[0], accountCount);
+        if (index == accountCount) {
+            accountCount++;
+            accountCustomer = grow(accountCustomer, accountCount);
+            accountType = grow(accountType, accountCount);
+            accountStatus = grow(accountStatus, accountCount);
+            accountBalanceCents = grow(accountBalanceCents, accountCount);
+        }
+        accountCustomer[index] = customerRows.getOrDefault((String) row[1], NO_CUSTOMER);
+        accountType[index] = ((AccountType) row[2]).ordinal();
+        accountStatus[index] = ((AccountStatus) row[3]).ordinal();
+        accountBalanceCents[index] = toCents((BigDecimal) row[4]);
+    }
+    
+    private void applyLoan(Object[] row) {
+        int index = rowFor(loanRows, (String) row[0], loanCount);
+        if (index == loanCount) {
+            loanCount++;
+            loanCustomer = grow(loanCustomer, loanCount);
+            loanType = grow(loanType, loanCount);
+            loanStatus = grow(loanStatus, loanCount);
+            loanPrincipalCents = grow(loanPrincipalCents, loanCount);
+            loanOutstandingCents = grow(loanOutstandingCents, loanCount);
+        }
+        loanCustomer[index] = customerRows.getOrDefault((String) row[1], NO_CUSTOMER);
+        loanType[index] = ((LoanType) row[2]).ordinal();
+        loanStatus[index] = ((LoanStatus) row[3]).ordinal();
+        loanPrincipalCents[index] = toCents((BigDecimal) row[4]);
+        loanOutstandingCents[index] = toCents((BigDecimal) row[5]);
+    }
+    
+    private IntToLongFunction balanceColumn() {
+        long[] balances = accountBalanceCents;
+        return i -> balances[i];
+    }
+    
+    /**
+     * Parallel group-by over rows [0, rows). groupOf returns the group of a row, or -1 to skip it.
+     * Returns counts in [0] and one sum per value column in [1..].
+     */
+    private static long[][] groupScan(int rows, int groups, IntUnaryOperator groupOf, IntToLongFunction... values) {
+        int chunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * 4, rows / MIN_CHUNK_ROWS));
+        return IntStream.range(0, chunks).parallel()
+            .mapToObj(chunk -> {
+                long[][] partial = new long[values.length + 1][groups];
+                int end = (int) ((long) rows * (chunk + 1) / chunks);
+                for (int i = (int) ((long) rows * chunk / chunks); i < end; i++) {
+                    int group = groupOf.applyAsInt(i);
+                    if (group < 0) {
+                        continue;
+                    }
+                    partial[0][group]++;
+                    for (int v = 0; v < values.length; v++) {
+                        partial[v + 1][group] += values[v].applyAsLong(i);
+                    }
+                }
+                return partial;
+            })
+            .reduce((a, b) -> {
+                for (int column = 0; column < a.length; column++) {
+                    for (int group = 0; group < groups; group++) {
+                        a[column][group] += b[column][group];
+                    }
+                }
+                return a;
+            })
+            .orElseGet(() -> new long[values.length + 1][groups]);
+    }
+    
+    private static Map<String, Object> balanceGroup(String key, String name, long[][] totals, int group) {
+        long accounts = totals[0][group];
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put(key, name);
+        row.put("accounts", accounts);
+        row.put("totalBalance", fromCents(totals[1][group]));
+        row.put("averageBalance", accounts > 0
+            ? fromCents(totals[1][group]).divide(BigDecimal.valueOf(accounts), 2, RoundingMode.HALF_UP)
+            : BigDecimal.ZERO);
+        return row;
+    }
+    
+    private Map<String, Object> result(List<Map<String, Object>> groups) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("groups", groups);
+        result.put("refreshedAt", refreshedAt != null ? refreshedAt.toString() : "never");
+        return result;
+    }
+    
+    private static int creditBand(int score) {
+        if (score == NO_CREDIT_SCORE) {
+            return CREDIT_BANDS.length - 1;
+        }
+        for (int band = 0; band < CREDIT_BAND_LIMITS.length; band++) {
+            if (score < CREDIT_BAND_LIMITS[band]) {
+                return band;
+            }
+        }
+        return CREDIT_BAND_LIMITS.length;
+    }
+    
+    private static <E extends Enum<E>> int parseOrdinal(Class<E> type, String value) {
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase()).ordinal();
+        } catch (IllegalArgumentException e) {
+            throw new CustomException("Invalid " + type.getSimpleName() + ": " + value, 400);
+        }
+    }
+    
+    private static int rowFor(Map<String, Integer> rows, String id, int nextRow) {
+        return rows.computeIfAbsent(id, key -> nextRow);
+    }
+    
+    private static int[] grow(int[] column, int size) {
+        return size <= column.length ? column : Arrays.copyOf(column, column.length * 2);
+    }
+    
+    private static long[] grow(long[] column, int size) {
+        return size <= column.length ? column : Arrays.copyOf(column, column.length * 2);
+    }
+    
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+    
+    private static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+    
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return b != null && b.isAfter(a) ? b : a;
+    }
+}
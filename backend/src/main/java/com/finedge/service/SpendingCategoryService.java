@@ -0,0 +1,171 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.model.Account;
+import com.finedge.model.Biller;
+import com.finedge.model.Transaction;
+import com.finedge.model.enums.SpendingCategory;
+import com.finedge.model.enums.TransactionType;
+import com.finedge.repository.CustomerMonthlySpendingRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Categorizes outgoing money at posting time and keeps per-customer, per-month totals by category.
+ * Bill payments take their biller's category; other transactions are matched by type and by
+ * keyword rules over description and reference.
+ */
+@Service
+public class SpendingCategoryService {
+    
+    private static final int MAX_RANGE_MONTHS = 36;
+    
+    // Checked in order; the first matching rule wins
+    private static final Map<Pattern, SpendingCategory> KEYWORD_RULES = new LinkedHashMap<>();
+    static {
+        KEYWORD_RULES.put(keywords("emi payment", "loan repayment", "mortgage"), SpendingCategory.LOAN_REPAYMENT);
+        KEYWORD_RULES.put(keywords("electric", "water", "gas bill", "utility", "utilities", "power"), SpendingCategory.UTILITIES);
+        KEYWORD_RULES.put(keywords("phone", "mobile", "internet", "broadband", "cable", "wireless"), SpendingCategory.TELECOMMUNICATIONS);
+        KEYWORD_RULES.put(keywords("insurance", "premium"), SpendingCategory.INSURANCE);
+        KEYWORD_RULES.put(keywords("hospital", "clinic", "pharmacy", "medical", "doctor", "dental"), SpendingCategory.HEALTHCARE);
+        KEYWORD_RULES.put(keywords("tuition", "school", "college", "university", "course"), SpendingCategory.EDUCATION);
+        KEYWORD_RULES.put(keywords("tax", "irs", "dmv", "license", "permit"), SpendingCategory.GOVERNMENT);
+        KEYWORD_RULES.put(keywords("credit card", "brokerage", "investment"), SpendingCategory.FINANCIAL);
+    }
+    
+    @Autowired
+    private CustomerMonthlySpendingRepository customerMonthlySpendingRepository;
+    
+    /**
+     * Category for an outgoing transaction, or null if the transaction is not spending
+     * (deposits, interest, and transfers between the customer's own accounts)
+     */
+    public SpendingCategory categorize(Transaction transaction) {
+        TransactionType type = transaction.getTransactionType();
+        if (type == TransactionType.DEPOSIT || type == TransactionType.INTEREST) {
+            return null;
+        }
+        if (type == TransactionType.TRANSFER && isOwnAccountTransfer(transaction)) {
+            return null;
+        }
+        if (type == TransactionType.FEE) {
+            return SpendingCategory.FEES;
+        }
+        
+        String text = ((transaction.getDescription() != null ? transaction.getDescription() : "") + " " +
+            (transaction.getReference() != null ? transaction.getReference() : "")).toLowerCase(Locale.ROOT);
+        for (Map.Entry<Pattern, SpendingCategory> rule : KEYWORD_RULES.entrySet()) {
+            if (rule.getKey().matcher(text).find()) {
+                return rule.getValue();
+            }
+        }
+        
+        return switch (type) {
+            case WITHDRAWAL -> SpendingCategory.CASH;
+            case TRANSFER -> SpendingCategory.TRANSFERS;
+            default -> SpendingCategory.OTHER;
+        };
+    }
+    
+    /**
+     * Adds a saved, categorized transaction to its customer's monthly totals
+     */
+    @Transactional
+    public void recordTransaction(Transaction transaction) {
+        if (transaction.getSpendingCategory() == null) {
+            return;
+        }
+        LocalDateTime postedAt = transaction.getCreatedAt() != null ? transaction.getCreatedAt() : LocalDateTime.now();
+        addSpending(transaction.getAccount().getCustomer().getId(), postedAt, transaction.getSpendingCategory(),
+            transaction.getAmount());
+    }
+    
+    /**
+     * Category for a payment to a biller; bill payment transactions are recorded under it
+     */
+    public SpendingCategory categorize(Biller biller) {
+        return SpendingCategory.valueOf(biller.getCategory().name());
+    }
+    
+    /**
+     * Spending by category for a customer over an inclusive range of months (yyyy-MM), current month by default
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getBreakdown(String customerId, String fromMonth, String toMonth) {
+        YearMonth to = parseMonth(toMonth, YearMonth.now());
+        YearMonth from = parseMonth(fromMonth, to);
+        if (from.isAfter(to)) {
+            throw new CustomException("from must not be after to", 400);
+        }
+        if (from.plusMonths(MAX_RANGE_MONTHS).isBefore(to.plusMonths(1))) {
+            throw new CustomException("Range may span at most " + MAX_RANGE_MONTHS + " months", 400);
+        }
+        
+        List<Object[]> rows = customerMonthlySpendingRepository.sumByCategory(customerId, from.atDay(1), to.atDay(1));
+        BigDecimal total = rows.stream()
+            .map(row -> (BigDecimal) row[1])
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        
+        List<Map<String, Object>> categories = new ArrayList<>();
+        for (Object[] row : rows) {
+            BigDecimal amount = (BigDecimal) row[1];
+            Map<String, Object> category = new LinkedHashMap<>();
+            category.put("category", ((SpendingCategory) row[0]).name());
+            category.put("amount", amount);
+            category.put("transactionCount", ((Number) row[2]).longValue());
+            category.put("percentage", total.signum() > 0
+                ? amount.multiply(BigDecimal.valueOf(100)).divide(total, 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO);
+            categories.add(category);
+        }
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from.toString());
+        result.put("to", to.toString());
+        result.put("totalSpending", total);
+        result.put("categories", categories);
+        return result;
+    }
+    
+    private void addSpending(String customerId, LocalDateTime at, SpendingCategory category, BigDecimal amount) {
+        LocalDate month = at.toLocalDate().withDayOfMonth(1);
+        customerMonthlySpendingRepository.addSpending(UUID.randomUUID().toString(), customerId, month,
+            category.name(), amount);
+    }
+    
+    private static boolean isOwnAccountTransfer(Transaction transaction) {
+        Account toAccount = transaction.getToAccount();
+        return toAccount != null
+            && toAccount.getCustomer().getId().equals(transaction.getAccount().getCustomer().getId());
+    }
+    
+    private static YearMonth parseMonth(String value, YearMonth defaultValue) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return YearMonth.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new CustomException("Invalid month '" + value + "', expected yyyy-MM", 400);
+        }
+    }
+    
+    private static Pattern keywords(String... words) {
+        return Pattern.compile("\\b(" + String.join("|", words) + ")\\b");
+    }
+}
@@ -47,6 +47,15 @@ public class TransactionService {
     @Autowired
     private JournalEntryRepository journalEntryRepository;
     
+    @Autowired
+    private CustomerDashboardService customerDashboardService;
+    
+    @Autowired
+    private AccountActivityService accountActivityService;
+    
+    @Autowired
+    private SpendingCategoryService spendingCategoryService;
+    
     public List<Transaction> getMyTransactions(Integer limit, Integer offset) {
         User currentUser = getCurrentUser();
         Customer customer = customerRepository.findByUser(currentUser)
@@ -156,7 +165,11 @@ public class TransactionService {
         transaction.setReference(request.getReference());
         transaction.setStatus(TransactionStatus.COMPLETED);
         transaction.setProcessedAt(LocalDateTime.now());
+        transaction.setSpendingCategory(spendingCategoryService.categorize(transaction));
         transaction = transactionRepository.save(transaction);
+        customerDashboardService.recordTransaction(transaction);
+        accountActivityService.recordTransaction(transaction);
+        spendingCategoryService.recordTransaction(transaction);
         
         // Update journal entry with transaction ID
         journalEntry.setTransactionId(transaction.getId());
@@ -173,7 +186,9 @@ public class TransactionService {
             transferTransaction.setDescription("Transfer from " + account.getAccountNumber());
             transferTransaction.setStatus(TransactionStatus.COMPLETED);
             transferTransaction.setProcessedAt(LocalDateTime.now());
-            transactionRepository.save(transferTransaction);
+            transferTransaction = transactionRepository.save(transferTransaction);
+            customerDashboardService.recordTransaction(transferTransaction);
+            accountActivityService.recordTransaction(transferTransaction);
         }
         
         // Create notification
@@ -0,0 +1,179 @@
+package com.finedge.util;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Level-payment (annuity) amortization on long minor units (cents).
+ * Annual rates are expressed in basis points, e.g. 8.50% = 850, matching the two-decimal
+ * rate columns. Monthly interest is balance * rate / 120000, rounded half-up to the cent, so a schedule
+ * is computed with plain long arithmetic. The annuity factor for each rate and tenure is computed once
+ * in high precision and cached, up to a fixed number of rate/tenure pairs; the last installment absorbs
+ * the rounding drift so the principal portions always sum to the loan principal exactly.
+ */
+public final class AmortizationEngine {
+    
+    public static final int MAX_TENURE_MONTHS = 600;
+    
+    // basis points per year -> fraction per month
+    private static final long MONTHLY_RATE_DIVISOR = 12L * 100 * 100;
+    
+    private static final int MAX_CACHED_FACTORS = 65_536;
+    
+    private static final ConcurrentHashMap<Long, BigDecimal> ANNUITY_FACTORS = new ConcurrentHashMap<>();
+    
+    private AmortizationEngine() {
+    }
+    
+    /**
+     * Installment amounts for one loan; total(i) is principal[i] + interest[i]
+     */
+    public record Schedule(long emi, long[] principal, long[] interest) {
+        
+        public int installments() {
+            return principal.length;
+        }
+        
+        public long total(int installment) {
+            return principal[installment] + interest[installment];
+        }
+        
+        public long totalInterest() {
+            long sum = 0;
+            for (long amount : interest) {
+                sum += amount;
+            }
+            return sum;
+        }
+        
+        public long totalPayable() {
+            long sum = totalInterest();
+            for (long amount : principal) {
+                sum += amount;
+            }
+            return sum;
+        }
+    }
+    
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+    
+    public static BigDecimal fromMinorUnits(long amount) {
+        return BigDecimal.valueOf(amount, 2);
+    }
+    
+    /**
+     * Annual percentage rate in basis points, rounded half-up
+     */
+    public static int toBasisPoints(BigDecimal annualRatePercent) {
+        return annualRatePercent.movePointRight(2).setScale(0, RoundingMode.HALF_UP).intValueExact();
+    }
+    
+    /**
+     * Level monthly installment in minor units
+     */
+    public static long emi(long principal, int annualRateBps, int tenureMonths) {
+        validate(principal, annualRateBps, tenureMonths);
+        return new BigDecimal(principal).multiply(annuityFactor(annualRateBps, tenureMonths))
+            .setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+    
+    /**
+     * BigDecimal convenience for callers working in currency amounts
+     */
+    public static BigDecimal calculateEMI(BigDecimal principal, BigDecimal annualRatePercent, int tenureMonths) {
+        return fromMinorUnits(emi(toMinorUnits(principal), toBasisPoints(annualRatePercent), tenureMonths));
+    }
+    
+    public static Schedule schedule(long principal, int annualRateBps, int tenureMonths) {
+        long emi = emi(principal, annualRateBps, tenureMonths);
+        long[] principalPortions = new long[tenureMonths];
+        long[] interestPortions = new long[tenureMonths];
+        long balance = principal;
+        for (int i = 0; i < tenureMonths; i++) {
+            long interest = monthlyInterest(balance, annualRateBps);
+            long principalPortion = i == tenureMonths - 1 ? balance : Math.min(emi - interest, balance);
+            principalPortions[i] = principalPortion;
+            interestPortions[i] = interest;
+            balance -= principalPortion;
+        }
+        return new Schedule(emi, principalPortions, interestPortions);
+    }
+    
+    /**
+     * Schedule for a fixed installment amount: as many installments as it takes to repay the principal,
+     * the last one reduced to the remaining balance plus its interest
+     */
+    public static Schedule scheduleForPayment(long principal, int annualRateBps, long payment) {
+        validate(principal, annualRateBps, 1);
+        if (payment <= monthlyInterest(principal, annualRateBps)) {
+            throw new IllegalArgumentException("Installment does not cover the monthly interest");
+        }
+        int installments = 0;
+        for (long balance = principal; balance > 0; installments++) {
+            if (installments == MAX_TENURE_MONTHS) {
+                throw new IllegalArgumentException("Tenure must not exceed " + MAX_TENURE_MONTHS + " months");
+            }
+            balance -= Math.min(payment - monthlyInterest(balance, annualRateBps), balance);
+        }
+        long[] principalPortions = new long[installments];
+        long[] interestPortions = new long[installments];
+        long balance = principal;
+        for (int i = 0; i < installments; i++) {
+            long interest = monthlyInterest(balance, annualRateBps);
+            principalPortions[i] = Math.min(payment - interest, balance);
+            interestPortions[i] = interest;
+            balance -= principalPortions[i];
+        }
+        return new Schedule(payment, principalPortions, interestPortions);
+    }
+    
+    public static Schedule schedule(BigDecimal principal, BigDecimal annualRatePercent, int tenureMonths) {
+        return schedule(toMinorUnits(principal), toBasisPoints(annualRatePercent), tenureMonths);
+    }
+    
+    /**
+     * One month of interest on the balance, rounded half-up to the cent
+     */
+    public static long monthlyInterest(long balance, int annualRateBps) {
+        long numerator = Math.multiplyExact(balance, (long) annualRateBps);
+        return (numerator + MONTHLY_RATE_DIVISOR / 2) / MONTHLY_RATE_DIVISOR;
+    }
+    
+    // r(1+r)^n / ((1+r)^n - 1), or 1/n at zero rate
+    static BigDecimal annuityFactor(int annualRateBps, int tenureMonths) {
+        long key = ((long) annualRateBps << 16) | tenureMonths;
+        BigDecimal factor = ANNUITY_FACTORS.get(key);
+        if (factor != null) {
+            return factor;
+        }
+        MathContext mc = MathContext.DECIMAL128;
+        if (annualRateBps == 0) {
+            factor = BigDecimal.ONE.divide(BigDecimal.valueOf(tenureMonths), mc);
+        } else {
+            BigDecimal rate = BigDecimal.valueOf(annualRateBps).divide(BigDecimal.valueOf(MONTHLY_RATE_DIVISOR), mc);
+            BigDecimal growth = BigDecimal.ONE.add(rate).pow(tenureMonths, mc);
+            factor = rate.multiply(growth, mc).divide(growth.subtract(BigDecimal.ONE), mc);
+        }
+        // Quotes take arbitrary public input, so the table stops growing at its cap; later factors are just computed
+        if (ANNUITY_FACTORS.size() < MAX_CACHED_FACTORS) {
+            ANNUITY_FACTORS.putIfAbsent(key, factor);
+        }
+        return factor;
+    }
+    
+    private static void validate(long principal, int annualRateBps, int tenureMonths) {
+        if (principal <= 0) {
+            throw new IllegalArgumentException("Principal must be positive");
+        }
+        if (annualRateBps < 0) {
+            throw new IllegalArgumentException("Interest rate must not be negative");
+        }
+        if (tenureMonths < 1 || tenureMonths > MAX_TENURE_MONTHS) {
+            throw new IllegalArgumentException("Tenure must be between 1 and " + MAX_TENURE_MONTHS + " months");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.finedge.util;
+
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The loop shared by the batch jobs that claim rows with FOR UPDATE SKIP LOCKED: claim a batch and process it
+ * in one transaction until nothing is left to claim. If a batch rolls back, each claimed id is retried in a
+ * transaction of its own, so a single bad row only holds back itself; an id that still fails has the failure
+ * recorded in a further transaction (e.g. using up an attempt) and the loop moves on to the next batch.
+ */
+public final class ClaimedBatches {
+    
+    private ClaimedBatches() {
+    }
+    
+    /**
+     * The job-specific steps
+     */
+    public interface Batch<R> {
+        
+        /**
+         * Claims and locks the next batch of ids; empty when nothing is left
+         */
+        List<String> claim();
+        
+        /**
+         * Processes ids claimed in the current transaction
+         */
+        R process(List<String> claimed);
+        
+        /**
+         * Locks and processes one id again after its batch rolled back
+         */
+        R retry(String id);
+        
+        /**
+         * Records that the id failed on its own retry
+         */
+        void recordFailure(String id, RuntimeException e);
+    }
+    
+    /**
+     * Where the outcome of a run is collected; called from the thread running the loop
+     */
+    public interface Results<R> {
+        
+        void add(R result);
+        
+        /**
+         * One id failed on its own retry
+         */
+        void addFailure(String error);
+        
+        /**
+         * Claiming failed, which ends the run
+         */
+        void addError(String error);
+    }
+    
+    public static <R> void drain(TransactionTemplate tx, Batch<R> batch, Results<R> results) {
+        while (true) {
+            List<String> claimed = new ArrayList<>();
+            try {
+                R result = tx.execute(status -> {
+                    claimed.addAll(batch.claim());
+                    return claimed.isEmpty() ? null : batch.process(claimed);
+                });
+                if (claimed.isEmpty()) {
+                    return;
+                }
+                results.add(result);
+                continue;
+            } catch (RuntimeException e) {
+                if (claimed.isEmpty()) {
+                    results.addError(e.getMessage());
+                    return;
+                }
+            }
+            
+            // The batch rolled back as a whole; isolate the failing id(s)
+            for (String id : claimed) {
+                try {
+                    results.add(tx.execute(status -> batch.retry(id)));
+                } catch (RuntimeException e) {
+                    tx.executeWithoutResult(status -> batch.recordFailure(id, e));
+                    results.addFailure(id + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.finedge.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits the id space of UUID-keyed tables into contiguous [from, to) ranges on the first hex digit,
+ * so batch jobs can give each worker its own slice and keyset-paginate within it.
+ */
+public final class IdRanges {
+    
+    private static final String HEX_DIGITS = "0123456789abcdef";
+    
+    // Sorts after any id starting with a hex digit
+    private static final String UPPER_BOUND = "g";
+    
+    private IdRanges() {
+    }
+    
+    /**
+     * Between 1 and 16 ranges covering every id; the first starts at "" and the last ends at "g"
+     */
+    public static List<String[]> split(int partitions) {
+        int count = Math.max(1, Math.min(partitions, HEX_DIGITS.length()));
+        List<String[]> ranges = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int from = i * HEX_DIGITS.length() / count;
+            int to = (i + 1) * HEX_DIGITS.length() / count;
+            ranges.add(new String[] {
+                i == 0 ? "" : String.valueOf(HEX_DIGITS.charAt(from)),
+                to == HEX_DIGITS.length() ? UPPER_BOUND : String.valueOf(HEX_DIGITS.charAt(to))
+            });
+        }
+        return ranges;
+    }
+}
@@ -0,0 +1,144 @@
+package com.finedge.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel keyed by id. Level 0 has one bucket per tick; each higher level has buckets spanning
+ * a full turn of the level below, and a bucket is cascaded down when the wheel reaches its start. Adding,
+ * cancelling and advancing by one tick are O(1) apart from the entries that move. Not thread-safe.
+ */
+public final class TimingWheel<T> {
+    
+    private final long tickMillis;
+    private final int[] sizes;
+    // Ticks covered by one bucket at each level, plus the whole wheel's span at the end
+    private final long[] spans;
+    private final List<List<List<Entry<T>>>> levels = new ArrayList<>();
+    private final Map<String, Entry<T>> entries = new HashMap<>();
+    private final List<Entry<T>> expired = new ArrayList<>();
+    private long currentTick;
+    
+    /**
+     * @param sizes bucket count per level, lowest first
+     */
+    public TimingWheel(long tickMillis, long startMillis, int... sizes) {
+        this.tickMillis = tickMillis;
+        this.sizes = sizes.clone();
+        this.spans = new long[sizes.length + 1];
+        spans[0] = 1;
+        for (int level = 0; level < sizes.length; level++) {
+            spans[level + 1] = spans[level] * sizes[level];
+            List<List<Entry<T>>> buckets = new ArrayList<>(sizes[level]);
+            for (int i = 0; i < sizes[level]; i++) {
+                buckets.add(new ArrayList<>());
+            }
+            levels.add(buckets);
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+    
+    /**
+     * Latest time, in epoch millis, that add() accepts
+     */
+    public long horizonMillis() {
+        return (currentTick + spans[sizes.length] - 1) * tickMillis;
+    }
+    
+    /**
+     * Schedules the value under its key, replacing any entry already there. Times at or before the current tick
+     * expire on the next advance(). Returns false, leaving nothing scheduled for the key, past the horizon.
+     */
+    public boolean add(String key, long fireAtMillis, T value) {
+        cancel(key);
+        long tick = fireAtMillis / tickMillis;
+        if (tick - currentTick >= spans[sizes.length]) {
+            return false;
+        }
+        Entry<T> entry = new Entry<>(key, tick, value);
+        entries.put(key, entry);
+        place(entry);
+        return true;
+    }
+    
+    public boolean cancel(String key) {
+        Entry<T> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.cancelled = true;
+        return true;
+    }
+    
+    public boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Moves the wheel up to the given time and returns the values that have come due, in firing order
+     */
+    public List<T> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = sizes.length - 1; level > 0; level--) {
+                if (currentTick % spans[level] == 0) {
+                    List<Entry<T>> bucket = levels.get(level).get((int) ((currentTick / spans[level]) % sizes[level]));
+                    List<Entry<T>> cascading = new ArrayList<>(bucket);
+                    bucket.clear();
+                    for (Entry<T> entry : cascading) {
+                        if (!entry.cancelled) {
+                            place(entry);
+                        }
+                    }
+                }
+            }
+            List<Entry<T>> bucket = levels.get(0).get((int) (currentTick % sizes[0]));
+            expired.addAll(bucket);
+            bucket.clear();
+        }
+        
+        List<T> due = new ArrayList<>();
+        for (Entry<T> entry : expired) {
+            if (!entry.cancelled) {
+                entries.remove(entry.key);
+                due.add(entry.value);
+            }
+        }
+        expired.clear();
+        return due;
+    }
+    
+    // The lowest level whose turn still reaches the entry; its bucket starts after the current tick
+    private void place(Entry<T> entry) {
+        long delta = entry.tick - currentTick;
+        if (delta <= 0) {
+            expired.add(entry);
+            return;
+        }
+        int level = 0;
+        while (delta >= spans[level + 1]) {
+            level++;
+        }
+        levels.get(level).get((int) ((entry.tick / spans[level]) % sizes[level])).add(entry);
+    }
+    
+    private static final class Entry<T> {
+        final String key;
+        final long tick;
+        final T value;
+        boolean cancelled;
+        
+        Entry(String key, long tick, T value) {
+            this.key = key;
+            this.tick = tick;
+            this.value = value;
+        }
+    }
+}
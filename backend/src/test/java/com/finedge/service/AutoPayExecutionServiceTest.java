@@ -0,0 +1,173 @@
+package com.finedge.service;
+
+import com.finedge.model.*;
+import com.finedge.model.enums.PaymentFrequency;
+import com.finedge.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AutoPayExecutionServiceTest {
+    
+    @Mock
+    private AutoPayRepository autoPayRepository;
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private TransactionRepository transactionRepository;
+    
+    @Mock
+    private BillPaymentRepository billPaymentRepository;
+    
+    @Mock
+    private CustomerDashboardService customerDashboardService;
+    
+    @Mock
+    private AccountActivityService accountActivityService;
+    
+    @Mock
+    private SpendingCategoryService spendingCategoryService;
+    
+    @Mock
+    private NotificationService notificationService;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @InjectMocks
+    private AutoPayExecutionService autoPayExecutionService;
+    
+    private LedgerTestFixture ledger;
+    private Account testAccount;
+    private Customer testCustomer;
+    private LocalDate today;
+    private final Map<String, AutoPay> autoPays = new HashMap<>();
+    
+    @BeforeEach
+    void setUp() {
+        ledger = new LedgerTestFixture(accountRepository);
+        ReflectionTestUtils.setField(autoPayExecutionService, "doubleEntryService", ledger.doubleEntryService);
+        ReflectionTestUtils.setField(autoPayExecutionService, "journalEntryRepository", ledger.journalEntryRepository);
+        ReflectionTestUtils.setField(autoPayExecutionService, "workerCount", 1);
+        ReflectionTestUtils.setField(autoPayExecutionService, "partitionCount", 1);
+        ReflectionTestUtils.setField(autoPayExecutionService, "batchSize", 200);
+        ReflectionTestUtils.setField(autoPayExecutionService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(autoPayExecutionService, "retryDelayHours", 24L);
+        autoPayExecutionService.startWorkers();
+        
+        User testUser = new User();
+        testUser.setId("user-123");
+        
+        testCustomer = new Customer();
+        testCustomer.setId("customer-123");
+        testCustomer.setUser(testUser);
+        
+        testAccount = new Account();
+        testAccount.setId("account-123");
+        testAccount.setAccountNumber("ACC001");
+        testAccount.setBalance(new BigDecimal("1000.00"));
+        testAccount.setCustomer(testCustomer);
+        
+        today = LocalDate.now();
+        autoPay("ap-1", "City Power", "120.00");
+        autoPay("ap-2", "City Water", "80.00");
+        
+        when(autoPayRepository.claimDue(anyString(), anyString(), eq(today), any(), eq(3), eq(200)))
+            .thenReturn(List.of("ap-1", "ap-2"), List.of());
+        when(autoPayRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<AutoPay> found = new ArrayList<>();
+            invocation.<Iterable<String>>getArgument(0).forEach(id -> found.add(autoPays.get(id)));
+            return found;
+        });
+        when(accountRepository.findByIdWithLock("account-123")).thenReturn(Optional.of(testAccount));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        autoPayExecutionService.shutdown();
+    }
+    
+    private void autoPay(String id, String billerName, String amount) {
+        Biller biller = new Biller();
+        biller.setName(billerName);
+        
+        AutoPay autoPay = new AutoPay();
+        autoPay.setId(id);
+        autoPay.setCustomer(testCustomer);
+        autoPay.setBiller(biller);
+        autoPay.setAccount(testAccount);
+        autoPay.setAmount(new BigDecimal(amount));
+        autoPay.setFrequency(PaymentFrequency.WEEKLY);
+        autoPay.setNextPaymentDate(today);
+        autoPays.put(id, autoPay);
+    }
+    
+    @Test
+    void testRunExecution_PaysEachAutoPayFromBalance() {
+        // Act
+        Map<String, Object> result = autoPayExecutionService.runExecution();
+        
+        // Assert
+        assertEquals(2L, result.get("paid"));
+        assertEquals(new BigDecimal("200.00"), result.get("amountPaid"));
+        assertEquals(new BigDecimal("800.00"), testAccount.getBalance());
+        assertEquals(today.plusWeeks(1), autoPays.get("ap-1").getNextPaymentDate());
+        assertEquals(today.plusWeeks(1), autoPays.get("ap-2").getNextPaymentDate());
+        
+        // Each payment debits the deposit liability leg; the cash leg is bank-side only
+        assertEquals(2, ledger.entriesFor("2000").size());
+        assertEquals(testAccount, ledger.entriesFor("2000").get(0).getAccount());
+        assertNull(ledger.entriesFor("1100").get(0).getAccount());
+        verify(billPaymentRepository, times(2)).save(any(BillPayment.class));
+        verify(transactionManager, never()).rollback(any());
+    }
+    
+    @Test
+    void testRunExecution_AutoPayFailingAloneSkipsCycleAtAttemptLimit() {
+        // Arrange
+        autoPays.get("ap-1").setFailedAttempts(2);
+        String poisonReference = "AUTOPAY-ap-1-" + today;
+        doThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"))
+            .when(ledger.journalEntryRepository)
+            .save(argThat(journalEntry -> journalEntry != null && poisonReference.equals(journalEntry.getReference())));
+        when(autoPayRepository.findByIdWithLock(anyString()))
+            .thenAnswer(invocation -> Optional.ofNullable(autoPays.get(invocation.<String>getArgument(0))));
+        
+        // Act
+        Map<String, Object> result = autoPayExecutionService.runExecution();
+        
+        // Assert
+        assertEquals(1L, result.get("failed"));
+        
+        // Its last attempt is used up, so the cycle is skipped rather than retried
+        AutoPay failing = autoPays.get("ap-1");
+        assertEquals(today.plusWeeks(1), failing.getNextPaymentDate());
+        assertEquals(0, failing.getFailedAttempts());
+        assertNull(failing.getNextAttemptAt());
+        assertTrue(failing.getLastFailureReason().contains("duplicate key"));
+        verify(autoPayRepository).save(failing);
+    }
+}
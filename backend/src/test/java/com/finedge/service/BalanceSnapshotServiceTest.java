@@ -0,0 +1,112 @@
+package com.finedge.service;
+
+import com.finedge.model.Account;
+import com.finedge.model.BalanceSnapshot;
+import com.finedge.model.Customer;
+import com.finedge.model.enums.TransactionType;
+import com.finedge.repository.AccountRepository;
+import com.finedge.repository.BalanceSnapshotRepository;
+import com.finedge.repository.ChartOfAccountRepository;
+import com.finedge.repository.LedgerEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceSnapshotServiceTest {
+    
+    @Mock
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+    
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private ChartOfAccountRepository chartOfAccountRepository;
+    
+    @InjectMocks
+    private BalanceSnapshotService balanceSnapshotService;
+    
+    private Account source;
+    private Account destination;
+    
+    @BeforeEach
+    void setUp() {
+        Customer customer = new Customer();
+        customer.setId("customer-123");
+        
+        source = new Account();
+        source.setId("account-123");
+        source.setAccountNumber("ACC001");
+        source.setBalance(BigDecimal.ZERO);
+        source.setCustomer(customer);
+        
+        destination = new Account();
+        destination.setId("account-456");
+        destination.setAccountNumber("ACC002");
+        destination.setBalance(BigDecimal.ZERO);
+        destination.setCustomer(customer);
+        
+        // A deposit and a transfer through the real posting rules; the range sums are answered from those entries
+        LedgerTestFixture ledger = new LedgerTestFixture(accountRepository);
+        ledger.doubleEntryService.createTransactionEntry(TransactionType.DEPOSIT, new BigDecimal("1000.00"),
+            source, null, "Salary", "DEP-1", "TXN-1");
+        ledger.doubleEntryService.createTransactionEntry(TransactionType.TRANSFER, new BigDecimal("300.00"),
+            source, destination, "Rent share", "XFR-1", "TXN-2");
+        
+        Map<String, Account> accounts = Map.of(source.getId(), source, destination.getId(), destination);
+        when(balanceSnapshotRepository.findFirstByAccountIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(anyString(), any()))
+            .thenReturn(Optional.empty());
+        when(ledgerEntryRepository.sumCustomerAccountMovementUpTo(anyString(), any()))
+            .thenAnswer(invocation -> ledger.ledgerBalance(accounts.get(invocation.<String>getArgument(0))));
+    }
+    
+    @Test
+    void testGetAccountBalanceAsOf_NowMatchesAccountBalance() {
+        // Act
+        Map<String, Object> sourceBalance = balanceSnapshotService.getAccountBalanceAsOf("account-123", LocalDateTime.now());
+        Map<String, Object> destinationBalance = balanceSnapshotService.getAccountBalanceAsOf("account-456", LocalDateTime.now());
+        
+        // Assert
+        assertEquals(0, new BigDecimal("700.00").compareTo(source.getBalance()));
+        assertEquals(0, source.getBalance().compareTo((BigDecimal) sourceBalance.get("balance")));
+        assertEquals(0, destination.getBalance().compareTo((BigDecimal) destinationBalance.get("balance")));
+    }
+    
+    @Test
+    void testTakeSnapshots_StoresAccountBalance() {
+        // Arrange
+        LocalDate date = LocalDate.now().plusDays(1);
+        when(ledgerEntryRepository.findActiveAccountIds(any(), any())).thenReturn(List.of("account-123", "account-456"));
+        when(ledgerEntryRepository.findActiveChartAccountIds(any(), any())).thenReturn(List.of());
+        when(accountRepository.getReferenceById("account-123")).thenReturn(source);
+        when(accountRepository.getReferenceById("account-456")).thenReturn(destination);
+        
+        // Act
+        int created = balanceSnapshotService.takeSnapshots(date);
+        
+        // Assert
+        assertEquals(2, created);
+        verify(balanceSnapshotRepository).save(argThat((BalanceSnapshot snapshot) -> snapshot.getAccount() == source
+            && snapshot.getBalance().compareTo(new BigDecimal("700.00")) == 0));
+        verify(balanceSnapshotRepository).save(argThat((BalanceSnapshot snapshot) -> snapshot.getAccount() == destination
+            && snapshot.getBalance().compareTo(new BigDecimal("300.00")) == 0));
+    }
+}
@@ -2,12 +2,15 @@ package com.finedge.service;
 
 import com.finedge.model.Account;
 import com.finedge.model.ChartOfAccount;
+import com.finedge.model.Customer;
 import com.finedge.model.JournalEntry;
 import com.finedge.model.LedgerEntry;
 import com.finedge.model.enums.AccountCategory;
+import com.finedge.model.enums.TransactionType;
 import com.finedge.repository.AccountRepository;
 import com.finedge.repository.ChartOfAccountRepository;
 import com.finedge.repository.JournalEntryRepository;
+import com.finedge.repository.LedgerDailySummaryRepository;
 import com.finedge.repository.LedgerEntryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,8 +18,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +47,12 @@ class BalanceValidationServiceTest {
     @Mock
     private ChartOfAccountRepository chartOfAccountRepository;
     
+    @Mock
+    private LedgerDailySummaryRepository ledgerDailySummaryRepository;
+    
+    @Mock
+    private EndOfDayCloseService endOfDayCloseService;
+    
     @InjectMocks
     private BalanceValidationService balanceValidationService;
     
@@ -86,18 +98,20 @@ class BalanceValidationServiceTest {
     void testValidateJournalEntries_AllBalanced() {
         // Arrange
         List<JournalEntry> unbalancedEntries = new ArrayList<>();
-        when(journalEntryRepository.findUnbalancedEntries()).thenReturn(unbalancedEntries);
+        when(journalEntryRepository.countByIsBalancedFalse()).thenReturn(0L);
+        when(journalEntryRepository.findUnbalancedEntriesAfter(eq(""), any(Pageable.class))).thenReturn(unbalancedEntries);
         
         // Act
-        Map<String, Object> result = balanceValidationService.validateJournalEntries();
+        Map<String, Object> result = balanceValidationService.validateJournalEntries(null, 100);
         
         // Assert
         assertNotNull(result);
-        assertEquals(0, result.get("totalUnbalanced"));
+        assertEquals(0L, result.get("totalUnbalanced"));
         assertTrue((Boolean) result.get("isValid"));
         assertTrue(((List<?>) result.get("unbalancedEntries")).isEmpty());
+        assertNull(result.get("nextCursor"));
         
-        verify(journalEntryRepository).findUnbalancedEntries();
+        verify(journalEntryRepository).findUnbalancedEntriesAfter(eq(""), any(Pageable.class));
     }
     
     @Test
@@ -105,18 +119,49 @@ class BalanceValidationServiceTest {
         // Arrange
         List<JournalEntry> unbalancedEntries = new ArrayList<>();
         unbalancedEntries.add(unbalancedJournalEntry);
-        when(journalEntryRepository.findUnbalancedEntries()).thenReturn(unbalancedEntries);
+        when(journalEntryRepository.countByIsBalancedFalse()).thenReturn(1L);
+        when(journalEntryRepository.findUnbalancedEntriesAfter(eq(""), any(Pageable.class))).thenReturn(unbalancedEntries);
         
         // Act
-        Map<String, Object> result = balanceValidationService.validateJournalEntries();
+        Map<String, Object> result = balanceValidationService.validateJournalEntries(null, 100);
         
         // Assert
         assertNotNull(result);
-        assertEquals(1, result.get("totalUnbalanced"));
+        assertEquals(1L, result.get("totalUnbalanced"));
         assertFalse((Boolean) result.get("isValid"));
         assertEquals(1, ((List<?>) result.get("unbalancedEntries")).size());
     }
     
+    @Test
+    void testValidateJournalEntries_FullPageReturnsCursor() {
+        // Arrange
+        List<JournalEntry> unbalancedEntries = new ArrayList<>();
+        unbalancedEntries.add(unbalancedJournalEntry);
+        when(journalEntryRepository.countByIsBalancedFalse()).thenReturn(5L);
+        when(journalEntryRepository.findUnbalancedEntriesAfter(eq("journal-0"), any(Pageable.class))).thenReturn(unbalancedEntries);
+        
+        // Act
+        Map<String, Object> result = balanceValidationService.validateJournalEntries("journal-0", 1);
+        
+        // Assert
+        assertEquals("journal-2", result.get("nextCursor"));
+        assertEquals(5L, result.get("totalUnbalanced"));
+    }
+    
+    @Test
+    void testCountUnbalancedJournalEntries() {
+        // Arrange
+        when(journalEntryRepository.countByIsBalancedFalse()).thenReturn(3L);
+        
+        // Act
+        Map<String, Object> result = balanceValidationService.countUnbalancedJournalEntries();
+        
+        // Assert
+        assertEquals(3L, result.get("totalUnbalanced"));
+        assertFalse((Boolean) result.get("isValid"));
+        verify(journalEntryRepository, never()).findUnbalancedEntriesAfter(anyString(), any(Pageable.class));
+    }
+    
     @Test
     void testValidateJournalEntry_Balanced() {
         // Arrange
@@ -191,19 +236,68 @@ class BalanceValidationServiceTest {
         assertTrue(((List<?>) result.get("mismatchedAccounts")).size() > 0);
     }
     
+    @Test
+    void testReconcileAccountBalance_DepositThenTransferLeavesBalancesUnchanged() {
+        // Arrange
+        LedgerTestFixture ledger = new LedgerTestFixture(accountRepository);
+        Customer customer = new Customer();
+        customer.setId("customer-123");
+        Account source = new Account();
+        source.setId("account-123");
+        source.setAccountNumber("ACC001");
+        source.setBalance(BigDecimal.ZERO);
+        source.setCustomer(customer);
+        Account destination = new Account();
+        destination.setId("account-456");
+        destination.setAccountNumber("ACC002");
+        destination.setBalance(BigDecimal.ZERO);
+        destination.setCustomer(customer);
+        
+        ledger.doubleEntryService.createTransactionEntry(TransactionType.DEPOSIT, new BigDecimal("1000.00"),
+            source, null, "Salary", "DEP-1", "TXN-1");
+        ledger.doubleEntryService.createTransactionEntry(TransactionType.TRANSFER, new BigDecimal("300.00"),
+            source, destination, "Rent share", "XFR-1", "TXN-2");
+        
+        when(accountRepository.findAll()).thenReturn(List.of(source, destination));
+        when(accountRepository.findById("account-123")).thenReturn(Optional.of(source));
+        when(accountRepository.findById("account-456")).thenReturn(Optional.of(destination));
+        when(ledgerEntryRepository.getCustomerAccountBalance(any(Account.class)))
+            .thenAnswer(invocation -> ledger.ledgerBalance(invocation.getArgument(0)));
+        
+        // Act
+        Map<String, Object> validation = balanceValidationService.validateCustomerAccountBalances();
+        balanceValidationService.reconcileAccountBalance("account-123");
+        balanceValidationService.reconcileAccountBalance("account-456");
+        
+        // Assert
+        assertTrue((Boolean) validation.get("isValid"));
+        assertEquals(0, new BigDecimal("700.00").compareTo(source.getBalance()));
+        assertEquals(0, new BigDecimal("300.00").compareTo(destination.getBalance()));
+    }
+    
     @Test
     void testValidateTrialBalance_Success() {
         // Arrange
         List<ChartOfAccount> chartAccounts = new ArrayList<>();
         ChartOfAccount account1 = new ChartOfAccount();
+        account1.setId("coa-1000");
         account1.setAccountCode("1000");
         account1.setAccountName("Cash");
         account1.setAccountCategory(AccountCategory.ASSET);
         account1.setIsActive(true);
         chartAccounts.add(account1);
         
+        LocalDate closedThrough = LocalDate.of(2024, 1, 1);
+        LocalDateTime openPeriodStart = LocalDateTime.of(2024, 1, 2, 0, 0);
+        List<Object[]> closedDays = new ArrayList<>();
+        closedDays.add(new Object[] { "coa-1000", new BigDecimal("4000.00") });
+        List<Object[]> openTail = new ArrayList<>();
+        openTail.add(new Object[] { "coa-1000", new BigDecimal("1000.00") });
+        
         when(chartOfAccountRepository.findByIsActiveTrue()).thenReturn(chartAccounts);
-        when(ledgerEntryRepository.getAccountBalance(account1)).thenReturn(new BigDecimal("5000.00"));
+        when(endOfDayCloseService.readClosedThrough()).thenReturn(closedThrough);
+        when(ledgerDailySummaryRepository.sumChartAccountBalancesThrough(closedThrough)).thenReturn(closedDays);
+        when(ledgerEntryRepository.sumChartAccountMovementSince(openPeriodStart)).thenReturn(openTail);
         
         // Act
         Map<String, Object> result = balanceValidationService.validateTrialBalance();
@@ -212,7 +306,8 @@ class BalanceValidationServiceTest {
         assertNotNull(result);
         assertTrue(result.containsKey("totalDebits"));
         assertTrue(result.containsKey("totalCredits"));
-        verify(chartOfAccountRepository).findAll();
+        assertEquals(0, new BigDecimal("5000.00").compareTo((BigDecimal) result.get("totalDebits")));
+        verify(chartOfAccountRepository).findByIsActiveTrue();
     }
 }
 
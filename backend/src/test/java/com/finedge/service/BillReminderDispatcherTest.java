@@ -0,0 +1,59 @@
+package com.finedge.service;
+
+import com.finedge.repository.BillReminderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BillReminderDispatcherTest {
+    
+    @Mock
+    private BillReminderRepository reminderRepository;
+    
+    @Mock
+    private NotificationService notificationService;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @InjectMocks
+    private BillReminderDispatcher billReminderDispatcher;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(billReminderDispatcher, "sendHour", 9);
+        ReflectionTestUtils.setField(billReminderDispatcher, "lookaheadDays", 7);
+        ReflectionTestUtils.setField(billReminderDispatcher, "batchSize", 200);
+    }
+    
+    @Test
+    void testRefreshWheel_PicksUpReminderScheduledOnAnotherNode() {
+        // Arrange
+        // Not there at startup; created later through another node, whose wheel alone was updated
+        Object[] createdElsewhere = {"reminder-123", LocalDateTime.now().minusMinutes(5)};
+        when(reminderRepository.findPendingUpTo(any(), eq(LocalDate.now())))
+            .thenReturn(List.of(), List.<Object[]>of(createdElsewhere));
+        billReminderDispatcher.loadWheel();
+        
+        // Act
+        billReminderDispatcher.refreshWheel();
+        billReminderDispatcher.tick();
+        
+        // Assert
+        verify(reminderRepository, times(2)).findPendingUpTo(any(), eq(LocalDate.now()));
+        verify(reminderRepository).claimDue(eq(List.of("reminder-123")), any());
+    }
+}
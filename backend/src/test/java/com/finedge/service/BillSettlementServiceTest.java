@@ -0,0 +1,167 @@
+package com.finedge.service;
+
+import com.finedge.model.*;
+import com.finedge.model.enums.PaymentStatus;
+import com.finedge.model.enums.TransactionType;
+import com.finedge.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BillSettlementServiceTest {
+    
+    @Mock
+    private BillPaymentRepository billPaymentRepository;
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private TransactionRepository transactionRepository;
+    
+    @Mock
+    private CustomerDashboardService customerDashboardService;
+    
+    @Mock
+    private AccountActivityService accountActivityService;
+    
+    @Mock
+    private SpendingCategoryService spendingCategoryService;
+    
+    @Mock
+    private NotificationService notificationService;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @InjectMocks
+    private BillSettlementService billSettlementService;
+    
+    private LedgerTestFixture ledger;
+    private Account testAccount;
+    private Customer testCustomer;
+    private final Map<String, BillPayment> payments = new HashMap<>();
+    
+    @BeforeEach
+    void setUp() {
+        ledger = new LedgerTestFixture(accountRepository);
+        ReflectionTestUtils.setField(billSettlementService, "doubleEntryService", ledger.doubleEntryService);
+        ReflectionTestUtils.setField(billSettlementService, "journalEntryRepository", ledger.journalEntryRepository);
+        ReflectionTestUtils.setField(billSettlementService, "batchSize", 200);
+        
+        User testUser = new User();
+        testUser.setId("user-123");
+        
+        testCustomer = new Customer();
+        testCustomer.setId("customer-123");
+        testCustomer.setUser(testUser);
+        
+        testAccount = new Account();
+        testAccount.setId("account-123");
+        testAccount.setAccountNumber("ACC001");
+        testAccount.setBalance(new BigDecimal("1000.00"));
+        testAccount.setCustomer(testCustomer);
+        
+        payment("bp-1", "City Power", "100.00", 2);
+        payment("bp-2", "City Water", "50.00", 1);
+        
+        when(billPaymentRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<BillPayment> found = new ArrayList<>();
+            invocation.<Iterable<String>>getArgument(0).forEach(id -> found.add(payments.get(id)));
+            return found;
+        });
+        when(accountRepository.findByIdWithLock("account-123")).thenReturn(Optional.of(testAccount));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+    
+    private void payment(String id, String billerName, String amount, int daysAgo) {
+        Biller biller = new Biller();
+        biller.setName(billerName);
+        
+        BillPayment payment = new BillPayment();
+        payment.setId(id);
+        payment.setCustomer(testCustomer);
+        payment.setBiller(biller);
+        payment.setAccount(testAccount);
+        payment.setAmount(new BigDecimal(amount));
+        payment.setPaymentDate(LocalDateTime.now().minusDays(daysAgo));
+        payments.put(id, payment);
+    }
+    
+    @Test
+    void testRunSettlement_DebitsEachPaymentAndFailsWhatBalanceCannotCover() {
+        // Arrange
+        payment("bp-3", "City Gas", "900.00", 0);
+        when(billPaymentRepository.claimDueForSettlement(any(), eq(200)))
+            .thenReturn(List.of("bp-1", "bp-2", "bp-3"), List.of());
+        
+        // Act
+        Map<String, Object> result = billSettlementService.runSettlement();
+        
+        // Assert
+        assertEquals(2L, result.get("settled"));
+        assertEquals(1L, result.get("failed"));
+        assertEquals(new BigDecimal("150.00"), result.get("amountSettled"));
+        assertEquals(new BigDecimal("850.00"), testAccount.getBalance());
+        assertEquals(PaymentStatus.COMPLETED, payments.get("bp-1").getStatus());
+        assertEquals(PaymentStatus.COMPLETED, payments.get("bp-2").getStatus());
+        assertEquals(PaymentStatus.FAILED, payments.get("bp-3").getStatus());
+        assertEquals("Insufficient funds", payments.get("bp-3").getFailureReason());
+        verify(transactionRepository).save(argThat(transaction -> transaction.getTransactionType() == TransactionType.PAYMENT
+            && transaction.getBalanceAfter().compareTo(new BigDecimal("900.00")) == 0));
+        
+        // Each payment debits the deposit liability leg; the cash leg is bank-side only
+        List<LedgerEntry> debits = ledger.entriesFor("2000");
+        assertEquals(2, debits.size());
+        assertEquals(testAccount, debits.get(0).getAccount());
+        assertEquals("BILL-PAY-bp-1", debits.get(0).getJournalEntry().getReference());
+        assertNull(ledger.entriesFor("1100").get(0).getAccount());
+        verify(notificationService).createNotifications(argThat(notifications -> notifications.size() == 2));
+        verify(transactionManager, never()).rollback(any());
+    }
+    
+    @Test
+    void testRunSettlement_PaymentFailingAloneIsMarkedFailed() {
+        // Arrange
+        doThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"))
+            .when(ledger.journalEntryRepository)
+            .save(argThat(journalEntry -> journalEntry != null && "BILL-PAY-bp-1".equals(journalEntry.getReference())));
+        when(billPaymentRepository.claimDueForSettlement(any(), eq(200)))
+            .thenReturn(List.of("bp-1", "bp-2"), List.of());
+        when(billPaymentRepository.findByIdWithLock(anyString()))
+            .thenAnswer(invocation -> Optional.ofNullable(payments.get(invocation.<String>getArgument(0))));
+        
+        // Act
+        Map<String, Object> result = billSettlementService.runSettlement();
+        
+        // Assert
+        assertEquals(1L, result.get("failed"));
+        assertEquals(new BigDecimal("950.00"), testAccount.getBalance());
+        
+        // Marked FAILED with the error, without touching the balance
+        BillPayment failing = payments.get("bp-1");
+        assertEquals(PaymentStatus.FAILED, failing.getStatus());
+        assertTrue(failing.getFailureReason().contains("duplicate key"));
+        assertNull(failing.getTransaction());
+        assertNotNull(failing.getSettledAt());
+    }
+}
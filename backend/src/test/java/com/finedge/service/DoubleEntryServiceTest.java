@@ -33,6 +33,12 @@ class DoubleEntryServiceTest {
     @Mock
     private AccountRepository accountRepository;
     
+    @Mock
+    private EndOfDayCloseService endOfDayCloseService;
+    
+    @Mock
+    private AnalyticsResponseCache analyticsResponseCache;
+    
     @InjectMocks
     private DoubleEntryService doubleEntryService;
     
@@ -45,15 +51,20 @@ class DoubleEntryServiceTest {
     
     @BeforeEach
     void setUp() {
+        Customer testCustomer = new Customer();
+        testCustomer.setId("customer-123");
+        
         testAccount = new Account();
         testAccount.setId("account-123");
         testAccount.setAccountNumber("ACC001");
         testAccount.setBalance(new BigDecimal("1000.00"));
+        testAccount.setCustomer(testCustomer);
         
         destinationAccount = new Account();
         destinationAccount.setId("account-456");
         destinationAccount.setAccountNumber("ACC002");
         destinationAccount.setBalance(new BigDecimal("500.00"));
+        destinationAccount.setCustomer(testCustomer);
         
         customerDepositsAsset = new ChartOfAccount();
         customerDepositsAsset.setAccountCode("1100");
@@ -120,6 +131,9 @@ class DoubleEntryServiceTest {
         assertTrue(journalEntry.getIsBalanced());
         assertEquals(amount, journalEntry.getTotalDebit());
         assertEquals(amount, journalEntry.getTotalCredit());
+        assertEquals(new BigDecimal("1100.00"), testAccount.getBalance());
+        verify(ledgerEntryRepository).save(argThat(entry -> entry.getChartOfAccount() == customerDepositsAsset
+            && entry.getAccount() == null));
         
         verify(chartOfAccountService).initializeDefaultAccounts();
         verify(journalEntryRepository).save(any(JournalEntry.class));
@@ -147,6 +161,7 @@ class DoubleEntryServiceTest {
         assertTrue(journalEntry.getIsBalanced());
         assertEquals(amount, journalEntry.getTotalDebit());
         assertEquals(amount, journalEntry.getTotalCredit());
+        assertEquals(new BigDecimal("950.00"), testAccount.getBalance());
         
         verify(journalEntryRepository).save(any(JournalEntry.class));
     }
@@ -172,10 +187,53 @@ class DoubleEntryServiceTest {
         assertTrue(journalEntry.getIsBalanced());
         assertEquals(amount, journalEntry.getTotalDebit());
         assertEquals(amount, journalEntry.getTotalCredit());
+        assertEquals(new BigDecimal("900.00"), testAccount.getBalance());
+        assertEquals(new BigDecimal("600.00"), destinationAccount.getBalance());
         
+        // Both legs are deposit liability legs, like every other posting that moves a customer balance
+        verify(ledgerEntryRepository).save(argThat(entry -> entry.getChartOfAccount() == customerDepositsLiability
+            && entry.getAccount() == testAccount && entry.getDebitAmount().compareTo(amount) == 0));
+        verify(ledgerEntryRepository).save(argThat(entry -> entry.getChartOfAccount() == customerDepositsLiability
+            && entry.getAccount() == destinationAccount && entry.getCreditAmount().compareTo(amount) == 0));
         verify(journalEntryRepository).save(any(JournalEntry.class));
     }
     
+    @Test
+    void testCreateTransactionEntry_Fee_Success() {
+        // Arrange
+        ChartOfAccount serviceFees = new ChartOfAccount();
+        serviceFees.setAccountCode("4100");
+        serviceFees.setAccountName("Service Fees");
+        serviceFees.setAccountCategory(AccountCategory.REVENUE);
+        when(chartOfAccountService.getAccountByCode("4100")).thenReturn(serviceFees);
+        BigDecimal amount = new BigDecimal("25.00");
+        
+        // Act
+        JournalEntry journalEntry = doubleEntryService.createTransactionEntry(
+            TransactionType.FEE,
+            amount,
+            testAccount,
+            null,
+            "Late fee",
+            "LATE-FEE-001",
+            "LATE-FEE-001"
+        );
+        
+        // Assert
+        assertNotNull(journalEntry);
+        assertTrue(journalEntry.getIsBalanced());
+        assertEquals(amount, journalEntry.getTotalDebit());
+        assertEquals(amount, journalEntry.getTotalCredit());
+        assertEquals(new BigDecimal("975.00"), testAccount.getBalance());
+        
+        verify(ledgerEntryRepository, times(2)).save(any(LedgerEntry.class));
+        verify(ledgerEntryRepository).save(argThat(entry -> entry.getChartOfAccount() == customerDepositsLiability
+            && entry.getAccount() == testAccount && entry.getBalanceAfter().compareTo(new BigDecimal("975.00")) == 0));
+        verify(ledgerEntryRepository).save(argThat(entry -> entry.getChartOfAccount() == serviceFees
+            && entry.getAccount() == null));
+        verify(accountRepository).save(testAccount);
+    }
+    
     @Test
     void testCreateLoanDisbursementEntry_Success() {
         // Arrange
@@ -198,6 +256,13 @@ class DoubleEntryServiceTest {
         assertEquals(amount, journalEntry.getTotalCredit());
         assertTrue(journalEntry.getDescription().contains(loanNumber));
         
+        // The principal is credited to the customer's deposits; the receivable leg is bank-side only
+        assertEquals(new BigDecimal("6000.00"), testAccount.getBalance());
+        verify(ledgerEntryRepository).save(argThat(entry -> entry.getChartOfAccount() == customerDepositsLiability
+            && entry.getAccount() == testAccount && entry.getCreditAmount().compareTo(amount) == 0));
+        verify(ledgerEntryRepository).save(argThat(entry -> entry.getChartOfAccount() == loansReceivable
+            && entry.getAccount() == null && entry.getDebitAmount().compareTo(amount) == 0));
+        
         verify(chartOfAccountService).initializeDefaultAccounts();
         verify(journalEntryRepository).save(any(JournalEntry.class));
         verify(ledgerEntryRepository, times(2)).save(any(LedgerEntry.class));
@@ -226,12 +291,61 @@ class DoubleEntryServiceTest {
         assertTrue(journalEntry.getIsBalanced());
         assertEquals(totalAmount, journalEntry.getTotalDebit());
         assertEquals(totalAmount, journalEntry.getTotalCredit());
+        assertEquals(transactionId, journalEntry.getReference());
+        
+        // Only the deposit liability leg carries the account, so the payment comes off the balance
+        assertEquals(new BigDecimal("890.00"), testAccount.getBalance());
+        verify(ledgerEntryRepository).save(argThat(entry -> entry.getChartOfAccount() == customerDepositsLiability
+            && entry.getAccount() == testAccount && entry.getDebitAmount().compareTo(totalAmount) == 0));
+        verify(ledgerEntryRepository).save(argThat(entry -> entry.getChartOfAccount() == loansReceivable
+            && entry.getAccount() == null));
         
         verify(chartOfAccountService).initializeDefaultAccounts();
         verify(journalEntryRepository).save(any(JournalEntry.class));
         verify(ledgerEntryRepository, atLeast(2)).save(any(LedgerEntry.class));
     }
     
+    @Test
+    void testCreateEMIPaymentEntry_AccruedInterestSettlesReceivable() {
+        // Act
+        JournalEntry journalEntry = doubleEntryService.createEMIPaymentEntry(
+            new BigDecimal("100.00"),
+            new BigDecimal("10.00"),
+            new BigDecimal("5.00"),
+            testAccount,
+            "LOAN-001",
+            "TXN-EMI-002"
+        );
+        
+        // Assert
+        assertTrue(journalEntry.getIsBalanced());
+        assertEquals(new BigDecimal("110.00"), journalEntry.getTotalCredit());
+        verify(ledgerEntryRepository).save(argThat(entry -> entry.getChartOfAccount() == loansReceivable
+            && entry.getCreditAmount().compareTo(new BigDecimal("105.00")) == 0));
+        verify(ledgerEntryRepository).save(argThat(entry -> entry.getChartOfAccount() == interestIncome
+            && entry.getCreditAmount().compareTo(new BigDecimal("5.00")) == 0));
+    }
+    
+    @Test
+    void testCreateTransactionEntry_ClosedBusinessDate_Rejected() {
+        // Arrange
+        doThrow(new com.finedge.exception.CustomException("Business date is closed", 409))
+            .when(endOfDayCloseService).assertPostingDateOpen(any());
+        
+        // Act & Assert
+        assertThrows(com.finedge.exception.CustomException.class, () -> doubleEntryService.createTransactionEntry(
+            TransactionType.DEPOSIT,
+            new BigDecimal("100.00"),
+            testAccount,
+            null,
+            "Back-dated deposit",
+            "REF-CLOSED",
+            "TXN-CLOSED"
+        ));
+        
+        verify(journalEntryRepository, never()).save(any(JournalEntry.class));
+    }
+    
     @Test
     void testDoubleEntryValidation_Balanced() {
         // Arrange
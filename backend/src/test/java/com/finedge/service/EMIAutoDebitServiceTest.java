@@ -0,0 +1,190 @@
+package com.finedge.service;
+
+import com.finedge.model.*;
+import com.finedge.model.enums.LoanStatus;
+import com.finedge.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EMIAutoDebitServiceTest {
+    
+    @Mock
+    private EMIScheduleRepository emiScheduleRepository;
+    
+    @Mock
+    private LoanRepository loanRepository;
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private TransactionRepository transactionRepository;
+    
+    @Mock
+    private NotificationService notificationService;
+    
+    @Mock
+    private CustomerDashboardService customerDashboardService;
+    
+    @Mock
+    private AccountActivityService accountActivityService;
+    
+    @Mock
+    private SpendingCategoryService spendingCategoryService;
+    
+    @Mock
+    private CollectionsCalendarService collectionsCalendarService;
+    
+    @Mock
+    private AnalyticsResponseCache analyticsResponseCache;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @InjectMocks
+    private EMIAutoDebitService emiAutoDebitService;
+    
+    private LedgerTestFixture ledger;
+    private Account testAccount;
+    private Loan testLoan;
+    private final Map<String, EMISchedule> installments = new HashMap<>();
+    
+    @BeforeEach
+    void setUp() {
+        // Installments settle through a real LoanService and DoubleEntryService so balances move as in production
+        ledger = new LedgerTestFixture(accountRepository);
+        LoanService loanService = new LoanService();
+        ReflectionTestUtils.setField(loanService, "doubleEntryService", ledger.doubleEntryService);
+        ReflectionTestUtils.setField(loanService, "journalEntryRepository", ledger.journalEntryRepository);
+        ReflectionTestUtils.setField(loanService, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(loanService, "emiScheduleRepository", emiScheduleRepository);
+        ReflectionTestUtils.setField(loanService, "loanRepository", loanRepository);
+        ReflectionTestUtils.setField(loanService, "customerDashboardService", customerDashboardService);
+        ReflectionTestUtils.setField(loanService, "accountActivityService", accountActivityService);
+        ReflectionTestUtils.setField(loanService, "spendingCategoryService", spendingCategoryService);
+        ReflectionTestUtils.setField(loanService, "collectionsCalendarService", collectionsCalendarService);
+        ReflectionTestUtils.setField(loanService, "analyticsResponseCache", analyticsResponseCache);
+        ReflectionTestUtils.setField(emiAutoDebitService, "loanService", loanService);
+        ReflectionTestUtils.setField(emiAutoDebitService, "workerCount", 1);
+        ReflectionTestUtils.setField(emiAutoDebitService, "batchSize", 200);
+        ReflectionTestUtils.setField(emiAutoDebitService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(emiAutoDebitService, "retryDelayHours", 24L);
+        emiAutoDebitService.startWorkers();
+        
+        User testUser = new User();
+        testUser.setId("user-123");
+        
+        Customer testCustomer = new Customer();
+        testCustomer.setId("customer-123");
+        testCustomer.setUser(testUser);
+        
+        testAccount = new Account();
+        testAccount.setId("account-123");
+        testAccount.setAccountNumber("ACC001");
+        testAccount.setBalance(new BigDecimal("1000.00"));
+        testAccount.setCustomer(testCustomer);
+        
+        testLoan = new Loan();
+        testLoan.setId("loan-123");
+        testLoan.setLoanNumber("LOAN-001");
+        testLoan.setCustomer(testCustomer);
+        testLoan.setAccount(testAccount);
+        testLoan.setStatus(LoanStatus.ACTIVE);
+        testLoan.setAmountRemaining(new BigDecimal("3600.00"));
+        
+        installment("emi-1", 1);
+        installment("emi-2", 2);
+        
+        when(emiScheduleRepository.claimDueForAutoDebit(any(), any(), eq(3), eq(200)))
+            .thenReturn(List.of("emi-1", "emi-2"), List.of());
+        when(emiScheduleRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<EMISchedule> found = new ArrayList<>();
+            invocation.<Iterable<String>>getArgument(0).forEach(id -> found.add(installments.get(id)));
+            return found;
+        });
+        when(loanRepository.findByIdWithLock("loan-123")).thenReturn(Optional.of(testLoan));
+        when(accountRepository.findByIdWithLock("account-123")).thenReturn(Optional.of(testAccount));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        emiAutoDebitService.shutdown();
+    }
+    
+    private void installment(String id, int number) {
+        EMISchedule emi = new EMISchedule();
+        emi.setId(id);
+        emi.setLoan(testLoan);
+        emi.setInstallmentNumber(number);
+        emi.setDueDate(LocalDateTime.now().minusDays(3 - number));
+        emi.setPrincipalAmount(new BigDecimal("250.00"));
+        emi.setInterestAmount(new BigDecimal("50.00"));
+        emi.setTotalAmount(new BigDecimal("300.00"));
+        installments.put(id, emi);
+    }
+    
+    @Test
+    void testRunCollection_DebitsEachInstallmentFromBalance() {
+        // Act
+        Map<String, Object> result = emiAutoDebitService.runCollection();
+        
+        // Assert
+        assertEquals(2L, result.get("collected"));
+        assertEquals(new BigDecimal("600.00"), result.get("amountCollected"));
+        assertEquals(new BigDecimal("400.00"), testAccount.getBalance());
+        assertEquals(new BigDecimal("600.00"), testLoan.getAmountPaid());
+        assertTrue(installments.get("emi-1").getIsPaid());
+        assertTrue(installments.get("emi-2").getIsPaid());
+        
+        // Two installments of one loan in one transaction get distinct journal references
+        List<LedgerEntry> debits = ledger.entriesFor("2000");
+        assertEquals(2, debits.size());
+        assertEquals("EMI-PAY-emi-1", debits.get(0).getJournalEntry().getReference());
+        assertEquals("EMI-PAY-emi-2", debits.get(1).getJournalEntry().getReference());
+        assertEquals(testAccount, debits.get(0).getAccount());
+        assertNull(ledger.entriesFor("1200").get(0).getAccount());
+        verify(emiScheduleRepository, never()).scheduleAutoDebitRetry(any(), any(), any());
+    }
+    
+    @Test
+    void testRunCollection_InstallmentFailingAloneIsQueuedForRetry() {
+        // Arrange
+        doThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"))
+            .when(ledger.journalEntryRepository)
+            .save(argThat(journalEntry -> journalEntry != null && "EMI-PAY-emi-1".equals(journalEntry.getReference())));
+        when(emiScheduleRepository.findByIdWithLock(anyString()))
+            .thenAnswer(invocation -> Optional.ofNullable(installments.get(invocation.<String>getArgument(0))));
+        
+        // Act
+        Map<String, Object> result = emiAutoDebitService.runCollection();
+        
+        // Assert
+        assertEquals(1L, result.get("failed"));
+        assertFalse(installments.get("emi-1").getIsPaid());
+        
+        // Charged an attempt and put on the retry queue like an installment the account could not cover
+        verify(emiScheduleRepository).scheduleAutoDebitRetry(eq(List.of("emi-1")), any(), contains("duplicate key"));
+    }
+}
@@ -0,0 +1,114 @@
+package com.finedge.service;
+
+import com.finedge.model.BusinessDayClose;
+import com.finedge.model.ChartOfAccount;
+import com.finedge.repository.AccountRepository;
+import com.finedge.repository.BusinessDayCloseRepository;
+import com.finedge.repository.ChartOfAccountRepository;
+import com.finedge.repository.LedgerDailySummaryRepository;
+import com.finedge.repository.LedgerEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EndOfDayCloseServiceTest {
+    
+    @Mock
+    private BusinessDayCloseRepository businessDayCloseRepository;
+    
+    @Mock
+    private LedgerDailySummaryRepository ledgerDailySummaryRepository;
+    
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private ChartOfAccountRepository chartOfAccountRepository;
+    
+    @Mock
+    private BalanceSnapshotService balanceSnapshotService;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @InjectMocks
+    private EndOfDayCloseService endOfDayCloseService;
+    
+    private LocalDate yesterday;
+    private LocalDate lastClosed;
+    
+    @BeforeEach
+    void setUp() {
+        yesterday = LocalDate.now().minusDays(1);
+        lastClosed = yesterday.minusDays(1);
+        
+        BusinessDayClose previous = new BusinessDayClose();
+        previous.setBusinessDate(lastClosed);
+        when(businessDayCloseRepository.findTopByOrderByBusinessDateDesc()).thenReturn(Optional.of(previous));
+        
+        List<Object[]> chartRows = new ArrayList<>();
+        chartRows.add(new Object[] { "coa-1100", new BigDecimal("100.00"), BigDecimal.ZERO, 1L });
+        chartRows.add(new Object[] { "coa-2000", BigDecimal.ZERO, new BigDecimal("100.00"), 1L });
+        when(ledgerEntryRepository.summarizeByChartAccount(any(), any())).thenReturn(chartRows);
+        when(ledgerEntryRepository.summarizeByAccount(any(), any())).thenReturn(new ArrayList<>());
+        when(chartOfAccountRepository.getReferenceById(anyString())).thenReturn(new ChartOfAccount());
+    }
+    
+    @Test
+    void testClosePreviousBusinessDay_RunsInOneTransaction() {
+        // Arrange
+        when(businessDayCloseRepository.save(any(BusinessDayClose.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // Act
+        endOfDayCloseService.closePreviousBusinessDay();
+        
+        // Assert
+        InOrder order = inOrder(transactionManager, ledgerDailySummaryRepository, businessDayCloseRepository,
+            balanceSnapshotService);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(ledgerDailySummaryRepository).saveAll(argThat(summaries -> ((List<?>) summaries).size() == 2));
+        order.verify(businessDayCloseRepository).save(argThat(close -> yesterday.equals(close.getBusinessDate())
+            && close.getIsBalanced()));
+        order.verify(balanceSnapshotService).takeSnapshots(yesterday.plusDays(1));
+        order.verify(transactionManager).commit(any());
+        verify(transactionManager, never()).rollback(any());
+        assertEquals(yesterday, endOfDayCloseService.getClosedThrough());
+    }
+    
+    @Test
+    void testClosePreviousBusinessDay_FailedCloseRollsBackRollups() {
+        // Arrange
+        when(businessDayCloseRepository.save(any(BusinessDayClose.class)))
+            .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"));
+        
+        // Act
+        assertThrows(DataIntegrityViolationException.class, () -> endOfDayCloseService.closePreviousBusinessDay());
+        
+        // Assert
+        verify(ledgerDailySummaryRepository).saveAll(any());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verify(balanceSnapshotService, never()).takeSnapshots(any());
+        assertEquals(lastClosed, endOfDayCloseService.getClosedThrough());
+    }
+}
@@ -0,0 +1,146 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.model.*;
+import com.finedge.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InterestAccrualServiceTest {
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private TransactionRepository transactionRepository;
+    
+    @Mock
+    private CustomerDashboardService customerDashboardService;
+    
+    @Mock
+    private AccountActivityService accountActivityService;
+    
+    @Mock
+    private SpendingCategoryService spendingCategoryService;
+    
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @Mock
+    private ResultSet emptyChunk;
+    
+    @InjectMocks
+    private InterestAccrualService interestAccrualService;
+    
+    private LedgerTestFixture ledger;
+    private Account testAccount;
+    private LocalDate monthEnd;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        ledger = new LedgerTestFixture(accountRepository);
+        ReflectionTestUtils.setField(interestAccrualService, "doubleEntryService", ledger.doubleEntryService);
+        ReflectionTestUtils.setField(interestAccrualService, "workerCount", 1);
+        ReflectionTestUtils.setField(interestAccrualService, "partitionCount", 1);
+        ReflectionTestUtils.setField(interestAccrualService, "chunkSize", 100);
+        ReflectionTestUtils.setField(interestAccrualService, "capitalizationChunkSize", 100);
+        interestAccrualService.startWorkers();
+        
+        Customer testCustomer = new Customer();
+        testCustomer.setId("customer-123");
+        
+        testAccount = new Account();
+        testAccount.setId("account-123");
+        testAccount.setAccountNumber("ACC001");
+        testAccount.setBalance(new BigDecimal("1000.00"));
+        testAccount.setAccruedInterest(new BigDecimal("12.345678"));
+        testAccount.setCustomer(testCustomer);
+        
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // Nothing left to accrue, so the run goes straight to capitalization
+        when(emptyChunk.getBigDecimal(2)).thenReturn(BigDecimal.ZERO);
+        when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class), any(Object[].class)))
+            .thenAnswer(invocation -> invocation.<RowMapper<?>>getArgument(1).mapRow(emptyChunk, 0));
+        
+        monthEnd = LocalDate.now().withDayOfMonth(1).minusDays(1);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        interestAccrualService.shutdown();
+    }
+    
+    @Test
+    void testRunAccrual_MonthEndCapitalizesIntoBalance() {
+        // Arrange
+        when(accountRepository.findInterestToCapitalize(anyString(), anyString(), anyString(), any(), any()))
+            .thenReturn(List.of(testAccount), List.of());
+        
+        // Act
+        Map<String, Object> result = interestAccrualService.runAccrual(monthEnd);
+        
+        // Assert
+        assertEquals(List.of(), result.get("errors"));
+        assertEquals(new BigDecimal("12.34"), result.get("interestCapitalized"));
+        assertEquals(new BigDecimal("1012.34"), testAccount.getBalance());
+        assertEquals(new BigDecimal("0.005678"), testAccount.getAccruedInterest());
+        
+        ArgumentCaptor<Transaction> transaction = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository).save(transaction.capture());
+        assertEquals(new BigDecimal("1012.34"), transaction.getValue().getBalanceAfter());
+        
+        // Only the customer deposit liability leg carries the account
+        assertEquals(testAccount, ledger.entriesFor("2000").get(0).getAccount());
+        assertNull(ledger.entriesFor("2100").get(0).getAccount());
+        assertEquals(2, ledger.postedEntries.size());
+    }
+    
+    @Test
+    void testRunAccrual_FailedCapitalizationIsRetriedByNextRun() {
+        // Arrange
+        when(accountRepository.findInterestToCapitalize(anyString(), anyString(), anyString(), any(), any()))
+            .thenReturn(List.of(testAccount), List.of(testAccount), List.of());
+        doThrow(new CustomException("Business date is closed", 409)).doNothing()
+            .when(ledger.endOfDayCloseService).assertPostingDateOpen(any());
+        
+        // Act
+        Map<String, Object> failed = interestAccrualService.runAccrual(monthEnd);
+        
+        // Assert
+        assertEquals(1, ((List<?>) failed.get("errors")).size());
+        assertEquals(new BigDecimal("1000.00"), testAccount.getBalance());
+        assertEquals(new BigDecimal("12.345678"), testAccount.getAccruedInterest());
+        
+        Map<String, Object> retried = interestAccrualService.runAccrual(monthEnd);
+        
+        assertEquals(List.of(), retried.get("errors"));
+        assertEquals(new BigDecimal("1012.34"), testAccount.getBalance());
+        assertEquals(new BigDecimal("0.005678"), testAccount.getAccruedInterest());
+        verify(transactionRepository, times(1)).save(any(Transaction.class));
+    }
+}
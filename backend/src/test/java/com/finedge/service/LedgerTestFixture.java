@@ -0,0 +1,94 @@
+package com.finedge.service;
+
+import com.finedge.model.Account;
+import com.finedge.model.ChartOfAccount;
+import com.finedge.model.JournalEntry;
+import com.finedge.model.LedgerEntry;
+import com.finedge.repository.AccountRepository;
+import com.finedge.repository.JournalEntryRepository;
+import com.finedge.repository.LedgerEntryRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * A real DoubleEntryService over mocked repositories, for batch-job tests that check how postings move
+ * account balances. Every saved ledger entry is collected in postedEntries.
+ */
+final class LedgerTestFixture {
+    
+    final ChartOfAccountService chartOfAccountService = mock(ChartOfAccountService.class);
+    final JournalEntryRepository journalEntryRepository = mock(JournalEntryRepository.class);
+    final LedgerEntryRepository ledgerEntryRepository = mock(LedgerEntryRepository.class);
+    final EndOfDayCloseService endOfDayCloseService = mock(EndOfDayCloseService.class);
+    final DoubleEntryService doubleEntryService = new DoubleEntryService();
+    final List<LedgerEntry> postedEntries = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, ChartOfAccount> charts = new HashMap<>();
+    
+    LedgerTestFixture(AccountRepository accountRepository) {
+        ReflectionTestUtils.setField(doubleEntryService, "chartOfAccountService", chartOfAccountService);
+        ReflectionTestUtils.setField(doubleEntryService, "journalEntryRepository", journalEntryRepository);
+        ReflectionTestUtils.setField(doubleEntryService, "ledgerEntryRepository", ledgerEntryRepository);
+        ReflectionTestUtils.setField(doubleEntryService, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(doubleEntryService, "endOfDayCloseService", endOfDayCloseService);
+        ReflectionTestUtils.setField(doubleEntryService, "analyticsResponseCache", mock(AnalyticsResponseCache.class));
+        
+        lenient().when(chartOfAccountService.getAccountByCode(anyString())).thenAnswer(invocation ->
+            chart(invocation.getArgument(0)));
+        lenient().when(journalEntryRepository.save(any(JournalEntry.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(ledgerEntryRepository.save(any(LedgerEntry.class))).thenAnswer(invocation -> {
+            postedEntries.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        lenient().when(ledgerEntryRepository.saveAll(anyCollection())).thenAnswer(invocation -> {
+            postedEntries.addAll(invocation.<Collection<LedgerEntry>>getArgument(0));
+            return new ArrayList<>(invocation.<Collection<LedgerEntry>>getArgument(0));
+        });
+    }
+    
+    synchronized ChartOfAccount chart(String code) {
+        return charts.computeIfAbsent(code, c -> {
+            ChartOfAccount chart = new ChartOfAccount();
+            chart.setAccountCode(c);
+            return chart;
+        });
+    }
+    
+    /**
+     * Ledger entries posted to the given chart account
+     */
+    List<LedgerEntry> entriesFor(String code) {
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (LedgerEntry entry : postedEntries) {
+            if (entry.getChartOfAccount() == chart(code)) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+    
+    /**
+     * Balance of a customer account computed from the posted entries the way
+     * LedgerEntryRepository.getCustomerAccountBalance does: credits minus debits of the legs tagged with it
+     */
+    BigDecimal ledgerBalance(Account account) {
+        BigDecimal balance = BigDecimal.ZERO;
+        synchronized (postedEntries) {
+            for (LedgerEntry entry : postedEntries) {
+                if (entry.getAccount() == account) {
+                    balance = balance.add(entry.getCreditAmount()).subtract(entry.getDebitAmount());
+                }
+            }
+        }
+        return balance;
+    }
+}
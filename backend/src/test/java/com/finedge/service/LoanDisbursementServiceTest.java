@@ -0,0 +1,182 @@
+package com.finedge.service;
+
+import com.finedge.model.*;
+import com.finedge.model.enums.AccountType;
+import com.finedge.model.enums.DisbursementStatus;
+import com.finedge.model.enums.LoanStatus;
+import com.finedge.model.enums.LoanType;
+import com.finedge.model.enums.TransactionType;
+import com.finedge.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanDisbursementServiceTest {
+    
+    @Mock
+    private LoanApplicationRepository loanApplicationRepository;
+    
+    @Mock
+    private LoanRepository loanRepository;
+    
+    @Mock
+    private EMIScheduleRepository emiScheduleRepository;
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private TransactionRepository transactionRepository;
+    
+    @Mock
+    private CustomerDashboardService customerDashboardService;
+    
+    @Mock
+    private AccountActivityService accountActivityService;
+    
+    @Mock
+    private CollectionsCalendarService collectionsCalendarService;
+    
+    @Mock
+    private NotificationService notificationService;
+    
+    @Mock
+    private AnalyticsResponseCache analyticsResponseCache;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @InjectMocks
+    private LoanDisbursementService loanDisbursementService;
+    
+    private LedgerTestFixture ledger;
+    private Account testAccount;
+    private Customer testCustomer;
+    private final Map<String, LoanApplication> applications = new HashMap<>();
+    
+    @BeforeEach
+    void setUp() {
+        ledger = new LedgerTestFixture(accountRepository);
+        ReflectionTestUtils.setField(loanDisbursementService, "doubleEntryService", ledger.doubleEntryService);
+        ReflectionTestUtils.setField(loanDisbursementService, "journalEntryRepository", ledger.journalEntryRepository);
+        ReflectionTestUtils.setField(loanDisbursementService, "batchSize", 50);
+        ReflectionTestUtils.setField(loanDisbursementService, "maxAttempts", 5);
+        ReflectionTestUtils.setField(loanDisbursementService, "retryDelayMinutes", 15L);
+        
+        User testUser = new User();
+        testUser.setId("user-123");
+        
+        testCustomer = new Customer();
+        testCustomer.setId("customer-123");
+        testCustomer.setUser(testUser);
+        
+        testAccount = new Account();
+        testAccount.setId("account-123");
+        testAccount.setAccountNumber("ACC001");
+        testAccount.setAccountType(AccountType.CHECKING);
+        testAccount.setBalance(new BigDecimal("100.00"));
+        testAccount.setCustomer(testCustomer);
+        
+        application("app-1", "5000.00");
+        application("app-2", "2000.00");
+        
+        when(loanApplicationRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<LoanApplication> found = new ArrayList<>();
+            invocation.<Iterable<String>>getArgument(0).forEach(id -> found.add(applications.get(id)));
+            return found;
+        });
+        when(accountRepository.findByCustomerIdInAndAccountType(any(), eq(AccountType.CHECKING)))
+            .thenReturn(List.of(testAccount));
+        when(accountRepository.findByIdWithLock("account-123")).thenReturn(Optional.of(testAccount));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+    
+    private void application(String id, String amount) {
+        LoanApplication application = new LoanApplication();
+        application.setId(id);
+        application.setCustomer(testCustomer);
+        application.setLoanType(LoanType.PERSONAL);
+        application.setApprovedAmount(new BigDecimal(amount));
+        application.setApprovedInterestRate(new BigDecimal("12.00"));
+        application.setApprovedTenureMonths(12);
+        application.setDisbursementStatus(DisbursementStatus.PENDING);
+        applications.put(id, application);
+    }
+    
+    @Test
+    void testRunPending_CreditsEachLoanToBalance() {
+        // Arrange
+        when(loanApplicationRepository.claimPendingDisbursements(any(), eq(50)))
+            .thenReturn(List.of("app-1", "app-2"), List.of());
+        
+        // Act
+        Map<String, Object> result = loanDisbursementService.runPending();
+        
+        // Assert
+        assertEquals(2L, result.get("disbursed"));
+        assertEquals(new BigDecimal("7000.00"), result.get("amountDisbursed"));
+        assertEquals(List.of(), result.get("failures"));
+        assertEquals(new BigDecimal("7100.00"), testAccount.getBalance());
+        
+        Loan loan = applications.get("app-1").getLoan();
+        assertEquals(DisbursementStatus.DISBURSED, applications.get("app-1").getDisbursementStatus());
+        assertEquals(DisbursementStatus.DISBURSED, applications.get("app-2").getDisbursementStatus());
+        assertEquals(LoanStatus.ACTIVE, loan.getStatus());
+        assertEquals(testAccount, loan.getAccount());
+        verify(transactionRepository).save(argThat(transaction -> transaction.getTransactionType() == TransactionType.DEPOSIT
+            && transaction.getBalanceAfter().compareTo(new BigDecimal("5100.00")) == 0));
+        
+        // The credit lands on the deposit liability leg; the loans receivable leg is bank-side only
+        List<LedgerEntry> credits = ledger.entriesFor("2000");
+        assertEquals(2, credits.size());
+        assertEquals(testAccount, credits.get(0).getAccount());
+        assertEquals(new BigDecimal("5000.00"), credits.get(0).getCreditAmount());
+        assertEquals("LOAN-DISB-" + loan.getLoanNumber(), credits.get(0).getJournalEntry().getReference());
+        assertNull(ledger.entriesFor("1200").get(0).getAccount());
+        verify(transactionManager, never()).rollback(any());
+    }
+    
+    @Test
+    void testRunPending_ApplicationFailingAloneIsMarkedFailedAtAttemptLimit() {
+        // Arrange
+        applications.get("app-2").setApprovedInterestRate(null);
+        applications.get("app-2").setDisbursementAttempts(4);
+        when(loanApplicationRepository.claimPendingDisbursements(any(), eq(50)))
+            .thenReturn(List.of("app-2", "app-1"), List.of());
+        when(loanApplicationRepository.findByIdWithLock(anyString()))
+            .thenAnswer(invocation -> Optional.ofNullable(applications.get(invocation.<String>getArgument(0))));
+        
+        // Act
+        Map<String, Object> result = loanDisbursementService.runPending();
+        
+        // Assert
+        assertEquals(1, ((List<?>) result.get("failures")).size());
+        
+        // The bad application used its last attempt
+        LoanApplication failing = applications.get("app-2");
+        assertEquals(DisbursementStatus.FAILED, failing.getDisbursementStatus());
+        assertEquals(5, failing.getDisbursementAttempts());
+        assertEquals("Approved loan terms are incomplete", failing.getDisbursementError());
+        assertNotNull(failing.getNextDisbursementAttemptAt());
+        assertNull(failing.getLoan());
+        verify(loanApplicationRepository).save(failing);
+    }
+}
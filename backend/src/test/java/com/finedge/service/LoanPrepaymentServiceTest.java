@@ -0,0 +1,193 @@
+package com.finedge.service;
+
+import com.finedge.dto.LoanPrepaymentRequest;
+import com.finedge.exception.CustomException;
+import com.finedge.model.*;
+import com.finedge.model.enums.AccountStatus;
+import com.finedge.model.enums.LoanStatus;
+import com.finedge.model.enums.PrepaymentMode;
+import com.finedge.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanPrepaymentServiceTest {
+    
+    @Mock
+    private LoanRepository loanRepository;
+    
+    @Mock
+    private EMIScheduleRepository emiScheduleRepository;
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private CustomerRepository customerRepository;
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Mock
+    private TransactionRepository transactionRepository;
+    
+    @Mock
+    private CustomerDashboardService customerDashboardService;
+    
+    @Mock
+    private AccountActivityService accountActivityService;
+    
+    @Mock
+    private SpendingCategoryService spendingCategoryService;
+    
+    @Mock
+    private CollectionsCalendarService collectionsCalendarService;
+    
+    @Mock
+    private NotificationService notificationService;
+    
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    
+    @InjectMocks
+    private LoanPrepaymentService loanPrepaymentService;
+    
+    private LedgerTestFixture ledger;
+    private Account testAccount;
+    private Loan testLoan;
+    
+    @BeforeEach
+    void setUp() {
+        ledger = new LedgerTestFixture(accountRepository);
+        LoanService loanService = new LoanService();
+        ReflectionTestUtils.setField(loanService, "doubleEntryService", ledger.doubleEntryService);
+        ReflectionTestUtils.setField(loanPrepaymentService, "loanService", loanService);
+        ReflectionTestUtils.setField(loanPrepaymentService, "doubleEntryService", ledger.doubleEntryService);
+        ReflectionTestUtils.setField(loanPrepaymentService, "journalEntryRepository", ledger.journalEntryRepository);
+        
+        User testUser = new User();
+        testUser.setId("user-123");
+        testUser.setUsername("testuser");
+        
+        Customer testCustomer = new Customer();
+        testCustomer.setId("customer-123");
+        testCustomer.setUser(testUser);
+        
+        testAccount = new Account();
+        testAccount.setId("account-123");
+        testAccount.setAccountNumber("ACC001");
+        testAccount.setBalance(new BigDecimal("5000.00"));
+        testAccount.setCustomer(testCustomer);
+        
+        testLoan = new Loan();
+        testLoan.setId("loan-123");
+        testLoan.setLoanNumber("LOAN-001");
+        testLoan.setCustomer(testCustomer);
+        testLoan.setAccount(testAccount);
+        testLoan.setStatus(LoanStatus.ACTIVE);
+        testLoan.setInterestRate(new BigDecimal("12.00"));
+        testLoan.setTenureMonths(12);
+        testLoan.setMonthlyEMI(new BigDecimal("1020.07"));
+        testLoan.setAmountPaid(new BigDecimal("9180.63"));
+        testLoan.setAmountRemaining(new BigDecimal("3060.21"));
+        testLoan.setAccruedInterest(new BigDecimal("8.765432"));
+        
+        List<EMISchedule> unpaid = new ArrayList<>();
+        for (int i = 10; i <= 12; i++) {
+            EMISchedule emi = new EMISchedule();
+            emi.setId("emi-" + i);
+            emi.setLoan(testLoan);
+            emi.setInstallmentNumber(i);
+            emi.setDueDate(LocalDateTime.now().plusMonths(i - 9));
+            emi.setPrincipalAmount(new BigDecimal("1000.00"));
+            emi.setInterestAmount(new BigDecimal("20.07"));
+            emi.setTotalAmount(new BigDecimal("1020.07"));
+            unpaid.add(emi);
+        }
+        
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+            "testuser", null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_CUSTOMER"))));
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(customerRepository.findByUser(testUser)).thenReturn(Optional.of(testCustomer));
+        when(emiScheduleRepository.findUnpaidByLoanIdWithLock("loan-123")).thenReturn(unpaid);
+        when(loanRepository.findByIdWithLock("loan-123")).thenReturn(Optional.of(testLoan));
+        when(accountRepository.findByIdWithLock("account-123")).thenReturn(Optional.of(testAccount));
+    }
+    
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    void testPrepay_ReversesInterestAccruedOnTheRepaidPrincipal() {
+        // Arrange
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        LoanPrepaymentRequest request = new LoanPrepaymentRequest("account-123", new BigDecimal("1000.00"), PrepaymentMode.REDUCE_EMI);
+        
+        // Act
+        Map<String, Object> result = loanPrepaymentService.prepay("loan-123", request);
+        
+        // Assert
+        assertEquals(new BigDecimal("1000.00"), result.get("prepaidAmount"));
+        assertEquals(new BigDecimal("4000.00"), testAccount.getBalance());
+        assertEquals(0, BigDecimal.ZERO.compareTo(testLoan.getAccruedInterest()));
+        
+        // The whole-cent part of the accrual comes back out of interest income and the receivable
+        List<LedgerEntry> reversal = ledger.entriesFor("4000").stream()
+            .filter(entry -> entry.getDebitAmount().signum() > 0).toList();
+        assertEquals(1, reversal.size());
+        assertEquals(new BigDecimal("8.76"), reversal.get(0).getDebitAmount());
+        assertTrue(reversal.get(0).getJournalEntry().getReference().startsWith("ACCRUAL-REV-LOAN-PREPAY-LOAN-001-"));
+        assertTrue(ledger.entriesFor("1200").stream()
+            .anyMatch(entry -> entry.getCreditAmount().compareTo(new BigDecimal("8.76")) == 0));
+        verify(loanRepository).save(testLoan);
+    }
+    
+    @Test
+    void testPrepay_RejectsAmountThatRoundsToZeroCents() {
+        // Arrange
+        LoanPrepaymentRequest request = new LoanPrepaymentRequest("account-123", new BigDecimal("0.004"), PrepaymentMode.REDUCE_EMI);
+        
+        // Act & Assert
+        CustomException exception = assertThrows(CustomException.class, () -> loanPrepaymentService.prepay("loan-123", request));
+        assertEquals("Amount must be at least 0.01", exception.getMessage());
+        assertEquals(new BigDecimal("5000.00"), testAccount.getBalance());
+        assertTrue(ledger.postedEntries.isEmpty());
+    }
+    
+    @Test
+    void testPrepay_RejectsInactiveFundingAccount() {
+        // Arrange
+        testAccount.setStatus(AccountStatus.FROZEN);
+        LoanPrepaymentRequest request = new LoanPrepaymentRequest("account-123", new BigDecimal("1000.00"), PrepaymentMode.REDUCE_EMI);
+        
+        // Act & Assert
+        CustomException exception = assertThrows(CustomException.class, () -> loanPrepaymentService.prepay("loan-123", request));
+        assertEquals("Account not active", exception.getMessage());
+        assertEquals(new BigDecimal("5000.00"), testAccount.getBalance());
+        assertTrue(ledger.postedEntries.isEmpty());
+    }
+}
@@ -0,0 +1,134 @@
+package com.finedge.service;
+
+import com.finedge.model.*;
+import com.finedge.model.enums.LoanStatus;
+import com.finedge.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanServiceTest {
+    
+    @Mock
+    private LoanRepository loanRepository;
+    
+    @Mock
+    private EMIScheduleRepository emiScheduleRepository;
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private TransactionRepository transactionRepository;
+    
+    @Mock
+    private CustomerDashboardService customerDashboardService;
+    
+    @Mock
+    private AccountActivityService accountActivityService;
+    
+    @Mock
+    private SpendingCategoryService spendingCategoryService;
+    
+    @Mock
+    private CollectionsCalendarService collectionsCalendarService;
+    
+    @Mock
+    private AnalyticsResponseCache analyticsResponseCache;
+    
+    @InjectMocks
+    private LoanService loanService;
+    
+    private LedgerTestFixture ledger;
+    private Account testAccount;
+    private Loan testLoan;
+    private EMISchedule emi;
+    
+    @BeforeEach
+    void setUp() {
+        ledger = new LedgerTestFixture(accountRepository);
+        ReflectionTestUtils.setField(loanService, "doubleEntryService", ledger.doubleEntryService);
+        ReflectionTestUtils.setField(loanService, "journalEntryRepository", ledger.journalEntryRepository);
+        
+        Customer testCustomer = new Customer();
+        testCustomer.setId("customer-123");
+        
+        testAccount = new Account();
+        testAccount.setId("account-123");
+        testAccount.setAccountNumber("ACC001");
+        testAccount.setBalance(new BigDecimal("1000.00"));
+        testAccount.setCustomer(testCustomer);
+        
+        // 31-day months accrue more than the fixed monthly interest an installment bills
+        testLoan = new Loan();
+        testLoan.setId("loan-123");
+        testLoan.setLoanNumber("LOAN-001");
+        testLoan.setCustomer(testCustomer);
+        testLoan.setAccount(testAccount);
+        testLoan.setStatus(LoanStatus.ACTIVE);
+        testLoan.setAmountPaid(new BigDecimal("3300.00"));
+        testLoan.setAccruedInterest(new BigDecimal("62.345678"));
+        
+        emi = new EMISchedule();
+        emi.setId("emi-12");
+        emi.setLoan(testLoan);
+        emi.setInstallmentNumber(12);
+        emi.setDueDate(LocalDateTime.now());
+        emi.setPrincipalAmount(new BigDecimal("250.00"));
+        emi.setInterestAmount(new BigDecimal("50.00"));
+        emi.setTotalAmount(new BigDecimal("300.00"));
+        
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+    
+    @Test
+    void testSettleEMI_LastInstallmentReversesUnbilledAccruedInterest() {
+        // Arrange
+        testLoan.setAmountRemaining(new BigDecimal("300.00"));
+        
+        // Act
+        loanService.settleEMI(emi, testLoan, testAccount);
+        
+        // Assert
+        assertEquals(LoanStatus.CLOSED, testLoan.getStatus());
+        assertEquals(0, BigDecimal.ZERO.compareTo(testLoan.getAccruedInterest()));
+        assertEquals(new BigDecimal("700.00"), testAccount.getBalance());
+        
+        // The installment settles 50.00 of the accrual; the other 12.34 posted to 1200/4000 is reversed
+        List<LedgerEntry> reversal = ledger.entriesFor("4000").stream()
+            .filter(entry -> entry.getDebitAmount().signum() > 0).toList();
+        assertEquals(1, reversal.size());
+        assertEquals(new BigDecimal("12.34"), reversal.get(0).getDebitAmount());
+        assertEquals("ACCRUAL-REV-EMI-PAY-emi-12", reversal.get(0).getJournalEntry().getReference());
+        assertTrue(ledger.entriesFor("1200").stream()
+            .anyMatch(entry -> entry.getCreditAmount().compareTo(new BigDecimal("12.34")) == 0));
+        assertNull(reversal.get(0).getAccount());
+    }
+    
+    @Test
+    void testSettleEMI_EarlierInstallmentKeepsAccrualForLaterBills() {
+        // Arrange
+        testLoan.setAmountRemaining(new BigDecimal("600.00"));
+        
+        // Act
+        loanService.settleEMI(emi, testLoan, testAccount);
+        
+        // Assert
+        assertEquals(LoanStatus.ACTIVE, testLoan.getStatus());
+        assertEquals(new BigDecimal("12.345678"), testLoan.getAccruedInterest());
+        assertTrue(ledger.entriesFor("4000").stream().noneMatch(entry -> entry.getDebitAmount().signum() > 0));
+    }
+}
@@ -0,0 +1,197 @@
+package com.finedge.service;
+
+import com.finedge.model.*;
+import com.finedge.model.enums.AccountStatus;
+import com.finedge.model.enums.LoanStatus;
+import com.finedge.model.enums.TransactionType;
+import com.finedge.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OverdueEMIServiceTest {
+    
+    @Mock
+    private EMIScheduleRepository emiScheduleRepository;
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private TransactionRepository transactionRepository;
+    
+    @Mock
+    private JournalEntryRepository journalEntryRepository;
+    
+    @Mock
+    private NotificationService notificationService;
+    
+    @Mock
+    private CustomerDashboardService customerDashboardService;
+    
+    @Mock
+    private AccountActivityService accountActivityService;
+    
+    @Mock
+    private SpendingCategoryService spendingCategoryService;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @InjectMocks
+    private OverdueEMIService overdueEMIService;
+    
+    private LedgerTestFixture ledger;
+    private Account testAccount;
+    private EMISchedule overdueEmi;
+    
+    @BeforeEach
+    void setUp() {
+        ledger = new LedgerTestFixture(accountRepository);
+        ReflectionTestUtils.setField(overdueEMIService, "doubleEntryService", ledger.doubleEntryService);
+        ReflectionTestUtils.setField(overdueEMIService, "graceDays", 5);
+        ReflectionTestUtils.setField(overdueEMIService, "ratePercent", new BigDecimal("2.0"));
+        ReflectionTestUtils.setField(overdueEMIService, "minFee", new BigDecimal("10.00"));
+        ReflectionTestUtils.setField(overdueEMIService, "chunkSize", 500);
+        
+        User testUser = new User();
+        testUser.setId("user-123");
+        
+        Customer testCustomer = new Customer();
+        testCustomer.setId("customer-123");
+        testCustomer.setUser(testUser);
+        
+        testAccount = new Account();
+        testAccount.setId("account-123");
+        testAccount.setAccountNumber("ACC001");
+        testAccount.setBalance(new BigDecimal("1000.00"));
+        testAccount.setCustomer(testCustomer);
+        
+        Loan loan = new Loan();
+        loan.setId("loan-123");
+        loan.setLoanNumber("LOAN-001");
+        loan.setCustomer(testCustomer);
+        loan.setAccount(testAccount);
+        loan.setStatus(LoanStatus.ACTIVE);
+        
+        overdueEmi = new EMISchedule();
+        overdueEmi.setId("emi-123");
+        overdueEmi.setLoan(loan);
+        overdueEmi.setInstallmentNumber(3);
+        overdueEmi.setTotalAmount(new BigDecimal("1500.00"));
+        
+        when(emiScheduleRepository.findPenaltyCandidatesAfter(any(), eq(LoanStatus.ACTIVE), eq(""), any()))
+            .thenReturn(List.of(overdueEmi));
+        when(emiScheduleRepository.markPenaltyAssessed(eq("emi-123"), any(), any())).thenReturn(1);
+        when(accountRepository.findByIdWithLock("account-123")).thenReturn(Optional.of(testAccount));
+    }
+    
+    @Test
+    void testProcessOverdue_ChargesLateFeeFromBalance() {
+        // Arrange
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // Act
+        Map<String, Object> result = overdueEMIService.processOverdue(LocalDate.now());
+        
+        // Assert
+        assertEquals(1L, result.get("feesCharged"));
+        assertEquals(new BigDecimal("30.00"), result.get("totalFees"));
+        assertEquals(new BigDecimal("970.00"), testAccount.getBalance());
+        
+        // The fee hits the customer's deposit liability; the revenue leg is bank-side only
+        assertEquals(testAccount, ledger.entriesFor("2000").get(0).getAccount());
+        assertEquals(new BigDecimal("30.00"), ledger.entriesFor("2000").get(0).getDebitAmount());
+        assertNull(ledger.entriesFor("4100").get(0).getAccount());
+        verify(transactionRepository).save(argThat(transaction -> transaction.getTransactionType() == TransactionType.FEE
+            && transaction.getBalanceAfter().compareTo(new BigDecimal("970.00")) == 0));
+        
+        // Installment claimed before its account is locked, the same order as a manual payment
+        InOrder lockOrder = inOrder(emiScheduleRepository, accountRepository);
+        lockOrder.verify(emiScheduleRepository).markPenaltyAssessed(eq("emi-123"), any(), any());
+        lockOrder.verify(accountRepository).findByIdWithLock("account-123");
+        verify(notificationService).createNotifications(argThat(notifications -> notifications.size() == 1));
+    }
+    
+    @Test
+    void testProcessOverdue_FailedChunkIsRetriedPerInstallment() {
+        // Arrange
+        EMISchedule healthyEmi = new EMISchedule();
+        healthyEmi.setId("emi-456");
+        healthyEmi.setLoan(overdueEmi.getLoan());
+        healthyEmi.setInstallmentNumber(4);
+        healthyEmi.setTotalAmount(new BigDecimal("1500.00"));
+        when(emiScheduleRepository.findPenaltyCandidatesAfter(any(), eq(LoanStatus.ACTIVE), eq(""), any()))
+            .thenReturn(List.of(overdueEmi, healthyEmi));
+        when(emiScheduleRepository.markPenaltyAssessed(eq("emi-456"), any(), any())).thenReturn(1);
+        doThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"))
+            .when(ledger.journalEntryRepository)
+            .save(argThat(journalEntry -> journalEntry != null && "LATE-FEE-emi-123".equals(journalEntry.getReference())));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // Act
+        Map<String, Object> result = overdueEMIService.processOverdue(LocalDate.now());
+        
+        // Assert
+        assertEquals(1L, result.get("feesCharged"));
+        assertEquals(List.of("installment emi-123: duplicate key value violates unique constraint"), result.get("failures"));
+        assertEquals(new BigDecimal("970.00"), testAccount.getBalance());
+        assertEquals("LATE-FEE-emi-456", ledger.entriesFor("2000").get(0).getJournalEntry().getReference());
+        verify(transactionManager, times(2)).rollback(any());
+    }
+    
+    @Test
+    void testProcessOverdue_DefersFeeTheBalanceCannotCover() {
+        // Arrange
+        testAccount.setBalance(new BigDecimal("20.00"));
+        
+        // Act
+        Map<String, Object> result = overdueEMIService.processOverdue(LocalDate.now());
+        
+        // Assert
+        assertEquals(0L, result.get("feesCharged"));
+        assertEquals(1L, result.get("deferred"));
+        assertEquals(new BigDecimal("20.00"), testAccount.getBalance());
+        verify(emiScheduleRepository).releasePenaltyClaims(List.of("emi-123"));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+    
+    @Test
+    void testProcessOverdue_SkipsAccountDeactivatedAfterRead() {
+        // Arrange
+        Account locked = new Account();
+        locked.setId("account-123");
+        locked.setBalance(new BigDecimal("1000.00"));
+        locked.setStatus(AccountStatus.FROZEN);
+        when(accountRepository.findByIdWithLock("account-123")).thenReturn(Optional.of(locked));
+        
+        // Act
+        Map<String, Object> result = overdueEMIService.processOverdue(LocalDate.now());
+        
+        // Assert
+        assertEquals(0L, result.get("feesCharged"));
+        assertEquals(1L, result.get("deferred"));
+        assertEquals(List.of(), result.get("failures"));
+        assertEquals(new BigDecimal("1000.00"), locked.getBalance());
+        verify(emiScheduleRepository).releasePenaltyClaims(List.of("emi-123"));
+        verify(transactionManager, never()).rollback(any());
+    }
+}
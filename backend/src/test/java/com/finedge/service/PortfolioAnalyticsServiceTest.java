@@ -0,0 +1,128 @@
+package com.finedge.service;
+
+import com.finedge.exception.CustomException;
+import com.finedge.model.enums.AccountStatus;
+import com.finedge.model.enums.AccountType;
+import com.finedge.model.enums.LoanStatus;
+import com.finedge.model.enums.LoanType;
+import com.finedge.repository.AccountRepository;
+import com.finedge.repository.CustomerRepository;
+import com.finedge.repository.LoanRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PortfolioAnalyticsServiceTest {
+    
+    @Mock
+    private CustomerRepository customerRepository;
+    
+    @Mock
+    private AccountRepository accountRepository;
+    
+    @Mock
+    private LoanRepository loanRepository;
+    
+    @InjectMocks
+    private PortfolioAnalyticsService portfolioAnalyticsService;
+    
+    private final LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+    
+    @BeforeEach
+    void setUp() {
+        when(customerRepository.streamPortfolioRowsUpdatedSince(any(LocalDateTime.class))).thenReturn(Stream.of(
+            new Object[] { "cust-1", 760, updatedAt },
+            new Object[] { "cust-2", null, updatedAt }
+        ));
+        when(accountRepository.streamPortfolioRowsUpdatedSince(any(LocalDateTime.class))).thenReturn(Stream.of(
+            new Object[] { "acc-1", "cust-1", AccountType.SAVINGS, AccountStatus.ACTIVE, new BigDecimal("1000.50"), updatedAt },
+            new Object[] { "acc-2", "cust-1", AccountType.CHECKING, AccountStatus.ACTIVE, new BigDecimal("200.00"), updatedAt },
+            new Object[] { "acc-3", "cust-2", AccountType.SAVINGS, AccountStatus.CLOSED, new BigDecimal("0.00"), updatedAt }
+        ));
+        when(loanRepository.streamPortfolioRowsUpdatedSince(any(LocalDateTime.class))).thenReturn(Stream.of(
+            new Object[] { "loan-1", "cust-1", LoanType.HOME, LoanStatus.ACTIVE, new BigDecimal("50000.00"), new BigDecimal("42000.00"), updatedAt },
+            new Object[] { "loan-2", "cust-2", LoanType.HOME, LoanStatus.ACTIVE, new BigDecimal("30000.00"), null, updatedAt }
+        ));
+        portfolioAnalyticsService.refresh();
+    }
+    
+    @Test
+    void testDepositsByAccountType_FiltersByStatus() {
+        // Act
+        Map<String, Object> result = portfolioAnalyticsService.getDepositsByAccountType("active");
+        
+        // Assert
+        Map<String, Object> savings = group(result, "accountType", "SAVINGS");
+        assertEquals(1L, savings.get("accounts"));
+        assertEquals(new BigDecimal("1000.50"), savings.get("totalBalance"));
+    }
+    
+    @Test
+    void testLoanBook_SumsPrincipalAndOutstanding() {
+        // Act
+        Map<String, Object> result = portfolioAnalyticsService.getLoanBook("HOME", null);
+        
+        // Assert
+        Map<String, Object> activeHome = group(result, "status", "ACTIVE");
+        assertEquals(2L, activeHome.get("loans"));
+        assertEquals(new BigDecimal("80000.00"), activeHome.get("principal"));
+        assertEquals(new BigDecimal("42000.00"), activeHome.get("outstanding"));
+    }
+    
+    @Test
+    void testBalanceByCreditBand_UsesOwnerScore() {
+        // Act
+        Map<String, Object> result = portfolioAnalyticsService.getBalanceByCreditBand(null);
+        
+        // Assert
+        Map<String, Object> veryGood = group(result, "creditBand", "VERY_GOOD");
+        assertEquals(2L, veryGood.get("accounts"));
+        assertEquals(new BigDecimal("600.25"), veryGood.get("averageBalance"));
+        assertEquals(1L, group(result, "creditBand", "UNKNOWN").get("accounts"));
+    }
+    
+    @Test
+    void testRefresh_UpdatesExistingRowsInPlace() {
+        // Arrange
+        when(customerRepository.streamPortfolioRowsUpdatedSince(any(LocalDateTime.class))).thenReturn(Stream.empty());
+        when(accountRepository.streamPortfolioRowsUpdatedSince(any(LocalDateTime.class))).thenReturn(Stream.<Object[]>of(
+            new Object[] { "acc-2", "cust-1", AccountType.CHECKING, AccountStatus.ACTIVE, new BigDecimal("350.00"), updatedAt.plusHours(1) }
+        ));
+        when(loanRepository.streamPortfolioRowsUpdatedSince(any(LocalDateTime.class))).thenReturn(Stream.empty());
+        
+        // Act
+        portfolioAnalyticsService.refresh();
+        
+        // Assert
+        assertEquals(3, portfolioAnalyticsService.getStatus().get("accounts"));
+        Map<String, Object> checking = group(portfolioAnalyticsService.getDepositsByAccountType(null), "accountType", "CHECKING");
+        assertEquals(new BigDecimal("350.00"), checking.get("totalBalance"));
+    }
+    
+    @Test
+    void testInvalidFilter_Rejected() {
+        assertThrows(CustomException.class, () -> portfolioAnalyticsService.getLoanBook("YACHT", null));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> group(Map<String, Object> result, String key, String value) {
+        return ((List<Map<String, Object>>) result.get("groups")).stream()
+            .filter(g -> value.equals(g.get(key)))
+            .findFirst()
+            .orElseThrow();
+    }
+}
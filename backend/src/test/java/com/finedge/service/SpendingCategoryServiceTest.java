@@ -0,0 +1,199 @@
+package com.finedge.service;
+
+import com.finedge.model.Account;
+import com.finedge.model.Biller;
+import com.finedge.model.Customer;
+import com.finedge.model.Transaction;
+import com.finedge.model.enums.BillerCategory;
+import com.finedge.model.enums.SpendingCategory;
+import com.finedge.model.enums.TransactionType;
+import com.finedge.repository.CustomerMonthlySpendingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpendingCategoryServiceTest {
+    
+    @Mock
+    private CustomerMonthlySpendingRepository customerMonthlySpendingRepository;
+    
+    @InjectMocks
+    private SpendingCategoryService spendingCategoryService;
+    
+    private Account testAccount;
+    private Account ownSavingsAccount;
+    private Account otherCustomerAccount;
+    
+    @BeforeEach
+    void setUp() {
+        Customer testCustomer = new Customer();
+        testCustomer.setId("customer-123");
+        
+        Customer otherCustomer = new Customer();
+        otherCustomer.setId("customer-456");
+        
+        testAccount = new Account();
+        testAccount.setId("account-123");
+        testAccount.setCustomer(testCustomer);
+        
+        ownSavingsAccount = new Account();
+        ownSavingsAccount.setId("account-124");
+        ownSavingsAccount.setCustomer(testCustomer);
+        
+        otherCustomerAccount = new Account();
+        otherCustomerAccount.setId("account-456");
+        otherCustomerAccount.setCustomer(otherCustomer);
+    }
+    
+    private Transaction transaction(TransactionType type, String description, String reference) {
+        Transaction transaction = new Transaction();
+        transaction.setAccount(testAccount);
+        transaction.setTransactionType(type);
+        transaction.setDescription(description);
+        transaction.setReference(reference);
+        return transaction;
+    }
+    
+    private void assertKeywords(SpendingCategory expected, List<String> keywords) {
+        for (String keyword : keywords) {
+            assertEquals(expected, spendingCategoryService.categorize(
+                transaction(TransactionType.PAYMENT, "Payment - " + keyword + " account", null)), keyword);
+        }
+    }
+    
+    @Test
+    void testCategorize_DepositsAndInterestAreNotSpending() {
+        assertNull(spendingCategoryService.categorize(transaction(TransactionType.DEPOSIT, "Salary", null)));
+        assertNull(spendingCategoryService.categorize(transaction(TransactionType.DEPOSIT, "Insurance refund", null)));
+        assertNull(spendingCategoryService.categorize(transaction(TransactionType.INTEREST, "Monthly interest", null)));
+    }
+    
+    @Test
+    void testCategorize_TransferBetweenOwnAccountsIsNotSpending() {
+        // Arrange
+        Transaction transfer = transaction(TransactionType.TRANSFER, "Tuition savings", null);
+        transfer.setToAccount(ownSavingsAccount);
+        
+        // Act & Assert
+        assertNull(spendingCategoryService.categorize(transfer));
+    }
+    
+    @Test
+    void testCategorize_FeeTakesPrecedenceOverKeywords() {
+        assertEquals(SpendingCategory.FEES, spendingCategoryService.categorize(
+            transaction(TransactionType.FEE, "Late fee - EMI payment #3", "LATE-FEE-1")));
+    }
+    
+    @Test
+    void testCategorize_LoanRepaymentKeywords() {
+        assertKeywords(SpendingCategory.LOAN_REPAYMENT, List.of("emi payment", "loan repayment", "mortgage"));
+    }
+    
+    @Test
+    void testCategorize_UtilitiesKeywords() {
+        assertKeywords(SpendingCategory.UTILITIES, List.of("electric", "water", "gas bill", "utility", "utilities", "power"));
+    }
+    
+    @Test
+    void testCategorize_TelecommunicationsKeywords() {
+        assertKeywords(SpendingCategory.TELECOMMUNICATIONS,
+            List.of("phone", "mobile", "internet", "broadband", "cable", "wireless"));
+    }
+    
+    @Test
+    void testCategorize_InsuranceKeywords() {
+        assertKeywords(SpendingCategory.INSURANCE, List.of("insurance", "premium"));
+    }
+    
+    @Test
+    void testCategorize_HealthcareKeywords() {
+        assertKeywords(SpendingCategory.HEALTHCARE, List.of("hospital", "clinic", "pharmacy", "medical", "doctor", "dental"));
+    }
+    
+    @Test
+    void testCategorize_EducationKeywords() {
+        assertKeywords(SpendingCategory.EDUCATION, List.of("tuition", "school", "college", "university", "course"));
+    }
+    
+    @Test
+    void testCategorize_GovernmentKeywords() {
+        assertKeywords(SpendingCategory.GOVERNMENT, List.of("tax", "irs", "dmv", "license", "permit"));
+    }
+    
+    @Test
+    void testCategorize_FinancialKeywords() {
+        assertKeywords(SpendingCategory.FINANCIAL, List.of("credit card", "brokerage", "investment"));
+    }
+    
+    @Test
+    void testCategorize_KeywordsMatchReferenceAndIgnoreCase() {
+        assertEquals(SpendingCategory.UTILITIES, spendingCategoryService.categorize(
+            transaction(TransactionType.PAYMENT, null, "ELECTRIC-2024-01")));
+        assertEquals(SpendingCategory.HEALTHCARE, spendingCategoryService.categorize(
+            transaction(TransactionType.PAYMENT, "City Dental Care", null)));
+    }
+    
+    @Test
+    void testCategorize_KeywordsMatchWholeWordsOnly() {
+        assertEquals(SpendingCategory.OTHER, spendingCategoryService.categorize(
+            transaction(TransactionType.PAYMENT, "Taxi to the airport", null)));
+        assertEquals(SpendingCategory.OTHER, spendingCategoryService.categorize(
+            transaction(TransactionType.PAYMENT, "Waterfall tour", null)));
+    }
+    
+    @Test
+    void testCategorize_EarlierRuleWinsWhenSeveralMatch() {
+        assertEquals(SpendingCategory.LOAN_REPAYMENT, spendingCategoryService.categorize(
+            transaction(TransactionType.PAYMENT, "EMI payment for electric car", null)));
+        assertEquals(SpendingCategory.TELECOMMUNICATIONS, spendingCategoryService.categorize(
+            transaction(TransactionType.PAYMENT, "Mobile insurance premium", null)));
+        assertEquals(SpendingCategory.HEALTHCARE, spendingCategoryService.categorize(
+            transaction(TransactionType.PAYMENT, "Medical school fees", null)));
+    }
+    
+    @Test
+    void testCategorize_KeywordsTakePrecedenceOverTypeFallback() {
+        // Arrange
+        Transaction transfer = transaction(TransactionType.TRANSFER, "College fund", null);
+        transfer.setToAccount(otherCustomerAccount);
+        
+        // Act & Assert
+        assertEquals(SpendingCategory.EDUCATION, spendingCategoryService.categorize(transfer));
+        assertEquals(SpendingCategory.GOVERNMENT, spendingCategoryService.categorize(
+            transaction(TransactionType.WITHDRAWAL, "Cash for DMV", null)));
+    }
+    
+    @Test
+    void testCategorize_FallsBackByType() {
+        // Arrange
+        Transaction transfer = transaction(TransactionType.TRANSFER, "Rent share", null);
+        transfer.setToAccount(otherCustomerAccount);
+        
+        // Act & Assert
+        assertEquals(SpendingCategory.CASH, spendingCategoryService.categorize(
+            transaction(TransactionType.WITHDRAWAL, "ATM withdrawal", null)));
+        assertEquals(SpendingCategory.TRANSFERS, spendingCategoryService.categorize(transfer));
+        assertEquals(SpendingCategory.OTHER, spendingCategoryService.categorize(
+            transaction(TransactionType.PAYMENT, "Groceries", null)));
+        assertEquals(SpendingCategory.OTHER, spendingCategoryService.categorize(
+            transaction(TransactionType.PAYMENT, null, null)));
+    }
+    
+    @Test
+    void testCategorize_BillerCategoryMapsToSpendingCategory() {
+        for (BillerCategory category : BillerCategory.values()) {
+            Biller biller = new Biller();
+            biller.setCategory(category);
+            
+            assertEquals(category.name(), spendingCategoryService.categorize(biller).name());
+        }
+    }
+}
@@ -54,6 +54,15 @@ class TransactionServiceTest {
     @Mock
     private JournalEntryRepository journalEntryRepository;
     
+    @Mock
+    private CustomerDashboardService customerDashboardService;
+    
+    @Mock
+    private AccountActivityService accountActivityService;
+    
+    @Mock
+    private SpendingCategoryService spendingCategoryService;
+    
     @Mock
     private HttpServletRequest httpRequest;
     
@@ -0,0 +1,56 @@
+package com.finedge.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmortizationEngineTest {
+    
+    @Test
+    void testCalculateEMI_MatchesAnnuityFormula() {
+        assertEquals(new BigDecimal("8884.88"),
+            AmortizationEngine.calculateEMI(new BigDecimal("100000.00"), new BigDecimal("12.00"), 12));
+        assertEquals(new BigDecimal("1966.75"),
+            AmortizationEngine.calculateEMI(new BigDecimal("250000.00"), new BigDecimal("8.75"), 360));
+    }
+    
+    @Test
+    void testSchedule_PrincipalSumsExactlyAndLastInstallmentAbsorbsDrift() {
+        AmortizationEngine.Schedule schedule = AmortizationEngine.schedule(new BigDecimal("250000.00"), new BigDecimal("8.75"), 360);
+        
+        assertEquals(360, schedule.installments());
+        assertEquals(25_000_000L, Arrays.stream(schedule.principal()).sum());
+        for (int i = 0; i < schedule.installments() - 1; i++) {
+            assertEquals(schedule.emi(), schedule.total(i));
+        }
+        assertEquals(schedule.totalPayable(), 25_000_000L + schedule.totalInterest());
+    }
+    
+    @Test
+    void testSchedule_ZeroRate() {
+        AmortizationEngine.Schedule schedule = AmortizationEngine.schedule(new BigDecimal("1000.00"), BigDecimal.ZERO, 3);
+        
+        assertEquals(33_333L, schedule.total(0));
+        assertEquals(33_334L, schedule.total(2));
+        assertEquals(0L, schedule.totalInterest());
+    }
+    
+    @Test
+    void testScheduleForPayment_ShortensTenureAfterPrepayment() {
+        AmortizationEngine.Schedule original = AmortizationEngine.schedule(10_000_000L, 1200, 12);
+        AmortizationEngine.Schedule shorter = AmortizationEngine.scheduleForPayment(5_000_000L, 1200, original.emi());
+        
+        assertTrue(shorter.installments() < 12);
+        assertEquals(5_000_000L, Arrays.stream(shorter.principal()).sum());
+        assertTrue(shorter.total(shorter.installments() - 1) <= original.emi());
+    }
+    
+    @Test
+    void testSchedule_InvalidTenureRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> AmortizationEngine.schedule(100_000L, 850, 0));
+    }
+}
@@ -0,0 +1,136 @@
+package com.finedge.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ClaimedBatchesTest {
+    
+    private PlatformTransactionManager transactionManager;
+    private TransactionTemplate tx;
+    private RecordingBatch batch;
+    private RecordingResults results;
+    
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        tx = new TransactionTemplate(transactionManager);
+        batch = new RecordingBatch();
+        results = new RecordingResults();
+    }
+    
+    @Test
+    void testDrain_ProcessesEachBatchInItsOwnTransactionUntilNothingIsClaimed() {
+        batch.claims.add(List.of("a", "b"));
+        batch.claims.add(List.of("c"));
+        
+        ClaimedBatches.drain(tx, batch, results);
+        
+        assertEquals(List.of(2, 1), results.added);
+        assertEquals(List.of(), batch.retried);
+        assertEquals(List.of(), results.failures);
+        // Two batches plus the empty claim that ends the run
+        verify(transactionManager, times(3)).commit(any());
+        verify(transactionManager, never()).rollback(any());
+    }
+    
+    @Test
+    void testDrain_FailedBatchIsRetriedPerIdAndOnlyTheBadOneIsRecorded() {
+        batch.claims.add(List.of("a", "bad", "c"));
+        batch.claims.add(List.of("d"));
+        batch.failing = "bad";
+        
+        ClaimedBatches.drain(tx, batch, results);
+        
+        assertEquals(List.of("a", "bad", "c"), batch.retried);
+        assertEquals(List.of("bad"), batch.recordedFailures);
+        assertEquals(List.of("bad: bad row"), results.failures);
+        // "a" and "c" on their own, then the next batch is claimed as usual
+        assertEquals(List.of(1, 1, 1), results.added);
+        assertEquals(List.of(List.of("a", "bad", "c"), List.of("d")), batch.processed);
+        verify(transactionManager, times(2)).rollback(any());
+    }
+    
+    @Test
+    void testDrain_ClaimFailureEndsTheRun() {
+        batch.claimFailure = new IllegalStateException("connection refused");
+        
+        ClaimedBatches.drain(tx, batch, results);
+        
+        assertEquals(List.of("connection refused"), results.errors);
+        assertEquals(List.of(), results.added);
+        assertEquals(List.of(), batch.processed);
+        verify(transactionManager).rollback(any());
+    }
+    
+    private static final class RecordingBatch implements ClaimedBatches.Batch<Integer> {
+        final Deque<List<String>> claims = new ArrayDeque<>();
+        final List<List<String>> processed = new ArrayList<>();
+        final List<String> retried = new ArrayList<>();
+        final List<String> recordedFailures = new ArrayList<>();
+        String failing;
+        RuntimeException claimFailure;
+        
+        @Override
+        public List<String> claim() {
+            if (claimFailure != null) {
+                throw claimFailure;
+            }
+            return claims.isEmpty() ? List.of() : claims.poll();
+        }
+        
+        @Override
+        public Integer process(List<String> claimed) {
+            processed.add(claimed);
+            if (claimed.contains(failing)) {
+                throw new IllegalStateException("bad row");
+            }
+            return claimed.size();
+        }
+        
+        @Override
+        public Integer retry(String id) {
+            retried.add(id);
+            if (id.equals(failing)) {
+                throw new IllegalStateException("bad row");
+            }
+            return 1;
+        }
+        
+        @Override
+        public void recordFailure(String id, RuntimeException e) {
+            recordedFailures.add(id);
+        }
+    }
+    
+    private static final class RecordingResults implements ClaimedBatches.Results<Integer> {
+        final List<Integer> added = new ArrayList<>();
+        final List<String> failures = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+        
+        @Override
+        public void add(Integer result) {
+            added.add(result);
+        }
+        
+        @Override
+        public void addFailure(String error) {
+            failures.add(error);
+        }
+        
+        @Override
+        public void addError(String error) {
+            errors.add(error);
+        }
+    }
+}
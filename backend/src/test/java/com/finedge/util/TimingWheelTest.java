@@ -0,0 +1,53 @@
+package com.finedge.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+    
+    private static final long MINUTE = 60_000L;
+    
+    @Test
+    void testAdvance_FiresEachEntryAtItsTickAcrossLevels() {
+        TimingWheel<String> wheel = new TimingWheel<>(MINUTE, 0L, 60, 24, 8);
+        
+        assertTrue(wheel.add("soon", 5 * MINUTE, "soon"));
+        assertTrue(wheel.add("hours", 185 * MINUTE, "hours"));
+        assertTrue(wheel.add("days", (3 * 1440 + 17) * MINUTE, "days"));
+        
+        assertEquals(List.of(), wheel.advance(4 * MINUTE));
+        assertEquals(List.of("soon"), wheel.advance(5 * MINUTE));
+        assertEquals(List.of(), wheel.advance(184 * MINUTE));
+        assertEquals(List.of("hours"), wheel.advance(185 * MINUTE));
+        assertEquals(List.of(), wheel.advance((3 * 1440 + 16) * MINUTE));
+        assertEquals(List.of("days"), wheel.advance((3 * 1440 + 17) * MINUTE));
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    void testAdd_PastTimesFireOnNextAdvanceAndHorizonIsEnforced() {
+        TimingWheel<String> wheel = new TimingWheel<>(MINUTE, 1000 * MINUTE, 60, 24, 8);
+        
+        assertTrue(wheel.add("late", 10 * MINUTE, "late"));
+        assertFalse(wheel.add("far", wheel.horizonMillis() + MINUTE, "far"));
+        assertTrue(wheel.add("edge", wheel.horizonMillis(), "edge"));
+        
+        assertEquals(List.of("late"), wheel.advance(1000 * MINUTE));
+        assertEquals(List.of("edge"), wheel.advance(wheel.horizonMillis()));
+    }
+    
+    @Test
+    void testCancelAndReschedule() {
+        TimingWheel<String> wheel = new TimingWheel<>(MINUTE, 0L, 60, 24, 8);
+        wheel.add("a", 90 * MINUTE, "first");
+        wheel.add("b", 90 * MINUTE, "b");
+        wheel.cancel("b");
+        wheel.add("a", 30 * MINUTE, "second");
+        
+        assertEquals(List.of("second"), wheel.advance(100 * MINUTE));
+        assertFalse(wheel.contains("a"));
+    }
+}